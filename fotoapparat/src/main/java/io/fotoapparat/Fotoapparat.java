@@ -12,17 +12,29 @@ import io.fotoapparat.parameter.FocusArea;
 import io.fotoapparat.parameter.provider.CapabilitiesProvider;
 import io.fotoapparat.parameter.provider.InitialParametersProvider;
 import io.fotoapparat.parameter.provider.InitialParametersValidator;
+import io.fotoapparat.preview.ExposureMeter;
+import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.FrameProcessors;
+import io.fotoapparat.preview.FrameRing;
+import io.fotoapparat.preview.LatencyBudget;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.preview.ProcessorStatistics;
 import io.fotoapparat.result.CapabilitiesResult;
 import io.fotoapparat.result.FocusResult;
 import io.fotoapparat.result.PendingResult;
 import io.fotoapparat.result.PhotoResult;
 import io.fotoapparat.routine.CheckAvailabilityRoutine;
 import io.fotoapparat.routine.ConfigurePreviewStreamRoutine;
+import io.fotoapparat.routine.PreviewStatisticsRoutine;
 import io.fotoapparat.routine.StartCameraRoutine;
 import io.fotoapparat.routine.StopCameraRoutine;
 import io.fotoapparat.routine.UpdateOrientationRoutine;
 import io.fotoapparat.routine.focus.AutoFocusRoutine;
+import io.fotoapparat.routine.picture.CaptureQueue;
 import io.fotoapparat.routine.picture.TakePictureRoutine;
+import io.fotoapparat.routine.picture.ZeroShutterLagRoutine;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -32,6 +44,7 @@ import java.util.concurrent.Executors;
 public class Fotoapparat {
 
   private static final Executor SERIAL_EXECUTOR = Executors.newSingleThreadExecutor();
+  private static final Executor ENCODING_EXECUTOR = Executors.newSingleThreadExecutor();
 
   private final StartCameraRoutine startCameraRoutine;
   private final StopCameraRoutine stopCameraRoutine;
@@ -41,6 +54,7 @@ public class Fotoapparat {
   private final TakePictureRoutine takePictureRoutine;
   private final AutoFocusRoutine autoFocusRoutine;
   private final CheckAvailabilityRoutine checkAvailabilityRoutine;
+  private final PreviewStatisticsRoutine previewStatisticsRoutine;
   private final Executor executor;
 
   private boolean started = false;
@@ -50,7 +64,7 @@ public class Fotoapparat {
       ConfigurePreviewStreamRoutine configurePreviewStreamRoutine,
       CapabilitiesProvider capabilitiesProvider, TakePictureRoutine takePictureRoutine,
       AutoFocusRoutine autoFocusRoutine, CheckAvailabilityRoutine checkAvailabilityRoutine,
-      Executor executor) {
+      PreviewStatisticsRoutine previewStatisticsRoutine, Executor executor) {
     this.startCameraRoutine = startCameraRoutine;
     this.stopCameraRoutine = stopCameraRoutine;
     this.updateOrientationRoutine = updateOrientationRoutine;
@@ -59,6 +73,7 @@ public class Fotoapparat {
     this.takePictureRoutine = takePictureRoutine;
     this.autoFocusRoutine = autoFocusRoutine;
     this.checkAvailabilityRoutine = checkAvailabilityRoutine;
+    this.previewStatisticsRoutine = previewStatisticsRoutine;
     this.executor = executor;
   }
 
@@ -90,7 +105,11 @@ public class Fotoapparat {
             builder.lensPositionSelector, screenOrientationProvider, initialParametersProvider,
             cameraErrorCallback);
 
-    StopCameraRoutine stopCameraRoutine = new StopCameraRoutine(cameraDevice);
+    FrameRing frameRing = builder.zeroShutterLagFrameCount > 0
+        ? new FrameRing(builder.zeroShutterLagFrameCount)
+        : null;
+
+    StopCameraRoutine stopCameraRoutine = new StopCameraRoutine(cameraDevice, frameRing);
 
     OrientationSensor orientationSensor =
         new OrientationSensor(rotationListener, screenOrientationProvider);
@@ -99,21 +118,53 @@ public class Fotoapparat {
         new UpdateOrientationRoutine(cameraDevice, orientationSensor, SERIAL_EXECUTOR);
 
     ConfigurePreviewStreamRoutine configurePreviewStreamRoutine =
-        new ConfigurePreviewStreamRoutine(cameraDevice, builder.frameProcessor);
+        new ConfigurePreviewStreamRoutine(cameraDevice, builder.frameProcessor,
+            captureFrameProcessor(frameRing, builder.exposureMeter),
+            builder.previewBufferCount, builder.backpressurePolicy, builder.latencyBudget);
 
     CapabilitiesProvider capabilitiesProvider =
         new CapabilitiesProvider(cameraDevice, SERIAL_EXECUTOR);
 
-    TakePictureRoutine takePictureRoutine = new TakePictureRoutine(cameraDevice, SERIAL_EXECUTOR);
+    CaptureQueue cameraQueue = new CaptureQueue(SERIAL_EXECUTOR);
+
+    TakePictureRoutine takePictureRoutine = frameRing == null
+        ? new TakePictureRoutine(cameraDevice, cameraQueue, builder.captureTimeoutMillis,
+            builder.exposureMeter)
+        : new ZeroShutterLagRoutine(cameraDevice, cameraQueue, builder.captureTimeoutMillis,
+            builder.exposureMeter, frameRing, ENCODING_EXECUTOR);
 
-    AutoFocusRoutine autoFocusRoutine = new AutoFocusRoutine(cameraDevice, SERIAL_EXECUTOR);
+    AutoFocusRoutine autoFocusRoutine = new AutoFocusRoutine(cameraDevice, cameraQueue,
+        builder.captureTimeoutMillis);
 
     CheckAvailabilityRoutine checkAvailabilityRoutine =
         new CheckAvailabilityRoutine(cameraDevice, builder.lensPositionSelector);
 
+    PreviewStatisticsRoutine previewStatisticsRoutine = new PreviewStatisticsRoutine(cameraDevice);
+
     return new Fotoapparat(startCameraRoutine, stopCameraRoutine, updateOrientationRoutine,
         configurePreviewStreamRoutine, capabilitiesProvider, takePictureRoutine, autoFocusRoutine,
-        checkAvailabilityRoutine, SERIAL_EXECUTOR);
+        checkAvailabilityRoutine, previewStatisticsRoutine, cameraQueue);
+  }
+
+  /**
+   * @return processor feeding the frame ring and the exposure meter, each on its own worker
+   * thread, or {@code null} if there is neither.
+   */
+  private static FrameProcessor captureFrameProcessor(FrameRing frameRing,
+      ExposureMeter exposureMeter) {
+    List<FrameProcessor> processors = new ArrayList<>();
+
+    if (frameRing != null) {
+      processors.add(frameRing);
+    }
+
+    if (exposureMeter != null) {
+      processors.add(FrameProcessors.lumaOnly(exposureMeter));
+    }
+
+    return processors.isEmpty()
+        ? null
+        : FrameProcessors.parallel(processors.toArray(new FrameProcessor[processors.size()]));
   }
 
   /**
@@ -136,7 +187,32 @@ public class Fotoapparat {
   }
 
   /**
-   * Takes picture. Returns immediately.
+   * Provides counters of the preview stream: frames received from the camera, processed by frame
+   * processors and dropped. Returns immediately.
+   *
+   * @return statistics collected since the preview stream was started.
+   */
+  public PreviewStreamStatistics getPreviewStreamStatistics() {
+    ensureStarted();
+
+    return previewStatisticsRoutine.getStatistics();
+  }
+
+  /**
+   * Provides timing of every frame processor of the preview stream: percentiles of the time spent
+   * on a frame and overruns of {@link LatencyBudget}. Returns immediately.
+   *
+   * @return statistics of every processor collected since it was registered.
+   */
+  public List<ProcessorStatistics> getFrameProcessorStatistics() {
+    ensureStarted();
+
+    return previewStatisticsRoutine.getProcessorStatistics();
+  }
+
+  /**
+   * Takes picture. Returns immediately. If {@link FotoapparatBuilder#zeroShutterLag(int)} is set,
+   * encodes a recent preview frame instead.
    *
    * @return {@link PhotoResult} which will deliver result asynchronously.
    */
@@ -146,6 +222,52 @@ public class Fotoapparat {
     return takePictureRoutine.takePicture(true);
   }
 
+  /**
+   * Takes the sharpest picture from the preview frames of the last {@code windowMillis}
+   * milliseconds, e.g. to avoid the blur of a moving hand. Focuses and takes a regular picture if
+   * there is no frame that recent. Returns immediately.
+   *
+   * @return {@link PhotoResult} which will deliver result asynchronously.
+   * @throws IllegalStateException if {@link FotoapparatBuilder#zeroShutterLag(int)} was not
+   * enabled.
+   */
+  public PhotoResult takeSharpestPicture(long windowMillis) {
+    ensureStarted();
+
+    return takePictureRoutine.takeSharpestPicture(windowMillis);
+  }
+
+  /**
+   * Takes given number of pictures in a row, as fast as the camera can. Focuses once before the
+   * first picture instead of before each one. Returns immediately. The burst occupies the camera
+   * until it is done, other pictures and focusing wait for it.
+   *
+   * @return {@link PhotoResult} for each picture, in order. Each one delivers its photo as soon as
+   * it is captured. Cancelling any of them cancels the remaining pictures of the burst.
+   * @throws IllegalArgumentException if count is less than 1.
+   */
+  public List<PhotoResult> takeBurst(int count) {
+    ensureStarted();
+
+    return takePictureRoutine.takeBurst(count);
+  }
+
+  /**
+   * Takes given number of pictures in a row, starting one every {@code intervalMillis}
+   * milliseconds or as soon as the previous one is captured, whichever is later. Focuses once
+   * before the first picture. Returns immediately. The burst occupies the camera until it is
+   * done, other pictures and focusing wait for it.
+   *
+   * @return {@link PhotoResult} for each picture, in order. Each one delivers its photo as soon as
+   * it is captured. Cancelling any of them cancels the remaining pictures of the burst.
+   * @throws IllegalArgumentException if count is less than 1 or interval is negative.
+   */
+  public List<PhotoResult> takeBurst(int count, long intervalMillis) {
+    ensureStarted();
+
+    return takePictureRoutine.takeBurst(count, intervalMillis);
+  }
+
   public PhotoResult takePictureInstant() {
     ensureStarted();
 
@@ -198,7 +320,8 @@ public class Fotoapparat {
   }
 
   /**
-   * Stops camera.
+   * Stops camera. Pictures which are not taken yet are cancelled, and the camera is closed once
+   * the capture in progress is aborted.
    *
    * @throws IllegalStateException if camera is not started.
    */
@@ -207,6 +330,7 @@ public class Fotoapparat {
     started = false;
 
     updateOrientationRoutine.stop();
+    takePictureRoutine.cancelCaptures();
     stopCamera();
   }
 
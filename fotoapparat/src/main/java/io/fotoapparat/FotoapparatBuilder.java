@@ -14,7 +14,11 @@ import io.fotoapparat.parameter.ScaleType;
 import io.fotoapparat.parameter.Size;
 import io.fotoapparat.parameter.selector.FlashSelectors;
 import io.fotoapparat.parameter.selector.SelectorFunction;
+import io.fotoapparat.preview.BackpressurePolicy;
+import io.fotoapparat.preview.ExposureMeter;
 import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.LatencyBudget;
+import io.fotoapparat.preview.PreviewStream;
 import io.fotoapparat.util.Dimensions;
 import io.fotoapparat.view.CameraRenderer;
 import io.fotoapparat.view.CameraView;
@@ -48,6 +52,12 @@ public class FotoapparatBuilder {
   ScaleType scaleType = ScaleType.CENTER_CROP;
 
   FrameProcessor frameProcessor = null;
+  int previewBufferCount = PreviewStream.DEFAULT_BUFFER_COUNT;
+  BackpressurePolicy backpressurePolicy = BackpressurePolicy.latestOnly();
+  LatencyBudget latencyBudget = LatencyBudget.none();
+  int zeroShutterLagFrameCount = 0;
+  ExposureMeter exposureMeter = null;
+  long captureTimeoutMillis = 10000;
 
   Logger logger = Loggers.none();
 
@@ -123,6 +133,89 @@ public class FotoapparatBuilder {
     return this;
   }
 
+  /**
+   * @param bufferCount number of preview buffers cycled between the camera and the frame
+   * processor. Camera drops frames while the processor holds all of them.
+   * {@link PreviewStream#DEFAULT_BUFFER_COUNT} by default.
+   * @throws IllegalArgumentException if count is less than 1.
+   */
+  public FotoapparatBuilder previewBufferCount(int bufferCount) {
+    if (bufferCount < 1) {
+      throw new IllegalArgumentException(
+          "At least one preview buffer is required, got: " + bufferCount);
+    }
+
+    this.previewBufferCount = bufferCount;
+    return this;
+  }
+
+  /**
+   * @param backpressurePolicy decides what happens to new preview frames while frame processor is
+   * busy. {@link BackpressurePolicy#latestOnly()} by default.
+   */
+  public FotoapparatBuilder backpressurePolicy(@NonNull BackpressurePolicy backpressurePolicy) {
+    this.backpressurePolicy = backpressurePolicy;
+    return this;
+  }
+
+  /**
+   * @param latencyBudget time the frame processor is expected to spend on a frame, and what
+   * happens when it repeatedly takes longer. {@link LatencyBudget#none()} by default.
+   * @see Fotoapparat#getFrameProcessorStatistics()
+   */
+  public FotoapparatBuilder latencyBudget(@NonNull LatencyBudget latencyBudget) {
+    this.latencyBudget = latencyBudget;
+    return this;
+  }
+
+  /**
+   * Registers given meter on the preview stream. Pictures and bursts then measure exposure after
+   * focusing whenever the latest preview frame is poorly exposed, even if focus does not ask for
+   * it. No meter is set by default.
+   *
+   * @param exposureMeter keeps statistics of the latest preview frame. The same instance can be
+   * read by the app, e.g. to decide whether to turn the flash on.
+   * @see ExposureMeter#isPoorlyExposed()
+   */
+  public FotoapparatBuilder exposureMeter(@NonNull ExposureMeter exposureMeter) {
+    this.exposureMeter = exposureMeter;
+    return this;
+  }
+
+  /**
+   * Makes {@link Fotoapparat#takePicture()} encode a recent preview frame instead of running
+   * focus, precapture and still capture. Photos then have preview resolution, but are taken
+   * without a shutter lag. Last {@code frameCount} preview frames are kept in memory.
+   *
+   * @param frameCount number of recent preview frames to choose from.
+   * @throws IllegalArgumentException if count is less than 1.
+   */
+  public FotoapparatBuilder zeroShutterLag(int frameCount) {
+    if (frameCount < 1) {
+      throw new IllegalArgumentException(
+          "At least one preview frame must be kept, got: " + frameCount);
+    }
+
+    this.zeroShutterLagFrameCount = frameCount;
+    return this;
+  }
+
+  /**
+   * @param timeoutMillis time a picture may take, from focusing to the captured photo, before its
+   * result fails and the capture is aborted. Applies to each picture of a burst separately, on top
+   * of the burst interval, and to auto focus requested through {@link Fotoapparat#autoFocus()}.
+   * Guards against cameras which never report back. 10 seconds by default, 0 for no limit.
+   * @throws IllegalArgumentException if timeout is negative.
+   */
+  public FotoapparatBuilder captureTimeout(long timeoutMillis) {
+    if (timeoutMillis < 0) {
+      throw new IllegalArgumentException("Timeout must not be negative, got: " + timeoutMillis);
+    }
+
+    this.captureTimeoutMillis = timeoutMillis;
+    return this;
+  }
+
   /**
    * @param logger logger which will print logs. No logger is set by default.
    * @see Loggers
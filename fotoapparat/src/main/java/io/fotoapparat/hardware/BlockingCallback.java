@@ -0,0 +1,47 @@
+package io.fotoapparat.hardware;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * {@link CameraCallback} which lets a thread wait for the result of an asynchronous operation.
+ *
+ * @param <T> the type of the result.
+ */
+public class BlockingCallback<T> implements CameraCallback<T> {
+
+  private final CountDownLatch latch = new CountDownLatch(1);
+  private volatile T result;
+  private volatile CameraException failure;
+
+  @Override public void onResult(T result) {
+    this.result = result;
+    latch.countDown();
+  }
+
+  @Override public void onFailure(CameraException e) {
+    this.failure = e;
+    latch.countDown();
+  }
+
+  /**
+   * Blocks until the operation completes.
+   *
+   * @return the result of the operation.
+   * @throws CameraException if the operation failed or the thread was interrupted.
+   */
+  public T await() {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+      throw new CameraException("Interrupted while waiting for the camera", e);
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+
+    return result;
+  }
+}
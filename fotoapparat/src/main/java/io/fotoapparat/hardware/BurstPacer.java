@@ -0,0 +1,42 @@
+package io.fotoapparat.hardware;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces the captures of a burst by a fixed interval.
+ */
+public class BurstPacer {
+
+  private final long intervalNanos;
+  private long nextCaptureNanos;
+  private boolean started = false;
+
+  /**
+   * @param intervalMillis minimum time between the starts of two consecutive captures. 0 lets
+   * captures start back to back.
+   */
+  public BurstPacer(long intervalMillis) {
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+  }
+
+  /**
+   * Schedules the next capture. The first capture starts immediately.
+   *
+   * @return time to wait before the next capture may start, in milliseconds.
+   */
+  public long scheduleNextCapture() {
+    long now = System.nanoTime();
+
+    if (!started) {
+      started = true;
+      nextCaptureNanos = now + intervalNanos;
+      return 0;
+    }
+
+    long delayNanos = Math.max(nextCaptureNanos - now, 0);
+
+    nextCaptureNanos = Math.max(nextCaptureNanos, now) + intervalNanos;
+
+    return TimeUnit.NANOSECONDS.toMillis(delayNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+  }
+}
@@ -0,0 +1,20 @@
+package io.fotoapparat.hardware;
+
+/**
+ * Receives the result of a camera operation which completes asynchronously. Exactly one of the
+ * methods is called, once, usually on a camera thread.
+ *
+ * @param <T> the type of the result.
+ */
+public interface CameraCallback<T> {
+
+  /**
+   * Called when the operation completed.
+   */
+  void onResult(T result);
+
+  /**
+   * Called when the operation failed.
+   */
+  void onFailure(CameraException e);
+}
@@ -51,10 +51,22 @@ public interface CameraDevice
 
   @Override FocusResult autoFocus(@NonNull FocusArea area);
 
+  @Override void autoFocus(CameraCallback<FocusResult> callback);
+
+  @Override void autoFocus(@NonNull FocusArea area, CameraCallback<FocusResult> callback);
+
   @Override void measureExposure();
 
+  @Override void measureExposure(CameraCallback<Void> callback);
+
   @Override Photo takePicture();
 
+  @Override void takePicture(CameraCallback<Photo> callback);
+
+  @Override void takeBurst(int count, long intervalMillis, BurstListener listener);
+
+  @Override void abortCapture();
+
   @Override PreviewStream getPreviewStream();
 
   @Override RendererParameters getRendererParameters();
@@ -0,0 +1,97 @@
+package io.fotoapparat.hardware;
+
+/**
+ * Captures the pictures of a burst one at a time, each once the previous capture was processed
+ * and the interval since the start of the previous one passed. Waits are scheduled rather than
+ * blocking a thread.
+ */
+public abstract class PacedBurst {
+
+  private final int count;
+  private final BurstPacer burstPacer;
+  private int requested = 0;
+  private int captured = 0;
+
+  /**
+   * @param count number of pictures to capture.
+   * @param intervalMillis minimum time between the starts of two consecutive captures.
+   */
+  protected PacedBurst(int count, long intervalMillis) {
+    this.count = count;
+    this.burstPacer = new BurstPacer(intervalMillis);
+  }
+
+  /**
+   * Starts the first capture and returns immediately.
+   */
+  public void start() {
+    scheduleNextCapture();
+  }
+
+  private void scheduleNextCapture() {
+    if (requested == count) {
+      onCompleted(captured);
+      return;
+    }
+
+    schedule(new Runnable() {
+      @Override public void run() {
+        captureNext();
+      }
+    }, burstPacer.scheduleNextCapture());
+  }
+
+  private void captureNext() {
+    if (isAborted()) {
+      onFailed(new CameraException("Burst was aborted"));
+      return;
+    }
+
+    requested++;
+
+    try {
+      capture(new CameraCallback<Integer>() {
+        @Override public void onResult(Integer result) {
+          captured += result;
+          scheduleNextCapture();
+        }
+
+        @Override public void onFailure(CameraException e) {
+          onFailed(e);
+        }
+      });
+    } catch (CameraException e) {
+      onFailed(e);
+    }
+  }
+
+  /**
+   * Runs given action after given delay, on a thread on which the camera may be used.
+   */
+  protected abstract void schedule(Runnable action, long delayMillis);
+
+  /**
+   * Starts a single capture and returns immediately.
+   *
+   * @param callback Receives the number of pictures captured, 1 or 0 if the camera could not
+   * capture it, once the camera processed the capture.
+   */
+  protected abstract void capture(CameraCallback<Integer> callback);
+
+  /**
+   * @return {@code true} if the burst was aborted and must not capture any more pictures.
+   */
+  protected abstract boolean isAborted();
+
+  /**
+   * Called once every capture was processed.
+   *
+   * @param captured number of pictures which were captured.
+   */
+  protected abstract void onCompleted(int captured);
+
+  /**
+   * Called once if the burst stopped before every capture was processed.
+   */
+  protected abstract void onFailed(CameraException e);
+}
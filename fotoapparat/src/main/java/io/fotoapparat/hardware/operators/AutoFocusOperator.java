@@ -1,6 +1,7 @@
 package io.fotoapparat.hardware.operators;
 
 import android.support.annotation.NonNull;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.lens.FocusResult;
 import io.fotoapparat.parameter.FocusArea;
 
@@ -15,8 +16,20 @@ public interface AutoFocusOperator {
    */
   FocusResult autoFocus();
 
+  /**
+   * Starts auto focus and returns immediately. The callback receives the result once auto focus
+   * completes.
+   */
+  void autoFocus(CameraCallback<FocusResult> callback);
+
   /**
    * Performs auto focus in given coordinates, works only w/ Camera1
    */
   FocusResult autoFocus(@NonNull FocusArea area);
+
+  /**
+   * Starts auto focus in given coordinates and returns immediately, works only w/ Camera1. The
+   * callback receives the result once auto focus completes.
+   */
+  void autoFocus(@NonNull FocusArea area, CameraCallback<FocusResult> callback);
 }
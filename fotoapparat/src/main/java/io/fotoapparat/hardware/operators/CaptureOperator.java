@@ -1,5 +1,7 @@
 package io.fotoapparat.hardware.operators;
 
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.photo.Photo;
 
 /**
@@ -14,4 +16,53 @@ public interface CaptureOperator {
    * @return The captured photo.
    */
   Photo takePicture();
+
+  /**
+   * Starts a still picture capture and returns immediately. The callback receives the photo once
+   * it is captured.
+   */
+  void takePicture(CameraCallback<Photo> callback);
+
+  /**
+   * Starts capturing several still pictures back to back, without focusing or measuring exposure
+   * in between, and returns immediately. Waits between the captures are scheduled rather than
+   * blocking the calling thread.
+   *
+   * @param count The number of pictures to capture.
+   * @param intervalMillis The minimum time between the starts of two consecutive captures, 0 to
+   * capture as fast as the camera can.
+   * @param listener Receives each photo, in order, as soon as it is captured, then the end of the
+   * burst.
+   */
+  void takeBurst(int count, long intervalMillis, BurstListener listener);
+
+  /**
+   * Aborts focusing and captures in progress, as far as the camera allows. Callbacks of aborted
+   * operations might never be called. A burst in progress fails without capturing the remaining
+   * pictures. Preview might stop and needs to be started again. May be called from any thread.
+   */
+  void abortCapture();
+
+  /**
+   * Receives photos of a burst.
+   */
+  interface BurstListener {
+
+    /**
+     * Called once for each captured photo, on a camera thread.
+     */
+    void onPhotoCaptured(Photo photo);
+
+    /**
+     * Called once after the last photo of the burst. Burst in which some captures failed
+     * completes with fewer photos than requested.
+     */
+    void onBurstCompleted();
+
+    /**
+     * Called once if the burst stopped before the camera processed every capture, e.g. because
+     * it was aborted.
+     */
+    void onBurstFailed(CameraException e);
+  }
 }
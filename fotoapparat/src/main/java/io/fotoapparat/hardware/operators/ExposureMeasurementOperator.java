@@ -1,5 +1,7 @@
 package io.fotoapparat.hardware.operators;
 
+import io.fotoapparat.hardware.CameraCallback;
+
 /**
  * Measures the exposure.
  */
@@ -9,4 +11,10 @@ public interface ExposureMeasurementOperator {
    * Measures the exposure. This is a blocking operation which returns when measurement completes.
    */
   void measureExposure();
+
+  /**
+   * Starts measuring the exposure and returns immediately. The callback is notified once
+   * measurement completes.
+   */
+  void measureExposure(CameraCallback<Void> callback);
 }
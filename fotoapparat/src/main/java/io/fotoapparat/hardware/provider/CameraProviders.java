@@ -1,6 +1,8 @@
 package io.fotoapparat.hardware.provider;
 
 import android.content.Context;
+import io.fotoapparat.hardware.replay.FrameSource;
+import io.fotoapparat.hardware.replay.FrameSources;
 
 /**
  * Static factory for {@link CameraProvider}
@@ -31,4 +33,13 @@ public class CameraProviders {
   public static CameraProvider v2(Context context) {
     return new V2Provider(context);
   }
+
+  /**
+   * @return provider of a camera which replays frames of given source instead of using camera
+   * hardware. Does not need a device, so it can be used in tests and benchmarks.
+   * @see FrameSources
+   */
+  public static ReplayProvider replay(FrameSource frameSource) {
+    return new ReplayProvider(frameSource);
+  }
 }
@@ -0,0 +1,61 @@
+package io.fotoapparat.hardware.provider;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.hardware.replay.FrameSource;
+import io.fotoapparat.hardware.replay.ReplayCamera;
+import io.fotoapparat.log.Logger;
+
+/**
+ * Provides {@link ReplayCamera}. Replays 30 frames per second without any latencies by default.
+ */
+public class ReplayProvider implements CameraProvider {
+
+  private final FrameSource frameSource;
+
+  private float framesPerSecond = 30f;
+  private long openLatencyMillis = 0;
+  private long focusLatencyMillis = 0;
+  private long captureLatencyMillis = 0;
+
+  ReplayProvider(FrameSource frameSource) {
+    this.frameSource = frameSource;
+  }
+
+  /**
+   * @param framesPerSecond frame rate of the preview.
+   */
+  public ReplayProvider framesPerSecond(float framesPerSecond) {
+    this.framesPerSecond = framesPerSecond;
+    return this;
+  }
+
+  /**
+   * @param millis time it takes to open the camera.
+   */
+  public ReplayProvider openLatency(long millis) {
+    this.openLatencyMillis = millis;
+    return this;
+  }
+
+  /**
+   * @param millis time it takes to focus.
+   */
+  public ReplayProvider focusLatency(long millis) {
+    this.focusLatencyMillis = millis;
+    return this;
+  }
+
+  /**
+   * @param millis time it takes to take a picture.
+   */
+  public ReplayProvider captureLatency(long millis) {
+    this.captureLatencyMillis = millis;
+    return this;
+  }
+
+  @Override public CameraDevice get(@NonNull Logger logger) {
+    return new ReplayCamera(frameSource, framesPerSecond, openLatencyMillis, focusLatencyMillis,
+        captureLatencyMillis, logger);
+  }
+}
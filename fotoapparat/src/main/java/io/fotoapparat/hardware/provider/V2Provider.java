@@ -25,6 +25,8 @@ import io.fotoapparat.hardware.v2.session.SessionProvider;
 import io.fotoapparat.hardware.v2.stream.PreviewStream2;
 import io.fotoapparat.hardware.v2.surface.TextureManager;
 import io.fotoapparat.log.Logger;
+import io.fotoapparat.preview.BufferPool;
+import io.fotoapparat.preview.PreviewStream;
 
 /**
  * Always provides {@link Camera2}.
@@ -56,8 +58,9 @@ public class V2Provider implements CameraProvider {
 
     StillSurfaceReader stillSurfaceReader =
         new StillSurfaceReader(parametersProvider, CAMERA_THREAD);
+    BufferPool previewBufferPool = new BufferPool(PreviewStream.DEFAULT_BUFFER_COUNT);
     ContinuousSurfaceReader continuousSurfaceReader =
-        new ContinuousSurfaceReader(parametersProvider, CAMERA_THREAD);
+        new ContinuousSurfaceReader(parametersProvider, CAMERA_THREAD, previewBufferPool);
     TextureManager textureManager = new TextureManager(orientationManager, parametersProvider);
 
     CaptureRequestFactory captureRequestFactory =
@@ -73,7 +76,8 @@ public class V2Provider implements CameraProvider {
     CapabilitiesFactory capabilitiesOperator = new CapabilitiesFactory(cameraConnection);
 
     PreviewStream2 previewStream =
-        new PreviewStream2(continuousSurfaceReader, parametersProvider, logger);
+        new PreviewStream2(continuousSurfaceReader, parametersProvider, orientationManager,
+            previewBufferPool);
 
     RendererParametersProvider rendererParametersOperator =
         new RendererParametersProvider(parametersProvider, orientationManager);
@@ -85,7 +89,8 @@ public class V2Provider implements CameraProvider {
     ExposureGatheringExecutor exposureGatheringExecutor =
         new ExposureGatheringExecutor(lensOperationsFactory);
     CaptureOperatorImpl captureExecutor =
-        new CaptureOperatorImpl(lensOperationsFactory, stillSurfaceReader, orientationManager);
+        new CaptureOperatorImpl(lensOperationsFactory, stillSurfaceReader, orientationManager,
+            CAMERA_THREAD);
 
     return new Camera2(logger, cameraConnection, sessionManager, textureManager, orientationManager,
         parametersProvider, capabilitiesOperator, previewStream, rendererParametersOperator,
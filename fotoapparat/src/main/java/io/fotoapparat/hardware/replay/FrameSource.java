@@ -0,0 +1,29 @@
+package io.fotoapparat.hardware.replay;
+
+import io.fotoapparat.parameter.Size;
+
+/**
+ * Source of preview frames replayed by {@link ReplayCamera}.
+ */
+public interface FrameSource {
+
+  /**
+   * @return size of every frame of the source.
+   */
+  Size getFrameSize();
+
+  /**
+   * @return clockwise rotation of the frames in degrees relatively to user.
+   */
+  int getFrameRotation();
+
+  /**
+   * Writes NV21 image of the frame shown at given moment of the replay into the buffer. Might be
+   * called concurrently.
+   *
+   * @param frameIndex number of the frame since the replay started. Grows by one for each frame
+   * period, including frames which camera dropped.
+   * @param image buffer large enough for NV21 image of {@link #getFrameSize()}.
+   */
+  void readFrame(long frameIndex, byte[] image);
+}
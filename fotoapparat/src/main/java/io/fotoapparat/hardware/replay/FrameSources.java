@@ -0,0 +1,57 @@
+package io.fotoapparat.hardware.replay;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.record.FrameRecorder;
+import io.fotoapparat.preview.record.FrameRecording;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Built-in implementations of {@link FrameSource}.
+ */
+public class FrameSources {
+
+  private FrameSources() {
+  }
+
+  /**
+   * @return source which replays frames recorded by {@link FrameRecorder} in a loop.
+   * @throws IOException if recording can not be read.
+   * @throws IllegalArgumentException if recording is empty.
+   */
+  public static FrameSource recording(@NonNull File file) throws IOException {
+    return frames(FrameRecording.read(file));
+  }
+
+  /**
+   * @return source which replays given frames in a loop. Size and rotation of the source are
+   * taken from the first frame, frames of other sizes are cropped or padded.
+   * @throws IllegalArgumentException if there are no frames.
+   */
+  public static FrameSource frames(@NonNull List<Frame> frames) {
+    if (frames.isEmpty()) {
+      throw new IllegalArgumentException("At least one frame is required");
+    }
+
+    return new LoopFrameSource(new ArrayList<>(frames));
+  }
+
+  /**
+   * @return source which generates diagonal luma gradient moving by one pixel per frame, with
+   * neutral chroma.
+   */
+  public static FrameSource synthetic(@NonNull Size frameSize) {
+    return new SyntheticFrameSource(frameSize);
+  }
+
+  /**
+   * @return length of NV21 image of given size.
+   */
+  static int nv21Length(Size size) {
+    return size.width * size.height + 2 * ((size.width + 1) / 2) * ((size.height + 1) / 2);
+  }
+}
@@ -0,0 +1,47 @@
+package io.fotoapparat.hardware.replay;
+
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.Frame;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replays a list of frames in a loop.
+ */
+class LoopFrameSource implements FrameSource {
+
+  private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+  private final List<Frame> frames;
+  private final Size frameSize;
+  private final int frameRotation;
+
+  LoopFrameSource(List<Frame> frames) {
+    this.frames = frames;
+    this.frameSize = frames.get(0).size;
+    this.frameRotation = frames.get(0).rotation;
+  }
+
+  @Override public Size getFrameSize() {
+    return frameSize;
+  }
+
+  @Override public int getFrameRotation() {
+    return frameRotation;
+  }
+
+  @Override public void readFrame(long frameIndex, byte[] image) {
+    byte[] source = frames.get((int) (frameIndex % frames.size())).image;
+    int length = Math.min(source.length, FrameSources.nv21Length(frameSize));
+    int lumaLength = frameSize.width * frameSize.height;
+
+    System.arraycopy(source, 0, image, 0, length);
+
+    if (length < lumaLength) {
+      Arrays.fill(image, length, lumaLength, (byte) 0);
+    }
+
+    Arrays.fill(image, Math.max(length, lumaLength), FrameSources.nv21Length(frameSize),
+        NEUTRAL_CHROMA);
+  }
+}
@@ -0,0 +1,314 @@
+package io.fotoapparat.hardware.replay;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.hardware.CameraException;
+import io.fotoapparat.hardware.Capabilities;
+import io.fotoapparat.hardware.PacedBurst;
+import io.fotoapparat.lens.FocusResult;
+import io.fotoapparat.log.Logger;
+import io.fotoapparat.parameter.Flash;
+import io.fotoapparat.parameter.FocusArea;
+import io.fotoapparat.parameter.FocusMode;
+import io.fotoapparat.parameter.LensPosition;
+import io.fotoapparat.parameter.Parameters;
+import io.fotoapparat.parameter.RendererParameters;
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.PreviewStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Camera which replays frames of a {@link FrameSource} at a fixed frame rate instead of using
+ * camera hardware. Opening the camera, focusing and taking pictures take configured time, so the
+ * whole flow can be exercised and measured without a device.
+ * <p>
+ * Pictures hold the NV21 image of the current frame rather than an encoded one.
+ */
+public class ReplayCamera implements CameraDevice {
+
+  private final FrameSource frameSource;
+  private final long framePeriodNanos;
+  private final long openLatencyMillis;
+  private final long focusLatencyMillis;
+  private final long captureLatencyMillis;
+  private final Logger logger;
+  private final AtomicInteger abortedCaptures = new AtomicInteger();
+
+  private volatile ReplayPreviewStream previewStream;
+  private ScheduledExecutorService frameScheduler;
+  private ScheduledExecutorService operationScheduler;
+  private long previewStartNanos;
+
+  /**
+   * @param frameSource frames to replay.
+   * @param framesPerSecond frame rate of the preview.
+   * @param openLatencyMillis time it takes to open the camera.
+   * @param focusLatencyMillis time it takes to focus.
+   * @param captureLatencyMillis time it takes to take a picture.
+   * @param logger logger of camera operations.
+   * @throws IllegalArgumentException if frame rate is not positive.
+   */
+  public ReplayCamera(FrameSource frameSource, float framesPerSecond, long openLatencyMillis,
+      long focusLatencyMillis, long captureLatencyMillis, Logger logger) {
+    if (!(framesPerSecond > 0)) {
+      throw new IllegalArgumentException("Frame rate must be positive, got: " + framesPerSecond);
+    }
+
+    this.frameSource = frameSource;
+    this.framePeriodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond);
+    this.openLatencyMillis = openLatencyMillis;
+    this.focusLatencyMillis = focusLatencyMillis;
+    this.captureLatencyMillis = captureLatencyMillis;
+    this.logger = logger;
+  }
+
+  @Override public void open(LensPosition lensPosition) {
+    logger.log("open");
+
+    simulateLatency(openLatencyMillis);
+
+    previewStream = new ReplayPreviewStream(frameSource);
+  }
+
+  @Override public void close() {
+    logger.log("close");
+
+    stopPreview();
+    previewStream = null;
+
+    synchronized (this) {
+      if (operationScheduler != null) {
+        operationScheduler.shutdownNow();
+        operationScheduler = null;
+      }
+    }
+  }
+
+  @Override public synchronized void startPreview() {
+    logger.log("startPreview");
+
+    ensureOpened();
+
+    if (frameScheduler != null) {
+      return;
+    }
+
+    final ReplayPreviewStream previewStream = this.previewStream;
+
+    previewStartNanos = System.nanoTime();
+    frameScheduler = Executors.newSingleThreadScheduledExecutor();
+    frameScheduler.scheduleAtFixedRate(new Runnable() {
+      private long frameIndex = 0;
+
+      @Override public void run() {
+        previewStream.onFrameCaptured(frameIndex++, System.nanoTime());
+      }
+    }, 0, framePeriodNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override public synchronized void stopPreview() {
+    logger.log("stopPreview");
+
+    if (frameScheduler != null) {
+      frameScheduler.shutdownNow();
+      frameScheduler = null;
+    }
+  }
+
+  @Override public void setDisplaySurface(Object displaySurface) {
+    logger.log("setDisplaySurface");
+  }
+
+  @Override public void setDisplayOrientation(int degrees) {
+    logger.log("setDisplayOrientation");
+  }
+
+  @Override public void updateParameters(Parameters parameters) {
+    logger.log("updateParameters");
+  }
+
+  @Override public Capabilities getCapabilities() {
+    logger.log("getCapabilities");
+
+    Size frameSize = frameSource.getFrameSize();
+
+    return new Capabilities(
+        Collections.singleton(frameSize),
+        Collections.singleton(frameSize),
+        new HashSet<>(asList(FocusMode.FIXED, FocusMode.AUTO)),
+        Collections.singleton(Flash.OFF)
+    );
+  }
+
+  @Override public FocusResult autoFocus() {
+    logger.log("autoFocus");
+
+    simulateLatency(focusLatencyMillis);
+
+    return FocusResult.successNoMeasurement();
+  }
+
+  @Override public FocusResult autoFocus(@NonNull FocusArea area) {
+    return autoFocus();
+  }
+
+  @Override public void autoFocus(@NonNull FocusArea area, CameraCallback<FocusResult> callback) {
+    autoFocus(callback);
+  }
+
+  @Override public void autoFocus(final CameraCallback<FocusResult> callback) {
+    logger.log("autoFocus");
+
+    operationScheduler().schedule(new Runnable() {
+      @Override public void run() {
+        callback.onResult(FocusResult.successNoMeasurement());
+      }
+    }, focusLatencyMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override public void measureExposure() {
+    logger.log("measureExposure");
+  }
+
+  @Override public void measureExposure(CameraCallback<Void> callback) {
+    logger.log("measureExposure");
+
+    callback.onResult(null);
+  }
+
+  @Override public Photo takePicture() {
+    logger.log("takePicture");
+
+    simulateLatency(captureLatencyMillis);
+
+    return capturePhoto();
+  }
+
+  @Override public void takePicture(final CameraCallback<Photo> callback) {
+    logger.log("takePicture");
+
+    operationScheduler().schedule(new Runnable() {
+      @Override public void run() {
+        callback.onResult(capturePhoto());
+      }
+    }, captureLatencyMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private Photo capturePhoto() {
+    byte[] image = new byte[FrameSources.nv21Length(frameSource.getFrameSize())];
+    frameSource.readFrame(currentFrameIndex(), image);
+
+    return new Photo(image, frameSource.getFrameRotation());
+  }
+
+  @Override public void takeBurst(int count, long intervalMillis, final BurstListener listener) {
+    logger.log("takeBurst");
+
+    final int abortsBefore = abortedCaptures.get();
+
+    new PacedBurst(count, intervalMillis) {
+
+      @Override protected void schedule(Runnable action, long delayMillis) {
+        operationScheduler().schedule(action, delayMillis, TimeUnit.MILLISECONDS);
+      }
+
+      @Override protected void capture(final CameraCallback<Integer> callback) {
+        takePicture(new CameraCallback<Photo>() {
+          @Override public void onResult(Photo photo) {
+            listener.onPhotoCaptured(photo);
+            callback.onResult(1);
+          }
+
+          @Override public void onFailure(CameraException e) {
+            callback.onFailure(e);
+          }
+        });
+      }
+
+      @Override protected boolean isAborted() {
+        return abortedCaptures.get() != abortsBefore;
+      }
+
+      @Override protected void onCompleted(int captured) {
+        listener.onBurstCompleted();
+      }
+
+      @Override protected void onFailed(CameraException e) {
+        listener.onBurstFailed(e);
+      }
+    }.start();
+  }
+
+  @Override public void abortCapture() {
+    logger.log("abortCapture");
+
+    abortedCaptures.incrementAndGet();
+  }
+
+  @Override public PreviewStream getPreviewStream() {
+    logger.log("getPreviewStream");
+
+    ReplayPreviewStream previewStream = this.previewStream;
+
+    return previewStream != null ? previewStream : PreviewStream.NULL;
+  }
+
+  @Override public RendererParameters getRendererParameters() {
+    logger.log("getRendererParameters");
+
+    return new RendererParameters(frameSource.getFrameSize(), frameSource.getFrameRotation());
+  }
+
+  @Override public List<LensPosition> getAvailableLensPositions() {
+    logger.log("getAvailableLensPositions");
+
+    return asList(LensPosition.BACK, LensPosition.FRONT);
+  }
+
+  /**
+   * @return thread on which asynchronous operations complete, like callbacks of a real camera.
+   */
+  private synchronized ScheduledExecutorService operationScheduler() {
+    if (operationScheduler == null) {
+      operationScheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    return operationScheduler;
+  }
+
+  private synchronized long currentFrameIndex() {
+    if (frameScheduler == null) {
+      return 0;
+    }
+
+    return (System.nanoTime() - previewStartNanos) / framePeriodNanos;
+  }
+
+  private void ensureOpened() {
+    if (previewStream == null) {
+      throw new CameraException("Camera is not opened");
+    }
+  }
+
+  private static void simulateLatency(long millis) {
+    if (millis <= 0) {
+      return;
+    }
+
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package io.fotoapparat.hardware.replay;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.preview.BackpressurePolicy;
+import io.fotoapparat.preview.BufferRecycler;
+import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.FrameDispatcher;
+import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.LatencyBudget;
+import io.fotoapparat.preview.PreviewStream;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.preview.ProcessorStatistics;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link PreviewStream} of {@link ReplayCamera}. Like Camera1, cycles a fixed number of buffers
+ * between the camera and frame processors and drops frames while every buffer is in use.
+ */
+public class ReplayPreviewStream implements PreviewStream {
+
+  private static Executor FRAME_PROCESSORS_EXECUTOR = Executors.newSingleThreadExecutor();
+  private static Executor PARALLEL_FRAME_PROCESSORS_EXECUTOR = Executors.newCachedThreadPool();
+
+  private final FrameSource frameSource;
+  private final int bytesPerFrame;
+  private final BlockingQueue<byte[]> freeBuffers = new LinkedBlockingQueue<>();
+  private final AtomicLong framesDroppedByCamera = new AtomicLong();
+  private final FrameDispatcher frameDispatcher;
+
+  private int bufferCount = DEFAULT_BUFFER_COUNT;
+  private long nextSequenceNumber = 0;
+  private volatile boolean started = false;
+
+  ReplayPreviewStream(FrameSource frameSource) {
+    this.frameSource = frameSource;
+    this.bytesPerFrame = FrameSources.nv21Length(frameSource.getFrameSize());
+    this.frameDispatcher = new FrameDispatcher(
+        FRAME_PROCESSORS_EXECUTOR,
+        PARALLEL_FRAME_PROCESSORS_EXECUTOR,
+        new BufferRecycler() {
+          @Override public void recycle(byte[] buffer) {
+            freeBuffers.offer(buffer);
+          }
+        }
+    );
+  }
+
+  @Override public void addFrameToBuffer() {
+    freeBuffers.offer(new byte[bytesPerFrame]);
+  }
+
+  @Override public void setBufferCount(int bufferCount) {
+    if (bufferCount < 1) {
+      throw new IllegalArgumentException(
+          "At least one preview buffer is required, got: " + bufferCount);
+    }
+
+    this.bufferCount = bufferCount;
+  }
+
+  @Override public void setBackpressurePolicy(@NonNull BackpressurePolicy policy) {
+    frameDispatcher.setBackpressurePolicy(policy);
+  }
+
+  @Override public void setLatencyBudget(@NonNull LatencyBudget latencyBudget) {
+    frameDispatcher.setLatencyBudget(latencyBudget);
+  }
+
+  @Override public void addProcessor(@NonNull FrameProcessor processor) {
+    frameDispatcher.addProcessor(processor);
+  }
+
+  @Override public void removeProcessor(@NonNull FrameProcessor processor) {
+    frameDispatcher.removeProcessor(processor);
+  }
+
+  @Override public void start() {
+    for (int i = 0; i < bufferCount; i++) {
+      addFrameToBuffer();
+    }
+
+    started = true;
+  }
+
+  @Override public PreviewStreamStatistics getStatistics() {
+    return new PreviewStreamStatistics(frameDispatcher.getFramesReceived(),
+        frameDispatcher.getFramesProcessed(), frameDispatcher.getFramesPending(),
+        frameDispatcher.getFramesDropped(), framesDroppedByCamera.get());
+  }
+
+  @Override public List<ProcessorStatistics> getProcessorStatistics() {
+    return frameDispatcher.getProcessorStatistics();
+  }
+
+  /**
+   * Called by the camera once per frame period, always on the same thread.
+   */
+  void onFrameCaptured(long frameIndex, long timestampNanos) {
+    if (!started) {
+      return;
+    }
+
+    byte[] buffer = freeBuffers.poll();
+
+    if (buffer == null) {
+      framesDroppedByCamera.incrementAndGet();
+      return;
+    }
+
+    frameSource.readFrame(frameIndex, buffer);
+
+    frameDispatcher.dispatch(new Frame(
+        frameSource.getFrameSize(),
+        buffer,
+        frameSource.getFrameRotation(),
+        nextSequenceNumber++,
+        timestampNanos
+    ));
+  }
+}
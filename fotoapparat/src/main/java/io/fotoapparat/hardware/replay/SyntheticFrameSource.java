@@ -0,0 +1,41 @@
+package io.fotoapparat.hardware.replay;
+
+import io.fotoapparat.parameter.Size;
+import java.util.Arrays;
+
+/**
+ * Generates diagonal luma gradient which moves by one pixel per frame.
+ */
+class SyntheticFrameSource implements FrameSource {
+
+  private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+  private final Size frameSize;
+
+  SyntheticFrameSource(Size frameSize) {
+    this.frameSize = frameSize;
+  }
+
+  @Override public Size getFrameSize() {
+    return frameSize;
+  }
+
+  @Override public int getFrameRotation() {
+    return 0;
+  }
+
+  @Override public void readFrame(long frameIndex, byte[] image) {
+    int shift = (int) (frameIndex & 0xFF);
+
+    for (int y = 0; y < frameSize.height; y++) {
+      int rowOffset = y * frameSize.width;
+
+      for (int x = 0; x < frameSize.width; x++) {
+        image[rowOffset + x] = (byte) (x + y + shift);
+      }
+    }
+
+    Arrays.fill(image, frameSize.width * frameSize.height, FrameSources.nv21Length(frameSize),
+        NEUTRAL_CHROMA);
+  }
+}
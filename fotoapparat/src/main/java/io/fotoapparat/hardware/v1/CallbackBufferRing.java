@@ -0,0 +1,103 @@
+package io.fotoapparat.hardware.v1;
+
+import android.hardware.Camera;
+
+/**
+ * Ring of preview buffers shared between {@link Camera} and frame processors.
+ * <p>
+ * Camera1 writes frames only into buffers which were handed to it via
+ * {@link Camera#addCallbackBuffer(byte[])} and silently drops frames while it has none. The ring
+ * keeps track of how many buffers the camera owns and estimates the number of frames dropped
+ * while it owned none.
+ */
+@SuppressWarnings("deprecation") class CallbackBufferRing {
+
+  private final Camera camera;
+
+  private int buffersInCamera = 0;
+  private long starvationNanos = 0;
+  private long lastFrameNanos = 0;
+  private long ringEmptySinceNanos = 0;
+  private long frameIntervalNanos = 0;
+  private long framesDropped = 0;
+
+  CallbackBufferRing(Camera camera) {
+    this.camera = camera;
+  }
+
+  /**
+   * Allocates new buffers and hands them to the camera.
+   *
+   * @param bufferCount number of buffers to allocate.
+   * @param bytesPerFrame size of a single buffer.
+   */
+  void allocate(int bufferCount, int bytesPerFrame) {
+    for (int i = 0; i < bufferCount; i++) {
+      returnBuffer(new byte[bytesPerFrame], 0);
+    }
+  }
+
+  /**
+   * Must be called when camera delivers a frame written into one of the buffers of the ring.
+   *
+   * @param timestampNanos arrival time of the frame, as in {@link System#nanoTime()}.
+   */
+  synchronized void onBufferFilled(long timestampNanos) {
+    if (lastFrameNanos != 0) {
+      updateFrameInterval(timestampNanos - lastFrameNanos);
+    }
+
+    lastFrameNanos = timestampNanos;
+    starvationNanos = 0;
+
+    buffersInCamera = Math.max(0, buffersInCamera - 1);
+
+    if (buffersInCamera == 0) {
+      ringEmptySinceNanos = timestampNanos;
+    }
+  }
+
+  /**
+   * Hands buffer back to the camera so it can be filled with the next frame.
+   *
+   * @param timestampNanos time at which buffer was released, as in {@link System#nanoTime()}.
+   */
+  void returnBuffer(byte[] buffer, long timestampNanos) {
+    synchronized (this) {
+      if (buffersInCamera == 0 && ringEmptySinceNanos != 0) {
+        countDroppedFrames(timestampNanos - ringEmptySinceNanos);
+      }
+
+      buffersInCamera++;
+    }
+
+    camera.addCallbackBuffer(buffer);
+  }
+
+  /**
+   * @return estimated number of frames dropped by the camera because it had no free buffer.
+   */
+  synchronized long getFramesDropped() {
+    return framesDropped;
+  }
+
+  private void countDroppedFrames(long starvationNanos) {
+    this.ringEmptySinceNanos = 0;
+    this.starvationNanos = starvationNanos;
+
+    if (frameIntervalNanos > 0) {
+      framesDropped += starvationNanos / frameIntervalNanos;
+    }
+  }
+
+  private void updateFrameInterval(long intervalNanos) {
+    if (frameIntervalNanos == 0) {
+      frameIntervalNanos = intervalNanos;
+    } else if (starvationNanos < frameIntervalNanos) {
+      frameIntervalNanos = (frameIntervalNanos * 7 + intervalNanos) / 8;
+    } else {
+      // Interval includes the frames dropped while starving, so it can only be an upper bound.
+      frameIntervalNanos = Math.min(frameIntervalNanos, intervalNanos);
+    }
+  }
+}
@@ -3,12 +3,17 @@ package io.fotoapparat.hardware.v1;
 import android.graphics.Rect;
 import android.hardware.Camera;
 import android.hardware.Camera.Area;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.view.SurfaceView;
 import android.view.TextureView;
+import io.fotoapparat.hardware.BlockingCallback;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraDevice;
 import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.hardware.Capabilities;
+import io.fotoapparat.hardware.PacedBurst;
 import io.fotoapparat.hardware.operators.ParametersOperator;
 import io.fotoapparat.hardware.orientation.OrientationUtils;
 import io.fotoapparat.hardware.provider.AvailableLensPositionsProvider;
@@ -30,9 +35,9 @@ import io.fotoapparat.preview.PreviewStream;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static android.hardware.Camera.Parameters.FOCUS_MODE_AUTO;
 
@@ -55,6 +60,8 @@ import static android.hardware.Camera.Parameters.FOCUS_MODE_AUTO;
 
   private Throwable lastStacktrace;
   private int imageRotation;
+  private volatile CaptureRequest pendingCapture = null;
+  private final AtomicInteger abortedCaptures = new AtomicInteger();
 
   public Camera1(Logger logger) {
     this.capabilitiesFactory = new CapabilitiesFactory();
@@ -219,24 +226,119 @@ import static android.hardware.Camera.Parameters.FOCUS_MODE_AUTO;
   @Override public Photo takePicture() {
     recordMethod();
 
-    final CountDownLatch latch = new CountDownLatch(1);
-    final AtomicReference<Photo> photoReference = new AtomicReference<>();
+    return capturePhoto();
+  }
+
+  /**
+   * Takes the pictures one after another. Each next picture is requested from the picture
+   * callback, or from the main thread once the interval passed.
+   */
+  @Override public void takeBurst(int count, long intervalMillis, final BurstListener listener) {
+    recordMethod();
 
-    camera.takePicture(null, null, null, new Camera.PictureCallback() {
-      @Override public void onPictureTaken(byte[] data, Camera camera) {
-        photoReference.set(new Photo(data, imageRotation));
+    final int abortsBefore = abortedCaptures.get();
+    final Handler handler = new Handler(Looper.getMainLooper());
 
-        latch.countDown();
+    new PacedBurst(count, intervalMillis) {
+
+      private boolean pictureTaken = false;
+
+      @Override protected void schedule(Runnable action, long delayMillis) {
+        handler.postDelayed(action, delayMillis);
       }
-    });
+
+      @Override protected void capture(final CameraCallback<Integer> callback) {
+        if (pictureTaken) {
+          // Camera stops the preview after each picture and takes no other picture without it.
+          startPreview();
+        }
+
+        pictureTaken = true;
+
+        startCapture(new CameraCallback<Photo>() {
+          @Override public void onResult(Photo photo) {
+            listener.onPhotoCaptured(photo);
+            callback.onResult(1);
+          }
+
+          @Override public void onFailure(CameraException e) {
+            callback.onFailure(e);
+          }
+        });
+      }
+
+      @Override protected boolean isAborted() {
+        return abortedCaptures.get() != abortsBefore;
+      }
+
+      @Override protected void onCompleted(int captured) {
+        listener.onBurstCompleted();
+      }
+
+      @Override protected void onFailed(CameraException e) {
+        listener.onBurstFailed(e);
+      }
+    }.start();
+  }
+
+  @Override public void takePicture(CameraCallback<Photo> callback) {
+    recordMethod();
+
+    startCapture(callback);
+  }
+
+  /**
+   * Camera1 can not abort a capture which already started. The pending request fails right away
+   * and its picture is ignored if it ever arrives. Preview is restarted to get a stuck camera
+   * going again. A burst in progress fails instead of taking its next picture.
+   */
+  @Override public void abortCapture() {
+    recordMethod();
+
+    abortedCaptures.incrementAndGet();
+
+    CaptureRequest request = pendingCapture;
+    pendingCapture = null;
+
+    boolean captureAborted = request != null
+        && request.fail(new CameraException("Capture was aborted on camera device: " + cameraId));
 
     try {
-      latch.await();
-    } catch (InterruptedException e) {
-      // Do nothing
+      camera.cancelAutoFocus();
+
+      if (captureAborted) {
+        camera.stopPreview();
+        camera.startPreview();
+      }
+    } catch (RuntimeException e) {
+      // Camera is already released
     }
+  }
+
+  private Photo capturePhoto() {
+    BlockingCallback<Photo> callback = new BlockingCallback<>();
+
+    startCapture(callback);
+
+    return callback.await();
+  }
+
+  private void startCapture(CameraCallback<Photo> callback) {
+    final int photoRotation = imageRotation;
+    final CaptureRequest request = new CaptureRequest(callback);
+
+    pendingCapture = request;
 
-    return photoReference.get();
+    try {
+      camera.takePicture(null, null, null, new Camera.PictureCallback() {
+        @Override public void onPictureTaken(byte[] data, Camera camera) {
+          request.complete(new Photo(data, photoRotation));
+        }
+      });
+    } catch (RuntimeException e) {
+      request.fail(
+          new CameraException("Failed to take picture with camera device: " + cameraId, e));
+    }
   }
 
   @Override public PreviewStream getPreviewStream() {
@@ -266,30 +368,62 @@ import static android.hardware.Camera.Parameters.FOCUS_MODE_AUTO;
   @Override public FocusResult autoFocus() {
     recordMethod();
 
-    final CountDownLatch latch = new CountDownLatch(1);
+    BlockingCallback<FocusResult> callback = new BlockingCallback<>();
+
+    startAutoFocus(callback);
+
+    return callback.await();
+  }
+
+  @Override public void autoFocus(CameraCallback<FocusResult> callback) {
+    recordMethod();
+
+    startAutoFocus(callback);
+  }
+
+  private void startAutoFocus(final CameraCallback<FocusResult> callback) {
+    final AtomicBoolean completed = new AtomicBoolean(false);
+    final Handler timeoutHandler = new Handler(Looper.getMainLooper());
+
+    // Some devices never call back, assume the focus is as good as it gets after a while.
+    final Runnable timeout = new Runnable() {
+      @Override public void run() {
+        if (completed.compareAndSet(false, true)) {
+          callback.onResult(FocusResult.successNoMeasurement());
+        }
+      }
+    };
 
     try {
       camera.autoFocus(new Camera.AutoFocusCallback() {
         @Override public void onAutoFocus(boolean success, Camera camera) {
-          latch.countDown();
+          timeoutHandler.removeCallbacks(timeout);
+          timeout.run();
         }
       });
     } catch (Exception e) {
       logFailedAutoFocus(e);
 
-      return FocusResult.none();
-    }
-
-    try {
-      latch.await(AUTOFOCUS_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-    } catch (InterruptedException e) {
-      // Do nothing
+      callback.onResult(FocusResult.none());
+      return;
     }
 
-    return FocusResult.successNoMeasurement();
+    timeoutHandler.postDelayed(timeout, TimeUnit.SECONDS.toMillis(AUTOFOCUS_TIMEOUT_SECONDS));
   }
 
   @Override public FocusResult autoFocus(@NonNull FocusArea area) {
+    setFocusArea(area);
+
+    return autoFocus();
+  }
+
+  @Override public void autoFocus(@NonNull FocusArea area, CameraCallback<FocusResult> callback) {
+    setFocusArea(area);
+
+    autoFocus(callback);
+  }
+
+  private void setFocusArea(@NonNull FocusArea area) {
     try {
       camera.cancelAutoFocus();
 
@@ -308,8 +442,6 @@ import static android.hardware.Camera.Parameters.FOCUS_MODE_AUTO;
     } catch (Exception e) {
       // ignore
     }
-
-    return autoFocus();
   }
 
   private void logFailedAutoFocus(Exception e) {
@@ -320,6 +452,11 @@ import static android.hardware.Camera.Parameters.FOCUS_MODE_AUTO;
     // Do nothing. Not supported by Camera1.
   }
 
+  @Override public void measureExposure(CameraCallback<Void> callback) {
+    // Not supported by Camera1.
+    callback.onResult(null);
+  }
+
   @Override public List<LensPosition> getAvailableLensPositions() {
     return availableLensPositionsProvider.getAvailableLensPositions();
   }
@@ -345,4 +482,35 @@ import static android.hardware.Camera.Parameters.FOCUS_MODE_AUTO;
 
     logger.log(lastStacktrace.getStackTrace()[1].getMethodName());
   }
+
+  /**
+   * Picture requested from the camera. Completes once, either with the picture or with a failure.
+   */
+  private static class CaptureRequest {
+
+    private final CameraCallback<Photo> callback;
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+
+    CaptureRequest(CameraCallback<Photo> callback) {
+      this.callback = callback;
+    }
+
+    void complete(Photo photo) {
+      if (completed.compareAndSet(false, true)) {
+        callback.onResult(photo);
+      }
+    }
+
+    /**
+     * @return {@code true} if request failed, {@code false} if it was already completed.
+     */
+    boolean fail(CameraException e) {
+      if (!completed.compareAndSet(false, true)) {
+        return false;
+      }
+
+      callback.onFailure(e);
+      return true;
+    }
+  }
 }
@@ -4,11 +4,16 @@ import android.graphics.ImageFormat;
 import android.hardware.Camera;
 import android.support.annotation.NonNull;
 import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.BackpressurePolicy;
+import io.fotoapparat.preview.BufferRecycler;
 import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.FrameDispatcher;
 import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.LatencyBudget;
 import io.fotoapparat.preview.PreviewStream;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.preview.ProcessorStatistics;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -18,16 +23,30 @@ import java.util.concurrent.Executors;
 @SuppressWarnings("deprecation") public class PreviewStream1 implements PreviewStream {
 
   private static Executor FRAME_PROCESSORS_EXECUTOR = Executors.newSingleThreadExecutor();
+  private static Executor PARALLEL_FRAME_PROCESSORS_EXECUTOR = Executors.newCachedThreadPool();
 
   private final Camera camera;
-
-  private final Set<FrameProcessor> frameProcessors = new LinkedHashSet<>();
+  private final CallbackBufferRing bufferRing;
+  private final FrameDispatcher frameDispatcher;
 
   private Size previewSize = null;
+  private int bytesPerFrame = 0;
+  private int bufferCount = DEFAULT_BUFFER_COUNT;
   private int frameOrientation = 0;
+  private long nextSequenceNumber = 0;
 
   public PreviewStream1(Camera camera) {
     this.camera = camera;
+    this.bufferRing = new CallbackBufferRing(camera);
+    this.frameDispatcher = new FrameDispatcher(
+        FRAME_PROCESSORS_EXECUTOR,
+        PARALLEL_FRAME_PROCESSORS_EXECUTOR,
+        new BufferRecycler() {
+          @Override public void recycle(byte[] buffer) {
+            bufferRing.returnBuffer(buffer, System.nanoTime());
+          }
+        }
+    );
   }
 
   /**
@@ -38,16 +57,40 @@ import java.util.concurrent.Executors;
   }
 
   @Override public void addFrameToBuffer() {
-    camera.addCallbackBuffer(allocateBuffer(camera.getParameters()));
+    ensureFrameSizeResolved();
+
+    bufferRing.allocate(1, bytesPerFrame);
+  }
+
+  @Override public void setBufferCount(int bufferCount) {
+    if (bufferCount < 1) {
+      throw new IllegalArgumentException(
+          "At least one preview buffer is required, got: " + bufferCount);
+    }
+
+    this.bufferCount = bufferCount;
+  }
+
+  @Override public void setBackpressurePolicy(@NonNull BackpressurePolicy policy) {
+    frameDispatcher.setBackpressurePolicy(policy);
+  }
+
+  @Override public void setLatencyBudget(@NonNull LatencyBudget latencyBudget) {
+    frameDispatcher.setLatencyBudget(latencyBudget);
+  }
+
+  private void ensureFrameSizeResolved() {
+    if (previewSize == null) {
+      resolveFrameSize(camera.getParameters());
+    }
   }
 
-  private byte[] allocateBuffer(Camera.Parameters parameters) {
+  private void resolveFrameSize(Camera.Parameters parameters) {
     ensureNv21Format(parameters);
 
     Camera.Size previewSize = parameters.getPreviewSize();
     this.previewSize = new Size(previewSize.width, previewSize.height);
-
-    return new byte[bytesPerFrame(previewSize)];
+    this.bytesPerFrame = bytesPerFrame(previewSize);
   }
 
   private int bytesPerFrame(Camera.Size previewSize) {
@@ -62,47 +105,45 @@ import java.util.concurrent.Executors;
   }
 
   @Override public void addProcessor(@NonNull FrameProcessor processor) {
-    synchronized (frameProcessors) {
-      frameProcessors.add(processor);
-    }
+    frameDispatcher.addProcessor(processor);
   }
 
   @Override public void removeProcessor(@NonNull FrameProcessor processor) {
-    synchronized (frameProcessors) {
-      frameProcessors.remove(processor);
-    }
+    frameDispatcher.removeProcessor(processor);
   }
 
   @Override public void start() {
-    addFrameToBuffer();
+    ensureFrameSizeResolved();
+
+    bufferRing.allocate(bufferCount, bytesPerFrame);
 
     camera.setPreviewCallbackWithBuffer(new Camera.PreviewCallback() {
       @Override public void onPreviewFrame(byte[] data, Camera camera) {
-        dispatchFrameOnBackgroundThread(data);
-      }
-    });
-  }
+        long timestampNanos = System.nanoTime();
 
-  private void dispatchFrameOnBackgroundThread(final byte[] data) {
-    FRAME_PROCESSORS_EXECUTOR.execute(new Runnable() {
-      @Override public void run() {
-        synchronized (frameProcessors) {
-          dispatchFrame(data);
-        }
+        bufferRing.onBufferFilled(timestampNanos);
+
+        dispatchFrame(data, timestampNanos);
       }
     });
   }
 
-  private void dispatchFrame(byte[] image) {
-    ensurePreviewSizeAvailable();
+  @Override public PreviewStreamStatistics getStatistics() {
+    return new PreviewStreamStatistics(frameDispatcher.getFramesReceived(),
+        frameDispatcher.getFramesProcessed(), frameDispatcher.getFramesPending(),
+        frameDispatcher.getFramesDropped(), bufferRing.getFramesDropped());
+  }
 
-    final Frame frame = new Frame(previewSize, image, frameOrientation);
+  @Override public List<ProcessorStatistics> getProcessorStatistics() {
+    return frameDispatcher.getProcessorStatistics();
+  }
 
-    for (final FrameProcessor frameProcessor : frameProcessors) {
-      frameProcessor.processFrame(frame);
-    }
+  private void dispatchFrame(byte[] image, long timestampNanos) {
+    ensurePreviewSizeAvailable();
 
-    returnFrameToBuffer(frame);
+    frameDispatcher.dispatch(
+        new Frame(previewSize, image, frameOrientation, nextSequenceNumber++, timestampNanos)
+    );
   }
 
   private void ensurePreviewSizeAvailable() {
@@ -110,8 +151,4 @@ import java.util.concurrent.Executors;
       throw new IllegalStateException("previewSize is null. Frame was not added?");
     }
   }
-
-  private void returnFrameToBuffer(Frame frame) {
-    camera.addCallbackBuffer(frame.image);
-  }
 }
@@ -3,6 +3,7 @@ package io.fotoapparat.hardware.v2;
 import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.RequiresApi;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraDevice;
 import io.fotoapparat.hardware.Capabilities;
 import io.fotoapparat.hardware.operators.AutoFocusOperator;
@@ -122,23 +123,57 @@ public class Camera2 implements CameraDevice {
     return autoFocusOperator.autoFocus();
   }
 
+  @Override public void autoFocus(CameraCallback<FocusResult> callback) {
+    recordMethod();
+
+    autoFocusOperator.autoFocus(callback);
+  }
+
   @Override public FocusResult autoFocus(@NonNull FocusArea area) {
     // No, I don't support manual focus in Camera 2 coz I don't have time, ¯\_(ツ)_/¯
     return autoFocus();
   }
 
+  @Override public void autoFocus(@NonNull FocusArea area, CameraCallback<FocusResult> callback) {
+    autoFocus(callback);
+  }
+
   @Override public void measureExposure() {
     recordMethod();
 
     exposureMeasurementOperator.measureExposure();
   }
 
+  @Override public void measureExposure(CameraCallback<Void> callback) {
+    recordMethod();
+
+    exposureMeasurementOperator.measureExposure(callback);
+  }
+
   @Override public Photo takePicture() {
     recordMethod();
 
     return captureOperator.takePicture();
   }
 
+  @Override public void takePicture(CameraCallback<Photo> callback) {
+    recordMethod();
+
+    captureOperator.takePicture(callback);
+  }
+
+  @Override public void takeBurst(int count, long intervalMillis, BurstListener listener) {
+    recordMethod();
+
+    captureOperator.takeBurst(count, intervalMillis, listener);
+  }
+
+  @Override public void abortCapture() {
+    recordMethod();
+
+    captureOperator.abortCapture();
+  }
+
   @Override public PreviewStream getPreviewStream() {
     recordMethod();
 
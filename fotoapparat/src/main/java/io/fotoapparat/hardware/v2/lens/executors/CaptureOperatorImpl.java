@@ -1,12 +1,19 @@
 package io.fotoapparat.hardware.v2.lens.executors;
 
+import android.os.Handler;
+import io.fotoapparat.hardware.BlockingCallback;
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraException;
+import io.fotoapparat.hardware.PacedBurst;
 import io.fotoapparat.hardware.operators.CaptureOperator;
+import io.fotoapparat.hardware.v2.CameraThread;
+import io.fotoapparat.hardware.v2.lens.operations.BurstCaptureOperation;
 import io.fotoapparat.hardware.v2.lens.operations.LensOperation;
 import io.fotoapparat.hardware.v2.lens.operations.LensOperationsFactory;
 import io.fotoapparat.hardware.v2.orientation.OrientationManager;
 import io.fotoapparat.hardware.v2.readers.StillSurfaceReader;
-import io.fotoapparat.lens.CaptureResultState;
 import io.fotoapparat.photo.Photo;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Captures a picture.
@@ -16,20 +23,159 @@ import io.fotoapparat.photo.Photo;
   private final LensOperationsFactory lensOperationsFactory;
   private final StillSurfaceReader stillSurfaceReader;
   private final OrientationManager orientationManager;
+  private final Handler handler;
+  private final AtomicInteger abortedCaptures = new AtomicInteger();
+  private volatile StillSurfaceReader.BurstReading burstReading = null;
+  private volatile BurstCaptureOperation burstOperation = null;
 
   public CaptureOperatorImpl(LensOperationsFactory lensOperationsFactory,
-      StillSurfaceReader stillSurfaceReader, OrientationManager orientationManager) {
+      StillSurfaceReader stillSurfaceReader, OrientationManager orientationManager,
+      CameraThread cameraThread) {
     this.lensOperationsFactory = lensOperationsFactory;
     this.stillSurfaceReader = stillSurfaceReader;
     this.orientationManager = orientationManager;
+    this.handler = cameraThread.createHandler();
   }
 
   @Override public Photo takePicture() {
-    LensOperation<CaptureResultState> captureOperation =
-        lensOperationsFactory.createCaptureOperation();
+    BlockingCallback<Photo> callback = new BlockingCallback<>();
 
-    captureOperation.call();
+    takePicture(callback);
 
-    return new Photo(stillSurfaceReader.getPhotoBytes(), orientationManager.getPhotoOrientation());
+    return callback.await();
+  }
+
+  @Override public void takePicture(final CameraCallback<Photo> callback) {
+    final int photoOrientation = orientationManager.getPhotoOrientation();
+
+    final StillSurfaceReader.PhotoReading photoReading =
+        stillSurfaceReader.readPhotoBytes(new CameraCallback<byte[]>() {
+          @Override public void onResult(byte[] bytes) {
+            callback.onResult(new Photo(bytes, photoOrientation));
+          }
+
+          @Override public void onFailure(CameraException e) {
+            callback.onFailure(e);
+          }
+        });
+
+    LensOperation<Long> captureOperation =
+        lensOperationsFactory.createTimestampedCaptureOperation();
+
+    captureOperation.execute(new CameraCallback<Long>() {
+      @Override public void onResult(Long sensorTimestamp) {
+        // Photo is delivered once the image with this timestamp reaches the reader.
+        photoReading.onCaptureCompleted(sensorTimestamp);
+      }
+
+      @Override public void onFailure(CameraException e) {
+        stillSurfaceReader.stopReading();
+        callback.onFailure(e);
+      }
+    });
+  }
+
+  @Override public void takeBurst(int count, long intervalMillis, final BurstListener listener) {
+    final int photoOrientation = orientationManager.getPhotoOrientation();
+    final int abortsBefore = abortedCaptures.get();
+
+    final StillSurfaceReader.BurstReading burstReading =
+        stillSurfaceReader.startBurstReading(new StillSurfaceReader.PhotoBytesListener() {
+          @Override public void onPhotoBytes(byte[] bytes) {
+            listener.onPhotoCaptured(new Photo(bytes, photoOrientation));
+          }
+
+          @Override public void onReadingCompleted() {
+            listener.onBurstCompleted();
+          }
+        });
+
+    this.burstReading = burstReading;
+
+    CameraCallback<Integer> capturesProcessed = new CameraCallback<Integer>() {
+      @Override public void onResult(Integer captured) {
+        burstReading.finishAfter(captured);
+      }
+
+      @Override public void onFailure(CameraException e) {
+        burstReading.abort();
+        listener.onBurstFailed(e);
+      }
+    };
+
+    try {
+      if (intervalMillis > 0) {
+        captureSpaced(count, intervalMillis, abortsBefore, capturesProcessed);
+      } else {
+        capture(count, abortsBefore, capturesProcessed);
+      }
+    } catch (CameraException e) {
+      burstReading.abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Also stops a burst in progress: no more pictures are requested, and the burst fails without
+   * waiting for requests or images which did not arrive yet, even if the camera ignores the abort.
+   */
+  @Override public void abortCapture() {
+    abortedCaptures.incrementAndGet();
+
+    BurstCaptureOperation burstOperation = this.burstOperation;
+    if (burstOperation != null) {
+      burstOperation.abort();
+    }
+
+    StillSurfaceReader.BurstReading burstReading = this.burstReading;
+    if (burstReading != null) {
+      burstReading.abort();
+    }
+
+    stillSurfaceReader.stopReading();
+    lensOperationsFactory.abortCaptures();
+  }
+
+  private void captureSpaced(int count, long intervalMillis, final int abortsBefore,
+      final CameraCallback<Integer> burstCallback) {
+    new PacedBurst(count, intervalMillis) {
+
+      @Override protected void schedule(Runnable action, long delayMillis) {
+        handler.postDelayed(action, delayMillis);
+      }
+
+      @Override protected void capture(CameraCallback<Integer> callback) {
+        CaptureOperatorImpl.this.capture(1, abortsBefore, callback);
+      }
+
+      @Override protected boolean isAborted() {
+        return abortedCaptures.get() != abortsBefore;
+      }
+
+      @Override protected void onCompleted(int captured) {
+        burstCallback.onResult(captured);
+      }
+
+      @Override protected void onFailed(CameraException e) {
+        burstCallback.onFailure(e);
+      }
+    }.start();
+  }
+
+  /**
+   * Submits given number of pictures to be captured back to back, unless the capture is aborted
+   * meanwhile.
+   *
+   * @param callback Receives the number of pictures captured successfully.
+   */
+  private void capture(int count, int abortsBefore, CameraCallback<Integer> callback) {
+    BurstCaptureOperation burstOperation = lensOperationsFactory.createBurstCaptureOperation(count);
+    this.burstOperation = burstOperation;
+
+    if (abortedCaptures.get() != abortsBefore) {
+      burstOperation.abort();
+    }
+
+    burstOperation.submit(callback);
   }
 }
@@ -1,5 +1,7 @@
 package io.fotoapparat.hardware.v2.lens.executors;
 
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.hardware.operators.ExposureMeasurementOperator;
 import io.fotoapparat.hardware.v2.lens.operations.LensOperation;
 import io.fotoapparat.hardware.v2.lens.operations.LensOperationsFactory;
@@ -22,4 +24,19 @@ import io.fotoapparat.lens.ExposureResultState;
         lensOperationsFactory.createExposureGatheringOperation();
     lensOperation.call();
   }
+
+  @Override public void measureExposure(final CameraCallback<Void> callback) {
+    LensOperation<ExposureResultState> lensOperation =
+        lensOperationsFactory.createExposureGatheringOperation();
+
+    lensOperation.execute(new CameraCallback<ExposureResultState>() {
+      @Override public void onResult(ExposureResultState result) {
+        callback.onResult(null);
+      }
+
+      @Override public void onFailure(CameraException e) {
+        callback.onFailure(e);
+      }
+    });
+  }
 }
@@ -3,6 +3,9 @@ package io.fotoapparat.hardware.v2.lens.executors;
 import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.RequiresApi;
+import io.fotoapparat.hardware.BlockingCallback;
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.hardware.operators.AutoFocusOperator;
 import io.fotoapparat.hardware.v2.lens.operations.LensOperation;
 import io.fotoapparat.hardware.v2.lens.operations.LensOperationsFactory;
@@ -30,17 +33,36 @@ import io.fotoapparat.parameter.FocusArea;
   }
 
   @Override public FocusResult autoFocus() {
+    BlockingCallback<FocusResult> callback = new BlockingCallback<>();
+
+    autoFocus(callback);
+
+    return callback.await();
+  }
+
+  @Override public void autoFocus(final CameraCallback<FocusResult> callback) {
     LensOperation<FocusResult> lensOperation = lensOperationsFactory.createLockFocusOperation();
-    FocusResult focusResult = lensOperation.call();
 
-    if (parametersProvider.getFlash() == Flash.ON) {
-      return forceExposureMetering(focusResult);
-    }
+    lensOperation.execute(new CameraCallback<FocusResult>() {
+      @Override public void onResult(FocusResult focusResult) {
+        if (parametersProvider.getFlash() == Flash.ON) {
+          callback.onResult(forceExposureMetering(focusResult));
+        } else {
+          callback.onResult(focusResult);
+        }
+      }
 
-    return focusResult;
+      @Override public void onFailure(CameraException e) {
+        callback.onFailure(e);
+      }
+    });
   }
 
   @Override public FocusResult autoFocus(@NonNull FocusArea area) {
     return autoFocus();
   }
+
+  @Override public void autoFocus(@NonNull FocusArea area, CameraCallback<FocusResult> callback) {
+    autoFocus(callback);
+  }
 }
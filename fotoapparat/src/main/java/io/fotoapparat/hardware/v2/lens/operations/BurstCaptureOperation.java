@@ -0,0 +1,112 @@
+package io.fotoapparat.hardware.v2.lens.operations;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureFailure;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.os.Build;
+import android.os.Handler;
+import android.support.annotation.NonNull;
+import android.support.annotation.RequiresApi;
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Submits several capture requests as a single burst, which the camera processes back to back.
+ * Completes once every request of the burst completed or failed, or fails once it is aborted.
+ */
+@RequiresApi(api = Build.VERSION_CODES.LOLLIPOP) public class BurstCaptureOperation
+    extends CameraCaptureSession.CaptureCallback {
+
+  private final List<CaptureRequest> requests;
+  private final Handler handler;
+  private final CameraCaptureSession captureSession;
+  private final AtomicInteger pendingCaptures;
+  private final AtomicInteger failedCaptures = new AtomicInteger();
+  private final AtomicBoolean finished = new AtomicBoolean(false);
+  private volatile CameraCallback<Integer> resultCallback;
+  private volatile boolean aborted = false;
+
+  private BurstCaptureOperation(List<CaptureRequest> requests, Handler handler,
+      CameraCaptureSession captureSession) {
+    this.requests = requests;
+    this.handler = handler;
+    this.captureSession = captureSession;
+    this.pendingCaptures = new AtomicInteger(requests.size());
+  }
+
+  /**
+   * Creates a new burst operation.
+   *
+   * @param requests The requests of the burst, in order.
+   * @param handler The handler to run the callbacks from the camera.
+   * @param captureSession The currently open capture session.
+   * @return The burst operation.
+   */
+  public static BurstCaptureOperation from(List<CaptureRequest> requests, Handler handler,
+      CameraCaptureSession captureSession) {
+    return new BurstCaptureOperation(requests, handler, captureSession);
+  }
+
+  @Override public void onCaptureCompleted(@NonNull CameraCaptureSession session,
+      @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
+    super.onCaptureCompleted(session, request, result);
+    onCaptureProcessed();
+  }
+
+  @Override public void onCaptureFailed(@NonNull CameraCaptureSession session,
+      @NonNull CaptureRequest request, @NonNull CaptureFailure failure) {
+    super.onCaptureFailed(session, request, failure);
+    failedCaptures.incrementAndGet();
+    onCaptureProcessed();
+  }
+
+  private void onCaptureProcessed() {
+    if (pendingCaptures.decrementAndGet() == 0 && finished.compareAndSet(false, true)) {
+      resultCallback.onResult(requests.size() - failedCaptures.get());
+    }
+  }
+
+  /**
+   * Submits the burst and returns immediately.
+   *
+   * @param callback Receives the number of requests which were captured successfully, once the
+   * camera processed every request.
+   */
+  public void submit(CameraCallback<Integer> callback) {
+    resultCallback = callback;
+
+    if (aborted) {
+      abort();
+      return;
+    }
+
+    try {
+      captureSession.captureBurst(requests, this, handler);
+    } catch (CameraAccessException e) {
+      fail(new CameraException(e));
+    }
+  }
+
+  /**
+   * Fails the burst without waiting for the requests which were not processed yet, whether or not
+   * the camera drops them. May be called from any thread.
+   */
+  public void abort() {
+    aborted = true;
+
+    if (resultCallback != null) {
+      fail(new CameraException("Burst was aborted"));
+    }
+  }
+
+  private void fail(CameraException e) {
+    if (finished.compareAndSet(false, true)) {
+      resultCallback.onFailure(e);
+    }
+  }
+}
@@ -6,6 +6,7 @@ import android.hardware.camera2.CaptureResult;
 import android.os.Build;
 import android.os.Handler;
 import android.support.annotation.RequiresApi;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.result.transformer.Transformer;
 import java.util.concurrent.Callable;
 
@@ -46,4 +47,13 @@ import java.util.concurrent.Callable;
   @Override public T call() {
     return wrappedCaptureCallback.call();
   }
+
+  /**
+   * Executes the operation without waiting for the result.
+   *
+   * @param callback Receives the result once the camera processed the request.
+   */
+  public void execute(CameraCallback<T> callback) {
+    wrappedCaptureCallback.submit(callback);
+  }
 }
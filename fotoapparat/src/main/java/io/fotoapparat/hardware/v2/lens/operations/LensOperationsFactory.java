@@ -1,17 +1,20 @@
 package io.fotoapparat.hardware.v2.lens.operations;
 
 import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CaptureRequest;
 import android.os.Handler;
 import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.hardware.v2.CameraThread;
 import io.fotoapparat.hardware.v2.lens.operations.transformer.CaptureResultTransformer;
 import io.fotoapparat.hardware.v2.lens.operations.transformer.ExposureResultTransformer;
 import io.fotoapparat.hardware.v2.lens.operations.transformer.FocusResultTransformer;
+import io.fotoapparat.hardware.v2.lens.operations.transformer.SensorTimestampTransformer;
 import io.fotoapparat.hardware.v2.parameters.CaptureRequestFactory;
 import io.fotoapparat.hardware.v2.session.SessionManager;
 import io.fotoapparat.lens.CaptureResultState;
 import io.fotoapparat.lens.ExposureResultState;
 import io.fotoapparat.lens.FocusResult;
+import java.util.Collections;
 
 /**
  * Factory which provides several lens operations.
@@ -64,4 +67,44 @@ import io.fotoapparat.lens.FocusResult;
       throw new CameraException(e);
     }
   }
+
+  /**
+   * @return A new operation to capture a still picture, which results in the sensor timestamp of
+   * the picture.
+   */
+  public LensOperation<Long> createTimestampedCaptureOperation() {
+    try {
+      return LensOperation.from(captureRequestFactory.createCaptureRequest(), handler,
+          new SensorTimestampTransformer(), sessionManager.getCaptureSession());
+    } catch (CameraAccessException e) {
+      throw new CameraException(e);
+    }
+  }
+
+  /**
+   * @param count The number of pictures in the burst.
+   * @return A new operation to capture pictures back to back.
+   */
+  public BurstCaptureOperation createBurstCaptureOperation(int count) {
+    try {
+      CaptureRequest request = captureRequestFactory.createCaptureRequest();
+
+      return BurstCaptureOperation.from(Collections.nCopies(count, request), handler,
+          sessionManager.getCaptureSession());
+    } catch (CameraAccessException e) {
+      throw new CameraException(e);
+    }
+  }
+
+  /**
+   * Discards the pending and in-progress requests of the current session, including the repeating
+   * preview request.
+   */
+  public void abortCaptures() {
+    try {
+      sessionManager.getCaptureSession().abortCaptures();
+    } catch (CameraAccessException | IllegalStateException e) {
+      // Session is already closed, nothing to abort
+    }
+  }
 }
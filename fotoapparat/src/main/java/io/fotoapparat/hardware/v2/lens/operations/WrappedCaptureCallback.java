@@ -2,6 +2,7 @@ package io.fotoapparat.hardware.v2.lens.operations;
 
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureFailure;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
@@ -9,10 +10,11 @@ import android.os.Build;
 import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.annotation.RequiresApi;
+import io.fotoapparat.hardware.BlockingCallback;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.result.transformer.Transformer;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
 
 /**
  * Process a {@link CaptureResult} and when finishes can return the processed result.
@@ -22,14 +24,12 @@ import java.util.concurrent.CountDownLatch;
 @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP) class WrappedCaptureCallback<R>
     extends CameraCaptureSession.CaptureCallback implements Callable<R> {
 
-  private final CountDownLatch countDownLatch = new CountDownLatch(1);
-
   private final CameraCaptureSession captureSession;
   private final CaptureRequest request;
   private final Handler handler;
   private final Transformer<CaptureResult, R> transformer;
 
-  private R stage;
+  private volatile CameraCallback<R> resultCallback;
 
   private WrappedCaptureCallback(CameraCaptureSession captureSession, CaptureRequest request,
       Handler handler, Transformer<CaptureResult, R> transformer) {
@@ -55,29 +55,35 @@ import java.util.concurrent.CountDownLatch;
   @Override public void onCaptureCompleted(@NonNull CameraCaptureSession session,
       @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
     super.onCaptureCompleted(session, request, result);
-    this.stage = transformer.transform(result);
-    countDownLatch.countDown();
+    resultCallback.onResult(transformer.transform(result));
+  }
+
+  @Override public void onCaptureFailed(@NonNull CameraCaptureSession session,
+      @NonNull CaptureRequest request, @NonNull CaptureFailure failure) {
+    super.onCaptureFailed(session, request, failure);
+    resultCallback.onFailure(new CameraException("Capture failed, reason: " + failure.getReason()));
   }
 
   /**
-   * @return The result subsequent to the process.
+   * Submits the request and returns immediately.
+   *
+   * @param callback Receives the processed result, or the failure, of the request.
    */
-  private R getResult() {
+  void submit(CameraCallback<R> callback) {
+    resultCallback = callback;
+
     try {
-      countDownLatch.await();
-    } catch (InterruptedException e) {
-      // do nothing
+      captureSession.capture(request, this, handler);
+    } catch (CameraAccessException e) {
+      callback.onFailure(new CameraException(e));
     }
-    return stage;
   }
 
   @Override public R call() {
-    try {
-      captureSession.capture(request, this, handler);
+    BlockingCallback<R> callback = new BlockingCallback<>();
 
-      return getResult();
-    } catch (CameraAccessException e) {
-      throw new CameraException(e);
-    }
+    submit(callback);
+
+    return callback.await();
   }
 }
@@ -0,0 +1,18 @@
+package io.fotoapparat.hardware.v2.lens.operations.transformer;
+
+import android.hardware.camera2.CaptureResult;
+import android.os.Build;
+import android.support.annotation.RequiresApi;
+import io.fotoapparat.result.transformer.Transformer;
+
+/**
+ * Transforms a {@link CaptureResult} into the sensor timestamp of the captured frame, which
+ * matches the timestamp of its image.
+ */
+@RequiresApi(api = Build.VERSION_CODES.LOLLIPOP) public class SensorTimestampTransformer
+    implements Transformer<CaptureResult, Long> {
+
+  @Override public Long transform(CaptureResult input) {
+    return input.get(CaptureResult.SENSOR_TIMESTAMP);
+  }
+}
@@ -10,7 +10,7 @@ import io.fotoapparat.hardware.v2.CameraThread;
 import io.fotoapparat.hardware.v2.parameters.ParametersProvider;
 import io.fotoapparat.hardware.v2.stream.OnImageAcquiredObserver;
 import io.fotoapparat.parameter.Size;
-import java.nio.ByteBuffer;
+import io.fotoapparat.preview.BufferPool;
 
 /**
  * Creates a {@link Surface} which can capture continuous events (several frames).
@@ -20,46 +20,50 @@ import java.nio.ByteBuffer;
 
   private final ParametersProvider parametersProvider;
   private final CameraThread cameraThread;
+  private final YuvToNv21Converter converter;
   private ImageReader imageReader;
   private OnFrameAcquiredListener listener;
 
-  public ContinuousSurfaceReader(ParametersProvider parametersProvider, CameraThread cameraThread) {
+  public ContinuousSurfaceReader(ParametersProvider parametersProvider, CameraThread cameraThread,
+      BufferPool bufferPool) {
     this.parametersProvider = parametersProvider;
     this.cameraThread = cameraThread;
+    this.converter = new YuvToNv21Converter(bufferPool);
   }
 
-  private static byte[] YUV_420_888toNV21(Image image) {
-    byte[] nv21;
-    ByteBuffer yBuffer = image.getPlanes()[0].getBuffer();
-    ByteBuffer uBuffer = image.getPlanes()[1].getBuffer();
-    ByteBuffer vBuffer = image.getPlanes()[2].getBuffer();
+  @Override public void onImageAvailable(ImageReader reader) {
+    Image image = reader.acquireNextImage();
 
-    int ySize = yBuffer.remaining();
-    int uSize = uBuffer.remaining();
-    int vSize = vBuffer.remaining();
+    if (image == null) {
+      return;
+    }
 
-    nv21 = new byte[ySize + uSize + vSize];
+    OnFrameAcquiredListener listener = this.listener;
+    byte[] bytes = listener != null ? toBytes(image, listener.isChromaRequired()) : null;
+    long timestampNanos = image.getTimestamp();
 
-    //U and V are swapped
-    yBuffer.get(nv21, 0, ySize);
-    vBuffer.get(nv21, ySize, vSize);
-    uBuffer.get(nv21, ySize + vSize, uSize);
+    image.close();
 
-    return nv21;
+    if (bytes != null) {
+      listener.onFrameAcquired(bytes, timestampNanos);
+    }
   }
 
-  @Override public void onImageAvailable(ImageReader reader) {
-    Image image = reader.acquireNextImage();
+  private byte[] toBytes(Image image, boolean chromaRequired) {
     Image.Plane[] planes = image.getPlanes();
 
-    if (planes.length > 0) {
-      byte[] bytes = YUV_420_888toNV21(image);
+    if (!chromaRequired && planes.length >= 1) {
+      return converter.convertLuma(image.getWidth(), image.getHeight(), planes[0].getBuffer(),
+          planes[0].getRowStride());
+    }
 
-      if (listener != null) {
-        listener.onFrameAcquired(bytes);
-      }
+    if (planes.length < 3) {
+      return null;
     }
-    image.close();
+
+    return converter.convert(image.getWidth(), image.getHeight(), planes[0].getBuffer(),
+        planes[0].getRowStride(), planes[1].getBuffer(), planes[2].getBuffer(),
+        planes[1].getRowStride(), planes[1].getPixelStride());
   }
 
   /**
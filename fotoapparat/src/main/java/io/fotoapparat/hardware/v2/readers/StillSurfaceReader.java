@@ -4,22 +4,31 @@ import android.graphics.ImageFormat;
 import android.media.Image;
 import android.media.ImageReader;
 import android.os.Build;
+import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 import android.view.Surface;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.v2.CameraThread;
 import io.fotoapparat.hardware.v2.parameters.ParametersProvider;
 import io.fotoapparat.parameter.Size;
 import java.nio.ByteBuffer;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Creates a {@link Surface} which can capture single events.
+ * Creates a {@link Surface} which can capture single pictures and bursts of them.
  */
 @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP) public class StillSurfaceReader {
 
+  /**
+   * Images which can be held at once, so images of a burst do not wait for each other to be read.
+   */
+  private static final int MAX_IMAGES = 4;
+
   private final CameraThread cameraThread;
   private final ParametersProvider parametersProvider;
   private ImageReader imageReader;
+  private volatile PhotoReading photoReading = null;
 
   public StillSurfaceReader(ParametersProvider parametersProvider, CameraThread cameraThread) {
     this.parametersProvider = parametersProvider;
@@ -39,73 +48,281 @@ import java.util.concurrent.CountDownLatch;
   }
 
   /**
-   * Returns the next available Image as a byte array.
+   * Starts reading the Image of a single capture without waiting for it. Must be called before the
+   * capture is submitted. Images left over from earlier captures, e.g. aborted ones, are discarded.
+   *
+   * @param callback Receives the Image as byte array once it is available.
+   * @return the reading, which must be told the sensor timestamp of the capture once it completes.
+   */
+  public PhotoReading readPhotoBytes(CameraCallback<byte[]> callback) {
+    discardImages();
+
+    PhotoReading photoReading = new PhotoReading(imageReader, cameraThread, callback);
+    this.photoReading = photoReading;
+
+    return photoReading;
+  }
+
+  /**
+   * Stops a reading started by {@link #readPhotoBytes(CameraCallback)}, e.g. because the capture
+   * failed and no Image is going to arrive.
+   */
+  public void stopReading() {
+    imageReader.setOnImageAvailableListener(null, null);
+
+    PhotoReading photoReading = this.photoReading;
+    if (photoReading != null) {
+      photoReading.stop();
+    }
+  }
+
+  /**
+   * Starts reading images of a burst. Must be called before the burst is submitted, so that none
+   * of its images is missed. Images left over from earlier captures are discarded.
    *
-   * @return the Image as byte array.
+   * @param listener Receives each image as a byte array, in order, as soon as it is available.
+   * @return the reading, which must be told how many images to expect once the burst was
+   * processed.
    */
-  public byte[] getPhotoBytes() {
-    ImageCaptureAction imageCaptureAction = new ImageCaptureAction(imageReader, cameraThread);
+  public BurstReading startBurstReading(PhotoBytesListener listener) {
+    discardImages();
 
-    return imageCaptureAction.getPhoto();
+    return new BurstReading(imageReader, cameraThread, listener);
+  }
+
+  private void discardImages() {
+    Image image;
+
+    while ((image = imageReader.acquireNextImage()) != null) {
+      image.close();
+    }
   }
 
   private void createImageReader() {
     Size largestSize = parametersProvider.getStillCaptureSize();
 
     imageReader =
-        ImageReader.newInstance(largestSize.width, largestSize.height, ImageFormat.JPEG, 1);
+        ImageReader.newInstance(largestSize.width, largestSize.height, ImageFormat.JPEG, MAX_IMAGES);
   }
 
-  private static class ImageCaptureAction implements ImageReader.OnImageAvailableListener {
+  /**
+   * Reads the Image of a single capture. Images arriving before the capture completed are held
+   * until its sensor timestamp tells which one belongs to it. Late Images of earlier captures are
+   * discarded.
+   */
+  public static class PhotoReading implements ImageReader.OnImageAvailableListener {
 
-    private final CountDownLatch countDownLatch = new CountDownLatch(1);
     private final ImageReader imageReader;
-    private byte[] bytes;
+    private final CameraCallback<byte[]> callback;
+    private final List<Image> heldImages = new ArrayList<>();
+    private boolean captureCompleted = false;
+    private Long sensorTimestamp = null;
+    private boolean finished = false;
 
-    private ImageCaptureAction(ImageReader imageReader, CameraThread cameraThread) {
+    private PhotoReading(ImageReader imageReader, CameraThread cameraThread,
+        CameraCallback<byte[]> callback) {
       this.imageReader = imageReader;
+      this.callback = callback;
       imageReader.setOnImageAvailableListener(this, cameraThread.createHandler());
     }
 
-    private byte[] getPhoto() {
-      Image image = imageReader.acquireLatestImage();
-      if (image != null) {
-        removeListener();
-        return imageToBytes(image);
+    @Override public void onImageAvailable(ImageReader reader) {
+      Image image;
+
+      while ((image = reader.acquireNextImage()) != null) {
+        Image photo = offer(image);
+
+        if (photo != null) {
+          callback.onResult(imageToBytes(photo));
+          return;
+        }
       }
+    }
+
+    /**
+     * Called once the capture completed.
+     *
+     * @param sensorTimestamp timestamp of the capture, {@code null} if the camera did not report
+     * it, in which case the latest Image is taken.
+     */
+    public void onCaptureCompleted(@Nullable Long sensorTimestamp) {
+      Image photo = null;
 
-      try {
-        countDownLatch.await();
-      } catch (InterruptedException e) {
-        // Do nothing
+      synchronized (this) {
+        if (finished) {
+          return;
+        }
+
+        captureCompleted = true;
+        this.sensorTimestamp = sensorTimestamp;
+
+        for (int i = heldImages.size() - 1; i >= 0 && photo == null; i--) {
+          if (belongsToCapture(heldImages.get(i))) {
+            photo = heldImages.remove(i);
+          }
+        }
+
+        if (photo != null) {
+          finish();
+        }
       }
 
-      return bytes;
+      if (photo != null) {
+        callback.onResult(imageToBytes(photo));
+      }
+    }
+
+    /**
+     * @return given Image if it is the photo, {@code null} if it was held or discarded.
+     */
+    private synchronized Image offer(Image image) {
+      if (finished) {
+        image.close();
+        return null;
+      }
+
+      if (!captureCompleted) {
+        heldImages.add(image);
+        return null;
+      }
+
+      if (!belongsToCapture(image)) {
+        image.close();
+        return null;
+      }
+
+      finish();
+      return image;
+    }
+
+    private boolean belongsToCapture(Image image) {
+      return sensorTimestamp == null || image.getTimestamp() == sensorTimestamp;
+    }
+
+    private synchronized void stop() {
+      if (!finished) {
+        finish();
+      }
+    }
+
+    private void finish() {
+      finished = true;
+      imageReader.setOnImageAvailableListener(null, null);
+
+      for (Image image : heldImages) {
+        image.close();
+      }
+      heldImages.clear();
+    }
+  }
+
+  private static byte[] imageToBytes(Image image) {
+    Image.Plane[] planes = image.getPlanes();
+
+    ByteBuffer buffer = planes[0].getBuffer();
+
+    byte[] result = new byte[buffer.remaining()];
+    buffer.get(result);
+
+    image.close();
+
+    return result;
+  }
+
+  /**
+   * Receives images of a burst.
+   */
+  public interface PhotoBytesListener {
+
+    /**
+     * Called on the camera thread for each image of the burst.
+     */
+    void onPhotoBytes(byte[] bytes);
+
+    /**
+     * Called once every expected image of the burst was read.
+     */
+    void onReadingCompleted();
+  }
+
+  /**
+   * Reads every image of a burst, oldest first.
+   */
+  public static class BurstReading implements ImageReader.OnImageAvailableListener {
+
+    private final ImageReader imageReader;
+    private final PhotoBytesListener listener;
+    private int imagesRead = 0;
+    private int imagesExpected = -1;
+    private boolean finished = false;
+
+    private BurstReading(ImageReader imageReader, CameraThread cameraThread,
+        PhotoBytesListener listener) {
+      this.imageReader = imageReader;
+      this.listener = listener;
+      imageReader.setOnImageAvailableListener(this, cameraThread.createHandler());
     }
 
     @Override public void onImageAvailable(ImageReader reader) {
-      Image image = reader.acquireLatestImage();
-      bytes = imageToBytes(image);
+      Image image = reader.acquireNextImage();
 
-      removeListener();
+      if (image == null) {
+        return;
+      }
 
-      countDownLatch.countDown();
+      synchronized (this) {
+        if (finished) {
+          image.close();
+          return;
+        }
+
+        imagesRead++;
+      }
+
+      listener.onPhotoBytes(imageToBytes(image));
+
+      completeIfRead();
     }
 
-    private byte[] imageToBytes(Image image) {
-      Image.Plane[] planes = image.getPlanes();
+    /**
+     * Completes the reading once given number of images was read, e.g. once the camera processed
+     * the burst and reported how many pictures it captured.
+     */
+    public void finishAfter(int imageCount) {
+      synchronized (this) {
+        imagesExpected = imageCount;
+      }
 
-      ByteBuffer buffer = planes[0].getBuffer();
+      completeIfRead();
+    }
 
-      byte[] result = new byte[buffer.remaining()];
-      buffer.get(result);
+    /**
+     * Stops reading without waiting for images which did not arrive yet.
+     */
+    public void abort() {
+      synchronized (this) {
+        if (finished) {
+          return;
+        }
 
-      image.close();
+        finish();
+      }
+    }
+
+    private void completeIfRead() {
+      synchronized (this) {
+        if (finished || imagesExpected < 0 || imagesRead < imagesExpected) {
+          return;
+        }
+
+        finish();
+      }
 
-      return result;
+      listener.onReadingCompleted();
     }
 
-    private void removeListener() {
+    private void finish() {
+      finished = true;
       imageReader.setOnImageAvailableListener(null, null);
     }
   }
@@ -0,0 +1,225 @@
+package io.fotoapparat.hardware.v2.readers;
+
+import io.fotoapparat.preview.BufferPool;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts planes of a {@code YUV_420_888} image into a single NV21 buffer.
+ * <p>
+ * Planes may be padded ({@code rowStride > width}) and chroma may be either planar
+ * ({@code pixelStride == 1}) or interleaved ({@code pixelStride == 2}). When the V and U planes
+ * are two views of the same VUVU... memory, which is what most devices produce, chroma rows are
+ * copied in bulk. Output buffers are taken from {@link BufferPool} and should be released back to
+ * it once they are no longer used.
+ * <p>
+ * Not thread safe.
+ */
+public class YuvToNv21Converter {
+
+  private static final int DETECTION_SAMPLES = 16;
+
+  private final BufferPool bufferPool;
+
+  private byte[] uRow = new byte[0];
+  private byte[] vRow = new byte[0];
+  private long bytesCopied = 0;
+  private Boolean interleavedVu = null;
+
+  public YuvToNv21Converter(BufferPool bufferPool) {
+    this.bufferPool = bufferPool;
+  }
+
+  /**
+   * @return size in bytes of NV21 image of given size.
+   */
+  public static int nv21Size(int width, int height) {
+    return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+  }
+
+  /**
+   * Converts the image. Positions of the given buffers are preserved.
+   *
+   * @param width width of the image in pixels.
+   * @param height height of the image in pixels.
+   * @param yPlane luma plane.
+   * @param yRowStride distance in bytes between starts of two luma rows.
+   * @param uPlane U (Cb) plane.
+   * @param vPlane V (Cr) plane.
+   * @param uvRowStride distance in bytes between starts of two chroma rows.
+   * @param uvPixelStride distance in bytes between two chroma samples of the same row.
+   * @return image in NV21 format, acquired from the {@link BufferPool}.
+   */
+  public byte[] convert(int width, int height, ByteBuffer yPlane, int yRowStride,
+      ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride) {
+    byte[] nv21 = bufferPool.acquire(nv21Size(width, height));
+
+    copyPlane(yPlane, yRowStride, width, height, nv21, 0);
+
+    int chromaWidth = (width + 1) / 2;
+    int chromaHeight = (height + 1) / 2;
+
+    if (uvPixelStride == 2 && isInterleavedVu(uPlane, vPlane)) {
+      copyInterleavedChroma(vPlane, uPlane, uvRowStride, chromaWidth, chromaHeight, nv21,
+          width * height);
+    } else {
+      interleaveChroma(uPlane, vPlane, uvRowStride, uvPixelStride, chromaWidth, chromaHeight,
+          nv21, width * height);
+    }
+
+    return nv21;
+  }
+
+  /**
+   * Copies only the luma plane. Position of the given buffer is preserved.
+   *
+   * @param width width of the image in pixels.
+   * @param height height of the image in pixels.
+   * @param yPlane luma plane.
+   * @param yRowStride distance in bytes between starts of two luma rows.
+   * @return luma of the image ({@code width * height} bytes, same layout as the beginning of an
+   * NV21 image), acquired from the {@link BufferPool}.
+   */
+  public byte[] convertLuma(int width, int height, ByteBuffer yPlane, int yRowStride) {
+    byte[] luma = bufferPool.acquire(width * height);
+
+    copyPlane(yPlane, yRowStride, width, height, luma, 0);
+
+    return luma;
+  }
+
+  /**
+   * @return total number of bytes read from image planes since converter was created.
+   */
+  public long getBytesCopied() {
+    return bytesCopied;
+  }
+
+  private void copyPlane(ByteBuffer plane, int rowStride, int width, int height, byte[] output,
+      int offset) {
+    int start = plane.position();
+
+    if (rowStride == width) {
+      plane.get(output, offset, width * height);
+    } else {
+      for (int row = 0; row < height; row++) {
+        plane.position(start + row * rowStride);
+        plane.get(output, offset + row * width, width);
+      }
+    }
+
+    plane.position(start);
+    bytesCopied += width * height;
+  }
+
+  /**
+   * V plane already holds VUVU... samples, so each chroma row is a single bulk copy. The V plane
+   * ends one byte before the last U sample, which is taken from the U plane.
+   */
+  private void copyInterleavedChroma(ByteBuffer vPlane, ByteBuffer uPlane, int rowStride,
+      int chromaWidth, int chromaHeight, byte[] output, int offset) {
+    int rowLength = chromaWidth * 2;
+    int vStart = vPlane.position();
+
+    if (rowStride == rowLength) {
+      vPlane.get(output, offset, rowLength * chromaHeight - 1);
+    } else {
+      for (int row = 0; row < chromaHeight; row++) {
+        boolean lastRow = row == chromaHeight - 1;
+
+        vPlane.position(vStart + row * rowStride);
+        vPlane.get(output, offset + row * rowLength, lastRow ? rowLength - 1 : rowLength);
+      }
+    }
+
+    vPlane.position(vStart);
+
+    output[offset + rowLength * chromaHeight - 1] =
+        uPlane.get(uPlane.position() + (chromaHeight - 1) * rowStride + (chromaWidth - 1) * 2);
+
+    bytesCopied += rowLength * chromaHeight;
+  }
+
+  private void interleaveChroma(ByteBuffer uPlane, ByteBuffer vPlane, int rowStride,
+      int pixelStride, int chromaWidth, int chromaHeight, byte[] output, int offset) {
+    int rowLength = (chromaWidth - 1) * pixelStride + 1;
+    ensureRowCapacity(rowLength);
+
+    int uStart = uPlane.position();
+    int vStart = vPlane.position();
+    int outputIndex = offset;
+
+    for (int row = 0; row < chromaHeight; row++) {
+      uPlane.position(uStart + row * rowStride);
+      uPlane.get(uRow, 0, rowLength);
+      vPlane.position(vStart + row * rowStride);
+      vPlane.get(vRow, 0, rowLength);
+
+      for (int column = 0; column < rowLength; column += pixelStride) {
+        output[outputIndex++] = vRow[column];
+        output[outputIndex++] = uRow[column];
+      }
+    }
+
+    uPlane.position(uStart);
+    vPlane.position(vStart);
+    bytesCopied += 2L * rowLength * chromaHeight;
+  }
+
+  private void ensureRowCapacity(int rowLength) {
+    if (uRow.length < rowLength) {
+      uRow = new byte[rowLength];
+      vRow = new byte[rowLength];
+    }
+  }
+
+  /**
+   * Checks whether U plane is a view of V plane shifted by one byte, i.e. both of them point into
+   * the same VUVU... memory. Planes are only read. The answer does not change between images of
+   * the same reader, so it is remembered once it is known. Images whose sampled chroma is flat
+   * cannot tell the layouts apart and are treated as not interleaved.
+   */
+  private boolean isInterleavedVu(ByteBuffer uPlane, ByteBuffer vPlane) {
+    if (interleavedVu == null) {
+      interleavedVu = detectInterleavedVu(uPlane, vPlane);
+    }
+
+    return interleavedVu == Boolean.TRUE;
+  }
+
+  /**
+   * @return {@code true} or {@code false} if layout is known, {@code null} if image is
+   * inconclusive.
+   */
+  private static Boolean detectInterleavedVu(ByteBuffer uPlane, ByteBuffer vPlane) {
+    int length = uPlane.remaining();
+
+    if (length < 2 || vPlane.remaining() != length) {
+      return Boolean.FALSE;
+    }
+
+    if (uPlane.hasArray() && vPlane.hasArray()) {
+      int uOffset = uPlane.arrayOffset() + uPlane.position();
+      int vOffset = vPlane.arrayOffset() + vPlane.position();
+
+      return uPlane.array() == vPlane.array() && uOffset == vOffset + 1;
+    }
+
+    int uStart = uPlane.position();
+    int vStart = vPlane.position() + 1;
+    byte first = uPlane.get(uStart);
+    boolean flat = true;
+
+    for (int sample = 0; sample < DETECTION_SAMPLES; sample++) {
+      int offset = (int) ((long) sample * (length - 2) / (DETECTION_SAMPLES - 1));
+      byte u = uPlane.get(uStart + offset);
+
+      if (u != vPlane.get(vStart + offset)) {
+        return Boolean.FALSE;
+      }
+
+      flat &= u == first;
+    }
+
+    return flat ? null : Boolean.TRUE;
+  }
+}
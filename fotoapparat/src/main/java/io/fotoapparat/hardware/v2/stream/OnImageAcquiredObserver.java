@@ -20,9 +20,21 @@ public interface OnImageAcquiredObserver {
     /**
      * Called when an image has been acquired.
      *
-     * @param bytes The image as a byte array.
+     * @param bytes The image as a byte array, acquired from the {@link
+     * io.fotoapparat.preview.BufferPool} shared with the observer. Listener takes ownership of
+     * the array and must release it back to the pool once it is no longer used. Holds NV21 image
+     * if {@link #isChromaRequired()} returned {@code true}, only the luma plane otherwise.
+     * @param timestampNanos sensor timestamp of the image.
      */
-    void onFrameAcquired(byte[] bytes);
+    void onFrameAcquired(byte[] bytes, long timestampNanos);
+
+    /**
+     * Called before every image is converted.
+     *
+     * @return {@code true} if listener needs chroma of the image. Otherwise only the luma plane
+     * is copied.
+     */
+    boolean isChromaRequired();
   }
 }
 
@@ -1,67 +1,123 @@
 package io.fotoapparat.hardware.v2.stream;
 
 import android.support.annotation.NonNull;
+import io.fotoapparat.hardware.v2.orientation.OrientationManager;
 import io.fotoapparat.hardware.v2.parameters.ParametersProvider;
-import io.fotoapparat.log.Logger;
+import io.fotoapparat.preview.BackpressurePolicy;
+import io.fotoapparat.preview.BufferPool;
+import io.fotoapparat.preview.BufferRecycler;
 import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.FrameDispatcher;
 import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.LatencyBudget;
 import io.fotoapparat.preview.PreviewStream;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.preview.ProcessorStatistics;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * {@link PreviewStream} of Camera v2.
+ * {@link PreviewStream} of Camera v2. Like the callback buffers of Camera v1, at most
+ * {@link #setBufferCount(int)} frame buffers are in use at any time. Frames arriving while all of
+ * them are used by processors are dropped. Frames are rotated like photos, according to the
+ * current display orientation.
  */
 @SuppressWarnings("NewApi") public class PreviewStream2
     implements PreviewStream, OnImageAcquiredObserver.OnFrameAcquiredListener {
 
+  private static Executor FRAME_PROCESSORS_EXECUTOR = Executors.newSingleThreadExecutor();
+  private static Executor PARALLEL_FRAME_PROCESSORS_EXECUTOR = Executors.newCachedThreadPool();
+
   private final OnImageAcquiredObserver imageAcquiredObserver;
   private final ParametersProvider parametersProvider;
-  private final Logger logger;
+  private final OrientationManager orientationManager;
+  private final FrameDispatcher frameDispatcher;
+  private final BufferPool bufferPool;
+  private final AtomicInteger buffersInUse = new AtomicInteger();
+  private final AtomicLong framesDroppedByCamera = new AtomicLong();
 
-  private final Set<FrameProcessor> frameProcessors = new LinkedHashSet<>();
+  private volatile int bufferCount = DEFAULT_BUFFER_COUNT;
+  private long nextSequenceNumber = 0;
 
   public PreviewStream2(OnImageAcquiredObserver imageAcquiredObserver,
-      ParametersProvider parametersProvider, Logger logger) {
+      ParametersProvider parametersProvider, OrientationManager orientationManager,
+      final BufferPool bufferPool) {
     this.imageAcquiredObserver = imageAcquiredObserver;
     this.parametersProvider = parametersProvider;
-    this.logger = logger;
+    this.orientationManager = orientationManager;
+    this.bufferPool = bufferPool;
+    this.frameDispatcher = new FrameDispatcher(
+        FRAME_PROCESSORS_EXECUTOR,
+        PARALLEL_FRAME_PROCESSORS_EXECUTOR,
+        new BufferRecycler() {
+          @Override public void recycle(byte[] buffer) {
+            bufferPool.release(buffer);
+            buffersInUse.decrementAndGet();
+          }
+        }
+    );
   }
 
   @Override public void addFrameToBuffer() {
     // Does nothing
   }
 
-  @Override public void addProcessor(@NonNull FrameProcessor processor) {
-    synchronized (frameProcessors) {
-      frameProcessors.add(processor);
+  @Override public void setBufferCount(int bufferCount) {
+    if (bufferCount < 1) {
+      throw new IllegalArgumentException(
+          "At least one preview buffer is required, got: " + bufferCount);
     }
+
+    this.bufferCount = bufferCount;
+  }
+
+  @Override public void setBackpressurePolicy(@NonNull BackpressurePolicy policy) {
+    frameDispatcher.setBackpressurePolicy(policy);
+  }
+
+  @Override public void setLatencyBudget(@NonNull LatencyBudget latencyBudget) {
+    frameDispatcher.setLatencyBudget(latencyBudget);
+  }
+
+  @Override public void addProcessor(@NonNull FrameProcessor processor) {
+    frameDispatcher.addProcessor(processor);
   }
 
   @Override public void removeProcessor(@NonNull FrameProcessor processor) {
-    synchronized (frameProcessors) {
-      frameProcessors.remove(processor);
-    }
+    frameDispatcher.removeProcessor(processor);
   }
 
   @Override public void start() {
     imageAcquiredObserver.setListener(this);
+  }
 
-    logger.log(
-        "Frame processors are currently not supported in Camera2. To use them please switch to Camera1.");
+  @Override public PreviewStreamStatistics getStatistics() {
+    return new PreviewStreamStatistics(frameDispatcher.getFramesReceived(),
+        frameDispatcher.getFramesProcessed(), frameDispatcher.getFramesPending(),
+        frameDispatcher.getFramesDropped(), framesDroppedByCamera.get());
   }
 
-  @Override public void onFrameAcquired(byte[] bytes) {
-    synchronized (frameProcessors) {
-      dispatchFrame(bytes);
-    }
+  @Override public List<ProcessorStatistics> getProcessorStatistics() {
+    return frameDispatcher.getProcessorStatistics();
   }
 
-  private void dispatchFrame(byte[] image) {
-    final Frame frame = new Frame(parametersProvider.getPreviewSize(), image, 0);
+  @Override public boolean isChromaRequired() {
+    return frameDispatcher.isChromaRequired();
+  }
 
-    for (FrameProcessor frameProcessor : frameProcessors) {
-      frameProcessor.processFrame(frame);
+  @Override public void onFrameAcquired(byte[] bytes, long timestampNanos) {
+    if (buffersInUse.get() >= bufferCount) {
+      bufferPool.release(bytes);
+      framesDroppedByCamera.incrementAndGet();
+      return;
     }
+
+    buffersInUse.incrementAndGet();
+
+    frameDispatcher.dispatch(new Frame(parametersProvider.getPreviewSize(), bytes,
+        orientationManager.getPhotoOrientation(), nextSequenceNumber++, timestampNanos));
   }
 }
@@ -0,0 +1,74 @@
+package io.fotoapparat.preview;
+
+/**
+ * Decides what {@link PreviewStream} does with new frames while frame processors are still busy
+ * with the previous ones. Frames wait for processors in a bounded hand-off queue, the policy
+ * decides what happens when that queue is full.
+ */
+public class BackpressurePolicy {
+
+  /**
+   * Maximum number of frames waiting for processors.
+   */
+  final int capacity;
+
+  /**
+   * {@code true} if new frames are held back, together with their image buffers, until there is a
+   * free slot, {@code false} if the oldest waiting frame is dropped to make room for the new one.
+   */
+  final boolean blocking;
+
+  private BackpressurePolicy(int capacity, boolean blocking) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1, got: " + capacity);
+    }
+
+    this.capacity = capacity;
+    this.blocking = blocking;
+  }
+
+  /**
+   * Processors always receive the most recent frame. A frame which was not picked up by the
+   * processors before the next one arrived is dropped. Default policy.
+   */
+  public static BackpressurePolicy latestOnly() {
+    return new BackpressurePolicy(1, false);
+  }
+
+  /**
+   * Up to {@code capacity} frames wait for processors. When the queue is full the oldest waiting
+   * frame is dropped.
+   */
+  public static BackpressurePolicy dropOldest(int capacity) {
+    return new BackpressurePolicy(capacity, false);
+  }
+
+  /**
+   * Up to {@code capacity} frames wait for processors. When the queue is full new frames are held
+   * back and their image buffers are not handed back to the camera, so no frame is dropped by the
+   * stream. The camera then runs out of buffers and drops frames itself. The camera thread never
+   * waits for processors.
+   */
+  public static BackpressurePolicy block(int capacity) {
+    return new BackpressurePolicy(capacity, true);
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    BackpressurePolicy that = (BackpressurePolicy) o;
+
+    return capacity == that.capacity && blocking == that.blocking;
+  }
+
+  @Override public int hashCode() {
+    int result = capacity;
+    result = 31 * result + (blocking ? 1 : 0);
+    return result;
+  }
+
+  @Override public String toString() {
+    return "BackpressurePolicy{" + "capacity=" + capacity + ", blocking=" + blocking + '}';
+  }
+}
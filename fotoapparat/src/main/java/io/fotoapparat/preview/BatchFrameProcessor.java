@@ -0,0 +1,20 @@
+package io.fotoapparat.preview;
+
+import java.util.List;
+
+/**
+ * Performs processing on groups of preview frames, for consumers which amortize per-call overhead
+ * across several frames (e.g. batched inference).
+ * <p>
+ * Register with {@link FrameProcessors#batched(BatchFrameProcessor, int, long)}.
+ */
+public interface BatchFrameProcessor {
+
+  /**
+   * Performs processing on a batch of frames. Frames and the list are reused once the method
+   * returns, {@link Frame#acquire()} a frame to keep it.
+   *
+   * @param frames frames in order of arrival, at least one.
+   */
+  void processFrames(List<Frame> frames);
+}
@@ -0,0 +1,66 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame processor which collects frames into batches for a {@link BatchFrameProcessor}. Frames
+ * are copied into buffers from {@link BufferPool}, so preview buffers go back to the camera right
+ * away while a batch is being collected.
+ */
+class BatchingFrameProcessor implements FrameProcessor {
+
+  final BatchFrameProcessor batchFrameProcessor;
+
+  private final int batchSize;
+  private final long maxDelayNanos;
+  private final BufferPool bufferPool;
+  private final List<Frame> batch;
+  private final List<Frame> batchView;
+
+  BatchingFrameProcessor(@NonNull BatchFrameProcessor batchFrameProcessor, int batchSize,
+      long maxDelayMillis) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1, got: " + batchSize);
+    }
+
+    if (maxDelayMillis < 0) {
+      throw new IllegalArgumentException(
+          "Maximum delay must not be negative, got: " + maxDelayMillis);
+    }
+
+    this.batchFrameProcessor = batchFrameProcessor;
+    this.batchSize = batchSize;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    this.bufferPool = new BufferPool(batchSize + 1);
+    this.batch = new ArrayList<>(batchSize);
+    this.batchView = Collections.unmodifiableList(batch);
+  }
+
+  @Override public void processFrame(Frame frame) {
+    if (!batch.isEmpty() && frame.timestampNanos - batch.get(0).timestampNanos >= maxDelayNanos) {
+      deliverBatch();
+    }
+
+    batch.add(frame.copy(bufferPool));
+
+    if (batch.size() >= batchSize) {
+      deliverBatch();
+    }
+  }
+
+  private void deliverBatch() {
+    try {
+      batchFrameProcessor.processFrames(batchView);
+    } finally {
+      for (Frame frame : batch) {
+        frame.release();
+      }
+
+      batch.clear();
+    }
+  }
+}
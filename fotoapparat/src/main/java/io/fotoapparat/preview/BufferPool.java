@@ -0,0 +1,87 @@
+package io.fotoapparat.preview;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of byte arrays which lets the preview pipeline reuse frame-sized buffers instead of
+ * allocating new ones for every frame. Thread safe.
+ */
+public class BufferPool {
+
+  private final List<SizeClass> sizeClasses = new ArrayList<>();
+  private final int maxPooledBuffersPerSize;
+
+  private long allocationCount = 0;
+
+  /**
+   * @param maxPooledBuffersPerSize how many free buffers of the same size are retained. Buffers
+   * released above this limit are left to the garbage collector.
+   */
+  public BufferPool(int maxPooledBuffersPerSize) {
+    this.maxPooledBuffersPerSize = maxPooledBuffersPerSize;
+  }
+
+  /**
+   * @return free buffer of exactly given size. Allocates a new one if there is no free buffer of
+   * that size in the pool. Content of the buffer is undefined.
+   */
+  public synchronized byte[] acquire(int size) {
+    SizeClass sizeClass = sizeClassOf(size);
+
+    if (!sizeClass.freeBuffers.isEmpty()) {
+      return sizeClass.freeBuffers.pop();
+    }
+
+    allocationCount++;
+
+    return new byte[size];
+  }
+
+  /**
+   * Returns buffer to the pool, so it can be acquired again. Buffer must not be used by the caller
+   * afterwards.
+   */
+  public synchronized void release(byte[] buffer) {
+    SizeClass sizeClass = sizeClassOf(buffer.length);
+
+    if (sizeClass.freeBuffers.size() < maxPooledBuffersPerSize) {
+      sizeClass.freeBuffers.push(buffer);
+    }
+  }
+
+  /**
+   * @return number of buffers which pool had to allocate since it was created.
+   */
+  public synchronized long getAllocationCount() {
+    return allocationCount;
+  }
+
+  private SizeClass sizeClassOf(int size) {
+    // Only a handful of distinct sizes is used by the pipeline, linear search is the cheapest.
+    for (int i = 0; i < sizeClasses.size(); i++) {
+      SizeClass sizeClass = sizeClasses.get(i);
+
+      if (sizeClass.size == size) {
+        return sizeClass;
+      }
+    }
+
+    SizeClass sizeClass = new SizeClass(size, maxPooledBuffersPerSize);
+    sizeClasses.add(sizeClass);
+
+    return sizeClass;
+  }
+
+  private static class SizeClass {
+
+    final int size;
+    final ArrayDeque<byte[]> freeBuffers;
+
+    SizeClass(int size, int capacity) {
+      this.size = size;
+      this.freeBuffers = new ArrayDeque<>(Math.max(1, capacity));
+    }
+  }
+}
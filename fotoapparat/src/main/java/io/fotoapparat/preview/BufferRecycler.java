@@ -0,0 +1,12 @@
+package io.fotoapparat.preview;
+
+/**
+ * Takes back the image buffer of a frame once nobody uses it anymore.
+ */
+public interface BufferRecycler {
+
+  /**
+   * Called when buffer is no longer used by the stream, so it can be reused for another frame.
+   */
+  void recycle(byte[] buffer);
+}
@@ -0,0 +1,79 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.parameter.Size;
+
+/**
+ * Frame processor which passes only a {@link RegionOfInterest} of the frames to another
+ * processor. Region is copied into a compact buffer taken from {@link BufferPool}, so the
+ * processor reads contiguous memory instead of striding over the whole frame.
+ */
+class CroppingFrameProcessor implements FrameProcessor {
+
+  final FrameProcessor frameProcessor;
+
+  private final RegionOfInterest regionOfInterest;
+  private final BufferPool bufferPool = new BufferPool(PreviewStream.DEFAULT_BUFFER_COUNT);
+  private final BufferRecycler bufferRecycler = new BufferRecycler() {
+    @Override public void recycle(byte[] buffer) {
+      bufferPool.release(buffer);
+    }
+  };
+
+  CroppingFrameProcessor(@NonNull FrameProcessor frameProcessor,
+      @NonNull RegionOfInterest regionOfInterest) {
+    this.frameProcessor = frameProcessor;
+    this.regionOfInterest = regionOfInterest;
+  }
+
+  @Override public void processFrame(Frame frame) {
+    RegionOfInterest.Crop crop = regionOfInterest.toCrop(frame.size, frame.rotation);
+
+    if (crop.isEmpty()) {
+      return;
+    }
+
+    Frame croppedFrame = crop(frame, crop);
+
+    try {
+      frameProcessor.processFrame(croppedFrame);
+    } finally {
+      croppedFrame.release();
+    }
+  }
+
+  private Frame crop(Frame frame, RegionOfInterest.Crop crop) {
+    int lumaSize = crop.width * crop.height;
+    boolean hasChroma = frame.hasChroma();
+
+    byte[] image = bufferPool.acquire(hasChroma ? lumaSize + lumaSize / 2 : lumaSize);
+
+    copyRows(frame.image, 0, frame.size.width, crop.top, crop.height, crop.left, crop.width,
+        image, 0);
+
+    if (hasChroma) {
+      int chromaRowStride = 2 * ((frame.size.width + 1) / 2);
+
+      copyRows(frame.image, frame.size.width * frame.size.height, chromaRowStride, crop.top / 2,
+          crop.height / 2, crop.left, crop.width, image, lumaSize);
+    }
+
+    Frame croppedFrame = new Frame(new Size(crop.width, crop.height), image, frame.rotation,
+        frame.sequenceNumber, frame.timestampNanos);
+    croppedFrame.setMotionScore(frame.getMotionScore());
+    croppedFrame.share(1, bufferRecycler, bufferPool);
+
+    return croppedFrame;
+  }
+
+  private static void copyRows(byte[] source, int sourceOffset, int sourceRowStride,
+      int firstRow, int rowCount, int rowOffset, int rowLength, byte[] target, int targetOffset) {
+    for (int row = 0; row < rowCount; row++) {
+      System.arraycopy(
+          source, sourceOffset + (firstRow + row) * sourceRowStride + rowOffset,
+          target, targetOffset + row * rowLength,
+          rowLength
+      );
+    }
+  }
+}
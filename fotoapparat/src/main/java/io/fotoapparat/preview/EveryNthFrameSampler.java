@@ -0,0 +1,34 @@
+package io.fotoapparat.preview;
+
+/**
+ * Accepts the first frame and then every n-th frame after it.
+ */
+class EveryNthFrameSampler implements FrameSampler {
+
+  private final int n;
+
+  private int framesSkipped;
+
+  EveryNthFrameSampler(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("n must be positive, got: " + n);
+    }
+
+    this.n = n;
+    this.framesSkipped = n - 1;
+  }
+
+  @Override public boolean accept(Frame frame) {
+    return accept(frame.timestampNanos);
+  }
+
+  boolean accept(long timestampNanos) {
+    if (framesSkipped < n - 1) {
+      framesSkipped++;
+      return false;
+    }
+
+    framesSkipped = 0;
+    return true;
+  }
+}
@@ -0,0 +1,68 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Frame processor which keeps {@link LumaStatistics} of the latest frame, so code outside of the
+ * preview stream (for example, deciding whether to fire the flash before taking a picture) can
+ * read them at any time. Only reads luma, so it can be wrapped with
+ * {@link FrameProcessors#lumaOnly(FrameProcessor)}. Thread safe.
+ * <p>
+ * Given to {@link io.fotoapparat.FotoapparatBuilder#exposureMeter(ExposureMeter)}, it also tells
+ * captures whether to measure exposure before the picture, see {@link #isPoorlyExposed()}.
+ */
+public class ExposureMeter implements FrameProcessor {
+
+  /**
+   * Fraction of clipped highlights above which the latest frame counts as overexposed.
+   */
+  public static final float MAX_HIGHLIGHT_CLIPPING_RATIO = 0.05f;
+
+  /**
+   * Fraction of clipped shadows above which the latest frame counts as underexposed.
+   */
+  public static final float MAX_SHADOW_CLIPPING_RATIO = 0.25f;
+
+  private final LumaStatistics latestStatistics = new LumaStatistics();
+
+  private boolean measured = false;
+
+  @Override public void processFrame(Frame frame) {
+    LumaStatistics statistics = frame.getLumaStatistics();
+
+    synchronized (latestStatistics) {
+      statistics.copyTo(latestStatistics);
+      measured = true;
+    }
+  }
+
+  /**
+   * Copies statistics of the latest frame into given instance.
+   *
+   * @return {@code false} if no frame was measured yet. Target is left untouched then.
+   */
+  public boolean getLatestStatistics(@NonNull LumaStatistics target) {
+    synchronized (latestStatistics) {
+      if (!measured) {
+        return false;
+      }
+
+      latestStatistics.copyTo(target);
+      return true;
+    }
+  }
+
+  /**
+   * @return {@code true} if the latest frame clips more highlights than
+   * {@link #MAX_HIGHLIGHT_CLIPPING_RATIO} or more shadows than {@link #MAX_SHADOW_CLIPPING_RATIO},
+   * so exposure should be measured again before taking a picture. {@code false} if no frame was
+   * measured yet.
+   */
+  public boolean isPoorlyExposed() {
+    synchronized (latestStatistics) {
+      return measured
+          && (latestStatistics.getHighlightClippingRatio() > MAX_HIGHLIGHT_CLIPPING_RATIO
+          || latestStatistics.getShadowClippingRatio() > MAX_SHADOW_CLIPPING_RATIO);
+    }
+  }
+}
@@ -1,20 +1,31 @@
 package io.fotoapparat.preview;
 
 import io.fotoapparat.parameter.Size;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Frame of the preview stream.
+ * <p>
+ * Image buffer of the frame is reused by the stream once nobody holds a lease on it. The stream
+ * holds the lease while {@link FrameProcessor#processFrame(Frame)} runs. Processor which wants to
+ * use the frame after the method returns (for example, on another thread) must {@link #acquire()}
+ * its own lease and {@link #release()} it afterwards.
  */
 public class Frame {
 
+  private static final int LUMA_STATISTICS_SAMPLING_STEP = 4;
+  private static final int SHARPNESS_SAMPLING_STEP = 4;
+
   /**
    * Size of the frame in pixels (before rotation).
    */
   public final Size size;
 
   /**
-   * Image in NV21 format.
+   * Image in NV21 format. Luma occupies the first {@code width * height} bytes. Frames delivered
+   * only to luma processors might contain nothing else, see {@link #hasChroma()}.
    */
   public final byte[] image;
 
@@ -23,10 +34,272 @@ public class Frame {
    */
   public final int rotation;
 
+  /**
+   * Number of the frame in the preview stream, starting from 0. Frames received from the camera
+   * are numbered consecutively, so a gap between frames seen by a processor means the frames in
+   * between were dropped or skipped.
+   */
+  public final long sequenceNumber;
+
+  /**
+   * Time the frame was captured in nanoseconds. Camera2 reports the sensor timestamp of the
+   * image, Camera1 the {@link System#nanoTime()} at which the frame arrived. Only differences
+   * between timestamps of the same stream are meaningful.
+   */
+  public final long timestampNanos;
+
+  private final AtomicInteger leases = new AtomicInteger(1);
+  private volatile BufferRecycler bufferRecycler = null;
+  private BufferPool bufferPool = null;
+  private LumaPyramid lumaPyramid = null;
+  private Frame upright = null;
+  private LumaStatistics lumaStatistics = null;
+  private volatile float motionScore = Float.NaN;
+  private float sharpness = Float.NaN;
+
+  /**
+   * Creates frame with sequence number 0, timestamped with the current time.
+   */
   public Frame(Size size, byte[] image, int rotation) {
+    this(size, image, rotation, 0, System.nanoTime());
+  }
+
+  public Frame(Size size, byte[] image, int rotation, long sequenceNumber, long timestampNanos) {
     this.size = size;
     this.image = image;
     this.rotation = rotation;
+    this.sequenceNumber = sequenceNumber;
+    this.timestampNanos = timestampNanos;
+  }
+
+  /**
+   * @return {@code false} if the image only contains luma, i.e. it is exactly
+   * {@code width * height} bytes long. {@code true} otherwise.
+   * @see FrameProcessors#lumaOnly(FrameProcessor)
+   */
+  public boolean hasChroma() {
+    return image.length != size.width * size.height;
+  }
+
+  /**
+   * @return read-only view of the luma plane of the image, one byte per pixel, row by row. View
+   * shares memory with {@link #image}.
+   */
+  public ByteBuffer getLuma() {
+    return ByteBuffer.wrap(image, 0, size.width * size.height)
+        .slice()
+        .asReadOnlyBuffer();
+  }
+
+  /**
+   * @return how much luma of the frame differs from the previous frame of the stream, from 0 (no
+   * change) to 1 (black turned white). Computed from a sparse grid of pixels, only while a
+   * processor registered with {@link FrameProcessors#motionGated(FrameProcessor, float)} is
+   * added to the stream. {@link Float#NaN} otherwise.
+   */
+  public float getMotionScore() {
+    return motionScore;
+  }
+
+  void setMotionScore(float motionScore) {
+    this.motionScore = motionScore;
+  }
+
+  /**
+   * Returns luma of the frame downscaled by a factor of {@code 2^level}: level 0 is full
+   * resolution, level 1 is half of it, level 2 is a quarter and so on. Each level is computed once,
+   * on first request, and shared by all processors of the frame.
+   *
+   * @throws IllegalArgumentException if level is negative or the frame is too small for it.
+   */
+  public LumaImage getLumaLevel(int level) {
+    return lumaPyramid().getLevel(level);
+  }
+
+  private synchronized LumaPyramid lumaPyramid() {
+    if (lumaPyramid == null) {
+      lumaPyramid = new LumaPyramid(
+          size,
+          image,
+          bufferPool()
+      );
+    }
+
+    return lumaPyramid;
+  }
+
+  /**
+   * Returns histogram and statistics of luma of every 4th pixel of every 4th row. Computed once,
+   * on first request, and shared by all processors of the frame. Returned instance is reused once
+   * the frame is released, copy it with {@link LumaStatistics#copyTo(LumaStatistics)} to keep it.
+   */
+  public synchronized LumaStatistics getLumaStatistics() {
+    if (lumaStatistics == null) {
+      lumaStatistics = LumaStatistics.obtain();
+      lumaStatistics.compute(image, size.width, size.height, LUMA_STATISTICS_SAMPLING_STEP);
+    }
+
+    return lumaStatistics;
+  }
+
+  /**
+   * Returns sharpness of the frame: variance of the Laplacian of luma at every 4th pixel of every
+   * 4th row. Higher is sharper, blurred frames score low. Only comparable between frames of the
+   * same stream. Computed once, on first request.
+   */
+  public synchronized float getSharpness() {
+    if (Float.isNaN(sharpness)) {
+      sharpness = SharpnessMeter.score(image, size.width, size.height, SHARPNESS_SAMPLING_STEP);
+    }
+
+    return sharpness;
+  }
+
+  /**
+   * Returns the frame rotated by {@link #rotation}, so it is upright for the user. Rotated image
+   * is computed once, on first request, and shared by all processors of the frame. Frames which do
+   * not need to be rotated return themselves.
+   * <p>
+   * Upright frame is released together with this frame. Processor which keeps it after
+   * {@link FrameProcessor#processFrame(Frame)} returns must {@link #acquire()} it as well.
+   *
+   * @throws IllegalArgumentException if rotation is not a multiple of 90 degrees.
+   */
+  public synchronized Frame getUpright() {
+    int normalizedRotation = FrameRotation.normalize(rotation);
+
+    if (normalizedRotation == 0) {
+      return this;
+    }
+
+    if (upright == null) {
+      final BufferPool bufferPool = bufferPool();
+      byte[] uprightImage = bufferPool.acquire(image.length);
+
+      FrameRotation.rotate(image, size.width, size.height, hasChroma(), normalizedRotation,
+          uprightImage);
+
+      upright = new Frame(
+          normalizedRotation == 180 ? size : size.flip(),
+          uprightImage,
+          0,
+          sequenceNumber,
+          timestampNanos
+      );
+      upright.setMotionScore(motionScore);
+      upright.share(1, new BufferRecycler() {
+        @Override public void recycle(byte[] buffer) {
+          bufferPool.release(buffer);
+        }
+      }, bufferPool);
+    }
+
+    return upright;
+  }
+
+  /**
+   * @return copy of the frame in a buffer from given pool. Copy is leased once and its buffer goes
+   * back to the pool when the lease is released.
+   */
+  Frame copy(final BufferPool pool) {
+    byte[] copiedImage = pool.acquire(image.length);
+    System.arraycopy(image, 0, copiedImage, 0, image.length);
+
+    Frame copy = new Frame(size, copiedImage, rotation, sequenceNumber, timestampNanos);
+    copy.setMotionScore(motionScore);
+
+    synchronized (this) {
+      copy.sharpness = sharpness;
+    }
+
+    copy.share(1, new BufferRecycler() {
+      @Override public void recycle(byte[] buffer) {
+        pool.release(buffer);
+      }
+    }, pool);
+
+    return copy;
+  }
+
+  private BufferPool bufferPool() {
+    return bufferPool != null ? bufferPool : new BufferPool(0);
+  }
+
+  /**
+   * Takes a lease on the frame, so its image is not reused until the lease is released. Every call
+   * must be matched by exactly one call to {@link #release()}.
+   *
+   * @return this frame.
+   * @throws IllegalStateException if every lease was already released and the image might be
+   * reused.
+   */
+  public Frame acquire() {
+    while (true) {
+      int current = leases.get();
+
+      if (current <= 0) {
+        throw new IllegalStateException("Frame was already released");
+      }
+
+      if (leases.compareAndSet(current, current + 1)) {
+        return this;
+      }
+    }
+  }
+
+  /**
+   * Releases a lease on the frame. Once the last lease is released the image is given back to
+   * the stream and must not be used anymore.
+   *
+   * @throws IllegalStateException if frame was released more times than acquired.
+   */
+  public void release() {
+    int remaining = leases.decrementAndGet();
+
+    if (remaining < 0) {
+      throw new IllegalStateException("Frame was released more times than acquired");
+    }
+
+    BufferRecycler bufferRecycler = this.bufferRecycler;
+
+    if (remaining == 0) {
+      releaseDerivedImages();
+    }
+
+    if (remaining == 0 && bufferRecycler != null) {
+      bufferRecycler.recycle(image);
+    }
+  }
+
+  /**
+   * Hands the frame over to several owners. Image is recycled once each of them and every
+   * processor which acquired the frame release it. Levels of the luma pyramid and the upright
+   * image are computed in buffers from the given pool.
+   */
+  void share(int owners, BufferRecycler bufferRecycler, BufferPool bufferPool) {
+    synchronized (this) {
+      this.bufferPool = bufferPool;
+    }
+
+    this.bufferRecycler = bufferRecycler;
+    this.leases.set(owners);
+  }
+
+  private synchronized void releaseDerivedImages() {
+    if (lumaPyramid != null) {
+      lumaPyramid.release();
+      lumaPyramid = null;
+    }
+
+    if (upright != null) {
+      upright.release();
+      upright = null;
+    }
+
+    if (lumaStatistics != null) {
+      LumaStatistics.recycle(lumaStatistics);
+      lumaStatistics = null;
+    }
   }
 
   @Override public boolean equals(Object o) {
@@ -35,14 +308,19 @@ public class Frame {
 
     Frame frame = (Frame) o;
 
-    return rotation == frame.rotation && size.equals(frame.size) && Arrays.equals(image,
-        frame.image);
+    return rotation == frame.rotation
+        && sequenceNumber == frame.sequenceNumber
+        && timestampNanos == frame.timestampNanos
+        && size.equals(frame.size)
+        && Arrays.equals(image, frame.image);
   }
 
   @Override public int hashCode() {
     int result = size.hashCode();
     result = 31 * result + Arrays.hashCode(image);
     result = 31 * result + rotation;
+    result = 31 * result + (int) (sequenceNumber ^ (sequenceNumber >>> 32));
+    result = 31 * result + (int) (timestampNanos ^ (timestampNanos >>> 32));
     return result;
   }
 
@@ -54,6 +332,10 @@ public class Frame {
         + Arrays.toString(image)
         + ", rotation="
         + rotation
+        + ", sequenceNumber="
+        + sequenceNumber
+        + ", timestampNanos="
+        + timestampNanos
         + '}';
   }
 }
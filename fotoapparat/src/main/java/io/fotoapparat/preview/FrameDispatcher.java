@@ -0,0 +1,525 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands frames produced by the camera over to {@link FrameProcessor}s on background executors.
+ * <p>
+ * Regular processors run one after another on a single lane. Processors grouped with
+ * {@link FrameProcessors#parallel(FrameProcessor...)} get a dedicated lane each, so they read the
+ * same frame concurrently. So do sampled processors, such as
+ * {@link FrameProcessors#everyNthFrame(FrameProcessor, int)}, which are not offered skipped frames
+ * at all, and batched processors. While a motion gated processor is registered, every frame is
+ * scored against the previous one before it is offered to the lanes. Every lane waits for its
+ * processor in a bounded queue governed by {@link BackpressurePolicy}, so a slow processor can not
+ * make the backlog grow without bounds.
+ * Every call of a processor is timed, see {@link #getProcessorStatistics()}, and checked against
+ * {@link LatencyBudget}.
+ * Image buffer is handed to {@link BufferRecycler} once every lane is done with the frame and every
+ * lease acquired by processors is released.
+ * <p>
+ * Dispatch reads an immutable snapshot of the registered processors, so registering or removing a
+ * processor never waits for frame processing. A processor can still receive a frame which was
+ * being dispatched at the moment it was removed.
+ */
+public class FrameDispatcher {
+
+  private static final int MOTION_SAMPLING_STEP = 8;
+
+  private final Executor executor;
+  private final Executor dedicatedExecutor;
+  private final BufferRecycler bufferRecycler;
+
+  private final Object registrationLock = new Object();
+  private final Object dispatchLock = new Object();
+  private final Map<FrameProcessor, ProcessorMonitor> frameProcessors = new LinkedHashMap<>();
+  private final Map<FrameProcessor, List<FrameLane>> dedicatedLanes = new LinkedHashMap<>();
+  private final Map<FrameProcessor, List<ProcessorMonitor>> dedicatedMonitors =
+      new LinkedHashMap<>();
+  private final AtomicLong framesReceived = new AtomicLong();
+  private final AtomicLong framesProcessed = new AtomicLong();
+  private final AtomicLong framesDropped = new AtomicLong();
+  private final BufferPool derivedImagePool =
+      new BufferPool(PreviewStream.DEFAULT_BUFFER_COUNT);
+  private final MotionDetector motionDetector = new MotionDetector(MOTION_SAMPLING_STEP);
+
+  private final FrameLane.LaneProcessor sequentialProcessors = new FrameLane.LaneProcessor() {
+    @Override public boolean process(Frame frame) {
+      boolean processed = false;
+
+      for (ProcessorMonitor monitor : sequentialMonitors) {
+        processed |= monitor.process(frame);
+      }
+
+      return processed;
+    }
+  };
+
+  private BackpressurePolicy backpressurePolicy = BackpressurePolicy.latestOnly();
+  private volatile LatencyBudget latencyBudget = LatencyBudget.none();
+  private FrameLane sequentialLane;
+  private int chromaProcessorCount = 0;
+  private int motionProcessorCount = 0;
+  private volatile boolean chromaRequired = false;
+  private volatile ProcessorMonitor[] sequentialMonitors = new ProcessorMonitor[0];
+  private volatile Routing routing;
+  private boolean[] acceptedByLane = new boolean[0];
+
+  /**
+   * @param executor runs regular frame processors.
+   * @param dedicatedExecutor runs parallel and sampled frame processors. Should have a thread for
+   * each of them.
+   * @param bufferRecycler takes back image buffers of frames which are no longer used.
+   */
+  public FrameDispatcher(Executor executor, Executor dedicatedExecutor,
+      BufferRecycler bufferRecycler) {
+    this.executor = executor;
+    this.dedicatedExecutor = dedicatedExecutor;
+    this.bufferRecycler = bufferRecycler;
+    this.sequentialLane = newLane(sequentialProcessors, null, executor);
+    publishRouting();
+  }
+
+  /**
+   * Changes the policy for frames arriving while processors are busy. Must be called before the
+   * first frame is dispatched. Lanes of the previous policy are closed.
+   */
+  public void setBackpressurePolicy(@NonNull BackpressurePolicy backpressurePolicy) {
+    List<FrameLane> replacedLanes = new ArrayList<>();
+
+    synchronized (registrationLock) {
+      this.backpressurePolicy = backpressurePolicy;
+
+      replacedLanes.add(sequentialLane);
+      sequentialLane = newLane(sequentialProcessors, null, executor);
+
+      for (Map.Entry<FrameProcessor, List<FrameLane>> entry : dedicatedLanes.entrySet()) {
+        replacedLanes.addAll(entry.getValue());
+        entry.setValue(newDedicatedLanes(entry.getKey()));
+      }
+
+      publishRouting();
+    }
+
+    for (FrameLane lane : replacedLanes) {
+      lane.close();
+    }
+  }
+
+  /**
+   * Changes the budget processors are checked against.
+   */
+  public void setLatencyBudget(@NonNull LatencyBudget latencyBudget) {
+    synchronized (registrationLock) {
+      this.latencyBudget = latencyBudget;
+
+      for (ProcessorMonitor monitor : frameProcessors.values()) {
+        monitor.setLatencyBudget(latencyBudget);
+      }
+
+      for (List<ProcessorMonitor> monitors : dedicatedMonitors.values()) {
+        for (ProcessorMonitor monitor : monitors) {
+          monitor.setLatencyBudget(latencyBudget);
+        }
+      }
+    }
+  }
+
+  /**
+   * @see PreviewStream#addProcessor(FrameProcessor)
+   */
+  public void addProcessor(@NonNull FrameProcessor processor) {
+    if (isDedicated(processor)) {
+      addDedicatedProcessor(processor);
+    } else {
+      addSequentialProcessor(processor);
+    }
+  }
+
+  /**
+   * @see PreviewStream#removeProcessor(FrameProcessor)
+   */
+  public void removeProcessor(@NonNull FrameProcessor processor) {
+    if (isDedicated(processor)) {
+      removeDedicatedProcessor(processor);
+    } else {
+      removeSequentialProcessor(processor);
+    }
+  }
+
+  /**
+   * @return {@code true} if at least one registered processor reads chroma of the frames.
+   * @see FrameProcessors#lumaOnly(FrameProcessor)
+   */
+  public boolean isChromaRequired() {
+    return chromaRequired;
+  }
+
+  /**
+   * Queues frame for processing. Depending on {@link BackpressurePolicy} might drop an older frame
+   * or hold the new one back until there is a room for it. Never waits for processors.
+   */
+  public void dispatch(@NonNull Frame frame) {
+    framesReceived.incrementAndGet();
+
+    if (chromaRequired && !frame.hasChroma()) {
+      // Converted before a processor which reads chroma was added
+      framesDropped.incrementAndGet();
+      bufferRecycler.recycle(frame.image);
+      return;
+    }
+
+    if (routing.motionScoreRequired) {
+      synchronized (motionDetector) {
+        frame.setMotionScore(motionDetector.score(frame));
+      }
+    }
+
+    synchronized (dispatchLock) {
+      Routing routing = this.routing;
+      FrameLane[] lanes = routing.lanes;
+
+      if (acceptedByLane.length < lanes.length) {
+        acceptedByLane = new boolean[lanes.length];
+      }
+
+      int owners = 0;
+
+      for (int i = 0; i < lanes.length; i++) {
+        acceptedByLane[i] = lanes[i].accept(frame);
+
+        if (acceptedByLane[i]) {
+          owners++;
+        }
+      }
+
+      if (routing.sequentialLaneActive) {
+        owners++;
+      }
+
+      if (owners == 0) {
+        bufferRecycler.recycle(frame.image);
+        return;
+      }
+
+      frame.share(owners, bufferRecycler, derivedImagePool);
+
+      if (routing.sequentialLaneActive) {
+        routing.sequentialLane.dispatch(frame);
+      }
+
+      for (int i = 0; i < lanes.length; i++) {
+        if (acceptedByLane[i]) {
+          lanes[i].dispatch(frame);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return number of frames which were passed to {@link #dispatch(Frame)}.
+   */
+  public long getFramesReceived() {
+    return framesReceived.get();
+  }
+
+  /**
+   * @return number of frames which were passed to processors. Frame passed to several parallel
+   * processors is counted once for each of them. Frames which throttled processors skipped are
+   * not counted, see {@link ProcessorStatistics#framesSkipped}.
+   */
+  public long getFramesProcessed() {
+    return framesProcessed.get();
+  }
+
+  /**
+   * @return number of frames which were dropped because processors did not keep up. Frame dropped
+   * by several parallel processors is counted once for each of them. Frames without chroma which
+   * arrived after a processor reading chroma was added are counted as well.
+   */
+  public long getFramesDropped() {
+    return framesDropped.get();
+  }
+
+  /**
+   * @return number of frames waiting for processors at the moment.
+   */
+  public int getFramesPending() {
+    Routing routing = this.routing;
+    int framesPending = routing.sequentialLane.getFramesPending();
+
+    for (FrameLane lane : routing.lanes) {
+      framesPending += lane.getFramesPending();
+    }
+
+    return framesPending;
+  }
+
+  /**
+   * @return timing of every registered processor. Sequential processors come first, in order of
+   * registration, followed by parallel and sampled ones.
+   */
+  public List<ProcessorStatistics> getProcessorStatistics() {
+    List<ProcessorStatistics> result = new ArrayList<>();
+
+    synchronized (registrationLock) {
+      for (ProcessorMonitor monitor : frameProcessors.values()) {
+        result.add(monitor.getStatistics());
+      }
+
+      for (List<ProcessorMonitor> monitors : dedicatedMonitors.values()) {
+        for (ProcessorMonitor monitor : monitors) {
+          result.add(monitor.getStatistics());
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private static boolean requiresChroma(FrameProcessor processor) {
+    if (processor instanceof LumaFrameProcessor) {
+      return false;
+    }
+
+    if (processor instanceof SampledFrameProcessor) {
+      return requiresChroma(((SampledFrameProcessor) processor).frameProcessor);
+    }
+
+    if (processor instanceof CroppingFrameProcessor) {
+      return requiresChroma(((CroppingFrameProcessor) processor).frameProcessor);
+    }
+
+    if (processor instanceof ParallelFrameProcessor) {
+      for (FrameProcessor frameProcessor : ((ParallelFrameProcessor) processor).frameProcessors) {
+        if (requiresChroma(frameProcessor)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    return true;
+  }
+
+  private static boolean requiresMotionScore(FrameProcessor processor) {
+    if (processor instanceof SampledFrameProcessor) {
+      SampledFrameProcessor sampledProcessor = (SampledFrameProcessor) processor;
+
+      return sampledProcessor.frameSampler instanceof MotionFrameSampler
+          || requiresMotionScore(sampledProcessor.frameProcessor);
+    }
+
+    if (processor instanceof LumaFrameProcessor) {
+      return requiresMotionScore(((LumaFrameProcessor) processor).frameProcessor);
+    }
+
+    if (processor instanceof CroppingFrameProcessor) {
+      return requiresMotionScore(((CroppingFrameProcessor) processor).frameProcessor);
+    }
+
+    if (processor instanceof ParallelFrameProcessor) {
+      for (FrameProcessor frameProcessor : ((ParallelFrameProcessor) processor).frameProcessors) {
+        if (requiresMotionScore(frameProcessor)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isDedicated(FrameProcessor processor) {
+    return processor instanceof ParallelFrameProcessor
+        || processor instanceof SampledFrameProcessor
+        || processor instanceof BatchingFrameProcessor;
+  }
+
+  private void addSequentialProcessor(FrameProcessor processor) {
+    synchronized (registrationLock) {
+      if (frameProcessors.containsKey(processor)) {
+        return;
+      }
+
+      frameProcessors.put(processor, new ProcessorMonitor(processor, latencyBudget));
+      onProcessorAdded(processor);
+      publishRouting();
+    }
+  }
+
+  private void removeSequentialProcessor(FrameProcessor processor) {
+    synchronized (registrationLock) {
+      ProcessorMonitor monitor = frameProcessors.remove(processor);
+
+      if (monitor == null) {
+        return;
+      }
+
+      monitor.close();
+      onProcessorRemoved(processor);
+      publishRouting();
+    }
+  }
+
+  private void addDedicatedProcessor(FrameProcessor processor) {
+    synchronized (registrationLock) {
+      if (dedicatedLanes.containsKey(processor)) {
+        return;
+      }
+
+      dedicatedMonitors.put(processor, newDedicatedMonitors(processor));
+      dedicatedLanes.put(processor, newDedicatedLanes(processor));
+      onProcessorAdded(processor);
+      publishRouting();
+    }
+  }
+
+  private void removeDedicatedProcessor(FrameProcessor processor) {
+    List<FrameLane> processorLanes;
+
+    synchronized (registrationLock) {
+      processorLanes = dedicatedLanes.remove(processor);
+
+      if (processorLanes == null) {
+        return;
+      }
+
+      for (ProcessorMonitor monitor : dedicatedMonitors.remove(processor)) {
+        monitor.close();
+      }
+
+      onProcessorRemoved(processor);
+      publishRouting();
+    }
+
+    for (FrameLane lane : processorLanes) {
+      lane.close();
+    }
+  }
+
+  private void publishRouting() {
+    List<FrameLane> lanes = new ArrayList<>();
+
+    for (List<FrameLane> processorLanes : dedicatedLanes.values()) {
+      lanes.addAll(processorLanes);
+    }
+
+    sequentialMonitors = frameProcessors.values()
+        .toArray(new ProcessorMonitor[frameProcessors.size()]);
+
+    routing = new Routing(
+        sequentialLane,
+        lanes.toArray(new FrameLane[lanes.size()]),
+        !frameProcessors.isEmpty() || lanes.isEmpty(),
+        motionProcessorCount > 0
+    );
+  }
+
+  private void onProcessorAdded(FrameProcessor processor) {
+    if (requiresChroma(processor)) {
+      chromaProcessorCount++;
+      chromaRequired = true;
+    }
+
+    if (requiresMotionScore(processor)) {
+      motionProcessorCount++;
+    }
+  }
+
+  private void onProcessorRemoved(FrameProcessor processor) {
+    if (requiresChroma(processor)) {
+      chromaProcessorCount--;
+      chromaRequired = chromaProcessorCount > 0;
+    }
+
+    if (requiresMotionScore(processor)) {
+      motionProcessorCount--;
+    }
+  }
+
+  /**
+   * @return processors which get a lane each, in order of lanes.
+   */
+  private static List<FrameProcessor> laneProcessorsOf(FrameProcessor processor) {
+    if (processor instanceof ParallelFrameProcessor) {
+      return ((ParallelFrameProcessor) processor).frameProcessors;
+    }
+
+    return Collections.singletonList(processor);
+  }
+
+  /**
+   * Monitors belong to the registered processor, so two registered wrappers around the same
+   * processor are timed and closed independently. They outlive lanes which are recreated when
+   * {@link BackpressurePolicy} changes.
+   */
+  private List<ProcessorMonitor> newDedicatedMonitors(FrameProcessor processor) {
+    List<ProcessorMonitor> monitors = new ArrayList<>();
+
+    for (FrameProcessor laneProcessor : laneProcessorsOf(processor)) {
+      FrameProcessor monitoredProcessor = laneProcessor instanceof SampledFrameProcessor
+          ? ((SampledFrameProcessor) laneProcessor).frameProcessor
+          : laneProcessor;
+
+      monitors.add(new ProcessorMonitor(monitoredProcessor, latencyBudget));
+    }
+
+    return monitors;
+  }
+
+  private List<FrameLane> newDedicatedLanes(FrameProcessor processor) {
+    List<FrameProcessor> laneProcessors = laneProcessorsOf(processor);
+    List<ProcessorMonitor> monitors = dedicatedMonitors.get(processor);
+    List<FrameLane> processorLanes = new ArrayList<>();
+
+    for (int i = 0; i < laneProcessors.size(); i++) {
+      FrameProcessor laneProcessor = laneProcessors.get(i);
+      FrameSampler frameSampler = laneProcessor instanceof SampledFrameProcessor
+          ? ((SampledFrameProcessor) laneProcessor).frameSampler
+          : null;
+
+      processorLanes.add(newLane(monitors.get(i), frameSampler, dedicatedExecutor));
+    }
+
+    return processorLanes;
+  }
+
+  private FrameLane newLane(FrameLane.LaneProcessor laneProcessor, FrameSampler frameSampler,
+      Executor executor) {
+    return new FrameLane(
+        laneProcessor,
+        frameSampler,
+        executor,
+        backpressurePolicy,
+        framesProcessed,
+        framesDropped
+    );
+  }
+
+  /**
+   * Lanes which frames are dispatched to. Immutable, replaced whenever processors change.
+   */
+  private static class Routing {
+
+    final FrameLane sequentialLane;
+    final FrameLane[] lanes;
+    final boolean sequentialLaneActive;
+    final boolean motionScoreRequired;
+
+    Routing(FrameLane sequentialLane, FrameLane[] lanes, boolean sequentialLaneActive,
+        boolean motionScoreRequired) {
+      this.sequentialLane = sequentialLane;
+      this.lanes = lanes;
+      this.sequentialLaneActive = sequentialLaneActive;
+      this.motionScoreRequired = motionScoreRequired;
+    }
+  }
+}
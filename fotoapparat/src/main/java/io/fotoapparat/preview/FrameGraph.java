@@ -0,0 +1,114 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Frame processor which passes frames through a graph of {@link FrameStage}s. Every stage runs on
+ * its own worker, so stages form a pipeline: next frame enters the first stage while the previous
+ * one is still in the later stages. Output of a stage can feed several stages, which then run
+ * concurrently.
+ * <p>
+ * Frames wait for each stage in a bounded queue governed by {@link BackpressurePolicy}. A frame is
+ * leased until every stage is done with it, so {@link #processFrame(Frame)} itself returns
+ * immediately.
+ * <pre>
+ * FrameGraph graph = FrameGraph.create();
+ * graph.input()
+ *     .then("downscale", downscaleStage)
+ *     .then("detect", detectStage)
+ *     .then("track", trackStage);
+ * </pre>
+ */
+public class FrameGraph implements FrameProcessor {
+
+  private static final Executor STAGE_EXECUTOR = Executors.newCachedThreadPool();
+
+  private final Executor executor;
+  private final BackpressurePolicy backpressurePolicy;
+  private final List<StageWorker<?, ?>> workers = new CopyOnWriteArrayList<>();
+  private final Node<Frame> input = new Node<>();
+
+  FrameGraph(Executor executor, BackpressurePolicy backpressurePolicy) {
+    this.executor = executor;
+    this.backpressurePolicy = backpressurePolicy;
+  }
+
+  /**
+   * @return graph in which every stage keeps only the latest frame waiting for it.
+   */
+  public static FrameGraph create() {
+    return create(BackpressurePolicy.latestOnly());
+  }
+
+  /**
+   * @param backpressurePolicy policy of the queue in front of every stage.
+   */
+  public static FrameGraph create(@NonNull BackpressurePolicy backpressurePolicy) {
+    return new FrameGraph(STAGE_EXECUTOR, backpressurePolicy);
+  }
+
+  /**
+   * @return node emitting every frame received by the graph.
+   */
+  public Node<Frame> input() {
+    return input;
+  }
+
+  @Override public void processFrame(Frame frame) {
+    input.emit(frame, frame);
+  }
+
+  /**
+   * @return statistics of every stage, in the order the stages were added.
+   */
+  public List<StageStatistics> getStageStatistics() {
+    List<StageStatistics> result = new ArrayList<>();
+
+    for (StageWorker<?, ?> worker : workers) {
+      result.add(worker.getStatistics());
+    }
+
+    return result;
+  }
+
+  /**
+   * Output of the graph input or of a stage.
+   *
+   * @param <T> type of the output.
+   */
+  public final class Node<T> {
+
+    private final List<StageWorker<T, ?>> consumers = new CopyOnWriteArrayList<>();
+
+    private Node() {
+    }
+
+    /**
+     * Adds a stage which consumes output of this node.
+     *
+     * @param name name of the stage in {@link StageStatistics}.
+     * @return node emitting output of the added stage.
+     */
+    public <O> Node<O> then(@NonNull String name, @NonNull FrameStage<? super T, O> stage) {
+      Node<O> output = new Node<>();
+      StageWorker<T, O> worker =
+          new StageWorker<>(name, stage, output, executor, backpressurePolicy);
+
+      consumers.add(worker);
+      workers.add(worker);
+
+      return output;
+    }
+
+    void emit(Frame frame, T value) {
+      for (StageWorker<T, ?> consumer : consumers) {
+        consumer.offer(frame, value);
+      }
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package io.fotoapparat.preview;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers frames to a single {@link FrameProcessor} one at a time. Optional {@link FrameSampler}
+ * picks the frames which are delivered. Frames wait in a bounded queue governed by
+ * {@link BackpressurePolicy}. A blocking lane never makes the producer wait: frames which do not fit
+ * into the queue are held back, and so are their image buffers, until the queue has room again.
+ * At most one drain task of the lane runs at any time, so
+ * lanes can share a multi-threaded executor without calling their processor concurrently.
+ */
+class FrameLane {
+
+  private final LaneProcessor laneProcessor;
+  private final FrameSampler frameSampler;
+  private final Executor executor;
+  private final BackpressurePolicy backpressurePolicy;
+  private final BlockingQueue<Frame> pendingFrames;
+  private final Queue<Frame> heldFrames = new ArrayDeque<>();
+  private final AtomicLong framesProcessed;
+  private final AtomicLong framesDropped;
+
+  private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+  private volatile boolean closed = false;
+
+  private final Runnable drainTask = new Runnable() {
+    @Override public void run() {
+      try {
+        drainQueue();
+      } finally {
+        drainScheduled.set(false);
+
+        if (!pendingFrames.isEmpty()) {
+          scheduleDrain();
+        }
+      }
+    }
+  };
+
+  /**
+   * @param framesProcessed counts frames the processor actually processed, not those it skipped.
+   */
+  FrameLane(LaneProcessor laneProcessor, FrameSampler frameSampler, Executor executor,
+      BackpressurePolicy backpressurePolicy, AtomicLong framesProcessed, AtomicLong framesDropped) {
+    this.laneProcessor = laneProcessor;
+    this.frameSampler = frameSampler;
+    this.executor = executor;
+    this.backpressurePolicy = backpressurePolicy;
+    this.pendingFrames = new ArrayBlockingQueue<>(backpressurePolicy.capacity);
+    this.framesProcessed = framesProcessed;
+    this.framesDropped = framesDropped;
+  }
+
+  /**
+   * Must be called for every frame of the stream, in order.
+   *
+   * @return {@code true} if frame should be dispatched to the lane.
+   */
+  boolean accept(Frame frame) {
+    return frameSampler == null || frameSampler.accept(frame);
+  }
+
+  /**
+   * Queues frame for the processor. Lane releases the frame once it is processed or dropped.
+   */
+  void dispatch(Frame frame) {
+    if (backpressurePolicy.blocking) {
+      enqueueOrHold(frame);
+    } else {
+      enqueueDroppingOldest(frame);
+    }
+
+    scheduleDrain();
+  }
+
+  /**
+   * Stops delivering frames to the processor. Releases frames which are still waiting for it, as
+   * well as frames dispatched later on.
+   */
+  void close() {
+    closed = true;
+
+    discardPendingFrames();
+  }
+
+  private void discardPendingFrames() {
+    Frame frame;
+
+    synchronized (heldFrames) {
+      while ((frame = heldFrames.poll()) != null) {
+        frame.release();
+      }
+    }
+
+    while ((frame = pendingFrames.poll()) != null) {
+      frame.release();
+    }
+  }
+
+  int getFramesPending() {
+    synchronized (heldFrames) {
+      return pendingFrames.size() + heldFrames.size();
+    }
+  }
+
+  private void enqueueOrHold(Frame frame) {
+    synchronized (heldFrames) {
+      if (!heldFrames.isEmpty() || !pendingFrames.offer(frame)) {
+        heldFrames.add(frame);
+      }
+    }
+  }
+
+  /**
+   * Moves held frames, oldest first, into the queue as long as it has room.
+   */
+  private void promoteHeldFrames() {
+    synchronized (heldFrames) {
+      while (!heldFrames.isEmpty() && pendingFrames.offer(heldFrames.peek())) {
+        heldFrames.poll();
+      }
+    }
+  }
+
+  private void enqueueDroppingOldest(Frame frame) {
+    while (!pendingFrames.offer(frame)) {
+      Frame oldestFrame = pendingFrames.poll();
+
+      if (oldestFrame != null) {
+        drop(oldestFrame);
+      }
+    }
+  }
+
+  private void drop(Frame frame) {
+    framesDropped.incrementAndGet();
+    frame.release();
+  }
+
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      executor.execute(drainTask);
+    }
+  }
+
+  private void drainQueue() {
+    Frame frame;
+
+    while ((frame = pendingFrames.poll()) != null) {
+      if (backpressurePolicy.blocking) {
+        promoteHeldFrames();
+      }
+
+      process(frame);
+    }
+  }
+
+  private void process(Frame frame) {
+    if (closed) {
+      frame.release();
+      return;
+    }
+
+    boolean processed = true;
+
+    try {
+      processed = laneProcessor.process(frame);
+    } finally {
+      if (processed) {
+        framesProcessed.incrementAndGet();
+      }
+
+      frame.release();
+    }
+  }
+
+  /**
+   * Processes frames of a lane.
+   */
+  interface LaneProcessor {
+
+    /**
+     * @return {@code false} if the frame was skipped rather than processed.
+     */
+    boolean process(Frame frame);
+  }
+}
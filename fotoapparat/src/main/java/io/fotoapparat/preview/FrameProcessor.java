@@ -6,15 +6,18 @@ package io.fotoapparat.preview;
  * Frame processors are called from worker thread (aka non-UI thread). After
  * {@link #processFrame(Frame)} completes the frame is returned back to the pool where it is reused
  * afterwards. This means that implementations should take special care to not do any operations on
- * frame after method completes.
+ * frame after method completes, unless they {@link Frame#acquire()} a lease on it first.
+ * <p>
+ * Frames leased by processors are not available to the camera, so holding many of them at once
+ * requires a bigger preview buffer count.
  */
 public interface FrameProcessor {
 
   /**
    * Performs processing on preview frames. Read class description for more details.
    *
-   * @param frame frame of the preview. Do not cache it as it will eventually be reused by the
-   * camera.
+   * @param frame frame of the preview. Do not cache it without acquiring a lease as it will
+   * eventually be reused by the camera.
    */
   void processFrame(Frame frame);
 }
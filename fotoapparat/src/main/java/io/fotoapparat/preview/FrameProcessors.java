@@ -0,0 +1,95 @@
+package io.fotoapparat.preview;
+
+import java.util.ArrayList;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Built-in implementations of {@link FrameProcessor}.
+ */
+public class FrameProcessors {
+
+  /**
+   * @return frame processor which runs given processors concurrently, each one on its own worker
+   * thread. All of them receive the same frame, which is returned to the camera once the last one
+   * is done with it. Processors must not modify the frame.
+   */
+  public static FrameProcessor parallel(FrameProcessor... frameProcessors) {
+    ArrayList<FrameProcessor> result = new ArrayList<>();
+
+    if (frameProcessors != null) {
+      result.addAll(asList(frameProcessors));
+    }
+
+    return new ParallelFrameProcessor(result);
+  }
+
+  /**
+   * @return frame processor which receives the first frame and then every n-th frame of the
+   * stream. Skipped frames are not queued for it at all. Processor runs on its own worker thread,
+   * concurrently with other processors, so it must not modify the frame.
+   * @throws IllegalArgumentException if n is less than 1.
+   */
+  public static FrameProcessor everyNthFrame(FrameProcessor frameProcessor, int n) {
+    return new SampledFrameProcessor(frameProcessor, new EveryNthFrameSampler(n));
+  }
+
+  /**
+   * @return frame processor which receives at most given number of frames per second. Skipped
+   * frames are not queued for it at all. Processor runs on its own worker thread, concurrently
+   * with other processors, so it must not modify the frame.
+   * @throws IllegalArgumentException if frame rate is not positive.
+   */
+  public static FrameProcessor maxFrameRate(FrameProcessor frameProcessor,
+      float framesPerSecond) {
+    return new SampledFrameProcessor(frameProcessor, new FrameRateSampler(framesPerSecond));
+  }
+
+  /**
+   * @param threshold mean luma difference from 0 to 1. Camera noise alone usually scores below
+   * 0.01.
+   * @return frame processor which receives only frames which changed since the previous frame of
+   * the stream, i.e. whose {@link Frame#getMotionScore()} is at least the threshold. The first
+   * frame is always received. Skipped frames are not queued for it at all. Processor runs on its
+   * own worker thread, concurrently with other processors, so it must not modify the frame.
+   * @throws IllegalArgumentException if threshold is not between 0 and 1.
+   */
+  public static FrameProcessor motionGated(FrameProcessor frameProcessor, float threshold) {
+    return new SampledFrameProcessor(frameProcessor, new MotionFrameSampler(threshold));
+  }
+
+  /**
+   * @param batchSize number of frames in a full batch.
+   * @param maxDelayMillis longest time, measured by frame timestamps, between the first and the
+   * last frame of a batch. A batch which spans that long is delivered before it is full, once the
+   * next frame arrives.
+   * @return frame processor which passes frames to the batch processor in groups. Frames of a
+   * batch are copied into pooled buffers, so they do not hold preview buffers of the camera.
+   * Batches are processed on their own worker thread, concurrently with other processors.
+   * @throws IllegalArgumentException if batch size is less than 1 or delay is negative.
+   */
+  public static FrameProcessor batched(BatchFrameProcessor batchFrameProcessor, int batchSize,
+      long maxDelayMillis) {
+    return new BatchingFrameProcessor(batchFrameProcessor, batchSize, maxDelayMillis);
+  }
+
+  /**
+   * @return frame processor which declares that given processor only reads luma of the frames.
+   * While every registered processor is luma only, streams which can skip chroma (Camera2) copy
+   * just the luma plane of the image. See {@link Frame#getLuma()}. Wrap the processor itself,
+   * before it is sampled or grouped with other processors.
+   */
+  public static FrameProcessor lumaOnly(FrameProcessor frameProcessor) {
+    return new LumaFrameProcessor(frameProcessor);
+  }
+
+  /**
+   * @return frame processor which receives only given region of the frames, copied into a
+   * compact buffer. Cropped frame keeps the rotation of the original one. Wrap the processor
+   * itself, before it is sampled or grouped with other processors.
+   */
+  public static FrameProcessor regionOfInterest(FrameProcessor frameProcessor,
+      RegionOfInterest regionOfInterest) {
+    return new CroppingFrameProcessor(frameProcessor, regionOfInterest);
+  }
+}
@@ -0,0 +1,45 @@
+package io.fotoapparat.preview;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts frames at no more than the given rate. Frame deadlines advance by a fixed interval, so
+ * jitter of camera frames does not lower the average rate.
+ */
+class FrameRateSampler implements FrameSampler {
+
+  private final long frameIntervalNanos;
+
+  private boolean started = false;
+  private long nextFrameNanos;
+
+  FrameRateSampler(float framesPerSecond) {
+    if (!(framesPerSecond > 0)) {
+      throw new IllegalArgumentException("Frame rate must be positive, got: " + framesPerSecond);
+    }
+
+    this.frameIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond);
+  }
+
+  @Override public boolean accept(Frame frame) {
+    return accept(frame.timestampNanos);
+  }
+
+  /**
+   * @param timestampNanos capture time of the frame, see {@link Frame#timestampNanos}.
+   */
+  boolean accept(long timestampNanos) {
+    if (started && timestampNanos < nextFrameNanos) {
+      return false;
+    }
+
+    if (started && timestampNanos - nextFrameNanos < frameIntervalNanos) {
+      nextFrameNanos += frameIntervalNanos;
+    } else {
+      nextFrameNanos = timestampNanos + frameIntervalNanos;
+    }
+
+    started = true;
+    return true;
+  }
+}
@@ -0,0 +1,157 @@
+package io.fotoapparat.preview;
+
+import java.util.ArrayDeque;
+
+/**
+ * Frame processor which keeps copies of the most recent frames of the stream. Frames are copied
+ * into buffers from {@link BufferPool}, so preview buffers go back to the camera right away and
+ * the ring does not allocate once it is full. Every frame is scored with
+ * {@link Frame#getSharpness()} as it enters the ring, on the thread which processes it, so picking
+ * the sharpest frame only compares scores.
+ * <p>
+ * Frames are looked up by the time they arrived at the ring, taken from {@link System#nanoTime()}.
+ * {@link Frame#timestampNanos} is not used for that, Camera2 devices may stamp frames with a
+ * different clock.
+ * <p>
+ * Thread safe.
+ */
+public class FrameRing implements FrameProcessor {
+
+  private final int capacity;
+  private final BufferPool bufferPool;
+  private final ArrayDeque<Entry> entries;
+
+  /**
+   * @param capacity number of frames kept.
+   * @throws IllegalArgumentException if capacity is less than 1.
+   */
+  public FrameRing(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1, got: " + capacity);
+    }
+
+    this.capacity = capacity;
+    this.bufferPool = new BufferPool(capacity + 2);
+    this.entries = new ArrayDeque<>(capacity);
+  }
+
+  @Override public void processFrame(Frame frame) {
+    processFrame(frame, System.nanoTime());
+  }
+
+  void processFrame(Frame frame, long arrivalNanos) {
+    Frame copy = frame.copy(bufferPool);
+    copy.getSharpness();
+
+    Entry entry = new Entry(copy, arrivalNanos);
+
+    Entry evicted = null;
+
+    synchronized (entries) {
+      if (entries.size() == capacity) {
+        evicted = entries.pollFirst();
+      }
+
+      entries.addLast(entry);
+    }
+
+    if (evicted != null) {
+      evicted.frame.release();
+    }
+  }
+
+  /**
+   * @param nanoTime moment in time, from {@link System#nanoTime()}.
+   * @return frame which arrived the closest to the given moment, leased for the caller, or
+   * {@code null} if the ring is empty. Caller must {@link Frame#release()} it.
+   */
+  public Frame acquireClosest(long nanoTime) {
+    return acquireClosest(nanoTime, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param nanoTime moment in time, from {@link System#nanoTime()}.
+   * @param maxDistanceNanos how far from the given moment the frame may have arrived.
+   * @return frame which arrived the closest to the given moment, leased for the caller, or
+   * {@code null} if no frame arrived within {@code maxDistanceNanos} of it. Caller must
+   * {@link Frame#release()} it.
+   */
+  public Frame acquireClosest(long nanoTime, long maxDistanceNanos) {
+    synchronized (entries) {
+      Frame closest = null;
+      long closestDistance = Long.MAX_VALUE;
+
+      for (Entry entry : entries) {
+        long distance = Math.abs(entry.arrivalNanos - nanoTime);
+
+        if (distance <= maxDistanceNanos && distance < closestDistance) {
+          closest = entry.frame;
+          closestDistance = distance;
+        }
+      }
+
+      return closest == null ? null : closest.acquire();
+    }
+  }
+
+  /**
+   * @param nanoTime moment in time, from {@link System#nanoTime()}.
+   * @return the sharpest frame which arrived at most {@code windowNanos} away from the given
+   * moment, leased for the caller, or {@code null} if there is no such frame. Caller must
+   * {@link Frame#release()} it.
+   * @see Frame#getSharpness()
+   */
+  public Frame acquireSharpest(long nanoTime, long windowNanos) {
+    synchronized (entries) {
+      Frame sharpest = null;
+
+      for (Entry entry : entries) {
+        if (Math.abs(entry.arrivalNanos - nanoTime) > windowNanos) {
+          continue;
+        }
+
+        if (sharpest == null || entry.frame.getSharpness() > sharpest.getSharpness()) {
+          sharpest = entry.frame;
+        }
+      }
+
+      return sharpest == null ? null : sharpest.acquire();
+    }
+  }
+
+  /**
+   * @return number of frames in the ring.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Releases every frame in the ring.
+   */
+  public void clear() {
+    synchronized (entries) {
+      Entry entry;
+
+      while ((entry = entries.pollFirst()) != null) {
+        entry.frame.release();
+      }
+    }
+  }
+
+  /**
+   * Frame of the ring with the time it arrived.
+   */
+  private static class Entry {
+
+    final Frame frame;
+    final long arrivalNanos;
+
+    Entry(Frame frame, long arrivalNanos) {
+      this.frame = frame;
+      this.arrivalNanos = arrivalNanos;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package io.fotoapparat.preview;
+
+/**
+ * Rotates NV21 images by right angles. Luma is rotated pixel by pixel, interleaved chroma by
+ * V/U pairs, each pair covering a 2x2 block of luma.
+ */
+class FrameRotation {
+
+  /**
+   * @return rotation normalized to 0, 90, 180 or 270 degrees.
+   * @throws IllegalArgumentException if rotation is not a multiple of 90 degrees.
+   */
+  static int normalize(int rotation) {
+    if (rotation % 90 != 0) {
+      throw new IllegalArgumentException("Rotation must be a multiple of 90, got: " + rotation);
+    }
+
+    return (rotation % 360 + 360) % 360;
+  }
+
+  /**
+   * Rotates the image clockwise by given degrees. Target must be as large as the source.
+   *
+   * @param rotation normalized rotation, see {@link #normalize(int)}.
+   */
+  static void rotate(byte[] source, int width, int height, boolean hasChroma, int rotation,
+      byte[] target) {
+    rotatePlane(source, 0, width, height, 1, rotation, target);
+
+    if (hasChroma) {
+      rotatePlane(source, width * height, (width + 1) / 2, (height + 1) / 2, 2, rotation,
+          target);
+    }
+  }
+
+  /**
+   * Rotates a plane of {@code width * height} pixels of given size in bytes, which starts at
+   * given offset both in source and in target.
+   */
+  private static void rotatePlane(byte[] source, int offset, int width, int height,
+      int pixelSize, int rotation, byte[] target) {
+    boolean flipped = rotation == 90 || rotation == 270;
+    int targetWidth = flipped ? height : width;
+    int targetHeight = flipped ? width : height;
+
+    int targetIndex = offset;
+
+    for (int targetRow = 0; targetRow < targetHeight; targetRow++) {
+      int sourcePixel;
+      int sourceStep;
+
+      switch (rotation) {
+        case 90:
+          sourcePixel = (height - 1) * width + targetRow;
+          sourceStep = -width;
+          break;
+        case 180:
+          sourcePixel = (height - 1 - targetRow) * width + width - 1;
+          sourceStep = -1;
+          break;
+        case 270:
+          sourcePixel = width - 1 - targetRow;
+          sourceStep = width;
+          break;
+        default:
+          sourcePixel = targetRow * width;
+          sourceStep = 1;
+          break;
+      }
+
+      for (int targetColumn = 0; targetColumn < targetWidth; targetColumn++) {
+        int sourceIndex = offset + sourcePixel * pixelSize;
+
+        for (int i = 0; i < pixelSize; i++) {
+          target[targetIndex++] = source[sourceIndex + i];
+        }
+
+        sourcePixel += sourceStep;
+      }
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package io.fotoapparat.preview;
+
+/**
+ * Decides which frames of the stream are passed to a {@link FrameProcessor}.
+ */
+interface FrameSampler {
+
+  /**
+   * Called for every frame of the stream, in order, before the frame is queued for processors.
+   *
+   * @return {@code true} if processor should receive the frame.
+   */
+  boolean accept(Frame frame);
+}
@@ -0,0 +1,20 @@
+package io.fotoapparat.preview;
+
+/**
+ * Stage of a {@link FrameGraph}. Receives output of the previous stage and produces input of the
+ * next ones.
+ *
+ * @param <I> type of the input.
+ * @param <O> type of the output.
+ */
+public interface FrameStage<I, O> {
+
+  /**
+   * Called on the worker thread of the stage, for one frame at a time.
+   *
+   * @param frame frame being processed. It is leased until every stage is done with it.
+   * @param input output of the previous stage.
+   * @return input of the next stages, or {@code null} to stop processing of the frame.
+   */
+  O process(Frame frame, I input);
+}
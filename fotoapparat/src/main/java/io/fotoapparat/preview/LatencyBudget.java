@@ -0,0 +1,111 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.log.Logger;
+import io.fotoapparat.log.Loggers;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time a single {@link FrameProcessor#processFrame(Frame)} call is expected to take, and what
+ * {@link PreviewStream} does with a processor which repeatedly takes longer.
+ */
+public class LatencyBudget {
+
+  /**
+   * Longest expected duration of a call.
+   */
+  final long budgetNanos;
+
+  /**
+   * Number of consecutive calls over budget after which the processor is reported.
+   */
+  final int toleratedOverruns;
+
+  /**
+   * {@code true} if a reported processor is throttled until it is back within budget.
+   */
+  final boolean throttling;
+
+  final Logger logger;
+
+  private LatencyBudget(long budgetNanos, int toleratedOverruns, boolean throttling,
+      Logger logger) {
+    if (budgetNanos < 1) {
+      throw new IllegalArgumentException("Budget must be positive, got: " + budgetNanos + " ns");
+    }
+
+    if (toleratedOverruns < 1) {
+      throw new IllegalArgumentException(
+          "At least one overrun must be tolerated, got: " + toleratedOverruns);
+    }
+
+    this.budgetNanos = budgetNanos;
+    this.toleratedOverruns = toleratedOverruns;
+    this.throttling = throttling;
+    this.logger = logger;
+  }
+
+  /**
+   * Processors are timed, but never reported or throttled. Default budget.
+   */
+  public static LatencyBudget none() {
+    return new LatencyBudget(Long.MAX_VALUE, Integer.MAX_VALUE, false, Loggers.none());
+  }
+
+  /**
+   * A processor which takes longer than {@code budgetMillis} for {@code toleratedOverruns}
+   * frames in a row is logged.
+   *
+   * @throws IllegalArgumentException if budget or number of overruns is less than 1.
+   */
+  public static LatencyBudget log(long budgetMillis, int toleratedOverruns,
+      @NonNull Logger logger) {
+    return new LatencyBudget(TimeUnit.MILLISECONDS.toNanos(budgetMillis), toleratedOverruns,
+        false, logger);
+  }
+
+  /**
+   * A processor which takes longer than {@code budgetMillis} for {@code toleratedOverruns}
+   * frames in a row is logged and throttled: it skips frames so that it is busy for at most half
+   * of the time, leaving the rest to the other processors. Throttling stops once the processor
+   * handles a frame within budget.
+   *
+   * @throws IllegalArgumentException if budget or number of overruns is less than 1.
+   */
+  public static LatencyBudget throttle(long budgetMillis, int toleratedOverruns,
+      @NonNull Logger logger) {
+    return new LatencyBudget(TimeUnit.MILLISECONDS.toNanos(budgetMillis), toleratedOverruns,
+        true, logger);
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    LatencyBudget that = (LatencyBudget) o;
+
+    return budgetNanos == that.budgetNanos
+        && toleratedOverruns == that.toleratedOverruns
+        && throttling == that.throttling
+        && logger.equals(that.logger);
+  }
+
+  @Override public int hashCode() {
+    int result = (int) (budgetNanos ^ (budgetNanos >>> 32));
+    result = 31 * result + toleratedOverruns;
+    result = 31 * result + (throttling ? 1 : 0);
+    result = 31 * result + logger.hashCode();
+    return result;
+  }
+
+  @Override public String toString() {
+    return "LatencyBudget{"
+        + "budgetNanos="
+        + budgetNanos
+        + ", toleratedOverruns="
+        + toleratedOverruns
+        + ", throttling="
+        + throttling
+        + '}';
+  }
+}
@@ -0,0 +1,19 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Frame processor which only reads luma of the frames.
+ */
+class LumaFrameProcessor implements FrameProcessor {
+
+  final FrameProcessor frameProcessor;
+
+  LumaFrameProcessor(@NonNull FrameProcessor frameProcessor) {
+    this.frameProcessor = frameProcessor;
+  }
+
+  @Override public void processFrame(Frame frame) {
+    frameProcessor.processFrame(frame);
+  }
+}
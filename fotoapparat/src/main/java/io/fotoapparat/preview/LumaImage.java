@@ -0,0 +1,43 @@
+package io.fotoapparat.preview;
+
+/**
+ * Grayscale image holding luma of a {@link Frame}, possibly downscaled.
+ *
+ * @see Frame#getLumaLevel(int)
+ */
+public class LumaImage {
+
+  /**
+   * Width of the image in pixels.
+   */
+  public final int width;
+
+  /**
+   * Height of the image in pixels.
+   */
+  public final int height;
+
+  /**
+   * Luma samples, one byte per pixel, row by row. Samples occupy the first {@code width * height}
+   * bytes, the array might be longer. Array belongs to the frame and is reused once the frame is
+   * released.
+   */
+  public final byte[] data;
+
+  public LumaImage(int width, int height, byte[] data) {
+    this.width = width;
+    this.height = height;
+    this.data = data;
+  }
+
+  /**
+   * @return value of the pixel, from 0 to 255.
+   */
+  public int get(int x, int y) {
+    return data[y * width + x] & 0xFF;
+  }
+
+  @Override public String toString() {
+    return "LumaImage{" + "width=" + width + ", height=" + height + '}';
+  }
+}
@@ -0,0 +1,98 @@
+package io.fotoapparat.preview;
+
+import io.fotoapparat.parameter.Size;
+
+/**
+ * Luma of a frame at successively halved resolutions. Level 0 is the luma of the frame itself,
+ * every next level is computed on first request by averaging 2x2 blocks of the previous one.
+ * Buffers of the computed levels are taken from {@link BufferPool} and returned by
+ * {@link #release()}.
+ * <p>
+ * Thread safe.
+ */
+class LumaPyramid {
+
+  private final BufferPool bufferPool;
+  private final LumaImage[] levels;
+
+  LumaPyramid(Size size, byte[] image, BufferPool bufferPool) {
+    this.bufferPool = bufferPool;
+    this.levels = new LumaImage[levelCount(size.width, size.height)];
+    this.levels[0] = new LumaImage(size.width, size.height, image);
+  }
+
+  /**
+   * @return number of levels for an image of given size. The last level is at least 1x1 pixels.
+   */
+  static int levelCount(int width, int height) {
+    int count = 1;
+
+    while (width >= 2 && height >= 2) {
+      width /= 2;
+      height /= 2;
+      count++;
+    }
+
+    return count;
+  }
+
+  /**
+   * Halves the image by averaging each 2x2 block of pixels. Odd last row and column are skipped.
+   */
+  static void downscale(byte[] source, int sourceWidth, byte[] target, int targetWidth,
+      int targetHeight) {
+    for (int y = 0; y < targetHeight; y++) {
+      int topRow = 2 * y * sourceWidth;
+      int bottomRow = topRow + sourceWidth;
+      int targetRow = y * targetWidth;
+
+      for (int x = 0; x < targetWidth; x++) {
+        int column = 2 * x;
+
+        int sum = (source[topRow + column] & 0xFF)
+            + (source[topRow + column + 1] & 0xFF)
+            + (source[bottomRow + column] & 0xFF)
+            + (source[bottomRow + column + 1] & 0xFF);
+
+        target[targetRow + x] = (byte) ((sum + 2) >> 2);
+      }
+    }
+  }
+
+  /**
+   * @return the level, computing it and every level above it if needed.
+   * @throws IllegalArgumentException if level is negative or the image is too small for it.
+   */
+  synchronized LumaImage getLevel(int level) {
+    if (level < 0 || level >= levels.length) {
+      throw new IllegalArgumentException(
+          "Level must be between 0 and " + (levels.length - 1) + ", got: " + level);
+    }
+
+    if (levels[level] == null) {
+      LumaImage previous = getLevel(level - 1);
+
+      int width = previous.width / 2;
+      int height = previous.height / 2;
+      byte[] data = bufferPool.acquire(width * height);
+
+      downscale(previous.data, previous.width, data, width, height);
+
+      levels[level] = new LumaImage(width, height, data);
+    }
+
+    return levels[level];
+  }
+
+  /**
+   * Returns buffers of computed levels to the pool.
+   */
+  synchronized void release() {
+    for (int level = 1; level < levels.length; level++) {
+      if (levels[level] != null) {
+        bufferPool.release(levels[level].data);
+        levels[level] = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package io.fotoapparat.preview;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Histogram of luma of a frame and statistics derived from it. Computed from a sparse grid of
+ * pixels, see {@link Frame#getLumaStatistics()}. Luma is expected in full range, 0 to 255.
+ * <p>
+ * Instances are reused, copy one with {@link #copyTo(LumaStatistics)} to keep it.
+ */
+public class LumaStatistics {
+
+  /**
+   * Pixels with luma at or below this level are counted as clipped shadows.
+   */
+  public static final int SHADOW_CLIPPING_LEVEL = 5;
+
+  /**
+   * Pixels with luma at or above this level are counted as clipped highlights.
+   */
+  public static final int HIGHLIGHT_CLIPPING_LEVEL = 250;
+
+  private static final int MAX_POOLED_INSTANCES = 2 * PreviewStream.DEFAULT_BUFFER_COUNT;
+  private static final ArrayDeque<LumaStatistics> POOL = new ArrayDeque<>();
+
+  private final int[] histogram = new int[256];
+
+  private int sampleCount = 0;
+  private long lumaSum = 0;
+
+  /**
+   * @return instance from the pool, or a new one if the pool is empty.
+   */
+  static LumaStatistics obtain() {
+    synchronized (POOL) {
+      LumaStatistics statistics = POOL.poll();
+
+      return statistics != null ? statistics : new LumaStatistics();
+    }
+  }
+
+  /**
+   * Returns instance to the pool. It must not be used afterwards.
+   */
+  static void recycle(LumaStatistics statistics) {
+    synchronized (POOL) {
+      if (POOL.size() < MAX_POOLED_INSTANCES) {
+        POOL.push(statistics);
+      }
+    }
+  }
+
+  /**
+   * Computes statistics of every {@code step}-th pixel of every {@code step}-th row of luma.
+   */
+  void compute(byte[] luma, int width, int height, int step) {
+    Arrays.fill(histogram, 0);
+
+    long sum = 0;
+    int count = 0;
+
+    for (int y = 0; y < height; y += step) {
+      int rowOffset = y * width;
+
+      for (int x = 0; x < width; x += step) {
+        int value = luma[rowOffset + x] & 0xFF;
+
+        histogram[value]++;
+        sum += value;
+        count++;
+      }
+    }
+
+    lumaSum = sum;
+    sampleCount = count;
+  }
+
+  /**
+   * Copies statistics into another instance.
+   */
+  public void copyTo(LumaStatistics target) {
+    System.arraycopy(histogram, 0, target.histogram, 0, histogram.length);
+    target.sampleCount = sampleCount;
+    target.lumaSum = lumaSum;
+  }
+
+  /**
+   * @return number of sampled pixels.
+   */
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * @return number of sampled pixels with given luma.
+   */
+  public int getCount(int luma) {
+    return histogram[luma];
+  }
+
+  /**
+   * @return mean luma of the sampled pixels, 0 if there are none.
+   */
+  public float getMean() {
+    return sampleCount == 0 ? 0f : (float) lumaSum / sampleCount;
+  }
+
+  /**
+   * @param fraction from 0 to 1, e.g. 0.5 for the median.
+   * @return the lowest luma which is greater or equal to the given fraction of sampled pixels.
+   * @throws IllegalArgumentException if fraction is not between 0 and 1.
+   */
+  public int getPercentile(float fraction) {
+    if (!(fraction >= 0f && fraction <= 1f)) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1, got: " + fraction);
+    }
+
+    long target = (long) Math.ceil(fraction * sampleCount);
+    long cumulative = 0;
+
+    for (int luma = 0; luma < histogram.length; luma++) {
+      cumulative += histogram[luma];
+
+      if (cumulative >= target && cumulative > 0) {
+        return luma;
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * @return fraction of sampled pixels at or below {@link #SHADOW_CLIPPING_LEVEL}.
+   */
+  public float getShadowClippingRatio() {
+    return ratio(0, SHADOW_CLIPPING_LEVEL);
+  }
+
+  /**
+   * @return fraction of sampled pixels at or above {@link #HIGHLIGHT_CLIPPING_LEVEL}.
+   */
+  public float getHighlightClippingRatio() {
+    return ratio(HIGHLIGHT_CLIPPING_LEVEL, 255);
+  }
+
+  private float ratio(int fromLuma, int toLuma) {
+    if (sampleCount == 0) {
+      return 0f;
+    }
+
+    int count = 0;
+
+    for (int luma = fromLuma; luma <= toLuma; luma++) {
+      count += histogram[luma];
+    }
+
+    return (float) count / sampleCount;
+  }
+
+  @Override public String toString() {
+    return "LumaStatistics{"
+        + "sampleCount="
+        + sampleCount
+        + ", mean="
+        + getMean()
+        + ", median="
+        + getPercentile(0.5f)
+        + ", shadowClippingRatio="
+        + getShadowClippingRatio()
+        + ", highlightClippingRatio="
+        + getHighlightClippingRatio()
+        + '}';
+  }
+}
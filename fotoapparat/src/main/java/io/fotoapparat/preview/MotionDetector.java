@@ -0,0 +1,65 @@
+package io.fotoapparat.preview;
+
+/**
+ * Scores how much luma of each frame differs from the previous frame. Compares every
+ * {@code step}-th pixel of every {@code step}-th row only, so scoring costs a small fraction of a
+ * pass over the frame. Not thread safe.
+ */
+class MotionDetector {
+
+  private final int step;
+
+  private byte[] previousSamples = null;
+  private byte[] currentSamples = null;
+  private int sampledWidth = -1;
+  private int sampledHeight = -1;
+
+  MotionDetector(int step) {
+    this.step = step;
+  }
+
+  /**
+   * @return mean absolute difference of sampled luma from the previous frame, from 0 (no change)
+   * to 1 (black turned white). 1 for the first frame and whenever the frame size changes.
+   */
+  float score(Frame frame) {
+    int width = frame.size.width;
+    int columns = (width + step - 1) / step;
+    int rows = (frame.size.height + step - 1) / step;
+
+    boolean comparable = columns == sampledWidth && rows == sampledHeight;
+
+    if (!comparable) {
+      sampledWidth = columns;
+      sampledHeight = rows;
+      previousSamples = new byte[columns * rows];
+      currentSamples = new byte[columns * rows];
+    }
+
+    byte[] image = frame.image;
+    byte[] previous = previousSamples;
+    byte[] current = currentSamples;
+    long difference = 0;
+    int index = 0;
+
+    for (int row = 0; row < rows; row++) {
+      int offset = row * step * width;
+
+      for (int column = 0; column < columns; column++) {
+        byte sample = image[offset + column * step];
+
+        difference += Math.abs((sample & 0xFF) - (previous[index] & 0xFF));
+        current[index++] = sample;
+      }
+    }
+
+    previousSamples = current;
+    currentSamples = previous;
+
+    if (!comparable || index == 0) {
+      return 1f;
+    }
+
+    return difference / (255f * index);
+  }
+}
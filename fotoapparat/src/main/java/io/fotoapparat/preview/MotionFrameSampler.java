@@ -0,0 +1,25 @@
+package io.fotoapparat.preview;
+
+/**
+ * Accepts frames which differ from the previous frame by at least the given motion score.
+ *
+ * @see Frame#getMotionScore()
+ */
+class MotionFrameSampler implements FrameSampler {
+
+  private final float threshold;
+
+  MotionFrameSampler(float threshold) {
+    if (!(threshold >= 0f && threshold <= 1f)) {
+      throw new IllegalArgumentException("Threshold must be between 0 and 1, got: " + threshold);
+    }
+
+    this.threshold = threshold;
+  }
+
+  @Override public boolean accept(Frame frame) {
+    float motionScore = frame.getMotionScore();
+
+    return Float.isNaN(motionScore) || motionScore >= threshold;
+  }
+}
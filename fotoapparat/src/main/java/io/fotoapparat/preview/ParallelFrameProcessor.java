@@ -0,0 +1,23 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+import java.util.List;
+
+/**
+ * Frame processor which groups independent processors. {@link FrameDispatcher} gives every one of
+ * them a separate lane, so they process the same frame concurrently.
+ */
+class ParallelFrameProcessor implements FrameProcessor {
+
+  final List<FrameProcessor> frameProcessors;
+
+  ParallelFrameProcessor(@NonNull List<FrameProcessor> frameProcessors) {
+    this.frameProcessors = frameProcessors;
+  }
+
+  @Override public void processFrame(Frame frame) {
+    for (FrameProcessor frameProcessor : frameProcessors) {
+      frameProcessor.processFrame(frame);
+    }
+  }
+}
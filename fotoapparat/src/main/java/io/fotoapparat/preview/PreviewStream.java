@@ -1,12 +1,19 @@
 package io.fotoapparat.preview;
 
 import android.support.annotation.NonNull;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Stream of preview frames from the camera.
  */
 public interface PreviewStream {
 
+  /**
+   * Default number of preview buffers cycled between the camera and frame processors.
+   */
+  int DEFAULT_BUFFER_COUNT = 3;
+
   /**
    * Null-object for {@link PreviewStream}.
    */
@@ -15,6 +22,18 @@ public interface PreviewStream {
       // Do nothing
     }
 
+    @Override public void setBufferCount(int bufferCount) {
+      // Do nothing
+    }
+
+    @Override public void setBackpressurePolicy(@NonNull BackpressurePolicy policy) {
+      // Do nothing
+    }
+
+    @Override public void setLatencyBudget(@NonNull LatencyBudget latencyBudget) {
+      // Do nothing
+    }
+
     @Override public void addProcessor(@NonNull FrameProcessor processor) {
       // Do nothing
     }
@@ -26,6 +45,14 @@ public interface PreviewStream {
     @Override public void start() {
       // Do nothing
     }
+
+    @Override public PreviewStreamStatistics getStatistics() {
+      return PreviewStreamStatistics.empty();
+    }
+
+    @Override public List<ProcessorStatistics> getProcessorStatistics() {
+      return Collections.emptyList();
+    }
   };
 
   /**
@@ -33,6 +60,31 @@ public interface PreviewStream {
    */
   void addFrameToBuffer();
 
+  /**
+   * Sets the number of preview buffers which are cycled between the camera and frame processors.
+   * While processors hold every buffer the camera has nowhere to write and drops frames, so slow
+   * processors benefit from more buffers. Must be called before {@link #start()}.
+   *
+   * @param bufferCount number of buffers, at least 1. {@link #DEFAULT_BUFFER_COUNT} by default.
+   */
+  void setBufferCount(int bufferCount);
+
+  /**
+   * Sets what happens to frames arriving while frame processors are still busy with previous ones.
+   * Must be called before {@link #start()}.
+   *
+   * @param policy {@link BackpressurePolicy#latestOnly()} by default.
+   */
+  void setBackpressurePolicy(@NonNull BackpressurePolicy policy);
+
+  /**
+   * Sets the time every frame processor is expected to spend on a frame, and what happens to
+   * processors which repeatedly take longer.
+   *
+   * @param latencyBudget {@link LatencyBudget#none()} by default.
+   */
+  void setLatencyBudget(@NonNull LatencyBudget latencyBudget);
+
   /**
    * Registers new processor. If processor was already added before, does nothing.
    */
@@ -47,4 +99,14 @@ public interface PreviewStream {
    * Starts preview stream. After preview is started frame processors will start receiving frames.
    */
   void start();
+
+  /**
+   * @return counters of the stream collected since it was started.
+   */
+  PreviewStreamStatistics getStatistics();
+
+  /**
+   * @return timing of every registered frame processor.
+   */
+  List<ProcessorStatistics> getProcessorStatistics();
 }
@@ -0,0 +1,97 @@
+package io.fotoapparat.preview;
+
+/**
+ * Counters of the {@link PreviewStream} collected since the stream was started. Immutable.
+ */
+public class PreviewStreamStatistics {
+
+  /**
+   * Number of frames which the stream received from the camera.
+   *
+   * @see Frame#sequenceNumber
+   */
+  public final long framesReceived;
+
+  /**
+   * Number of frames which were passed to frame processors. Frame passed to several parallel
+   * processors is counted once for each of them. Frames skipped by throttled processors are not
+   * counted.
+   *
+   * @see FrameProcessors#parallel(FrameProcessor...)
+   */
+  public final long framesProcessed;
+
+  /**
+   * Number of frames waiting for frame processors at the moment the statistics were taken.
+   */
+  public final int framesPending;
+
+  /**
+   * Number of frames which stream dropped because frame processors did not keep up with the
+   * camera.
+   *
+   * @see BackpressurePolicy
+   */
+  public final long framesDroppedByBackpressure;
+
+  /**
+   * Number of frames which camera dropped because every preview buffer was held by frame
+   * processors. Camera1 does not report dropped frames, so there the value is estimated from the
+   * time the camera spent without a free buffer.
+   */
+  public final long framesDroppedByCamera;
+
+  public PreviewStreamStatistics(long framesReceived, long framesProcessed, int framesPending,
+      long framesDroppedByBackpressure, long framesDroppedByCamera) {
+    this.framesReceived = framesReceived;
+    this.framesProcessed = framesProcessed;
+    this.framesPending = framesPending;
+    this.framesDroppedByBackpressure = framesDroppedByBackpressure;
+    this.framesDroppedByCamera = framesDroppedByCamera;
+  }
+
+  /**
+   * @return statistics of a stream which did not receive any frames yet.
+   */
+  public static PreviewStreamStatistics empty() {
+    return new PreviewStreamStatistics(0, 0, 0, 0, 0);
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    PreviewStreamStatistics that = (PreviewStreamStatistics) o;
+
+    return framesReceived == that.framesReceived
+        && framesProcessed == that.framesProcessed
+        && framesPending == that.framesPending
+        && framesDroppedByBackpressure == that.framesDroppedByBackpressure
+        && framesDroppedByCamera == that.framesDroppedByCamera;
+  }
+
+  @Override public int hashCode() {
+    int result = (int) (framesReceived ^ (framesReceived >>> 32));
+    result = 31 * result + (int) (framesProcessed ^ (framesProcessed >>> 32));
+    result = 31 * result + framesPending;
+    result = 31 * result + (int) (framesDroppedByBackpressure ^ (framesDroppedByBackpressure
+        >>> 32));
+    result = 31 * result + (int) (framesDroppedByCamera ^ (framesDroppedByCamera >>> 32));
+    return result;
+  }
+
+  @Override public String toString() {
+    return "PreviewStreamStatistics{"
+        + "framesReceived="
+        + framesReceived
+        + ", framesProcessed="
+        + framesProcessed
+        + ", framesPending="
+        + framesPending
+        + ", framesDroppedByBackpressure="
+        + framesDroppedByBackpressure
+        + ", framesDroppedByCamera="
+        + framesDroppedByCamera
+        + '}';
+  }
+}
@@ -0,0 +1,126 @@
+package io.fotoapparat.preview;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times every call of a {@link FrameProcessor} and enforces {@link LatencyBudget} on it. Called by
+ * one lane at a time.
+ */
+class ProcessorMonitor implements FrameProcessor, FrameLane.LaneProcessor {
+
+  final FrameProcessor frameProcessor;
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+  private final AtomicLong framesSkipped = new AtomicLong();
+  private final AtomicLong budgetOverruns = new AtomicLong();
+
+  private volatile LatencyBudget latencyBudget;
+  private volatile boolean throttled = false;
+  private volatile boolean closed = false;
+  private int consecutiveOverruns = 0;
+  private long lastEndNanos = 0;
+  private long lastDurationNanos = 0;
+
+  ProcessorMonitor(FrameProcessor frameProcessor, LatencyBudget latencyBudget) {
+    this.frameProcessor = frameProcessor;
+    this.latencyBudget = latencyBudget;
+  }
+
+  void setLatencyBudget(LatencyBudget latencyBudget) {
+    this.latencyBudget = latencyBudget;
+  }
+
+  /**
+   * Stops delivering frames to the processor. Called once the processor is removed.
+   */
+  void close() {
+    closed = true;
+  }
+
+  @Override public void processFrame(Frame frame) {
+    process(frame);
+  }
+
+  /**
+   * @return {@code false} if the frame was not passed to the processor because the monitor is
+   * closed or the processor is throttled.
+   */
+  @Override public boolean process(Frame frame) {
+    if (closed) {
+      return false;
+    }
+
+    if (throttled && System.nanoTime() - lastEndNanos < lastDurationNanos) {
+      framesSkipped.incrementAndGet();
+      return false;
+    }
+
+    long startNanos = System.nanoTime();
+
+    try {
+      frameProcessor.processFrame(frame);
+    } finally {
+      long endNanos = System.nanoTime();
+
+      onProcessed(endNanos - startNanos, endNanos);
+    }
+
+    return true;
+  }
+
+  ProcessorStatistics getStatistics() {
+    return new ProcessorStatistics(
+        frameProcessor,
+        histogram.getCount(),
+        framesSkipped.get(),
+        budgetOverruns.get(),
+        throttled,
+        histogram.getPercentileNanos(0.5f),
+        histogram.getPercentileNanos(0.95f),
+        histogram.getPercentileNanos(0.99f),
+        histogram.getMaxNanos()
+    );
+  }
+
+  private void onProcessed(long durationNanos, long endNanos) {
+    histogram.record(durationNanos);
+    lastEndNanos = endNanos;
+    lastDurationNanos = durationNanos;
+
+    LatencyBudget budget = latencyBudget;
+
+    if (durationNanos <= budget.budgetNanos) {
+      consecutiveOverruns = 0;
+
+      if (throttled) {
+        throttled = false;
+        budget.logger.log(frameProcessor + " is back within budget, throttling stopped");
+      }
+
+      return;
+    }
+
+    budgetOverruns.incrementAndGet();
+
+    if (++consecutiveOverruns != budget.toleratedOverruns) {
+      return;
+    }
+
+    budget.logger.log(String.format(Locale.US,
+        "%s exceeded budget of %.1f ms for %d frames in a row, last frame took %.1f ms%s",
+        frameProcessor,
+        toMillis(budget.budgetNanos),
+        consecutiveOverruns,
+        toMillis(durationNanos),
+        budget.throttling ? ", throttling" : ""
+    ));
+
+    throttled = budget.throttling;
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
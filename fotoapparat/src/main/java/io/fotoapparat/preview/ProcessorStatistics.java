@@ -0,0 +1,92 @@
+package io.fotoapparat.preview;
+
+/**
+ * Timing of a single {@link FrameProcessor} registered in a {@link PreviewStream}, collected since
+ * it was registered. Immutable.
+ */
+public class ProcessorStatistics {
+
+  /**
+   * Processor which was timed. For sampled processors it is the processor which was sampled.
+   */
+  public final FrameProcessor processor;
+
+  /**
+   * Number of frames the processor handled.
+   */
+  public final long framesProcessed;
+
+  /**
+   * Number of frames the processor skipped while it was throttled.
+   *
+   * @see LatencyBudget#throttle(long, int, io.fotoapparat.log.Logger)
+   */
+  public final long framesSkipped;
+
+  /**
+   * Number of frames which took longer than {@link LatencyBudget}.
+   */
+  public final long budgetOverruns;
+
+  /**
+   * {@code true} if the processor is throttled at the moment the statistics were taken.
+   */
+  public final boolean throttled;
+
+  /**
+   * Median time spent on a frame, in nanoseconds.
+   */
+  public final long p50Nanos;
+
+  /**
+   * 95th percentile of time spent on a frame, in nanoseconds.
+   */
+  public final long p95Nanos;
+
+  /**
+   * 99th percentile of time spent on a frame, in nanoseconds.
+   */
+  public final long p99Nanos;
+
+  /**
+   * Longest time spent on a frame, in nanoseconds.
+   */
+  public final long maxNanos;
+
+  public ProcessorStatistics(FrameProcessor processor, long framesProcessed, long framesSkipped,
+      long budgetOverruns, boolean throttled, long p50Nanos, long p95Nanos, long p99Nanos,
+      long maxNanos) {
+    this.processor = processor;
+    this.framesProcessed = framesProcessed;
+    this.framesSkipped = framesSkipped;
+    this.budgetOverruns = budgetOverruns;
+    this.throttled = throttled;
+    this.p50Nanos = p50Nanos;
+    this.p95Nanos = p95Nanos;
+    this.p99Nanos = p99Nanos;
+    this.maxNanos = maxNanos;
+  }
+
+  @Override public String toString() {
+    return "ProcessorStatistics{"
+        + "processor="
+        + processor
+        + ", framesProcessed="
+        + framesProcessed
+        + ", framesSkipped="
+        + framesSkipped
+        + ", budgetOverruns="
+        + budgetOverruns
+        + ", throttled="
+        + throttled
+        + ", p50Nanos="
+        + p50Nanos
+        + ", p95Nanos="
+        + p95Nanos
+        + ", p99Nanos="
+        + p99Nanos
+        + ", maxNanos="
+        + maxNanos
+        + '}';
+  }
+}
@@ -0,0 +1,211 @@
+package io.fotoapparat.preview;
+
+import io.fotoapparat.parameter.Size;
+
+/**
+ * Rectangular part of the preview frames which a {@link FrameProcessor} is interested in.
+ *
+ * @see FrameProcessors#regionOfInterest(FrameProcessor, RegionOfInterest)
+ */
+public final class RegionOfInterest {
+
+  private final boolean relativeToView;
+  private final float left;
+  private final float top;
+  private final float right;
+  private final float bottom;
+
+  private RegionOfInterest(boolean relativeToView, float left, float top, float right,
+      float bottom) {
+    if (!(left < right) || !(top < bottom)) {
+      throw new IllegalArgumentException("Region must not be empty, got: "
+          + left + ", " + top + ", " + right + ", " + bottom);
+    }
+
+    this.relativeToView = relativeToView;
+    this.left = left;
+    this.top = top;
+    this.right = right;
+    this.bottom = bottom;
+  }
+
+  /**
+   * @param left left edge as a fraction of the width of the preview as the user sees it, from 0
+   * to 1.
+   * @param top top edge as a fraction of the height of the preview as the user sees it, from 0 to
+   * 1.
+   * @param right right edge, from 0 to 1.
+   * @param bottom bottom edge, from 0 to 1.
+   * @return region in coordinates of the preview as the user sees it. Follows
+   * {@link Frame#rotation}, so the region stays in place when the device is rotated.
+   */
+  public static RegionOfInterest relative(float left, float top, float right, float bottom) {
+    return new RegionOfInterest(true, left, top, right, bottom);
+  }
+
+  /**
+   * @param widthFraction width of the region as a fraction of the preview width, from 0 to 1.
+   * @param heightFraction height of the region as a fraction of the preview height, from 0 to 1.
+   * @return region in the center of the preview as the user sees it.
+   * @see #relative(float, float, float, float)
+   */
+  public static RegionOfInterest centered(float widthFraction, float heightFraction) {
+    return relative(
+        (1f - widthFraction) / 2f,
+        (1f - heightFraction) / 2f,
+        (1f + widthFraction) / 2f,
+        (1f + heightFraction) / 2f
+    );
+  }
+
+  /**
+   * @return region in pixel coordinates of the frame as it comes from the camera, before
+   * rotation. Right and bottom edges are exclusive.
+   */
+  public static RegionOfInterest inFrame(int left, int top, int right, int bottom) {
+    return new RegionOfInterest(false, left, top, right, bottom);
+  }
+
+  /**
+   * @return pixel bounds of the region in the frame, clipped to the frame and expanded to even
+   * coordinates so that chroma samples of NV21 image are not split.
+   */
+  Crop toCrop(Size frameSize, int rotation) {
+    float cropLeft;
+    float cropTop;
+    float cropRight;
+    float cropBottom;
+
+    if (relativeToView) {
+      float[] corners = {left, top, right, bottom};
+      rotateToFrame(corners, rotation);
+
+      cropLeft = Math.min(corners[0], corners[2]) * frameSize.width;
+      cropTop = Math.min(corners[1], corners[3]) * frameSize.height;
+      cropRight = Math.max(corners[0], corners[2]) * frameSize.width;
+      cropBottom = Math.max(corners[1], corners[3]) * frameSize.height;
+    } else {
+      cropLeft = left;
+      cropTop = top;
+      cropRight = right;
+      cropBottom = bottom;
+    }
+
+    int pixelLeft = evenFloor(clip(cropLeft, frameSize.width));
+    int pixelTop = evenFloor(clip(cropTop, frameSize.height));
+    int pixelRight = Math.min(
+        evenCeil(clip((float) Math.ceil(cropRight), frameSize.width)),
+        evenFloor(frameSize.width)
+    );
+    int pixelBottom = Math.min(
+        evenCeil(clip((float) Math.ceil(cropBottom), frameSize.height)),
+        evenFloor(frameSize.height)
+    );
+
+    return new Crop(
+        pixelLeft,
+        pixelTop,
+        Math.max(0, pixelRight - pixelLeft),
+        Math.max(0, pixelBottom - pixelTop)
+    );
+  }
+
+  /**
+   * Maps two corners given in relative coordinates of the upright preview into relative
+   * coordinates of the frame, which needs to be rotated clockwise by given degrees to be upright.
+   */
+  private static void rotateToFrame(float[] corners, int rotation) {
+    for (int i = 0; i < corners.length; i += 2) {
+      float x = corners[i];
+      float y = corners[i + 1];
+
+      switch (rotation) {
+        case 90:
+          corners[i] = y;
+          corners[i + 1] = 1f - x;
+          break;
+        case 180:
+          corners[i] = 1f - x;
+          corners[i + 1] = 1f - y;
+          break;
+        case 270:
+          corners[i] = 1f - y;
+          corners[i + 1] = x;
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private static int clip(float value, int max) {
+    return (int) Math.max(0, Math.min(max, value));
+  }
+
+  private static int evenFloor(int value) {
+    return value & ~1;
+  }
+
+  private static int evenCeil(int value) {
+    return (value + 1) & ~1;
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    RegionOfInterest that = (RegionOfInterest) o;
+
+    return relativeToView == that.relativeToView
+        && Float.compare(that.left, left) == 0
+        && Float.compare(that.top, top) == 0
+        && Float.compare(that.right, right) == 0
+        && Float.compare(that.bottom, bottom) == 0;
+  }
+
+  @Override public int hashCode() {
+    int result = (relativeToView ? 1 : 0);
+    result = 31 * result + Float.floatToIntBits(left);
+    result = 31 * result + Float.floatToIntBits(top);
+    result = 31 * result + Float.floatToIntBits(right);
+    result = 31 * result + Float.floatToIntBits(bottom);
+    return result;
+  }
+
+  @Override public String toString() {
+    return "RegionOfInterest{"
+        + "relativeToView="
+        + relativeToView
+        + ", left="
+        + left
+        + ", top="
+        + top
+        + ", right="
+        + right
+        + ", bottom="
+        + bottom
+        + '}';
+  }
+
+  /**
+   * Pixel bounds of a region in the frame.
+   */
+  static class Crop {
+
+    final int left;
+    final int top;
+    final int width;
+    final int height;
+
+    Crop(int left, int top, int width, int height) {
+      this.left = left;
+      this.top = top;
+      this.width = width;
+      this.height = height;
+    }
+
+    boolean isEmpty() {
+      return width == 0 || height == 0;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Frame processor which receives only frames accepted by {@link FrameSampler}.
+ * {@link FrameDispatcher} runs it on a separate lane and does not queue skipped frames at all.
+ */
+class SampledFrameProcessor implements FrameProcessor {
+
+  final FrameProcessor frameProcessor;
+  final FrameSampler frameSampler;
+
+  SampledFrameProcessor(@NonNull FrameProcessor frameProcessor,
+      @NonNull FrameSampler frameSampler) {
+    this.frameProcessor = frameProcessor;
+    this.frameSampler = frameSampler;
+  }
+
+  @Override public void processFrame(Frame frame) {
+    if (frameSampler.accept(frame)) {
+      frameProcessor.processFrame(frame);
+    }
+  }
+}
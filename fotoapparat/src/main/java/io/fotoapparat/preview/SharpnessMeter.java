@@ -0,0 +1,49 @@
+package io.fotoapparat.preview;
+
+/**
+ * Scores sharpness of luma as the variance of its Laplacian. Blur removes fine detail, which
+ * flattens the Laplacian and lowers its variance. Laplacian is evaluated at every {@code step}-th
+ * pixel of every {@code step}-th row only, against the immediate neighbours of the pixel, so the
+ * score stays sensitive to the finest detail at a fraction of the cost of a full pass.
+ */
+class SharpnessMeter {
+
+  private SharpnessMeter() {
+  }
+
+  /**
+   * @return variance of the Laplacian of sampled pixels. Higher is sharper. Scores are only
+   * comparable between frames of the same size and a similar scene. 0 if the image is smaller
+   * than 3x3 pixels.
+   */
+  static float score(byte[] luma, int width, int height, int step) {
+    long sum = 0;
+    long sumOfSquares = 0;
+    int count = 0;
+
+    for (int y = 1; y < height - 1; y += step) {
+      int offset = y * width;
+
+      for (int x = 1; x < width - 1; x += step) {
+        int index = offset + x;
+        int laplacian = 4 * (luma[index] & 0xFF)
+            - (luma[index - 1] & 0xFF)
+            - (luma[index + 1] & 0xFF)
+            - (luma[index - width] & 0xFF)
+            - (luma[index + width] & 0xFF);
+
+        sum += laplacian;
+        sumOfSquares += laplacian * laplacian;
+        count++;
+      }
+    }
+
+    if (count == 0) {
+      return 0f;
+    }
+
+    double mean = (double) sum / count;
+
+    return (float) ((double) sumOfSquares / count - mean * mean);
+  }
+}
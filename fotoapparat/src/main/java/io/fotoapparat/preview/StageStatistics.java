@@ -0,0 +1,65 @@
+package io.fotoapparat.preview;
+
+/**
+ * Counters and timing of a {@link FrameStage} of a {@link FrameGraph}. Immutable.
+ */
+public class StageStatistics {
+
+  /**
+   * Name the stage was added with.
+   */
+  public final String name;
+
+  /**
+   * Number of frames which the stage processed.
+   */
+  public final long framesProcessed;
+
+  /**
+   * Number of frames which were dropped before the stage because it did not keep up.
+   */
+  public final long framesDropped;
+
+  /**
+   * Number of frames waiting for the stage at the moment the statistics were taken.
+   */
+  public final int framesPending;
+
+  /**
+   * Average time the stage spent on a frame, in nanoseconds.
+   */
+  public final long averageNanos;
+
+  /**
+   * Longest time the stage spent on a frame, in nanoseconds.
+   */
+  public final long maxNanos;
+
+  public StageStatistics(String name, long framesProcessed, long framesDropped, int framesPending,
+      long averageNanos, long maxNanos) {
+    this.name = name;
+    this.framesProcessed = framesProcessed;
+    this.framesDropped = framesDropped;
+    this.framesPending = framesPending;
+    this.averageNanos = averageNanos;
+    this.maxNanos = maxNanos;
+  }
+
+  @Override public String toString() {
+    return "StageStatistics{"
+        + "name='"
+        + name
+        + '\''
+        + ", framesProcessed="
+        + framesProcessed
+        + ", framesDropped="
+        + framesDropped
+        + ", framesPending="
+        + framesPending
+        + ", averageNanos="
+        + averageNanos
+        + ", maxNanos="
+        + maxNanos
+        + '}';
+  }
+}
@@ -0,0 +1,156 @@
+package io.fotoapparat.preview;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a {@link FrameStage} of a {@link FrameGraph} for one frame at a time, like
+ * {@link FrameLane} does for a processor. Inputs wait in a bounded queue governed by
+ * {@link BackpressurePolicy}. Every queued input holds a lease on its frame.
+ */
+class StageWorker<I, O> {
+
+  private final String name;
+  private final FrameStage<? super I, O> stage;
+  private final FrameGraph.Node<O> output;
+  private final Executor executor;
+  private final BackpressurePolicy backpressurePolicy;
+  private final BlockingQueue<Input<I>> pendingInputs;
+
+  private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+  private final AtomicLong framesProcessed = new AtomicLong();
+  private final AtomicLong framesDropped = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private volatile long maxNanos = 0;
+
+  private final Runnable drainTask = new Runnable() {
+    @Override public void run() {
+      try {
+        drainQueue();
+      } finally {
+        drainScheduled.set(false);
+
+        if (!pendingInputs.isEmpty()) {
+          scheduleDrain();
+        }
+      }
+    }
+  };
+
+  StageWorker(String name, FrameStage<? super I, O> stage, FrameGraph.Node<O> output,
+      Executor executor, BackpressurePolicy backpressurePolicy) {
+    this.name = name;
+    this.stage = stage;
+    this.output = output;
+    this.executor = executor;
+    this.backpressurePolicy = backpressurePolicy;
+    this.pendingInputs = new ArrayBlockingQueue<>(backpressurePolicy.capacity);
+  }
+
+  /**
+   * Queues input of the stage. Takes a lease on the frame until the input is processed or dropped.
+   */
+  void offer(Frame frame, I value) {
+    Input<I> input = new Input<>(frame.acquire(), value);
+
+    if (backpressurePolicy.blocking) {
+      enqueueBlocking(input);
+    } else {
+      enqueueDroppingOldest(input);
+    }
+
+    scheduleDrain();
+  }
+
+  StageStatistics getStatistics() {
+    long processed = framesProcessed.get();
+
+    return new StageStatistics(
+        name,
+        processed,
+        framesDropped.get(),
+        pendingInputs.size(),
+        processed == 0 ? 0 : totalNanos.get() / processed,
+        maxNanos
+    );
+  }
+
+  private void enqueueBlocking(Input<I> input) {
+    try {
+      pendingInputs.put(input);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+      drop(input);
+    }
+  }
+
+  private void enqueueDroppingOldest(Input<I> input) {
+    while (!pendingInputs.offer(input)) {
+      Input<I> oldestInput = pendingInputs.poll();
+
+      if (oldestInput != null) {
+        drop(oldestInput);
+      }
+    }
+  }
+
+  private void drop(Input<I> input) {
+    framesDropped.incrementAndGet();
+    input.frame.release();
+  }
+
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      executor.execute(drainTask);
+    }
+  }
+
+  private void drainQueue() {
+    Input<I> input;
+
+    while ((input = pendingInputs.poll()) != null) {
+      process(input);
+    }
+  }
+
+  private void process(Input<I> input) {
+    try {
+      long startNanos = System.nanoTime();
+      O result = stage.process(input.frame, input.value);
+      recordTime(System.nanoTime() - startNanos);
+
+      if (result != null) {
+        output.emit(input.frame, result);
+      }
+    } finally {
+      framesProcessed.incrementAndGet();
+      input.frame.release();
+    }
+  }
+
+  private void recordTime(long nanos) {
+    totalNanos.addAndGet(nanos);
+
+    if (nanos > maxNanos) {
+      maxNanos = nanos;
+    }
+  }
+
+  /**
+   * Input of the stage together with the frame it belongs to.
+   */
+  private static class Input<I> {
+
+    final Frame frame;
+    final I value;
+
+    Input(Frame frame, I value) {
+      this.frame = frame;
+      this.value = value;
+    }
+  }
+}
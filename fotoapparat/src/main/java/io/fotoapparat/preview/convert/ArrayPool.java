@@ -0,0 +1,117 @@
+package io.fotoapparat.preview.convert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of pixel arrays of any primitive type. Thread safe.
+ *
+ * @param <T> type of the array.
+ */
+abstract class ArrayPool<T> {
+
+  private final List<SizeClass<T>> sizeClasses = new ArrayList<>();
+  private final int maxPooledArraysPerSize;
+
+  private long allocationCount = 0;
+
+  ArrayPool(int maxPooledArraysPerSize) {
+    this.maxPooledArraysPerSize = maxPooledArraysPerSize;
+  }
+
+  /**
+   * @return array of exactly given length. Content is undefined.
+   */
+  synchronized T acquire(int length) {
+    SizeClass<T> sizeClass = sizeClassOf(length);
+
+    if (!sizeClass.freeArrays.isEmpty()) {
+      return sizeClass.freeArrays.pop();
+    }
+
+    allocationCount++;
+
+    return allocate(length);
+  }
+
+  /**
+   * Returns array to the pool.
+   */
+  synchronized void release(T array) {
+    SizeClass<T> sizeClass = sizeClassOf(lengthOf(array));
+
+    if (sizeClass.freeArrays.size() < maxPooledArraysPerSize) {
+      sizeClass.freeArrays.push(array);
+    }
+  }
+
+  synchronized long getAllocationCount() {
+    return allocationCount;
+  }
+
+  abstract T allocate(int length);
+
+  abstract int lengthOf(T array);
+
+  private SizeClass<T> sizeClassOf(int length) {
+    for (int i = 0; i < sizeClasses.size(); i++) {
+      SizeClass<T> sizeClass = sizeClasses.get(i);
+
+      if (sizeClass.length == length) {
+        return sizeClass;
+      }
+    }
+
+    SizeClass<T> sizeClass = new SizeClass<>(length);
+    sizeClasses.add(sizeClass);
+
+    return sizeClass;
+  }
+
+  private static class SizeClass<T> {
+
+    final int length;
+    final ArrayDeque<T> freeArrays = new ArrayDeque<>();
+
+    SizeClass(int length) {
+      this.length = length;
+    }
+  }
+
+  /**
+   * Pool of {@code int[]}.
+   */
+  static class IntArrays extends ArrayPool<int[]> {
+
+    IntArrays(int maxPooledArraysPerSize) {
+      super(maxPooledArraysPerSize);
+    }
+
+    @Override int[] allocate(int length) {
+      return new int[length];
+    }
+
+    @Override int lengthOf(int[] array) {
+      return array.length;
+    }
+  }
+
+  /**
+   * Pool of {@code short[]}.
+   */
+  static class ShortArrays extends ArrayPool<short[]> {
+
+    ShortArrays(int maxPooledArraysPerSize) {
+      super(maxPooledArraysPerSize);
+    }
+
+    @Override short[] allocate(int length) {
+      return new short[length];
+    }
+
+    @Override int lengthOf(short[] array) {
+      return array.length;
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package io.fotoapparat.preview.convert;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.PreviewStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts NV21 frames into ARGB_8888 ({@code int} per pixel, as used by
+ * {@code Bitmap.setPixels}) or RGB_565 ({@code short} per pixel, as used by
+ * {@code Bitmap.copyPixelsFromBuffer}) images.
+ * <p>
+ * Uses BT.601 limited range coefficients in fixed point precomputed into lookup tables, so every
+ * pixel costs a handful of table reads and additions. Rows of the image can be split into stripes
+ * converted concurrently on an {@link Executor}. Output arrays are either supplied by the caller
+ * or taken from a pool and given back with {@link #release(int[])} / {@link #release(short[])}.
+ * Frames without chroma are converted to gray. Rotation of the frame is not applied, convert
+ * {@link Frame#getUpright()} to get upright pixels.
+ * <p>
+ * Thread safe.
+ */
+public class Nv21ToRgbConverter {
+
+  private static final int SHIFT = 10;
+  /**
+   * Channel values before clamping fall within [-223, 534].
+   */
+  private static final int CLAMP_OFFSET = 384;
+  private static final int CLAMP_SIZE = 1024;
+
+  private static final int[] LUMA = new int[256];
+  private static final int[] RED_V = new int[256];
+  private static final int[] GREEN_V = new int[256];
+  private static final int[] GREEN_U = new int[256];
+  private static final int[] BLUE_U = new int[256];
+
+  private static final int[] CLAMP_8 = new int[CLAMP_SIZE];
+  private static final int[] CLAMP_5 = new int[CLAMP_SIZE];
+  private static final int[] CLAMP_6 = new int[CLAMP_SIZE];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      LUMA[i] = 1192 * (i - 16) + (1 << (SHIFT - 1));
+      RED_V[i] = 1634 * (i - 128);
+      GREEN_V[i] = 833 * (i - 128);
+      GREEN_U[i] = 400 * (i - 128);
+      BLUE_U[i] = 2066 * (i - 128);
+    }
+
+    for (int i = 0; i < CLAMP_8.length; i++) {
+      int value = Math.max(0, Math.min(255, i - CLAMP_OFFSET));
+
+      CLAMP_8[i] = value;
+      CLAMP_5[i] = value >> 3;
+      CLAMP_6[i] = value >> 2;
+    }
+  }
+
+  private final Executor executor;
+  private final int stripeCount;
+
+  private final ArrayPool<int[]> argbPool =
+      new ArrayPool.IntArrays(PreviewStream.DEFAULT_BUFFER_COUNT);
+  private final ArrayPool<short[]> rgb565Pool =
+      new ArrayPool.ShortArrays(PreviewStream.DEFAULT_BUFFER_COUNT);
+
+  /**
+   * Creates converter which converts on the calling thread.
+   */
+  public Nv21ToRgbConverter() {
+    this(null, 1);
+  }
+
+  /**
+   * Creates converter which splits rows of the image into stripes and converts them concurrently.
+   * One of the stripes is converted on the calling thread, the others on the executor.
+   *
+   * @param executor executor for the stripes.
+   * @param stripeCount number of stripes, usually the number of CPU cores.
+   * @throws IllegalArgumentException if stripe count is less than 1.
+   */
+  public Nv21ToRgbConverter(Executor executor, int stripeCount) {
+    if (stripeCount < 1) {
+      throw new IllegalArgumentException("At least one stripe is required, got: " + stripeCount);
+    }
+
+    this.executor = executor;
+    this.stripeCount = stripeCount;
+  }
+
+  /**
+   * @return ARGB_8888 image of the frame in an array taken from the pool. Give it back with
+   * {@link #release(int[])} once it is no longer used.
+   */
+  public int[] toArgb(@NonNull Frame frame) {
+    int[] output = argbPool.acquire(frame.size.width * frame.size.height);
+
+    toArgb(frame, output);
+
+    return output;
+  }
+
+  /**
+   * Writes ARGB_8888 image of the frame into given array, row by row.
+   *
+   * @throws IllegalArgumentException if the array is too small for the frame.
+   */
+  public void toArgb(@NonNull final Frame frame, @NonNull final int[] output) {
+    ensureCapacity(frame, output.length);
+
+    convertStriped(frame.size.height, new RowConverter() {
+      @Override void convertRows(int firstRow, int endRow) {
+        argbRows(frame.image, frame.size.width, frame.size.height, frame.hasChroma(), output,
+            firstRow, endRow);
+      }
+    });
+  }
+
+  /**
+   * @return RGB_565 image of the frame in an array taken from the pool. Give it back with
+   * {@link #release(short[])} once it is no longer used.
+   */
+  public short[] toRgb565(@NonNull Frame frame) {
+    short[] output = rgb565Pool.acquire(frame.size.width * frame.size.height);
+
+    toRgb565(frame, output);
+
+    return output;
+  }
+
+  /**
+   * Writes RGB_565 image of the frame into given array, row by row.
+   *
+   * @throws IllegalArgumentException if the array is too small for the frame.
+   */
+  public void toRgb565(@NonNull final Frame frame, @NonNull final short[] output) {
+    ensureCapacity(frame, output.length);
+
+    convertStriped(frame.size.height, new RowConverter() {
+      @Override void convertRows(int firstRow, int endRow) {
+        rgb565Rows(frame.image, frame.size.width, frame.size.height, frame.hasChroma(), output,
+            firstRow, endRow);
+      }
+    });
+  }
+
+  /**
+   * Gives an array returned by {@link #toArgb(Frame)} back to the pool.
+   */
+  public void release(@NonNull int[] argb) {
+    argbPool.release(argb);
+  }
+
+  /**
+   * Gives an array returned by {@link #toRgb565(Frame)} back to the pool.
+   */
+  public void release(@NonNull short[] rgb565) {
+    rgb565Pool.release(rgb565);
+  }
+
+  /**
+   * @return number of output arrays allocated by the pools so far.
+   */
+  public long getAllocationCount() {
+    return argbPool.getAllocationCount() + rgb565Pool.getAllocationCount();
+  }
+
+  private static void ensureCapacity(Frame frame, int capacity) {
+    int pixelCount = frame.size.width * frame.size.height;
+
+    if (capacity < pixelCount) {
+      throw new IllegalArgumentException(
+          "Output must hold " + pixelCount + " pixels, got: " + capacity);
+    }
+  }
+
+  private void convertStriped(int height, final RowConverter rowConverter) {
+    int stripes = executor == null ? 1 : Math.min(stripeCount, height);
+
+    if (stripes <= 1) {
+      rowConverter.convertRows(0, height);
+      return;
+    }
+
+    final CountDownLatch stripesDone = new CountDownLatch(stripes - 1);
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    for (int stripe = 0; stripe < stripes - 1; stripe++) {
+      final int firstRow = height * stripe / stripes;
+      final int endRow = height * (stripe + 1) / stripes;
+
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          try {
+            rowConverter.convertRows(firstRow, endRow);
+          } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            stripesDone.countDown();
+          }
+        }
+      });
+    }
+
+    rowConverter.convertRows(height * (stripes - 1) / stripes, height);
+
+    awaitStripes(stripesDone);
+
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+
+  private static void awaitStripes(CountDownLatch stripesDone) {
+    try {
+      stripesDone.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+      throw new IllegalStateException("Interrupted while waiting for conversion", e);
+    }
+  }
+
+  static void argbRows(byte[] nv21, int width, int height, boolean hasChroma, int[] output,
+      int firstRow, int endRow) {
+    int chromaOffset = width * height;
+    int chromaRowStride = 2 * ((width + 1) / 2);
+
+    for (int y = firstRow; y < endRow; y++) {
+      int rowOffset = y * width;
+      int chromaRowOffset = chromaOffset + (y >> 1) * chromaRowStride;
+
+      for (int x = 0; x < width; x += 2) {
+        int redChroma = 0;
+        int greenChroma = 0;
+        int blueChroma = 0;
+
+        if (hasChroma) {
+          int v = nv21[chromaRowOffset + x] & 0xFF;
+          int u = nv21[chromaRowOffset + x + 1] & 0xFF;
+
+          redChroma = RED_V[v];
+          greenChroma = GREEN_U[u] + GREEN_V[v];
+          blueChroma = BLUE_U[u];
+        }
+
+        int luma = LUMA[nv21[rowOffset + x] & 0xFF];
+        output[rowOffset + x] = 0xFF000000
+            | CLAMP_8[((luma + redChroma) >> SHIFT) + CLAMP_OFFSET] << 16
+            | CLAMP_8[((luma - greenChroma) >> SHIFT) + CLAMP_OFFSET] << 8
+            | CLAMP_8[((luma + blueChroma) >> SHIFT) + CLAMP_OFFSET];
+
+        if (x + 1 < width) {
+          luma = LUMA[nv21[rowOffset + x + 1] & 0xFF];
+          output[rowOffset + x + 1] = 0xFF000000
+              | CLAMP_8[((luma + redChroma) >> SHIFT) + CLAMP_OFFSET] << 16
+              | CLAMP_8[((luma - greenChroma) >> SHIFT) + CLAMP_OFFSET] << 8
+              | CLAMP_8[((luma + blueChroma) >> SHIFT) + CLAMP_OFFSET];
+        }
+      }
+    }
+  }
+
+  static void rgb565Rows(byte[] nv21, int width, int height, boolean hasChroma, short[] output,
+      int firstRow, int endRow) {
+    int chromaOffset = width * height;
+    int chromaRowStride = 2 * ((width + 1) / 2);
+
+    for (int y = firstRow; y < endRow; y++) {
+      int rowOffset = y * width;
+      int chromaRowOffset = chromaOffset + (y >> 1) * chromaRowStride;
+
+      for (int x = 0; x < width; x += 2) {
+        int redChroma = 0;
+        int greenChroma = 0;
+        int blueChroma = 0;
+
+        if (hasChroma) {
+          int v = nv21[chromaRowOffset + x] & 0xFF;
+          int u = nv21[chromaRowOffset + x + 1] & 0xFF;
+
+          redChroma = RED_V[v];
+          greenChroma = GREEN_U[u] + GREEN_V[v];
+          blueChroma = BLUE_U[u];
+        }
+
+        int luma = LUMA[nv21[rowOffset + x] & 0xFF];
+        output[rowOffset + x] =
+            (short) (CLAMP_5[((luma + redChroma) >> SHIFT) + CLAMP_OFFSET] << 11
+                | CLAMP_6[((luma - greenChroma) >> SHIFT) + CLAMP_OFFSET] << 5
+                | CLAMP_5[((luma + blueChroma) >> SHIFT) + CLAMP_OFFSET]);
+
+        if (x + 1 < width) {
+          luma = LUMA[nv21[rowOffset + x + 1] & 0xFF];
+          output[rowOffset + x + 1] =
+              (short) (CLAMP_5[((luma + redChroma) >> SHIFT) + CLAMP_OFFSET] << 11
+                  | CLAMP_6[((luma - greenChroma) >> SHIFT) + CLAMP_OFFSET] << 5
+                  | CLAMP_5[((luma + blueChroma) >> SHIFT) + CLAMP_OFFSET]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Converts a range of rows of the image.
+   */
+  private abstract static class RowConverter {
+
+    abstract void convertRows(int firstRow, int endRow);
+  }
+}
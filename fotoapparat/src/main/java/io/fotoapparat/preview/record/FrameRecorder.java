@@ -0,0 +1,185 @@
+package io.fotoapparat.preview.record;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.FrameProcessor;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static io.fotoapparat.preview.record.RecordingFormat.FILE_HEADER_SIZE;
+import static io.fotoapparat.preview.record.RecordingFormat.FILE_MAGIC;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_CAPACITY;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_FRAMES_RECORDED;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_MAGIC;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_VERSION;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_WRAPPED;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_WRITE_POSITION;
+import static io.fotoapparat.preview.record.RecordingFormat.RECORD_HEADER_SIZE;
+import static io.fotoapparat.preview.record.RecordingFormat.RECORD_MAGIC;
+import static io.fotoapparat.preview.record.RecordingFormat.VERSION;
+import static io.fotoapparat.preview.record.RecordingFormat.WRAP_MARKER;
+
+/**
+ * Frame processor which records frames into a file, so they can be read back with
+ * {@link FrameRecording}. File is pre-sized and memory mapped, recording a frame only copies it
+ * into the mapping. Once the file is full the oldest frames are overwritten.
+ * <p>
+ * The whole file is a single {@link MappedByteBuffer}, which is indexed by {@code int}. Capacity
+ * is therefore limited to {@link Integer#MAX_VALUE} bytes minus the file header, a little under
+ * 2 GB. Longer recordings need several files.
+ * <p>
+ * File is created on the first frame. If it can not be created, or once the recorder is closed,
+ * frames are ignored.
+ */
+public class FrameRecorder implements FrameProcessor, Closeable {
+
+  private final File file;
+  private final int capacity;
+
+  private RandomAccessFile randomAccessFile;
+  private MappedByteBuffer buffer;
+  private int writePosition = 0;
+  private long framesRecorded = 0;
+  private boolean wrapped = false;
+  private boolean closed = false;
+
+  FrameRecorder(File file, int capacity) {
+    this.file = file;
+    this.capacity = capacity;
+  }
+
+  /**
+   * @param file file to record to. Existing content is overwritten.
+   * @param capacityBytes space for the frames. File is slightly larger, it also contains a header.
+   * @throws IllegalArgumentException if capacity is not positive or the file would not fit into a
+   * single mapping, i.e. capacity exceeds {@link Integer#MAX_VALUE} minus the file header.
+   */
+  public static FrameRecorder create(@NonNull File file, int capacityBytes) {
+    if (capacityBytes <= 0 || capacityBytes > Integer.MAX_VALUE - FILE_HEADER_SIZE) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacityBytes);
+    }
+
+    return new FrameRecorder(file, capacityBytes);
+  }
+
+  @Override public synchronized void processFrame(Frame frame) {
+    if (closed || !ensureMapped()) {
+      return;
+    }
+
+    int recordSize = RECORD_HEADER_SIZE + frame.image.length;
+
+    if (recordSize > capacity) {
+      return;
+    }
+
+    if (writePosition + recordSize > capacity) {
+      wrap();
+    }
+
+    buffer.position(FILE_HEADER_SIZE + writePosition);
+    buffer.putInt(RECORD_MAGIC)
+        .putInt(frame.size.width)
+        .putInt(frame.size.height)
+        .putInt(frame.rotation)
+        .putLong(frame.sequenceNumber)
+        .putLong(frame.timestampNanos)
+        .putInt(frame.image.length)
+        .put(frame.image);
+
+    writePosition += recordSize;
+    framesRecorded++;
+
+    writeState();
+  }
+
+  /**
+   * @return number of frames recorded so far, including the ones which were already overwritten.
+   */
+  public synchronized long getFramesRecorded() {
+    return framesRecorded;
+  }
+
+  /**
+   * Writes recorded frames to the storage and stops recording.
+   */
+  @Override public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+
+    if (buffer != null) {
+      buffer.force();
+      buffer = null;
+    }
+
+    if (randomAccessFile != null) {
+      randomAccessFile.close();
+      randomAccessFile = null;
+    }
+  }
+
+  private void wrap() {
+    if (capacity - writePosition >= 4) {
+      buffer.putInt(FILE_HEADER_SIZE + writePosition, WRAP_MARKER);
+    }
+
+    writePosition = 0;
+    wrapped = true;
+  }
+
+  private void writeState() {
+    buffer.putLong(OFFSET_WRITE_POSITION, writePosition);
+    buffer.putLong(OFFSET_FRAMES_RECORDED, framesRecorded);
+    buffer.putInt(OFFSET_WRAPPED, wrapped ? 1 : 0);
+  }
+
+  private boolean ensureMapped() {
+    if (buffer != null) {
+      return true;
+    }
+
+    try {
+      map();
+
+      return true;
+    } catch (IOException e) {
+      closed = true;
+      closeQuietly();
+
+      return false;
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      if (randomAccessFile != null) {
+        randomAccessFile.close();
+      }
+    } catch (IOException e) {
+      // Do nothing
+    }
+
+    randomAccessFile = null;
+  }
+
+  private void map() throws IOException {
+    randomAccessFile = new RandomAccessFile(file, "rw");
+    randomAccessFile.setLength(FILE_HEADER_SIZE + capacity);
+
+    buffer = randomAccessFile.getChannel()
+        .map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE + capacity);
+
+    buffer.putInt(OFFSET_MAGIC, FILE_MAGIC);
+    buffer.putInt(OFFSET_VERSION, VERSION);
+    buffer.putLong(OFFSET_CAPACITY, capacity);
+
+    writeState();
+  }
+}
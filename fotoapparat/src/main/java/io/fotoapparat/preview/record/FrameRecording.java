@@ -0,0 +1,112 @@
+package io.fotoapparat.preview.record;
+
+import android.support.annotation.NonNull;
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.Frame;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.fotoapparat.preview.record.RecordingFormat.FILE_HEADER_SIZE;
+import static io.fotoapparat.preview.record.RecordingFormat.FILE_MAGIC;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_CAPACITY;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_MAGIC;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_VERSION;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_WRAPPED;
+import static io.fotoapparat.preview.record.RecordingFormat.OFFSET_WRITE_POSITION;
+import static io.fotoapparat.preview.record.RecordingFormat.RECORD_HEADER_SIZE;
+import static io.fotoapparat.preview.record.RecordingFormat.RECORD_MAGIC;
+import static io.fotoapparat.preview.record.RecordingFormat.VERSION;
+
+/**
+ * Reads frames recorded by {@link FrameRecorder}. The file is mapped as a whole, which works
+ * because a recording never exceeds {@link Integer#MAX_VALUE} bytes. The format stores capacity
+ * and positions as {@code long}, but larger files are rejected as invalid.
+ */
+public class FrameRecording {
+
+  /**
+   * @return frames which are still in the recording, from the oldest to the newest. When frame
+   * size changed during the recording, some of the oldest frames might be missing.
+   * @throws IOException if file can not be read or is not a frame recording.
+   */
+  public static List<Frame> read(@NonNull File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Not a frame recording, file is too large: " + channel.size());
+      }
+
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  private static List<Frame> read(ByteBuffer buffer) throws IOException {
+    if (buffer.limit() < FILE_HEADER_SIZE
+        || buffer.getInt(OFFSET_MAGIC) != FILE_MAGIC
+        || buffer.getInt(OFFSET_VERSION) != VERSION) {
+      throw new IOException("Not a frame recording");
+    }
+
+    long capacity = buffer.getLong(OFFSET_CAPACITY);
+    long writePosition = buffer.getLong(OFFSET_WRITE_POSITION);
+    boolean wrapped = buffer.getInt(OFFSET_WRAPPED) != 0;
+
+    if (capacity + FILE_HEADER_SIZE > buffer.limit() || writePosition > capacity) {
+      throw new IOException("Frame recording is truncated");
+    }
+
+    List<Frame> frames = new ArrayList<>();
+
+    if (wrapped) {
+      readRecords(buffer, (int) writePosition, (int) capacity, frames);
+    }
+
+    readRecords(buffer, 0, (int) writePosition, frames);
+
+    return frames;
+  }
+
+  /**
+   * Reads consecutive records between given positions of the ring. Stops at the first position
+   * which does not hold a complete record.
+   */
+  private static void readRecords(ByteBuffer buffer, int position, int endPosition,
+      List<Frame> frames) {
+    while (position + RECORD_HEADER_SIZE <= endPosition) {
+      buffer.position(FILE_HEADER_SIZE + position);
+
+      if (buffer.getInt() != RECORD_MAGIC) {
+        return;
+      }
+
+      int width = buffer.getInt();
+      int height = buffer.getInt();
+      int rotation = buffer.getInt();
+      long sequenceNumber = buffer.getLong();
+      long timestampNanos = buffer.getLong();
+      int imageLength = buffer.getInt();
+
+      if (imageLength < 0 || position + RECORD_HEADER_SIZE + imageLength > endPosition) {
+        return;
+      }
+
+      byte[] image = new byte[imageLength];
+      buffer.get(image);
+
+      frames.add(new Frame(new Size(width, height), image, rotation, sequenceNumber,
+          timestampNanos));
+
+      position += RECORD_HEADER_SIZE + imageLength;
+    }
+  }
+}
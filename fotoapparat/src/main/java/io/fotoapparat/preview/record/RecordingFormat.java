@@ -0,0 +1,33 @@
+package io.fotoapparat.preview.record;
+
+/**
+ * Layout of a frame recording file.
+ * <p>
+ * File starts with a header of {@link #FILE_HEADER_SIZE} bytes, followed by a ring of
+ * {@code capacity} bytes holding records. Each record is a {@link #RECORD_HEADER_SIZE} bytes long
+ * header followed by the image of the frame. Record which does not fit before the end of the ring
+ * is written at its start, after {@link #WRAP_MARKER} (if there is a room for it). All numbers are
+ * big endian.
+ */
+class RecordingFormat {
+
+  static final int FILE_MAGIC = 0x464F5452;
+  static final int VERSION = 1;
+
+  static final int RECORD_MAGIC = 0x46524D45;
+  static final int WRAP_MARKER = 0x57524150;
+
+  static final int FILE_HEADER_SIZE = 64;
+
+  static final int OFFSET_MAGIC = 0;
+  static final int OFFSET_VERSION = 4;
+  static final int OFFSET_CAPACITY = 8;
+  static final int OFFSET_WRITE_POSITION = 16;
+  static final int OFFSET_FRAMES_RECORDED = 24;
+  static final int OFFSET_WRAPPED = 32;
+
+  /**
+   * Magic, width, height, rotation, sequence number, timestamp and image length.
+   */
+  static final int RECORD_HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 8 + 4;
+}
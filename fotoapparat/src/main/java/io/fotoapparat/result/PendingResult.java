@@ -10,6 +10,8 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Result which might not be readily available at the given moment but will be available in the
@@ -22,10 +24,19 @@ public class PendingResult<T> {
 
   private final Future<T> future;
   private final Executor executor;
+  private final PendingResult<?> source;
 
   PendingResult(Future<T> future, Executor executor) {
+    this(future, executor, null);
+  }
+
+  /**
+   * @param source result this one is transformed from, cancelled together with it.
+   */
+  PendingResult(Future<T> future, Executor executor, PendingResult<?> source) {
     this.future = future;
     this.executor = executor;
+    this.source = source;
   }
 
   /**
@@ -51,7 +62,7 @@ public class PendingResult<T> {
 
     executor.execute(transformTask);
 
-    return new PendingResult<>(transformTask, executor);
+    return new PendingResult<>(transformTask, executor, this);
   }
 
   /**
@@ -63,6 +74,44 @@ public class PendingResult<T> {
     return future.get();
   }
 
+  /**
+   * Blocks current thread until result is available, but no longer than given time.
+   *
+   * @return result of execution.
+   * @throws TimeoutException if result is not available in time. Operation keeps running, see
+   * {@link #cancel()}.
+   */
+  public T await(long timeout, @NonNull TimeUnit unit)
+      throws ExecutionException, InterruptedException, TimeoutException {
+    return future.get(timeout, unit);
+  }
+
+  /**
+   * Cancels the operation which produces the result, together with the result it is transformed
+   * from, if any. Cancelled picture aborts the capture in progress. Cancelling the result of
+   * {@link PhotoResult#toBitmap()} cancels the photo as well, and with it every other result of
+   * that photo.
+   *
+   * @return {@code false} if the result was already available or cancelled, {@code true}
+   * otherwise.
+   */
+  public boolean cancel() {
+    boolean cancelled = future.cancel(true);
+
+    if (source != null) {
+      source.cancel();
+    }
+
+    return cancelled;
+  }
+
+  /**
+   * @return {@code true} if the result was cancelled before it became available.
+   */
+  public boolean isCancelled() {
+    return future.isCancelled();
+  }
+
   /**
    * Adapts the resulting object to a different type.
    *
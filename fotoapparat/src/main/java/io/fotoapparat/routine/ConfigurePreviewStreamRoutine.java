@@ -1,7 +1,9 @@
 package io.fotoapparat.routine;
 
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.preview.BackpressurePolicy;
 import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.LatencyBudget;
 import io.fotoapparat.preview.PreviewStream;
 
 /**
@@ -11,20 +13,50 @@ public class ConfigurePreviewStreamRoutine implements Runnable {
 
   private final CameraDevice cameraDevice;
   private final FrameProcessor frameProcessor;
+  private final FrameProcessor captureFrameProcessor;
+  private final int bufferCount;
+  private final BackpressurePolicy backpressurePolicy;
+  private final LatencyBudget latencyBudget;
 
-  public ConfigurePreviewStreamRoutine(CameraDevice cameraDevice, FrameProcessor frameProcessor) {
+  public ConfigurePreviewStreamRoutine(CameraDevice cameraDevice, FrameProcessor frameProcessor,
+      int bufferCount, BackpressurePolicy backpressurePolicy, LatencyBudget latencyBudget) {
+    this(cameraDevice, frameProcessor, null, bufferCount, backpressurePolicy, latencyBudget);
+  }
+
+  /**
+   * @param captureFrameProcessor processor which feeds captures, e.g. keeps frames for zero shutter
+   * lag or measures exposure, or {@code null}. Registered next to the frame processor of the user.
+   */
+  public ConfigurePreviewStreamRoutine(CameraDevice cameraDevice, FrameProcessor frameProcessor,
+      FrameProcessor captureFrameProcessor, int bufferCount, BackpressurePolicy backpressurePolicy,
+      LatencyBudget latencyBudget) {
     this.cameraDevice = cameraDevice;
     this.frameProcessor = frameProcessor;
+    this.captureFrameProcessor = captureFrameProcessor;
+    this.bufferCount = bufferCount;
+    this.backpressurePolicy = backpressurePolicy;
+    this.latencyBudget = latencyBudget;
   }
 
   @Override public void run() {
-    if (frameProcessor == null) {
+    if (frameProcessor == null && captureFrameProcessor == null) {
       return;
     }
 
     PreviewStream previewStream = cameraDevice.getPreviewStream();
 
-    previewStream.addProcessor(frameProcessor);
+    previewStream.setBufferCount(bufferCount);
+    previewStream.setBackpressurePolicy(backpressurePolicy);
+    previewStream.setLatencyBudget(latencyBudget);
+
+    if (frameProcessor != null) {
+      previewStream.addProcessor(frameProcessor);
+    }
+
+    if (captureFrameProcessor != null) {
+      previewStream.addProcessor(captureFrameProcessor);
+    }
+
     previewStream.start();
   }
 }
@@ -0,0 +1,33 @@
+package io.fotoapparat.routine;
+
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.preview.PreviewStream;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.preview.ProcessorStatistics;
+import java.util.List;
+
+/**
+ * Reads counters of the {@link PreviewStream} of the camera.
+ */
+public class PreviewStatisticsRoutine {
+
+  private final CameraDevice cameraDevice;
+
+  public PreviewStatisticsRoutine(CameraDevice cameraDevice) {
+    this.cameraDevice = cameraDevice;
+  }
+
+  /**
+   * @return statistics of the current preview stream. Empty if the stream is not started yet.
+   */
+  public PreviewStreamStatistics getStatistics() {
+    return cameraDevice.getPreviewStream().getStatistics();
+  }
+
+  /**
+   * @return timing of every frame processor of the current preview stream.
+   */
+  public List<ProcessorStatistics> getProcessorStatistics() {
+    return cameraDevice.getPreviewStream().getProcessorStatistics();
+  }
+}
@@ -1,20 +1,36 @@
 package io.fotoapparat.routine;
 
+import android.support.annotation.Nullable;
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.preview.FrameRing;
 
 /**
- * Stops preview and closes the camera.
+ * Stops preview and closes the camera. Frames kept for zero shutter lag capture are released, so
+ * none of them is offered after the camera is started again.
  */
 public class StopCameraRoutine implements Runnable {
 
   private final CameraDevice cameraDevice;
+  private final FrameRing frameRing;
 
   public StopCameraRoutine(CameraDevice cameraDevice) {
+    this(cameraDevice, null);
+  }
+
+  /**
+   * @param frameRing recent preview frames, {@code null} if zero shutter lag is disabled.
+   */
+  public StopCameraRoutine(CameraDevice cameraDevice, @Nullable FrameRing frameRing) {
     this.cameraDevice = cameraDevice;
+    this.frameRing = frameRing;
   }
 
   @Override public void run() {
     cameraDevice.stopPreview();
     cameraDevice.close();
+
+    if (frameRing != null) {
+      frameRing.clear();
+    }
   }
 }
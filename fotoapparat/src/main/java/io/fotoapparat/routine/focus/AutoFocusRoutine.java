@@ -14,21 +14,32 @@ public class AutoFocusRoutine {
 
   private final CameraDevice cameraDevice;
   private final Executor cameraExecutor;
+  private final long focusTimeoutMillis;
 
   public AutoFocusRoutine(CameraDevice cameraDevice, Executor cameraExecutor) {
+    this(cameraDevice, cameraExecutor, 0);
+  }
+
+  /**
+   * @param focusTimeoutMillis time focusing may take before it fails and is aborted, 0 for no
+   * limit.
+   */
+  public AutoFocusRoutine(CameraDevice cameraDevice, Executor cameraExecutor,
+      long focusTimeoutMillis) {
     this.cameraDevice = cameraDevice;
     this.cameraExecutor = cameraExecutor;
+    this.focusTimeoutMillis = focusTimeoutMillis;
   }
 
   /**
    * Perform auto focus asynchronously.
    */
   public PendingResult<FocusResult> autoFocus() {
-    return execute(new AutoFocusTask(cameraDevice));
+    return execute(new AutoFocusTask(cameraDevice, null, focusTimeoutMillis));
   }
 
   public PendingResult<FocusResult> autoFocus(@NonNull FocusArea area) {
-    return execute(new AutoFocusTask(cameraDevice, area));
+    return execute(new AutoFocusTask(cameraDevice, area, focusTimeoutMillis));
   }
 
   private PendingResult<FocusResult> execute(@NonNull AutoFocusTask task) {
@@ -1,39 +1,165 @@
 package io.fotoapparat.routine.focus;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.parameter.FocusArea;
 import io.fotoapparat.result.FocusResult;
+import io.fotoapparat.routine.picture.CaptureQueue;
+import io.fotoapparat.routine.picture.Watchdog;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.FutureTask;
 
 /**
  * Tries to perform auto focus and returns result as {@link FocusResult}.
+ * <p>
+ * Starts auto focus and returns, the result is set once the camera calls back. Until then the task
+ * keeps the {@link CaptureQueue}, so other camera operations wait for the focus instead of
+ * interleaving with it.
+ * <p>
+ * Focus which is cancelled or does not complete in time is aborted and the preview is restarted,
+ * like a picture which does not complete in time.
  */
-public class AutoFocusTask extends FutureTask<FocusResult> {
+public class AutoFocusTask extends FutureTask<FocusResult> implements CaptureQueue.Capture {
 
-  public AutoFocusTask(final CameraDevice cameraDevice) {
-    super(new Callable<FocusResult>() {
-      @Override public FocusResult call() throws Exception {
-        return performFocus(cameraDevice);
+  private static final Callable<FocusResult> NOT_CALLED = new Callable<FocusResult>() {
+    @Override public FocusResult call() throws Exception {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  private static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  private final CameraDevice cameraDevice;
+  private final FocusArea area;
+  private final long timeoutMillis;
+  private final Watchdog watchdog;
+  private volatile CaptureQueue captureQueue = null;
+  private volatile boolean started = false;
+  private volatile boolean reported = false;
+
+  public AutoFocusTask(CameraDevice cameraDevice) {
+    this(cameraDevice, null);
+  }
+
+  /**
+   * @param area area to focus on, {@code null} to let the camera choose.
+   */
+  public AutoFocusTask(CameraDevice cameraDevice, @Nullable FocusArea area) {
+    this(cameraDevice, area, 0);
+  }
+
+  /**
+   * @param area area to focus on, {@code null} to let the camera choose.
+   * @param timeoutMillis time focusing may take before it fails, 0 for no limit.
+   */
+  public AutoFocusTask(CameraDevice cameraDevice, @Nullable FocusArea area, long timeoutMillis) {
+    super(NOT_CALLED);
+    this.cameraDevice = cameraDevice;
+    this.area = area;
+    this.timeoutMillis = timeoutMillis;
+    this.watchdog = new Watchdog(timeoutMillis, new Runnable() {
+      @Override public void run() {
+        expire();
       }
     });
   }
 
-  public AutoFocusTask(final CameraDevice cameraDevice, final FocusArea area) {
-    super(new Callable<FocusResult>() {
-      @Override public FocusResult call() throws Exception {
-        return performFocus(cameraDevice, area);
+  @Override public void run() {
+    if (isDone()) {
+      return;
+    }
+
+    started = true;
+    watchdog.restart();
+
+    CameraCallback<io.fotoapparat.lens.FocusResult> callback =
+        new CameraCallback<io.fotoapparat.lens.FocusResult>() {
+          @Override public void onResult(io.fotoapparat.lens.FocusResult focusResult) {
+            reported = true;
+            set(toResult(focusResult));
+          }
+
+          @Override public void onFailure(CameraException e) {
+            reported = true;
+            setException(e);
+          }
+        };
+
+    try {
+      if (area == null) {
+        cameraDevice.autoFocus(callback);
+      } else {
+        cameraDevice.autoFocus(area, callback);
       }
-    });
+    } catch (RuntimeException e) {
+      reported = true;
+      setException(e);
+    }
+  }
+
+  @Override public void setCaptureQueue(CaptureQueue captureQueue) {
+    this.captureQueue = captureQueue;
+  }
+
+  @Override public void cancelCapture() {
+    cancel(false);
+  }
+
+  /**
+   * Called once focus completed, failed or was cancelled.
+   */
+  @Override protected void done() {
+    watchdog.stop();
+
+    if (started && !reported) {
+      abort();
+    }
+
+    CaptureQueue captureQueue = this.captureQueue;
+    if (captureQueue != null) {
+      captureQueue.onCaptureDone(this);
+    }
   }
 
-  @NonNull private static FocusResult performFocus(CameraDevice cameraDevice) {
-    return cameraDevice.autoFocus().succeeded ? FocusResult.FOCUSED : FocusResult.UNABLE_TO_FOCUS;
+  private void expire() {
+    if (isDone()) {
+      return;
+    }
+
+    setException(new CameraException("Focusing did not complete in " + timeoutMillis + " ms"));
+  }
+
+  /**
+   * Aborts focusing in progress. Runs on the camera executor before anything the capture queue
+   * starts next.
+   */
+  private void abort() {
+    CaptureQueue captureQueue = this.captureQueue;
+    Executor cameraExecutor = captureQueue != null
+        ? captureQueue.getCameraExecutor()
+        : DIRECT_EXECUTOR;
+
+    cameraExecutor.execute(new Runnable() {
+      @Override public void run() {
+        try {
+          cameraDevice.abortCapture();
+          cameraDevice.startPreview();
+        } catch (RuntimeException e) {
+          // Camera is already closed
+        }
+      }
+    });
   }
 
-  @NonNull private static FocusResult performFocus(CameraDevice cameraDevice, FocusArea area) {
-    return cameraDevice.autoFocus(area).succeeded ? FocusResult.FOCUSED
-        : FocusResult.UNABLE_TO_FOCUS;
+  @NonNull private static FocusResult toResult(io.fotoapparat.lens.FocusResult focusResult) {
+    return focusResult.succeeded ? FocusResult.FOCUSED : FocusResult.UNABLE_TO_FOCUS;
   }
 }
@@ -0,0 +1,348 @@
+package io.fotoapparat.routine.picture;
+
+import android.support.annotation.Nullable;
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.hardware.CameraException;
+import io.fotoapparat.hardware.operators.CaptureOperator;
+import io.fotoapparat.lens.FocusResult;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.ExposureMeter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import static io.fotoapparat.routine.picture.TakePictureTask.DIRECT_EXECUTOR;
+import static io.fotoapparat.routine.picture.TakePictureTask.MAX_FOCUS_ATTEMPTS;
+import static io.fotoapparat.routine.picture.TakePictureTask.needsExposureMeasurement;
+import static io.fotoapparat.routine.picture.TakePictureTask.startPreviewSafe;
+
+/**
+ * Takes several photos in a row. Focuses and measures exposure once, then captures back to back
+ * and restarts the preview once at the end. Each photo is delivered as soon as it is captured.
+ * <p>
+ * Runs as a sequence of steps, like {@link TakePictureTask}: focusing, measuring exposure if focus
+ * or the {@link ExposureMeter} asks for it, the burst and restarting the preview. Each step starts an asynchronous camera
+ * operation and returns, the next one runs on the camera executor once the operation calls back.
+ * The camera paces the burst itself, so the executor keeps serving other routines meanwhile.
+ * <p>
+ * If the next photo does not arrive in time, remaining photos fail. If any photo is cancelled,
+ * remaining photos are cancelled as well. Either way the camera is asked to abort the burst and
+ * the task ends without waiting for the camera to call back. Once the task ends it lets the
+ * {@link CaptureQueue} start the next operation.
+ */
+class BurstTask implements CaptureQueue.Capture {
+
+  private final CameraDevice cameraDevice;
+  private final int count;
+  private final long intervalMillis;
+  private final long timeoutMillis;
+  private final Executor cameraExecutor;
+  private final ExposureMeter exposureMeter;
+  private final List<BurstPhoto> photos;
+  private final Watchdog watchdog;
+  private volatile CaptureQueue captureQueue = null;
+  private int delivered = 0;
+  private int focusAttempts = 0;
+  private boolean started = false;
+  private boolean ended = false;
+
+  BurstTask(CameraDevice cameraDevice, int count, long intervalMillis) {
+    this(cameraDevice, count, intervalMillis, DIRECT_EXECUTOR, 0);
+  }
+
+  BurstTask(CameraDevice cameraDevice, int count, long intervalMillis, Executor cameraExecutor,
+      long timeoutMillis) {
+    this(cameraDevice, count, intervalMillis, cameraExecutor, timeoutMillis, null);
+  }
+
+  /**
+   * @param cameraExecutor executor on which steps continue after the camera calls back.
+   * @param timeoutMillis time each photo may take on top of the interval, 0 for no limit.
+   * @param exposureMeter statistics of the preview, {@code null} to rely on focus alone to decide
+   * whether exposure is measured.
+   */
+  BurstTask(CameraDevice cameraDevice, int count, long intervalMillis, Executor cameraExecutor,
+      long timeoutMillis, @Nullable ExposureMeter exposureMeter) {
+    this.cameraDevice = cameraDevice;
+    this.count = count;
+    this.intervalMillis = intervalMillis;
+    this.cameraExecutor = cameraExecutor;
+    this.timeoutMillis = timeoutMillis;
+    this.exposureMeter = exposureMeter;
+
+    long photoTimeoutMillis = timeoutMillis > 0 ? timeoutMillis + intervalMillis : 0;
+    this.watchdog = new Watchdog(photoTimeoutMillis, new Runnable() {
+      @Override public void run() {
+        expire();
+      }
+    });
+
+    photos = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      photos.add(new BurstPhoto());
+    }
+  }
+
+  /**
+   * @return photos of the burst in the order they are captured.
+   */
+  List<? extends Future<Photo>> getPhotos() {
+    return Collections.unmodifiableList(photos);
+  }
+
+  @Override public void setCaptureQueue(CaptureQueue captureQueue) {
+    this.captureQueue = captureQueue;
+  }
+
+  @Override public void cancelCapture() {
+    cancelRemaining();
+    abort();
+  }
+
+  @Override public void run() {
+    synchronized (this) {
+      if (ended) {
+        return;
+      }
+
+      started = true;
+    }
+
+    watchdog.restart();
+
+    try {
+      focus();
+    } catch (RuntimeException e) {
+      end(e);
+    }
+  }
+
+  private void focus() {
+    focusAttempts++;
+
+    cameraDevice.autoFocus(new Step<FocusResult>() {
+      @Override void onStepResult(FocusResult focusResult) {
+        onFocused(focusResult);
+      }
+    });
+  }
+
+  private void onFocused(FocusResult focusResult) {
+    if (!focusResult.succeeded && focusAttempts < MAX_FOCUS_ATTEMPTS) {
+      focus();
+    } else if (needsExposureMeasurement(focusResult, exposureMeter)) {
+      measureExposure();
+    } else {
+      captureBurst();
+    }
+  }
+
+  private void measureExposure() {
+    cameraDevice.measureExposure(new Step<Void>() {
+      @Override void onStepResult(Void result) {
+        captureBurst();
+      }
+    });
+  }
+
+  private void captureBurst() {
+    watchdog.restart();
+
+    cameraDevice.takeBurst(count, intervalMillis, new CaptureOperator.BurstListener() {
+      @Override public void onPhotoCaptured(Photo photo) {
+        deliver(photo);
+      }
+
+      @Override public void onBurstCompleted() {
+        endOnCameraExecutor(null);
+      }
+
+      @Override public void onBurstFailed(CameraException e) {
+        endOnCameraExecutor(e);
+      }
+    });
+  }
+
+  private synchronized void deliver(Photo photo) {
+    if (delivered < count) {
+      photos.get(delivered++).complete(photo);
+    }
+
+    if (delivered < count) {
+      watchdog.restart();
+    } else {
+      watchdog.stop();
+    }
+  }
+
+  private void expire() {
+    synchronized (this) {
+      if (delivered == count) {
+        return;
+      }
+
+      failRemaining(new CameraException(
+          "Burst did not deliver photo " + (delivered + 1) + " in " + timeoutMillis + " ms"));
+    }
+
+    abort();
+  }
+
+  /**
+   * Ends the burst without waiting for the camera. If the burst is running, the camera is asked
+   * to abort it first, on the camera executor.
+   */
+  private void abort() {
+    boolean running;
+
+    synchronized (this) {
+      if (ended) {
+        return;
+      }
+
+      running = started;
+
+      if (!running) {
+        ended = true;
+      }
+    }
+
+    if (!running) {
+      finish(false, null);
+      return;
+    }
+
+    cameraExecutor.execute(new Runnable() {
+      @Override public void run() {
+        if (isEnded()) {
+          return;
+        }
+
+        try {
+          cameraDevice.abortCapture();
+        } catch (RuntimeException e) {
+          // Camera is already closed
+        }
+
+        end(null);
+      }
+    });
+  }
+
+  private void endOnCameraExecutor(@Nullable final Throwable cause) {
+    cameraExecutor.execute(new Runnable() {
+      @Override public void run() {
+        end(cause);
+      }
+    });
+  }
+
+  /**
+   * Restarts the preview, fails photos which were not delivered and lets the next operation
+   * start. Does nothing if the burst already ended.
+   */
+  private void end(@Nullable Throwable cause) {
+    boolean restartPreview;
+
+    synchronized (this) {
+      if (ended) {
+        return;
+      }
+
+      ended = true;
+      restartPreview = started;
+    }
+
+    finish(restartPreview, cause);
+  }
+
+  private void finish(boolean restartPreview, @Nullable Throwable cause) {
+    watchdog.stop();
+
+    if (restartPreview) {
+      startPreviewSafe(cameraDevice);
+    }
+
+    failRemaining(cause);
+
+    CaptureQueue captureQueue = this.captureQueue;
+    if (captureQueue != null) {
+      captureQueue.onCaptureDone(this);
+    }
+  }
+
+  private synchronized boolean isEnded() {
+    return ended;
+  }
+
+  private synchronized void cancelRemaining() {
+    while (delivered < count) {
+      photos.get(delivered++).cancelAlone();
+    }
+  }
+
+  private synchronized void failRemaining(@Nullable Throwable cause) {
+    if (delivered < count && cause == null) {
+      cause = new CameraException("Burst ended after " + delivered + " of " + count + " photos");
+    }
+
+    while (delivered < count) {
+      photos.get(delivered++).fail(cause);
+    }
+  }
+
+  /**
+   * Continues the burst on the camera executor once an operation calls back. Does nothing if the
+   * burst ended meanwhile.
+   */
+  private abstract class Step<T> implements CameraCallback<T> {
+
+    @Override public void onResult(final T result) {
+      cameraExecutor.execute(new Runnable() {
+        @Override public void run() {
+          if (isEnded()) {
+            return;
+          }
+
+          try {
+            onStepResult(result);
+          } catch (RuntimeException e) {
+            end(e);
+          }
+        }
+      });
+    }
+
+    @Override public void onFailure(CameraException e) {
+      endOnCameraExecutor(e);
+    }
+
+    abstract void onStepResult(T result);
+  }
+
+  /**
+   * Photo of the burst. Cancelling it cancels the whole burst.
+   */
+  private class BurstPhoto extends PhotoFuture {
+
+    @Override public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+      if (cancelled) {
+        cancelCapture();
+      }
+
+      return cancelled;
+    }
+
+    /**
+     * Cancels this photo only, once the whole burst is being cancelled.
+     */
+    void cancelAlone() {
+      super.cancel(false);
+    }
+  }
+}
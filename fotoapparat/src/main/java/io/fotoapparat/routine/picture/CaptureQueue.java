@@ -0,0 +1,148 @@
+package io.fotoapparat.routine.picture;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Lets one camera operation run at a time, on the camera executor, in order of submission.
+ * <p>
+ * Regular operations are done once they return. Captures keep the camera after they return, while
+ * they wait for the camera to call back, and tell the queue once they are done. Until then, other
+ * captures, focusing and stopping the camera wait in the queue instead of interleaving with the
+ * capture.
+ */
+public class CaptureQueue implements Executor {
+
+  private final Executor cameraExecutor;
+  private final ArrayDeque<Runnable> pendingOperations = new ArrayDeque<>();
+  private Runnable currentOperation = null;
+
+  /**
+   * @param cameraExecutor executor which runs the operations.
+   */
+  public CaptureQueue(Executor cameraExecutor) {
+    this.cameraExecutor = cameraExecutor;
+  }
+
+  /**
+   * @return given executor if it is a queue already, otherwise a new queue on top of it.
+   */
+  static CaptureQueue of(Executor executor) {
+    return executor instanceof CaptureQueue
+        ? (CaptureQueue) executor
+        : new CaptureQueue(executor);
+  }
+
+  /**
+   * Runs the operation once every operation submitted before it is done.
+   */
+  @Override public void execute(@NonNull Runnable operation) {
+    if (operation instanceof Capture) {
+      ((Capture) operation).setCaptureQueue(this);
+    }
+
+    synchronized (this) {
+      if (currentOperation != null) {
+        pendingOperations.add(operation);
+        return;
+      }
+
+      currentOperation = operation;
+    }
+
+    start(operation);
+  }
+
+  /**
+   * Cancels the capture in progress and every queued capture. Other operations still run.
+   */
+  public void cancelCaptures() {
+    List<Capture> captures = new ArrayList<>();
+
+    synchronized (this) {
+      if (currentOperation instanceof Capture) {
+        captures.add((Capture) currentOperation);
+      }
+
+      for (Runnable operation : pendingOperations) {
+        if (operation instanceof Capture) {
+          captures.add((Capture) operation);
+        }
+      }
+    }
+
+    for (Capture capture : captures) {
+      capture.cancelCapture();
+    }
+  }
+
+  /**
+   * @return executor which runs the operations, for captures to continue on once the camera calls
+   * back.
+   */
+  public Executor getCameraExecutor() {
+    return cameraExecutor;
+  }
+
+  /**
+   * Called by a capture once it no longer uses the camera. A queued capture which is done before
+   * it started is dropped from the queue.
+   */
+  public void onCaptureDone(Capture capture) {
+    onOperationDone(capture);
+  }
+
+  private void start(final Runnable operation) {
+    if (operation instanceof Capture) {
+      cameraExecutor.execute(operation);
+      return;
+    }
+
+    cameraExecutor.execute(new Runnable() {
+      @Override public void run() {
+        try {
+          operation.run();
+        } finally {
+          onOperationDone(operation);
+        }
+      }
+    });
+  }
+
+  private void onOperationDone(Runnable operation) {
+    Runnable nextOperation;
+
+    synchronized (this) {
+      if (operation != currentOperation) {
+        pendingOperations.remove(operation);
+        return;
+      }
+
+      nextOperation = currentOperation = pendingOperations.poll();
+    }
+
+    if (nextOperation != null) {
+      start(nextOperation);
+    }
+  }
+
+  /**
+   * Operation which keeps using the camera after it returns.
+   */
+  public interface Capture extends Runnable {
+
+    /**
+     * Called when capture is submitted. Capture must call {@link #onCaptureDone(Capture)} of the
+     * queue exactly once, when it no longer uses the camera or when it is cancelled.
+     */
+    void setCaptureQueue(CaptureQueue captureQueue);
+
+    /**
+     * Cancels the capture. Aborts the camera operation if capture is in progress.
+     */
+    void cancelCapture();
+  }
+}
@@ -0,0 +1,15 @@
+package io.fotoapparat.routine.picture;
+
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.Frame;
+
+/**
+ * Encodes preview frames as photos.
+ */
+interface FrameEncoder {
+
+  /**
+   * @return photo of the frame, rotated like the frame.
+   */
+  Photo encode(Frame frame);
+}
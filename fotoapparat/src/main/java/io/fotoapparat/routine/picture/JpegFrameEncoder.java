@@ -0,0 +1,51 @@
+package io.fotoapparat.routine.picture;
+
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.Frame;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Encodes NV21 preview frames as JPEG. Frames which only contain luma are encoded as gray.
+ */
+class JpegFrameEncoder implements FrameEncoder {
+
+  private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+  private final int quality;
+
+  /**
+   * @param quality JPEG quality from 0 to 100.
+   */
+  JpegFrameEncoder(int quality) {
+    this.quality = quality;
+  }
+
+  @Override public Photo encode(Frame frame) {
+    int width = frame.size.width;
+    int height = frame.size.height;
+
+    YuvImage yuvImage = new YuvImage(nv21(frame), ImageFormat.NV21, width, height, null);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    yuvImage.compressToJpeg(new Rect(0, 0, width, height), quality, output);
+
+    return new Photo(output.toByteArray(), frame.rotation);
+  }
+
+  private static byte[] nv21(Frame frame) {
+    if (frame.hasChroma()) {
+      return frame.image;
+    }
+
+    int lumaSize = frame.size.width * frame.size.height;
+    byte[] nv21 = Arrays.copyOf(frame.image, lumaSize + 2 * ((frame.size.width + 1) / 2)
+        * ((frame.size.height + 1) / 2));
+    Arrays.fill(nv21, lumaSize, nv21.length, NEUTRAL_CHROMA);
+
+    return nv21;
+  }
+}
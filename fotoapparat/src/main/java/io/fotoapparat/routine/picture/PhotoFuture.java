@@ -0,0 +1,29 @@
+package io.fotoapparat.routine.picture;
+
+import io.fotoapparat.photo.Photo;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Photo which is completed by a callback of the camera rather than computed on its own.
+ */
+class PhotoFuture extends FutureTask<Photo> {
+
+  private static final Callable<Photo> NOT_CALLED = new Callable<Photo>() {
+    @Override public Photo call() throws Exception {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  PhotoFuture() {
+    super(NOT_CALLED);
+  }
+
+  void complete(Photo photo) {
+    set(photo);
+  }
+
+  void fail(Throwable cause) {
+    setException(cause);
+  }
+}
@@ -1,21 +1,54 @@
 package io.fotoapparat.routine.picture;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.ExposureMeter;
 import io.fotoapparat.result.PhotoResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
- * Takes picture.
+ * Takes picture. Captures go through a {@link CaptureQueue}, so a capture starts only once the
+ * previous one is done with the camera.
  */
 public class TakePictureRoutine {
 
   private final CameraDevice cameraDevice;
-  private final Executor cameraExecutor;
+  private final CaptureQueue captureQueue;
+  private final long captureTimeoutMillis;
+  private final ExposureMeter exposureMeter;
 
   public TakePictureRoutine(CameraDevice cameraDevice, Executor cameraExecutor) {
+    this(cameraDevice, cameraExecutor, 0);
+  }
+
+  /**
+   * @param cameraExecutor runs the captures. If it is a {@link CaptureQueue}, captures are queued
+   * together with the other operations submitted to it.
+   * @param captureTimeoutMillis time a picture, or each picture of a burst, may take before its
+   * result fails. 0 for no limit.
+   */
+  public TakePictureRoutine(CameraDevice cameraDevice, Executor cameraExecutor,
+      long captureTimeoutMillis) {
+    this(cameraDevice, cameraExecutor, captureTimeoutMillis, null);
+  }
+
+  /**
+   * @param exposureMeter statistics of the preview. Exposure is measured after focusing whenever
+   * it finds the preview poorly exposed. {@code null} to measure exposure only if focus asks for
+   * it.
+   */
+  public TakePictureRoutine(CameraDevice cameraDevice, Executor cameraExecutor,
+      long captureTimeoutMillis, @Nullable ExposureMeter exposureMeter) {
     this.cameraDevice = cameraDevice;
-    this.cameraExecutor = cameraExecutor;
+    this.captureQueue = CaptureQueue.of(cameraExecutor);
+    this.captureTimeoutMillis = captureTimeoutMillis;
+    this.exposureMeter = exposureMeter;
   }
 
   /**
@@ -24,15 +57,76 @@ public class TakePictureRoutine {
    * @return {@link PhotoResult} which will deliver result asynchronously.
    */
   public PhotoResult takePicture() {
-    return execute(new TakePictureTask(cameraDevice));
+    return takePicture(true);
   }
 
   public PhotoResult takePicture(boolean shouldFocus) {
-    return execute(new TakePictureTask(cameraDevice, shouldFocus));
+    return execute(new TakePictureTask(cameraDevice, shouldFocus,
+        captureQueue.getCameraExecutor(), captureTimeoutMillis, exposureMeter));
+  }
+
+  /**
+   * Takes the sharpest of recent preview frames. Requires zero shutter lag, see
+   * {@link ZeroShutterLagRoutine}.
+   *
+   * @param windowMillis how far back recent frames may be picked from.
+   * @return {@link PhotoResult} which will deliver result asynchronously.
+   * @throws IllegalStateException always, recent frames are not kept by this routine.
+   */
+  public PhotoResult takeSharpestPicture(long windowMillis) {
+    throw new IllegalStateException("Sharpest picture requires zero shutter lag to be enabled");
+  }
+
+  /**
+   * Takes given number of pictures in a row, as fast as the camera can. Focuses once before the
+   * first picture. Returns immediately.
+   *
+   * @return {@link PhotoResult} for each picture, in order. Each one delivers its photo as soon as
+   * it is captured. Cancelling any of them cancels the remaining pictures of the burst.
+   * @throws IllegalArgumentException if count is less than 1.
+   */
+  public List<PhotoResult> takeBurst(int count) {
+    return takeBurst(count, 0);
+  }
+
+  /**
+   * Takes given number of pictures in a row, starting one every {@code intervalMillis}
+   * milliseconds or as soon as the previous one is captured, whichever is later. Focuses once
+   * before the first picture. Returns immediately.
+   *
+   * @return {@link PhotoResult} for each picture, in order. Each one delivers its photo as soon as
+   * it is captured. Cancelling any of them cancels the remaining pictures of the burst.
+   * @throws IllegalArgumentException if count is less than 1 or interval is negative.
+   */
+  public List<PhotoResult> takeBurst(int count, long intervalMillis) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Burst must have at least 1 picture, was: " + count);
+    }
+    if (intervalMillis < 0) {
+      throw new IllegalArgumentException("Interval must not be negative, was: " + intervalMillis);
+    }
+
+    BurstTask task = new BurstTask(cameraDevice, count, intervalMillis,
+        captureQueue.getCameraExecutor(), captureTimeoutMillis, exposureMeter);
+    captureQueue.execute(task);
+
+    List<PhotoResult> results = new ArrayList<>(count);
+    for (Future<Photo> photo : task.getPhotos()) {
+      results.add(PhotoResult.fromFuture(photo));
+    }
+
+    return Collections.unmodifiableList(results);
+  }
+
+  /**
+   * Cancels the capture in progress and every queued capture, e.g. before the camera is closed.
+   */
+  public void cancelCaptures() {
+    captureQueue.cancelCaptures();
   }
 
   private PhotoResult execute(@NonNull TakePictureTask task) {
-    cameraExecutor.execute(task);
+    captureQueue.execute(task);
     return PhotoResult.fromFuture(task);
   }
 }
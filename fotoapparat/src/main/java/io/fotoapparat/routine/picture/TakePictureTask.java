@@ -1,64 +1,258 @@
 package io.fotoapparat.routine.picture;
 
+import android.support.annotation.Nullable;
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraDevice;
 import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.lens.FocusResult;
 import io.fotoapparat.photo.Photo;
-import java.util.concurrent.Callable;
-import java.util.concurrent.FutureTask;
+import io.fotoapparat.preview.ExposureMeter;
+import java.util.concurrent.Executor;
 
 /**
  * Takes photo and returns result as {@link Photo}.
+ * <p>
+ * Runs as a sequence of steps: focusing (up to 3 attempts), measuring exposure if focus asks for
+ * it or the {@link ExposureMeter} finds the preview poorly exposed, capturing and restarting the
+ * preview. Each step starts an asynchronous camera operation and
+ * returns. The next step runs on the camera executor once the operation calls back, so the
+ * executor keeps serving other routines while the camera is busy.
+ * <p>
+ * Task which is cancelled, fails or does not complete in time aborts the camera operation in
+ * progress and restarts the preview. Once the task is done it lets the {@link CaptureQueue} start
+ * the next operation.
  */
-class TakePictureTask extends FutureTask<Photo> {
+class TakePictureTask extends PhotoFuture implements CaptureQueue.Capture {
 
-  private static final int MAX_FOCUS_ATTEMPTS = 3;
+  static final int MAX_FOCUS_ATTEMPTS = 3;
 
-  TakePictureTask(final CameraDevice cameraDevice) {
+  static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  private final CameraDevice cameraDevice;
+  private final boolean shouldFocus;
+  private final Executor cameraExecutor;
+  private final long timeoutMillis;
+  private final ExposureMeter exposureMeter;
+  private final Watchdog watchdog;
+
+  private volatile CaptureQueue captureQueue = null;
+  private volatile boolean started = false;
+  private volatile boolean previewRestarted = false;
+  private int focusAttempts = 0;
+
+  TakePictureTask(CameraDevice cameraDevice) {
     this(cameraDevice, true);
   }
 
-  TakePictureTask(final CameraDevice cameraDevice, final boolean shouldFocus) {
-    super(new Callable<Photo>() {
-      @Override public Photo call() throws Exception {
-        if (shouldFocus) {
-          adjustCameraForBestShot(cameraDevice);
-        }
+  TakePictureTask(CameraDevice cameraDevice, boolean shouldFocus) {
+    this(cameraDevice, shouldFocus, DIRECT_EXECUTOR);
+  }
 
-        Photo photo = cameraDevice.takePicture();
+  TakePictureTask(CameraDevice cameraDevice, boolean shouldFocus, Executor cameraExecutor) {
+    this(cameraDevice, shouldFocus, cameraExecutor, 0);
+  }
 
-        startPreviewSafe(cameraDevice);
+  TakePictureTask(CameraDevice cameraDevice, boolean shouldFocus, Executor cameraExecutor,
+      long timeoutMillis) {
+    this(cameraDevice, shouldFocus, cameraExecutor, timeoutMillis, null);
+  }
 
-        return photo;
+  /**
+   * @param cameraExecutor executor on which steps continue after the camera calls back.
+   * @param timeoutMillis time the whole task may take before it fails, 0 for no limit.
+   * @param exposureMeter statistics of the preview, {@code null} to rely on focus alone to decide
+   * whether exposure is measured.
+   */
+  TakePictureTask(CameraDevice cameraDevice, boolean shouldFocus, Executor cameraExecutor,
+      long timeoutMillis, @Nullable ExposureMeter exposureMeter) {
+    this.cameraDevice = cameraDevice;
+    this.shouldFocus = shouldFocus;
+    this.cameraExecutor = cameraExecutor;
+    this.timeoutMillis = timeoutMillis;
+    this.exposureMeter = exposureMeter;
+    this.watchdog = new Watchdog(timeoutMillis, new Runnable() {
+      @Override public void run() {
+        expire();
       }
     });
   }
 
-  private static void adjustCameraForBestShot(CameraDevice cameraDevice) {
-    FocusResult focusResult = autoFocus(cameraDevice);
+  @Override public void run() {
+    if (isDone()) {
+      return;
+    }
+
+    started = true;
+    watchdog.restart();
 
-    if (focusResult.needsExposureMeasurement) {
-      cameraDevice.measureExposure();
+    try {
+      if (shouldFocus) {
+        focus();
+      } else {
+        capture();
+      }
+    } catch (RuntimeException e) {
+      fail(e);
     }
   }
 
-  private static FocusResult autoFocus(CameraDevice cameraDevice) {
-    int focusAttempts = 0;
-    FocusResult focusResult = FocusResult.none();
+  private void focus() {
+    focusAttempts++;
+
+    cameraDevice.autoFocus(new Step<FocusResult>() {
+      @Override void onStepResult(FocusResult focusResult) {
+        onFocused(focusResult);
+      }
+    });
+  }
 
-    while (focusAttempts < MAX_FOCUS_ATTEMPTS && !focusResult.succeeded) {
-      focusResult = cameraDevice.autoFocus();
-      focusAttempts++;
+  private void onFocused(FocusResult focusResult) {
+    if (!focusResult.succeeded && focusAttempts < MAX_FOCUS_ATTEMPTS) {
+      focus();
+    } else if (needsExposureMeasurement(focusResult, exposureMeter)) {
+      measureExposure();
+    } else {
+      capture();
     }
+  }
+
+  private void measureExposure() {
+    cameraDevice.measureExposure(new Step<Void>() {
+      @Override void onStepResult(Void result) {
+        capture();
+      }
+    });
+  }
+
+  private void capture() {
+    cameraDevice.takePicture(new Step<Photo>() {
+      @Override void onStepResult(Photo photo) {
+        restartPreview();
+
+        complete(photo);
+      }
 
-    return focusResult;
+      @Override void onStepFailure(CameraException e) {
+        restartPreview();
+
+        fail(e);
+      }
+    });
+  }
+
+  private void restartPreview() {
+    startPreviewSafe(cameraDevice);
+    previewRestarted = true;
+  }
+
+  @Override public void setCaptureQueue(CaptureQueue captureQueue) {
+    this.captureQueue = captureQueue;
   }
 
-  private static void startPreviewSafe(CameraDevice cameraDevice) {
+  @Override public void cancelCapture() {
+    cancel(false);
+  }
+
+  /**
+   * Called once the task completed, failed or was cancelled.
+   */
+  @Override protected void done() {
+    watchdog.stop();
+
+    if (started && !previewRestarted) {
+      abort();
+    }
+
+    CaptureQueue captureQueue = this.captureQueue;
+    if (captureQueue != null) {
+      captureQueue.onCaptureDone(this);
+    }
+  }
+
+  private void expire() {
+    if (isDone()) {
+      return;
+    }
+
+    fail(new CameraException("Taking picture did not complete in " + timeoutMillis + " ms"));
+  }
+
+  /**
+   * Aborts the camera operation in progress. Runs on the camera executor before anything the
+   * capture queue starts next.
+   */
+  private void abort() {
+    cameraExecutor.execute(new Runnable() {
+      @Override public void run() {
+        try {
+          cameraDevice.abortCapture();
+        } catch (RuntimeException e) {
+          // Camera is already closed
+        }
+
+        startPreviewSafe(cameraDevice);
+      }
+    });
+  }
+
+  /**
+   * @return {@code true} if focus asks for exposure measurement or the latest preview frame is
+   * poorly exposed.
+   */
+  static boolean needsExposureMeasurement(FocusResult focusResult,
+      @Nullable ExposureMeter exposureMeter) {
+    return focusResult.needsExposureMeasurement
+        || exposureMeter != null && exposureMeter.isPoorlyExposed();
+  }
+
+  static void startPreviewSafe(CameraDevice cameraDevice) {
     try {
       cameraDevice.startPreview();
     } catch (CameraException e) {
       // Do nothing
     }
   }
+
+  /**
+   * Continues the task on the camera executor once an operation calls back. Does nothing if the
+   * task was cancelled meanwhile.
+   */
+  private abstract class Step<T> implements CameraCallback<T> {
+
+    @Override public void onResult(final T result) {
+      cameraExecutor.execute(new Runnable() {
+        @Override public void run() {
+          if (isDone()) {
+            return;
+          }
+
+          try {
+            onStepResult(result);
+          } catch (RuntimeException e) {
+            fail(e);
+          }
+        }
+      });
+    }
+
+    @Override public void onFailure(final CameraException e) {
+      cameraExecutor.execute(new Runnable() {
+        @Override public void run() {
+          if (!isDone()) {
+            onStepFailure(e);
+          }
+        }
+      });
+    }
+
+    abstract void onStepResult(T result);
+
+    void onStepFailure(CameraException e) {
+      fail(e);
+    }
+  }
 }
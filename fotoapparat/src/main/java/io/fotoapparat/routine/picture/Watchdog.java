@@ -0,0 +1,50 @@
+package io.fotoapparat.routine.picture;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an action unless it is restarted or stopped in time. Fails camera operations whose
+ * callbacks never arrive, so a stuck camera does not stall the result forever.
+ */
+public class Watchdog {
+
+  private static final ScheduledExecutorService SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor();
+
+  private final long timeoutMillis;
+  private final Runnable onTimeout;
+  private ScheduledFuture<?> pendingTimeout = null;
+
+  /**
+   * @param timeoutMillis time after which the action runs. 0 disables the watchdog.
+   * @param onTimeout action to run, on a thread of the watchdog.
+   */
+  public Watchdog(long timeoutMillis, Runnable onTimeout) {
+    this.timeoutMillis = timeoutMillis;
+    this.onTimeout = onTimeout;
+  }
+
+  /**
+   * Starts counting down, from the beginning if it was already started.
+   */
+  public synchronized void restart() {
+    stop();
+
+    if (timeoutMillis > 0) {
+      pendingTimeout = SCHEDULER.schedule(onTimeout, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops counting down. The action does not run, unless it already started.
+   */
+  public synchronized void stop() {
+    if (pendingTimeout != null) {
+      pendingTimeout.cancel(false);
+      pendingTimeout = null;
+    }
+  }
+}
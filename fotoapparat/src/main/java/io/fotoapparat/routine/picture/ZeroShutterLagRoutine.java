@@ -0,0 +1,165 @@
+package io.fotoapparat.routine.picture;
+
+import android.support.annotation.Nullable;
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.ExposureMeter;
+import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.FrameRing;
+import io.fotoapparat.result.PhotoResult;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes picture from recent preview frames instead of the still capture of the camera. The frame
+ * closest to the moment of the call is encoded, so there is no focus, precapture or capture delay.
+ * Falls back to the still capture if there is no preview frame close enough, e.g. right after the
+ * camera was started.
+ * <p>
+ * Frames are picked by the time they arrived at the {@link FrameRing}, so it does not matter which
+ * clock the camera stamps them with. The photo is rotated like the frame, which the preview stream
+ * rotates according to the display orientation, as still captures are.
+ */
+public class ZeroShutterLagRoutine extends TakePictureRoutine {
+
+  private static final long MAX_FRAME_AGE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+  private static final int JPEG_QUALITY = 90;
+
+  private final FrameRing frameRing;
+  private final FrameEncoder frameEncoder;
+  private final Executor encodingExecutor;
+
+  /**
+   * @param frameRing recent preview frames. Must be registered as a frame processor.
+   * @param encodingExecutor encodes the frames, should not be busy with camera operations.
+   */
+  public ZeroShutterLagRoutine(CameraDevice cameraDevice, Executor cameraExecutor,
+      FrameRing frameRing, Executor encodingExecutor) {
+    this(cameraDevice, cameraExecutor, 0, frameRing, encodingExecutor);
+  }
+
+  /**
+   * @param captureTimeoutMillis time a still capture may take before its result fails. 0 for no
+   * limit.
+   * @param frameRing recent preview frames. Must be registered as a frame processor.
+   * @param encodingExecutor encodes the frames, should not be busy with camera operations.
+   */
+  public ZeroShutterLagRoutine(CameraDevice cameraDevice, Executor cameraExecutor,
+      long captureTimeoutMillis, FrameRing frameRing, Executor encodingExecutor) {
+    this(cameraDevice, cameraExecutor, captureTimeoutMillis, null, frameRing, encodingExecutor);
+  }
+
+  /**
+   * @param captureTimeoutMillis time a still capture may take before its result fails. 0 for no
+   * limit.
+   * @param exposureMeter statistics of the preview, used by still captures. See
+   * {@link TakePictureRoutine#TakePictureRoutine(CameraDevice, Executor, long, ExposureMeter)}.
+   * @param frameRing recent preview frames. Must be registered as a frame processor.
+   * @param encodingExecutor encodes the frames, should not be busy with camera operations.
+   */
+  public ZeroShutterLagRoutine(CameraDevice cameraDevice, Executor cameraExecutor,
+      long captureTimeoutMillis, @Nullable ExposureMeter exposureMeter, FrameRing frameRing,
+      Executor encodingExecutor) {
+    this(cameraDevice, cameraExecutor, captureTimeoutMillis, exposureMeter, frameRing,
+        new JpegFrameEncoder(JPEG_QUALITY), encodingExecutor);
+  }
+
+  ZeroShutterLagRoutine(CameraDevice cameraDevice, Executor cameraExecutor, FrameRing frameRing,
+      FrameEncoder frameEncoder, Executor encodingExecutor) {
+    this(cameraDevice, cameraExecutor, 0, null, frameRing, frameEncoder, encodingExecutor);
+  }
+
+  ZeroShutterLagRoutine(CameraDevice cameraDevice, Executor cameraExecutor,
+      long captureTimeoutMillis, @Nullable ExposureMeter exposureMeter, FrameRing frameRing,
+      FrameEncoder frameEncoder, Executor encodingExecutor) {
+    super(cameraDevice, cameraExecutor, captureTimeoutMillis, exposureMeter);
+    this.frameRing = frameRing;
+    this.frameEncoder = frameEncoder;
+    this.encodingExecutor = encodingExecutor;
+  }
+
+  @Override public PhotoResult takePicture() {
+    return takePicture(true);
+  }
+
+  @Override public PhotoResult takePicture(boolean shouldFocus) {
+    Frame frame = frameRing.acquireClosest(System.nanoTime(), MAX_FRAME_AGE_NANOS);
+
+    if (frame == null) {
+      return super.takePicture(shouldFocus);
+    }
+
+    return encode(frame);
+  }
+
+  /**
+   * Encodes the sharpest frame captured within the window before the call. Falls back to a
+   * focused still capture if there is no such frame.
+   *
+   * @see Frame#getSharpness()
+   */
+  @Override public PhotoResult takeSharpestPicture(long windowMillis) {
+    Frame frame = frameRing.acquireSharpest(
+        System.nanoTime(),
+        TimeUnit.MILLISECONDS.toNanos(windowMillis)
+    );
+
+    if (frame == null) {
+      return super.takePicture(true);
+    }
+
+    return encode(frame);
+  }
+
+  private PhotoResult encode(Frame frame) {
+    FrameEncodingTask task = new FrameEncodingTask(frameEncoder, frame);
+
+    encodingExecutor.execute(task);
+
+    return PhotoResult.fromFuture(task);
+  }
+
+  /**
+   * Encodes a leased frame and releases it. The frame is released as well if the task is
+   * cancelled before it starts encoding.
+   */
+  private static class FrameEncodingTask extends FutureTask<Photo> {
+
+    private final Frame frame;
+    private final AtomicBoolean frameClaimed;
+
+    FrameEncodingTask(FrameEncoder frameEncoder, Frame frame) {
+      this(frameEncoder, frame, new AtomicBoolean());
+    }
+
+    private FrameEncodingTask(final FrameEncoder frameEncoder, final Frame frame,
+        final AtomicBoolean frameClaimed) {
+      super(new Callable<Photo>() {
+        @Override public Photo call() throws Exception {
+          if (!frameClaimed.compareAndSet(false, true)) {
+            throw new CancellationException();
+          }
+
+          try {
+            return frameEncoder.encode(frame);
+          } finally {
+            frame.release();
+          }
+        }
+      });
+
+      this.frame = frame;
+      this.frameClaimed = frameClaimed;
+    }
+
+    @Override protected void done() {
+      if (isCancelled() && frameClaimed.compareAndSet(false, true)) {
+        frame.release();
+      }
+    }
+  }
+}
@@ -19,7 +19,9 @@ import io.fotoapparat.parameter.LensPosition;
 import io.fotoapparat.parameter.ScaleType;
 import io.fotoapparat.parameter.Size;
 import io.fotoapparat.parameter.selector.SelectorFunction;
+import io.fotoapparat.preview.BackpressurePolicy;
 import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.PreviewStream;
 import io.fotoapparat.view.CameraRenderer;
 
 import static junit.framework.Assert.assertEquals;
@@ -176,6 +178,101 @@ public class FotoapparatBuilderTest {
         );
     }
 
+    @Test
+    public void previewBufferCount_HasDefault() throws Exception {
+        // When
+        FotoapparatBuilder builder = builderWithMandatoryArguments();
+
+        // Then
+        assertEquals(
+                PreviewStream.DEFAULT_BUFFER_COUNT,
+                builder.previewBufferCount
+        );
+    }
+
+    @Test
+    public void previewBufferCount_IsConfigurable() throws Exception {
+        // When
+        FotoapparatBuilder builder = builderWithMandatoryArguments()
+                .previewBufferCount(5);
+
+        // Then
+        assertEquals(
+                5,
+                builder.previewBufferCount
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void previewBufferCount_MustBePositive() throws Exception {
+        // When
+        builderWithMandatoryArguments()
+                .previewBufferCount(0);
+
+        // Then
+        // Expect exception
+    }
+
+    @Test
+    public void backpressurePolicy_HasDefault() throws Exception {
+        // When
+        FotoapparatBuilder builder = builderWithMandatoryArguments();
+
+        // Then
+        assertEquals(
+                BackpressurePolicy.latestOnly(),
+                builder.backpressurePolicy
+        );
+    }
+
+    @Test
+    public void backpressurePolicy_IsConfigurable() throws Exception {
+        // When
+        FotoapparatBuilder builder = builderWithMandatoryArguments()
+                .backpressurePolicy(BackpressurePolicy.block(4));
+
+        // Then
+        assertEquals(
+                BackpressurePolicy.block(4),
+                builder.backpressurePolicy
+        );
+    }
+
+    @Test
+    public void captureTimeout_HasDefault() throws Exception {
+        // When
+        FotoapparatBuilder builder = builderWithMandatoryArguments();
+
+        // Then
+        assertEquals(
+                10000L,
+                builder.captureTimeoutMillis
+        );
+    }
+
+    @Test
+    public void captureTimeout_IsConfigurable() throws Exception {
+        // When
+        FotoapparatBuilder builder = builderWithMandatoryArguments()
+                .captureTimeout(2500);
+
+        // Then
+        assertEquals(
+                2500L,
+                builder.captureTimeoutMillis
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void captureTimeout_MustNotBeNegative() throws Exception {
+        // When
+        builderWithMandatoryArguments()
+                .captureTimeout(-1);
+
+        // Then
+        // Expect exception
+    }
+
     @Test
     public void photoSize_IsConfigurable() throws Exception {
         // When
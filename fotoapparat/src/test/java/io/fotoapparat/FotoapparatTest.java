@@ -7,15 +7,20 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.List;
+
 import io.fotoapparat.hardware.Capabilities;
 import io.fotoapparat.parameter.provider.CapabilitiesProvider;
 import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.preview.ProcessorStatistics;
 import io.fotoapparat.result.CapabilitiesResult;
 import io.fotoapparat.result.FocusResult;
 import io.fotoapparat.result.PendingResult;
 import io.fotoapparat.result.PhotoResult;
 import io.fotoapparat.routine.CheckAvailabilityRoutine;
 import io.fotoapparat.routine.ConfigurePreviewStreamRoutine;
+import io.fotoapparat.routine.PreviewStatisticsRoutine;
 import io.fotoapparat.routine.StartCameraRoutine;
 import io.fotoapparat.routine.StopCameraRoutine;
 import io.fotoapparat.routine.UpdateOrientationRoutine;
@@ -24,6 +29,8 @@ import io.fotoapparat.routine.picture.TakePictureRoutine;
 import io.fotoapparat.test.ImmediateExecutor;
 
 import static io.fotoapparat.test.TestUtils.immediateFuture;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
@@ -68,6 +75,8 @@ public class FotoapparatTest {
     AutoFocusRoutine autoFocusRoutine;
     @Mock
     CheckAvailabilityRoutine checkAvailabilityRoutine;
+    @Mock
+    PreviewStatisticsRoutine previewStatisticsRoutine;
 
     Fotoapparat testee;
 
@@ -82,6 +91,7 @@ public class FotoapparatTest {
                 takePictureRoutine,
                 autoFocusRoutine,
                 checkAvailabilityRoutine,
+                previewStatisticsRoutine,
                 new ImmediateExecutor()
         );
     }
@@ -126,10 +136,12 @@ public class FotoapparatTest {
         // Then
         InOrder inOrder = inOrder(
                 stopCameraRoutine,
-                updateOrientationRoutine
+                updateOrientationRoutine,
+                takePictureRoutine
         );
 
         inOrder.verify(updateOrientationRoutine).stop();
+        inOrder.verify(takePictureRoutine).cancelCaptures();
         inOrder.verify(stopCameraRoutine).run();
     }
 
@@ -160,6 +172,51 @@ public class FotoapparatTest {
         );
     }
 
+    @Test
+    public void getPreviewStreamStatistics() throws Exception {
+        // Given
+        PreviewStreamStatistics statistics = new PreviewStreamStatistics(3, 2, 0, 1, 0);
+
+        given(previewStatisticsRoutine.getStatistics())
+                .willReturn(statistics);
+
+        testee.start();
+
+        // When
+        PreviewStreamStatistics result = testee.getPreviewStreamStatistics();
+
+        // Then
+        assertEquals(statistics, result);
+    }
+
+    @Test
+    public void getFrameProcessorStatistics() throws Exception {
+        // Given
+        List<ProcessorStatistics> statistics = singletonList(
+                new ProcessorStatistics(null, 3, 0, 0, false, 1, 2, 3, 4)
+        );
+
+        given(previewStatisticsRoutine.getProcessorStatistics())
+                .willReturn(statistics);
+
+        testee.start();
+
+        // When
+        List<ProcessorStatistics> result = testee.getFrameProcessorStatistics();
+
+        // Then
+        assertEquals(statistics, result);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getPreviewStreamStatistics_NotStartedYet() throws Exception {
+        // When
+        testee.getPreviewStreamStatistics();
+
+        // Then
+        // Expect exception
+    }
+
     @Test
     public void takePicture() throws Exception {
         // Given
@@ -178,6 +235,44 @@ public class FotoapparatTest {
         );
     }
 
+    @Test
+    public void takeSharpestPicture() throws Exception {
+        // Given
+        given(takePictureRoutine.takeSharpestPicture(300))
+                .willReturn(PHOTO_RESULT);
+
+        testee.start();
+
+        // When
+        PhotoResult result = testee.takeSharpestPicture(300);
+
+        // Then
+        assertEquals(
+                PHOTO_RESULT,
+                result
+        );
+    }
+
+    @Test
+    public void takeBurst() throws Exception {
+        // Given
+        List<PhotoResult> burst = asList(PHOTO_RESULT, PHOTO_RESULT);
+
+        given(takePictureRoutine.takeBurst(2, 100))
+                .willReturn(burst);
+
+        testee.start();
+
+        // When
+        List<PhotoResult> result = testee.takeBurst(2, 100);
+
+        // Then
+        assertEquals(
+                burst,
+                result
+        );
+    }
+
     @Test(expected = IllegalStateException.class)
     public void takePicture_NotStartedYet() throws Exception {
         // When
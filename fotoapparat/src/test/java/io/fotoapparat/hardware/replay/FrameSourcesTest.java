@@ -0,0 +1,82 @@
+package io.fotoapparat.hardware.replay;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.Frame;
+
+import static java.util.Arrays.asList;
+import static junit.framework.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+
+public class FrameSourcesTest {
+
+    static final Size FRAME_SIZE = new Size(2, 2);
+
+    @Test
+    public void frames_Loop() throws Exception {
+        // Given
+        FrameSource testee = FrameSources.frames(asList(
+                new Frame(FRAME_SIZE, new byte[]{1, 1, 1, 1, 5, 5}, 90),
+                new Frame(FRAME_SIZE, new byte[]{2, 2, 2, 2, 6, 6}, 90)
+        ));
+
+        byte[] image = new byte[6];
+
+        // When
+        testee.readFrame(3, image);
+
+        // Then
+        assertArrayEquals(new byte[]{2, 2, 2, 2, 6, 6}, image);
+        assertEquals(FRAME_SIZE, testee.getFrameSize());
+        assertEquals(90, testee.getFrameRotation());
+    }
+
+    @Test
+    public void frames_LumaOnlyFrameGetsNeutralChroma() throws Exception {
+        // Given
+        FrameSource testee = FrameSources.frames(Collections.singletonList(
+                new Frame(FRAME_SIZE, new byte[]{1, 2, 3, 4}, 0)
+        ));
+
+        byte[] image = new byte[6];
+
+        // When
+        testee.readFrame(0, image);
+
+        // Then
+        assertArrayEquals(new byte[]{1, 2, 3, 4, (byte) 128, (byte) 128}, image);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void frames_Empty() throws Exception {
+        // When
+        FrameSources.frames(Collections.<Frame>emptyList());
+
+        // Then
+        // Expect exception
+    }
+
+    @Test
+    public void synthetic_MovesEveryFrame() throws Exception {
+        // Given
+        FrameSource testee = FrameSources.synthetic(new Size(3, 2));
+
+        byte[] first = new byte[10];
+        byte[] second = new byte[10];
+
+        // When
+        testee.readFrame(0, first);
+        testee.readFrame(1, second);
+
+        // Then
+        assertArrayEquals(
+                new byte[]{0, 1, 2, 1, 2, 3, (byte) 128, (byte) 128, (byte) 128, (byte) 128},
+                first
+        );
+        assertEquals(1, second[0]);
+    }
+
+}
@@ -0,0 +1,229 @@
+package io.fotoapparat.hardware.replay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.fotoapparat.hardware.CameraException;
+import io.fotoapparat.log.Logger;
+import io.fotoapparat.parameter.LensPosition;
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.BackpressurePolicy;
+import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.LatencyBudget;
+import io.fotoapparat.preview.PreviewStream;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.result.PhotoResult;
+import io.fotoapparat.routine.ConfigurePreviewStreamRoutine;
+import io.fotoapparat.routine.picture.TakePictureRoutine;
+import io.fotoapparat.test.ImmediateExecutor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplayCameraTest {
+
+    static final Size FRAME_SIZE = new Size(4, 2);
+
+    @Mock
+    Logger logger;
+
+    ReplayCamera testee;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new ReplayCamera(FrameSources.synthetic(FRAME_SIZE), 200f, 0, 0, 0, logger);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        testee.close();
+    }
+
+    @Test
+    public void streamsFramesThroughPipeline() throws Exception {
+        // Given
+        CollectingFrameProcessor frameProcessor = new CollectingFrameProcessor(5);
+
+        testee.open(LensPosition.BACK);
+        new ConfigurePreviewStreamRoutine(
+                testee,
+                frameProcessor,
+                PreviewStream.DEFAULT_BUFFER_COUNT,
+                BackpressurePolicy.latestOnly(),
+                LatencyBudget.none()
+        ).run();
+
+        // When
+        testee.startPreview();
+
+        // Then
+        assertTrue(frameProcessor.framesReceived.await(5, TimeUnit.SECONDS));
+
+        List<Frame> frames = frameProcessor.getFrames();
+
+        for (int i = 1; i < frames.size(); i++) {
+            assertEquals(FRAME_SIZE, frames.get(i).size);
+            assertTrue(frames.get(i).sequenceNumber > frames.get(i - 1).sequenceNumber);
+            assertTrue(frames.get(i).timestampNanos > frames.get(i - 1).timestampNanos);
+        }
+
+        PreviewStreamStatistics statistics = testee.getPreviewStream().getStatistics();
+        assertTrue(statistics.framesReceived >= 5);
+    }
+
+    @Test
+    public void dropsFramesWhileEveryBufferIsHeld() throws Exception {
+        // Given
+        final CountDownLatch bufferHeld = new CountDownLatch(1);
+
+        testee.open(LensPosition.BACK);
+
+        PreviewStream previewStream = testee.getPreviewStream();
+        previewStream.setBufferCount(1);
+        previewStream.addProcessor(new FrameProcessor() {
+            @Override
+            public void processFrame(Frame frame) {
+                frame.acquire();
+                bufferHeld.countDown();
+            }
+        });
+        previewStream.start();
+
+        // When
+        testee.startPreview();
+
+        // Then
+        assertTrue(bufferHeld.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        PreviewStreamStatistics statistics = previewStream.getStatistics();
+        assertEquals(1, statistics.framesReceived);
+        assertTrue(statistics.framesDroppedByCamera > 0);
+    }
+
+    @Test
+    public void takePicture() throws Exception {
+        // Given
+        testee.open(LensPosition.BACK);
+        testee.startPreview();
+
+        // When
+        PhotoResult result = new TakePictureRoutine(testee, new ImmediateExecutor())
+                .takePicture();
+
+        // Then
+        Photo photo = result.toPendingResult().await();
+        assertEquals(FRAME_SIZE.width * FRAME_SIZE.height * 3 / 2, photo.encodedImage.length);
+    }
+
+    @Test
+    public void takeBurst() throws Exception {
+        // Given
+        testee.open(LensPosition.BACK);
+        testee.startPreview();
+
+        // When
+        long startNanos = System.nanoTime();
+        List<PhotoResult> results = new TakePictureRoutine(testee, new ImmediateExecutor())
+                .takeBurst(3, 20);
+
+        // Then
+        assertEquals(3, results.size());
+        for (PhotoResult result : results) {
+            Photo photo = result.toPendingResult().await();
+            assertEquals(FRAME_SIZE.width * FRAME_SIZE.height * 3 / 2, photo.encodedImage.length);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        assertTrue(elapsedMillis >= 40);
+    }
+
+    @Test
+    public void simulatesLatencies() throws Exception {
+        // Given
+        ReplayCamera testee = new ReplayCamera(
+                FrameSources.synthetic(FRAME_SIZE), 30f, 20, 30, 40, logger
+        );
+
+        // When
+        long startNanos = System.nanoTime();
+        testee.open(LensPosition.BACK);
+        testee.autoFocus();
+        testee.takePicture();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        // Then
+        assertTrue(elapsedMillis >= 90);
+        testee.close();
+    }
+
+    @Test
+    public void getPreviewStream_NotOpened() throws Exception {
+        // When
+        PreviewStream previewStream = testee.getPreviewStream();
+
+        // Then
+        assertSame(PreviewStream.NULL, previewStream);
+    }
+
+    @Test(expected = CameraException.class)
+    public void startPreview_NotOpened() throws Exception {
+        // When
+        testee.startPreview();
+
+        // Then
+        // Expect exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidFrameRate() throws Exception {
+        // When
+        new ReplayCamera(FrameSources.synthetic(FRAME_SIZE), 0f, 0, 0, 0, logger);
+
+        // Then
+        // Expect exception
+    }
+
+    static class CollectingFrameProcessor implements FrameProcessor {
+
+        final CountDownLatch framesReceived;
+        final List<Frame> frames = Collections.synchronizedList(new ArrayList<Frame>());
+
+        CollectingFrameProcessor(int frameCount) {
+            framesReceived = new CountDownLatch(frameCount);
+        }
+
+        @Override
+        public void processFrame(Frame frame) {
+            frames.add(new Frame(
+                    frame.size,
+                    frame.image.clone(),
+                    frame.rotation,
+                    frame.sequenceNumber,
+                    frame.timestampNanos
+            ));
+            framesReceived.countDown();
+        }
+
+        List<Frame> getFrames() {
+            synchronized (frames) {
+                return new ArrayList<>(frames);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.fotoapparat.hardware.v1;
+
+import android.hardware.Camera;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings("deprecation")
+@RunWith(MockitoJUnitRunner.class)
+public class CallbackBufferRingTest {
+
+    static final long FRAME_INTERVAL = 33_000_000L;
+
+    @Mock
+    Camera camera;
+
+    CallbackBufferRing testee;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new CallbackBufferRing(camera);
+    }
+
+    @Test
+    public void allocate() throws Exception {
+        // When
+        testee.allocate(3, 10);
+
+        // Then
+        verify(camera, times(3)).addCallbackBuffer(any(byte[].class));
+    }
+
+    @Test
+    public void returnBuffer() throws Exception {
+        // Given
+        byte[] buffer = new byte[10];
+
+        // When
+        testee.returnBuffer(buffer, 0);
+
+        // Then
+        verify(camera).addCallbackBuffer(buffer);
+    }
+
+    @Test
+    public void noDroppedFrames_WhenCameraAlwaysHasBuffer() throws Exception {
+        // Given
+        testee.allocate(2, 10);
+
+        // When
+        for (int i = 1; i <= 10; i++) {
+            testee.onBufferFilled(i * FRAME_INTERVAL);
+            testee.returnBuffer(new byte[10], i * FRAME_INTERVAL + 1);
+        }
+
+        // Then
+        assertEquals(0, testee.getFramesDropped());
+    }
+
+    @Test
+    public void estimatesDroppedFrames_WhenRingIsEmpty() throws Exception {
+        // Given
+        testee.allocate(1, 10);
+
+        testee.onBufferFilled(FRAME_INTERVAL);
+        testee.returnBuffer(new byte[10], FRAME_INTERVAL + 1);
+        testee.onBufferFilled(2 * FRAME_INTERVAL);
+
+        // When
+        testee.returnBuffer(new byte[10], 5 * FRAME_INTERVAL + 1);
+
+        // Then
+        assertEquals(3, testee.getFramesDropped());
+    }
+
+    @Test
+    public void starvationDoesNotSkewFrameInterval() throws Exception {
+        // Given
+        testee.allocate(1, 10);
+
+        testee.onBufferFilled(FRAME_INTERVAL);
+        testee.returnBuffer(new byte[10], FRAME_INTERVAL + 1);
+        testee.onBufferFilled(2 * FRAME_INTERVAL);
+        testee.returnBuffer(new byte[10], 10 * FRAME_INTERVAL + 1);
+        testee.onBufferFilled(11 * FRAME_INTERVAL);
+
+        // When
+        testee.returnBuffer(new byte[10], 13 * FRAME_INTERVAL + 1);
+
+        // Then
+        assertEquals(8 + 2, testee.getFramesDropped());
+    }
+}
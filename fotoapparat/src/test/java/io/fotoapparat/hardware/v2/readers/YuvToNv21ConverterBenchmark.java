@@ -0,0 +1,183 @@
+package io.fotoapparat.hardware.v2.readers;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import io.fotoapparat.preview.BufferPool;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Measures throughput, bytes copied and buffer allocations per frame of
+ * {@link YuvToNv21Converter} on the plane layouts produced by real devices.
+ */
+public class YuvToNv21ConverterBenchmark {
+
+    static final int WIDTH = 1920;
+    static final int HEIGHT = 1080;
+    static final int ROW_PADDING = 64;
+
+    static final int WARM_UP_FRAMES = 20;
+    static final int MEASURED_FRAMES = 60;
+
+    @Test
+    public void interleavedVu_Padded() throws Exception {
+        Result result = run(Layout.INTERLEAVED_VU, WIDTH + ROW_PADDING);
+
+        assertEquals(0.0, result.allocationsPerFrame);
+        assertEquals(YuvToNv21Converter.nv21Size(WIDTH, HEIGHT), result.bytesCopiedPerFrame);
+    }
+
+    @Test
+    public void interleavedVu_TightlyPacked() throws Exception {
+        Result result = run(Layout.INTERLEAVED_VU, WIDTH);
+
+        assertEquals(0.0, result.allocationsPerFrame);
+        assertEquals(YuvToNv21Converter.nv21Size(WIDTH, HEIGHT), result.bytesCopiedPerFrame);
+    }
+
+    @Test
+    public void planar_Padded() throws Exception {
+        Result result = run(Layout.PLANAR, WIDTH + ROW_PADDING);
+
+        assertEquals(0.0, result.allocationsPerFrame);
+        assertEquals(YuvToNv21Converter.nv21Size(WIDTH, HEIGHT), result.bytesCopiedPerFrame);
+    }
+
+    @Test
+    public void semiPlanar_SeparateBuffers() throws Exception {
+        Result result = run(Layout.SEMI_PLANAR_SEPARATE, WIDTH + ROW_PADDING);
+
+        assertEquals(0.0, result.allocationsPerFrame);
+        assertTrue(result.bytesCopiedPerFrame > YuvToNv21Converter.nv21Size(WIDTH, HEIGHT));
+    }
+
+    private static Result run(Layout layout, int rowStride) {
+        ByteBuffer[] planes = layout.createPlanes(rowStride);
+        int uvRowStride = layout == Layout.PLANAR ? rowStride / 2 : rowStride;
+        int uvPixelStride = layout == Layout.PLANAR ? 1 : 2;
+
+        BufferPool bufferPool = new BufferPool(2);
+        YuvToNv21Converter converter = new YuvToNv21Converter(bufferPool);
+
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            bufferPool.release(
+                    converter.convert(WIDTH, HEIGHT, planes[0], rowStride, planes[1], planes[2],
+                            uvRowStride, uvPixelStride)
+            );
+        }
+
+        long allocationsBefore = bufferPool.getAllocationCount();
+        long bytesCopiedBefore = converter.getBytesCopied();
+        long startNanos = System.nanoTime();
+
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            bufferPool.release(
+                    converter.convert(WIDTH, HEIGHT, planes[0], rowStride, planes[1], planes[2],
+                            uvRowStride, uvPixelStride)
+            );
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Result result = new Result(
+                (double) (bufferPool.getAllocationCount() - allocationsBefore) / MEASURED_FRAMES,
+                (converter.getBytesCopied() - bytesCopiedBefore) / MEASURED_FRAMES,
+                elapsedNanos / MEASURED_FRAMES
+        );
+
+        System.out.println(String.format(Locale.US,
+                "%s, row stride %d: %.3f ms/frame, %d bytes copied/frame, %.2f allocations/frame",
+                layout, rowStride, result.nanosPerFrame / 1e6, result.bytesCopiedPerFrame,
+                result.allocationsPerFrame));
+
+        return result;
+    }
+
+    private enum Layout {
+
+        /**
+         * I420-like: U and V are separate planes with pixel stride 1.
+         */
+        PLANAR {
+            @Override
+            ByteBuffer[] createPlanes(int rowStride) {
+                int chromaRowStride = rowStride / 2;
+                int chromaLength = chromaRowStride * (HEIGHT / 2 - 1) + WIDTH / 2;
+
+                return new ByteBuffer[]{
+                        lumaPlane(rowStride),
+                        ByteBuffer.allocateDirect(chromaLength),
+                        ByteBuffer.allocateDirect(chromaLength)
+                };
+            }
+        },
+
+        /**
+         * Pixel stride 2, but U and V do not share memory.
+         */
+        SEMI_PLANAR_SEPARATE {
+            @Override
+            ByteBuffer[] createPlanes(int rowStride) {
+                int chromaLength = rowStride * (HEIGHT / 2 - 1) + WIDTH - 1;
+
+                return new ByteBuffer[]{
+                        lumaPlane(rowStride),
+                        ByteBuffer.allocateDirect(chromaLength),
+                        ByteBuffer.allocateDirect(chromaLength)
+                };
+            }
+        },
+
+        /**
+         * NV21 memory exposed as two planes with pixel stride 2, the most common case.
+         */
+        INTERLEAVED_VU {
+            @Override
+            ByteBuffer[] createPlanes(int rowStride) {
+                int chromaLength = rowStride * (HEIGHT / 2 - 1) + WIDTH - 1;
+                ByteBuffer memory = ByteBuffer.allocateDirect(rowStride * HEIGHT / 2);
+
+                for (int i = 0; i < memory.capacity(); i++) {
+                    memory.put(i, (byte) i);
+                }
+
+                memory.position(1);
+                ByteBuffer uPlane = memory.slice();
+                uPlane.limit(chromaLength);
+
+                memory.position(0);
+                ByteBuffer vPlane = memory.slice();
+                vPlane.limit(chromaLength);
+
+                return new ByteBuffer[]{
+                        lumaPlane(rowStride),
+                        uPlane,
+                        vPlane
+                };
+            }
+        };
+
+        abstract ByteBuffer[] createPlanes(int rowStride);
+
+        static ByteBuffer lumaPlane(int rowStride) {
+            return ByteBuffer.allocateDirect(rowStride * (HEIGHT - 1) + WIDTH);
+        }
+    }
+
+    private static class Result {
+
+        final double allocationsPerFrame;
+        final long bytesCopiedPerFrame;
+        final long nanosPerFrame;
+
+        Result(double allocationsPerFrame, long bytesCopiedPerFrame, long nanosPerFrame) {
+            this.allocationsPerFrame = allocationsPerFrame;
+            this.bytesCopiedPerFrame = bytesCopiedPerFrame;
+            this.nanosPerFrame = nanosPerFrame;
+        }
+    }
+}
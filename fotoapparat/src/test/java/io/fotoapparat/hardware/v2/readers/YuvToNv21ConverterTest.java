@@ -0,0 +1,275 @@
+package io.fotoapparat.hardware.v2.readers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import io.fotoapparat.preview.BufferPool;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static org.junit.Assert.assertArrayEquals;
+
+public class YuvToNv21ConverterTest {
+
+    static final int WIDTH = 4;
+    static final int HEIGHT = 4;
+
+    static final byte[] EXPECTED_NV21 = {
+            0, 1, 2, 3,
+            4, 5, 6, 7,
+            8, 9, 10, 11,
+            12, 13, 14, 15,
+            50, 20, 51, 21,
+            52, 22, 53, 23
+    };
+
+    BufferPool bufferPool;
+    YuvToNv21Converter testee;
+
+    @Before
+    public void setUp() throws Exception {
+        bufferPool = new BufferPool(1);
+        testee = new YuvToNv21Converter(bufferPool);
+    }
+
+    @Test
+    public void nv21Size() throws Exception {
+        // When
+        int result = YuvToNv21Converter.nv21Size(640, 480);
+
+        // Then
+        assertEquals(640 * 480 * 3 / 2, result);
+    }
+
+    @Test
+    public void planar_TightlyPacked() throws Exception {
+        // When
+        byte[] result = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                chromaPlane(20, 2, 1), chromaPlane(50, 2, 1),
+                2, 1
+        );
+
+        // Then
+        assertArrayEquals(EXPECTED_NV21, result);
+    }
+
+    @Test
+    public void planar_Padded() throws Exception {
+        // When
+        byte[] result = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(8), 8,
+                chromaPlane(20, 6, 1), chromaPlane(50, 6, 1),
+                6, 1
+        );
+
+        // Then
+        assertArrayEquals(EXPECTED_NV21, result);
+    }
+
+    @Test
+    public void semiPlanar_SeparateBuffers() throws Exception {
+        // When
+        byte[] result = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                chromaPlane(20, 8, 2), chromaPlane(50, 8, 2),
+                8, 2
+        );
+
+        // Then
+        assertArrayEquals(EXPECTED_NV21, result);
+    }
+
+    @Test
+    public void semiPlanar_InterleavedVu() throws Exception {
+        // Given
+        ByteBuffer[] planes = interleavedVuPlanes(WIDTH);
+
+        // When
+        byte[] result = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                planes[0], planes[1],
+                WIDTH, 2
+        );
+
+        // Then
+        assertArrayEquals(EXPECTED_NV21, result);
+        assertEquals(EXPECTED_NV21.length, testee.getBytesCopied());
+    }
+
+    @Test
+    public void semiPlanar_InterleavedVu_Padded() throws Exception {
+        // Given
+        ByteBuffer[] planes = interleavedVuPlanes(16);
+
+        // When
+        byte[] result = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(16), 16,
+                planes[0], planes[1],
+                16, 2
+        );
+
+        // Then
+        assertArrayEquals(EXPECTED_NV21, result);
+        assertEquals(0, planes[0].position());
+        assertEquals(0, planes[1].position());
+    }
+
+    @Test
+    public void semiPlanar_InterleavedVu_PlanesAreNotModified() throws Exception {
+        // Given
+        ByteBuffer[] planes = interleavedVuPlanes(WIDTH);
+
+        // When
+        testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                planes[0], planes[1],
+                WIDTH, 2
+        );
+
+        // Then
+        assertEquals(20, planes[0].get(0));
+        assertEquals(20, planes[1].get(1));
+    }
+
+    @Test
+    public void semiPlanar_InterleavedVu_ReadOnly() throws Exception {
+        // Given
+        ByteBuffer[] planes = interleavedVuPlanes(WIDTH);
+
+        // When
+        byte[] result = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                planes[0].asReadOnlyBuffer(), planes[1].asReadOnlyBuffer(),
+                WIDTH, 2
+        );
+
+        // Then
+        assertArrayEquals(EXPECTED_NV21, result);
+        assertEquals(EXPECTED_NV21.length, testee.getBytesCopied());
+    }
+
+    @Test
+    public void reusesReleasedBuffers() throws Exception {
+        // Given
+        byte[] first = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                chromaPlane(20, 2, 1), chromaPlane(50, 2, 1),
+                2, 1
+        );
+        bufferPool.release(first);
+
+        // When
+        byte[] second = testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                chromaPlane(20, 2, 1), chromaPlane(50, 2, 1),
+                2, 1
+        );
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, bufferPool.getAllocationCount());
+    }
+
+    @Test
+    public void countsCopiedBytes() throws Exception {
+        // When
+        testee.convert(
+                WIDTH, HEIGHT,
+                lumaPlane(WIDTH), WIDTH,
+                chromaPlane(20, 2, 1), chromaPlane(50, 2, 1),
+                2, 1
+        );
+
+        // Then
+        assertEquals(EXPECTED_NV21.length, testee.getBytesCopied());
+    }
+
+    @Test
+    public void lumaOnly_Padded() throws Exception {
+        // When
+        byte[] result = testee.convertLuma(
+                WIDTH, HEIGHT,
+                lumaPlane(8), 8
+        );
+
+        // Then
+        assertArrayEquals(
+                Arrays.copyOf(EXPECTED_NV21, WIDTH * HEIGHT),
+                result
+        );
+        assertEquals(WIDTH * HEIGHT, testee.getBytesCopied());
+    }
+
+    /**
+     * Luma samples are 0, 1, 2... in row-major order.
+     */
+    static ByteBuffer lumaPlane(int rowStride) {
+        byte[] plane = new byte[rowStride * (HEIGHT - 1) + WIDTH];
+
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int column = 0; column < WIDTH; column++) {
+                plane[row * rowStride + column] = (byte) (row * WIDTH + column);
+            }
+        }
+
+        return ByteBuffer.wrap(plane);
+    }
+
+    /**
+     * Chroma samples are firstValue, firstValue + 1... in row-major order.
+     */
+    static ByteBuffer chromaPlane(int firstValue, int rowStride, int pixelStride) {
+        int chromaWidth = WIDTH / 2;
+        int chromaHeight = HEIGHT / 2;
+        byte[] plane = new byte[
+                rowStride * (chromaHeight - 1) + (chromaWidth - 1) * pixelStride + 1
+                ];
+
+        for (int row = 0; row < chromaHeight; row++) {
+            for (int column = 0; column < chromaWidth; column++) {
+                plane[row * rowStride + column * pixelStride] =
+                        (byte) (firstValue + row * chromaWidth + column);
+            }
+        }
+
+        return ByteBuffer.wrap(plane);
+    }
+
+    /**
+     * @return U and V planes which are views over the same VUVU... memory.
+     */
+    static ByteBuffer[] interleavedVuPlanes(int rowStride) {
+        int chromaWidth = WIDTH / 2;
+        int chromaHeight = HEIGHT / 2;
+        byte[] memory = new byte[rowStride * chromaHeight];
+
+        for (int row = 0; row < chromaHeight; row++) {
+            for (int column = 0; column < chromaWidth; column++) {
+                int sample = row * chromaWidth + column;
+
+                memory[row * rowStride + column * 2] = (byte) (50 + sample);
+                memory[row * rowStride + column * 2 + 1] = (byte) (20 + sample);
+            }
+        }
+
+        int planeLength = rowStride * (chromaHeight - 1) + chromaWidth * 2 - 1;
+
+        ByteBuffer vPlane = ByteBuffer.wrap(memory, 0, planeLength).slice();
+        ByteBuffer uPlane = ByteBuffer.wrap(memory, 1, planeLength).slice();
+
+        return new ByteBuffer[]{uPlane, vPlane};
+    }
+}
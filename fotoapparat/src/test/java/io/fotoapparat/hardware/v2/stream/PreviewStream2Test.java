@@ -8,12 +8,14 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 
+import io.fotoapparat.hardware.v2.orientation.OrientationManager;
 import io.fotoapparat.hardware.v2.parameters.ParametersProvider;
 import io.fotoapparat.hardware.v2.stream.OnImageAcquiredObserver.OnFrameAcquiredListener;
-import io.fotoapparat.log.Logger;
 import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.BufferPool;
 import io.fotoapparat.preview.Frame;
 import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.PreviewStreamStatistics;
 
 import static junit.framework.Assert.assertEquals;
 import static org.mockito.BDDMockito.given;
@@ -26,13 +28,15 @@ public class PreviewStream2Test {
     @Mock
     ParametersProvider parametersProvider;
     @Mock
-    Logger logger;
+    OrientationManager orientationManager;
 
     @Test
     public void acquireFrame() throws Exception {
         // Given
         given(parametersProvider.getPreviewSize())
                 .willReturn(PREVIEW_SIZE);
+        given(orientationManager.getPhotoOrientation())
+                .willReturn(90);
 
         final AtomicReference<OnFrameAcquiredListener> listenerReference = new AtomicReference<>();
         final AtomicReference<Frame> frameReference = new AtomicReference<>();
@@ -45,7 +49,7 @@ public class PreviewStream2Test {
                 listenerReference.set(listener);
                 listenerSet.countDown();
             }
-        }, parametersProvider, logger);
+        }, parametersProvider, orientationManager, new BufferPool(1));
 
         testee.addProcessor(new FrameProcessor() {
             @Override
@@ -58,10 +62,53 @@ public class PreviewStream2Test {
 
         // When
         listenerSet.await();
-        listenerReference.get().onFrameAcquired(new byte[]{1});
+        listenerReference.get().onFrameAcquired(new byte[]{1}, 42);
 
         // Then
         frameAcquired.await();
-        assertEquals(new Frame(PREVIEW_SIZE, new byte[]{1}, 0), frameReference.get());
+        assertEquals(new Frame(PREVIEW_SIZE, new byte[]{1}, 90, 0, 42), frameReference.get());
+        assertEquals(0, frameReference.get().sequenceNumber);
+        assertEquals(42, frameReference.get().timestampNanos);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void dropsFramesWhileEveryBufferIsInUse() throws Exception {
+        // Given
+        given(parametersProvider.getPreviewSize())
+                .willReturn(PREVIEW_SIZE);
+
+        final AtomicReference<OnFrameAcquiredListener> listenerReference = new AtomicReference<>();
+        final CountDownLatch processorReleased = new CountDownLatch(1);
+
+        PreviewStream2 testee = new PreviewStream2(new OnImageAcquiredObserver() {
+            @Override
+            public void setListener(OnFrameAcquiredListener listener) {
+                listenerReference.set(listener);
+            }
+        }, parametersProvider, orientationManager, new BufferPool(1));
+
+        testee.setBufferCount(1);
+        testee.addProcessor(new FrameProcessor() {
+            @Override
+            public void processFrame(Frame frame) {
+                try {
+                    processorReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        testee.start();
+
+        // When
+        listenerReference.get().onFrameAcquired(new byte[]{1}, 1);
+        listenerReference.get().onFrameAcquired(new byte[]{2}, 2);
+
+        // Then
+        PreviewStreamStatistics statistics = testee.getStatistics();
+        processorReleased.countDown();
+
+        assertEquals(1, statistics.framesReceived);
+        assertEquals(1, statistics.framesDroppedByCamera);
+    }
+}
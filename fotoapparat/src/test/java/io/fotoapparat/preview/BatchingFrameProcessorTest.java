@@ -0,0 +1,124 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.fotoapparat.parameter.Size;
+
+import static java.util.Arrays.asList;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingFrameProcessorTest {
+
+    static final Size SIZE = new Size(1, 1);
+
+    @Mock
+    BufferRecycler bufferRecycler;
+
+    RecordingBatchProcessor batchProcessor = new RecordingBatchProcessor();
+
+    @Test
+    public void processFrame_DeliversFullBatch() throws Exception {
+        // Given
+        BatchingFrameProcessor testee = new BatchingFrameProcessor(batchProcessor, 2, 1000);
+
+        // When
+        testee.processFrame(frame(1, 0));
+
+        // Then
+        assertEquals(0, batchProcessor.batches.size());
+
+        testee.processFrame(frame(2, 1));
+        testee.processFrame(frame(3, 2));
+
+        assertEquals(1, batchProcessor.batches.size());
+        assertEquals(asList((byte) 1, (byte) 2), batchProcessor.batches.get(0));
+    }
+
+    @Test
+    public void processFrame_DeliversBatchAfterMaxDelay() throws Exception {
+        // Given
+        BatchingFrameProcessor testee = new BatchingFrameProcessor(batchProcessor, 4, 10);
+
+        testee.processFrame(frame(1, 0));
+        testee.processFrame(frame(2, 5000000));
+
+        // When
+        testee.processFrame(frame(3, 10000000));
+
+        // Then
+        assertEquals(1, batchProcessor.batches.size());
+        assertEquals(asList((byte) 1, (byte) 2), batchProcessor.batches.get(0));
+    }
+
+    @Test
+    public void processFrame_ReleasesFrameRightAway() throws Exception {
+        // Given
+        BatchingFrameProcessor testee = new BatchingFrameProcessor(batchProcessor, 4, 1000);
+
+        Frame frame = frame(1, 0);
+        frame.share(1, bufferRecycler, new BufferPool(1));
+
+        // When
+        testee.processFrame(frame);
+        frame.release();
+
+        // Then
+        verify(bufferRecycler).recycle(frame.image);
+    }
+
+    @Test
+    public void processFrame_ReusesBuffers() throws Exception {
+        // Given
+        BatchingFrameProcessor testee = new BatchingFrameProcessor(batchProcessor, 1, 1000);
+
+        // When
+        testee.processFrame(frame(1, 0));
+        testee.processFrame(frame(2, 1));
+
+        // Then
+        assertEquals(2, batchProcessor.batches.size());
+        assertSame(batchProcessor.images.get(0), batchProcessor.images.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBatchSize() throws Exception {
+        // When
+        new BatchingFrameProcessor(batchProcessor, 0, 1000);
+
+        // Then
+        // Expect exception
+    }
+
+    private static Frame frame(int value, long timestampNanos) {
+        return new Frame(SIZE, new byte[]{(byte) value}, 0, value, timestampNanos);
+    }
+
+    static class RecordingBatchProcessor implements BatchFrameProcessor {
+
+        final List<List<Byte>> batches = new ArrayList<>();
+        final List<byte[]> images = new ArrayList<>();
+
+        @Override
+        public void processFrames(List<Frame> frames) {
+            List<Byte> batch = new ArrayList<>();
+
+            for (Frame frame : frames) {
+                batch.add(frame.image[0]);
+                images.add(frame.image);
+            }
+
+            batches.add(batch);
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.fotoapparat.preview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+
+public class BufferPoolTest {
+
+    BufferPool testee;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new BufferPool(1);
+    }
+
+    @Test
+    public void acquire_AllocatesWhenEmpty() throws Exception {
+        // When
+        byte[] buffer = testee.acquire(10);
+
+        // Then
+        assertEquals(10, buffer.length);
+        assertEquals(1, testee.getAllocationCount());
+    }
+
+    @Test
+    public void acquire_ReusesReleasedBuffer() throws Exception {
+        // Given
+        byte[] buffer = testee.acquire(10);
+        testee.release(buffer);
+
+        // When
+        byte[] result = testee.acquire(10);
+
+        // Then
+        assertSame(buffer, result);
+        assertEquals(1, testee.getAllocationCount());
+    }
+
+    @Test
+    public void acquire_DoesNotMixSizes() throws Exception {
+        // Given
+        byte[] buffer = testee.acquire(10);
+        testee.release(buffer);
+
+        // When
+        byte[] result = testee.acquire(20);
+
+        // Then
+        assertEquals(20, result.length);
+        assertEquals(2, testee.getAllocationCount());
+    }
+
+    @Test
+    public void release_RetainsAtMostLimit() throws Exception {
+        // Given
+        byte[] first = testee.acquire(10);
+        byte[] second = testee.acquire(10);
+        testee.release(first);
+        testee.release(second);
+
+        // When
+        byte[] result = testee.acquire(10);
+        byte[] allocated = testee.acquire(10);
+
+        // Then
+        assertSame(first, result);
+        assertNotSame(second, allocated);
+        assertEquals(3, testee.getAllocationCount());
+    }
+}
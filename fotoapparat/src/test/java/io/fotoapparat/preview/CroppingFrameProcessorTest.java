@@ -0,0 +1,111 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static org.junit.Assert.assertArrayEquals;
+
+public class CroppingFrameProcessorTest {
+
+    static final Size FRAME_SIZE = new Size(4, 4);
+
+    /**
+     * 4x4 NV21 frame: luma 0..15 and VU pairs 50, 20, 51, 21...
+     */
+    static final byte[] NV21_IMAGE = {
+            0, 1, 2, 3,
+            4, 5, 6, 7,
+            8, 9, 10, 11,
+            12, 13, 14, 15,
+            50, 20, 51, 21,
+            52, 22, 53, 23
+    };
+
+    @Test
+    public void cropsNv21() throws Exception {
+        // Given
+        RecordingFrameProcessor recordingProcessor = new RecordingFrameProcessor();
+        CroppingFrameProcessor testee = new CroppingFrameProcessor(
+                recordingProcessor,
+                RegionOfInterest.inFrame(2, 2, 4, 4)
+        );
+
+        // When
+        testee.processFrame(new Frame(FRAME_SIZE, NV21_IMAGE, 90));
+
+        // Then
+        Frame croppedFrame = recordingProcessor.frames.get(0);
+
+        assertEquals(new Size(2, 2), croppedFrame.size);
+        assertEquals(90, croppedFrame.rotation);
+        assertArrayEquals(
+                new byte[]{10, 11, 14, 15, 53, 23},
+                recordingProcessor.images.get(0)
+        );
+    }
+
+    @Test
+    public void cropsLuma() throws Exception {
+        // Given
+        RecordingFrameProcessor recordingProcessor = new RecordingFrameProcessor();
+        CroppingFrameProcessor testee = new CroppingFrameProcessor(
+                recordingProcessor,
+                RegionOfInterest.inFrame(0, 2, 2, 4)
+        );
+
+        byte[] luma = new byte[16];
+        System.arraycopy(NV21_IMAGE, 0, luma, 0, 16);
+
+        // When
+        testee.processFrame(new Frame(FRAME_SIZE, luma, 0));
+
+        // Then
+        assertArrayEquals(
+                new byte[]{8, 9, 12, 13},
+                recordingProcessor.images.get(0)
+        );
+    }
+
+    @Test
+    public void reusesCropBuffers() throws Exception {
+        // Given
+        RecordingFrameProcessor recordingProcessor = new RecordingFrameProcessor();
+        CroppingFrameProcessor testee = new CroppingFrameProcessor(
+                recordingProcessor,
+                RegionOfInterest.centered(0.5f, 0.5f)
+        );
+
+        // When
+        testee.processFrame(new Frame(FRAME_SIZE, NV21_IMAGE, 0));
+        testee.processFrame(new Frame(FRAME_SIZE, NV21_IMAGE, 0));
+
+        // Then
+        assertSame(
+                recordingProcessor.frames.get(0).image,
+                recordingProcessor.frames.get(1).image
+        );
+    }
+
+    /**
+     * Remembers received frames and a copy of their images.
+     */
+    static class RecordingFrameProcessor implements FrameProcessor {
+
+        final List<Frame> frames = new ArrayList<>();
+        final List<byte[]> images = new ArrayList<>();
+
+        @Override
+        public void processFrame(Frame frame) {
+            frames.add(frame);
+            images.add(frame.image.clone());
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class EveryNthFrameSamplerTest {
+
+    @Test
+    public void acceptsEveryNthFrame() throws Exception {
+        // Given
+        EveryNthFrameSampler testee = new EveryNthFrameSampler(3);
+
+        // When
+        // Then
+        assertTrue(testee.accept(0));
+        assertFalse(testee.accept(1));
+        assertFalse(testee.accept(2));
+        assertTrue(testee.accept(3));
+        assertFalse(testee.accept(4));
+    }
+
+    @Test
+    public void everyFrame() throws Exception {
+        // Given
+        EveryNthFrameSampler testee = new EveryNthFrameSampler(1);
+
+        // When
+        // Then
+        assertTrue(testee.accept(0));
+        assertTrue(testee.accept(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nMustBePositive() throws Exception {
+        // When
+        new EveryNthFrameSampler(0);
+
+        // Then
+        // Expect exception
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.fotoapparat.preview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class ExposureMeterTest {
+
+    ExposureMeter testee;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new ExposureMeter();
+    }
+
+    @Test
+    public void keepsLatestStatistics() throws Exception {
+        // Given
+        Frame darkFrame = new Frame(new Size(1, 1), new byte[]{10}, 0);
+        Frame brightFrame = new Frame(new Size(1, 1), new byte[]{(byte) 240}, 0);
+
+        LumaStatistics statistics = new LumaStatistics();
+
+        // When
+        testee.processFrame(darkFrame);
+        testee.processFrame(brightFrame);
+        darkFrame.release();
+        brightFrame.release();
+
+        // Then
+        assertTrue(testee.getLatestStatistics(statistics));
+        assertEquals(240f, statistics.getMean());
+    }
+
+    @Test
+    public void isPoorlyExposed_ClippedHighlights() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(1, 1), new byte[]{(byte) 255}, 0);
+
+        // When
+        testee.processFrame(frame);
+        frame.release();
+
+        // Then
+        assertTrue(testee.isPoorlyExposed());
+    }
+
+    @Test
+    public void isPoorlyExposed_WellExposed() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(1, 1), new byte[]{(byte) 128}, 0);
+
+        // When
+        testee.processFrame(frame);
+        frame.release();
+
+        // Then
+        assertFalse(testee.isPoorlyExposed());
+    }
+
+    @Test
+    public void isPoorlyExposed_NothingMeasured() throws Exception {
+        // When
+        boolean poorlyExposed = testee.isPoorlyExposed();
+
+        // Then
+        assertFalse(poorlyExposed);
+    }
+
+    @Test
+    public void nothingMeasured() throws Exception {
+        // Given
+        LumaStatistics statistics = new LumaStatistics();
+
+        // When
+        boolean measured = testee.getLatestStatistics(statistics);
+
+        // Then
+        assertFalse(measured);
+    }
+
+}
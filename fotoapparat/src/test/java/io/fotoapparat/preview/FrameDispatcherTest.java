@@ -0,0 +1,676 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.fotoapparat.log.Loggers;
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.test.ImmediateExecutor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FrameDispatcherTest {
+
+    static final Size PREVIEW_SIZE = new Size(10, 20);
+
+    static final Frame FRAME_A = new Frame(PREVIEW_SIZE, new byte[]{1}, 0);
+    static final Frame FRAME_B = new Frame(PREVIEW_SIZE, new byte[]{2}, 0);
+    static final Frame FRAME_C = new Frame(PREVIEW_SIZE, new byte[]{3}, 0);
+
+    @Mock
+    FrameProcessor frameProcessor;
+    @Mock
+    FrameProcessor otherFrameProcessor;
+    @Mock
+    BufferRecycler bufferRecycler;
+
+    DeferredExecutor executor;
+    FrameDispatcher testee;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new DeferredExecutor();
+        testee = new FrameDispatcher(executor, executor, bufferRecycler);
+        testee.addProcessor(frameProcessor);
+    }
+
+    @Test
+    public void dispatch_ProcessesAndRecyclesFrame() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(
+                new ImmediateExecutor(),
+                new ImmediateExecutor(),
+                bufferRecycler
+        );
+        testee.addProcessor(frameProcessor);
+
+        // When
+        testee.dispatch(FRAME_A);
+
+        // Then
+        InOrder inOrder = inOrder(frameProcessor, bufferRecycler);
+
+        inOrder.verify(frameProcessor).processFrame(FRAME_A);
+        inOrder.verify(bufferRecycler).recycle(FRAME_A.image);
+
+        assertEquals(1, testee.getFramesProcessed());
+        assertEquals(0, testee.getFramesDropped());
+    }
+
+    @Test
+    public void latestOnly_DropsFramesWhileBusy() throws Exception {
+        // When
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+        testee.dispatch(FRAME_C);
+
+        executor.runAll();
+
+        // Then
+        verify(frameProcessor, never()).processFrame(FRAME_A);
+        verify(frameProcessor, never()).processFrame(FRAME_B);
+        verify(frameProcessor).processFrame(FRAME_C);
+
+        verify(bufferRecycler).recycle(FRAME_A.image);
+        verify(bufferRecycler).recycle(FRAME_B.image);
+        verify(bufferRecycler).recycle(FRAME_C.image);
+
+        assertEquals(3, testee.getFramesReceived());
+        assertEquals(1, testee.getFramesProcessed());
+        assertEquals(2, testee.getFramesDropped());
+    }
+
+    @Test
+    public void dropOldest_KeepsMostRecentFrames() throws Exception {
+        // Given
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(2));
+
+        // When
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+        testee.dispatch(FRAME_C);
+
+        executor.runAll();
+
+        // Then
+        InOrder inOrder = inOrder(frameProcessor);
+
+        inOrder.verify(frameProcessor).processFrame(FRAME_B);
+        inOrder.verify(frameProcessor).processFrame(FRAME_C);
+        verify(frameProcessor, never()).processFrame(FRAME_A);
+
+        assertEquals(2, testee.getFramesProcessed());
+        assertEquals(1, testee.getFramesDropped());
+    }
+
+    @Test
+    public void framesPending() throws Exception {
+        // Given
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(3));
+
+        // When
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+
+        // Then
+        assertEquals(2, testee.getFramesPending());
+
+        executor.runAll();
+        assertEquals(0, testee.getFramesPending());
+    }
+
+    @Test
+    public void setBackpressurePolicy_ClosesReplacedLanes() throws Exception {
+        // Given
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(3));
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+
+        // When
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(2));
+        executor.runAll();
+
+        // Then
+        verify(frameProcessor, never()).processFrame(FRAME_A);
+        verify(frameProcessor, never()).processFrame(FRAME_B);
+
+        verify(bufferRecycler).recycle(FRAME_A.image);
+        verify(bufferRecycler).recycle(FRAME_B.image);
+
+        assertEquals(0, testee.getFramesPending());
+    }
+
+    @Test
+    public void block_DoesNotDropFrames() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(
+                new ImmediateExecutor(),
+                new ImmediateExecutor(),
+                bufferRecycler
+        );
+        testee.setBackpressurePolicy(BackpressurePolicy.block(1));
+        testee.addProcessor(frameProcessor);
+
+        // When
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+
+        // Then
+        verify(frameProcessor).processFrame(FRAME_A);
+        verify(frameProcessor).processFrame(FRAME_B);
+
+        assertEquals(2, testee.getFramesProcessed());
+        assertEquals(0, testee.getFramesDropped());
+    }
+
+    @Test
+    public void block_HoldsFramesWithoutWaiting() throws Exception {
+        // Given
+        testee.setBackpressurePolicy(BackpressurePolicy.block(1));
+
+        // When
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+        testee.dispatch(FRAME_C);
+
+        // Then
+        assertEquals(3, testee.getFramesPending());
+        verify(bufferRecycler, never()).recycle(FRAME_C.image);
+
+        executor.runAll();
+
+        InOrder inOrder = inOrder(frameProcessor);
+        inOrder.verify(frameProcessor).processFrame(FRAME_A);
+        inOrder.verify(frameProcessor).processFrame(FRAME_B);
+        inOrder.verify(frameProcessor).processFrame(FRAME_C);
+
+        verify(bufferRecycler).recycle(FRAME_C.image);
+        assertEquals(0, testee.getFramesPending());
+        assertEquals(0, testee.getFramesDropped());
+    }
+
+    @Test
+    public void removeProcessor() throws Exception {
+        // Given
+        testee.removeProcessor(frameProcessor);
+
+        // When
+        testee.dispatch(FRAME_A);
+        executor.runAll();
+
+        // Then
+        verify(frameProcessor, never()).processFrame(FRAME_A);
+        verify(bufferRecycler).recycle(FRAME_A.image);
+    }
+
+    @Test
+    public void parallel_RecyclesBufferAfterLastLane() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(executor, executor, bufferRecycler);
+        testee.addProcessor(FrameProcessors.parallel(frameProcessor, otherFrameProcessor));
+
+        // When
+        testee.dispatch(FRAME_A);
+        executor.runNext();
+
+        // Then
+        verify(frameProcessor).processFrame(FRAME_A);
+        verify(bufferRecycler, never()).recycle(FRAME_A.image);
+
+        executor.runNext();
+        verify(otherFrameProcessor).processFrame(FRAME_A);
+        verify(bufferRecycler).recycle(FRAME_A.image);
+
+        assertEquals(2, testee.getFramesProcessed());
+    }
+
+    @Test
+    public void parallel_ProcessesConcurrently() throws Exception {
+        // Given
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch secondStarted = new CountDownLatch(1);
+        final CountDownLatch frameRecycled = new CountDownLatch(1);
+
+        FrameDispatcher testee = new FrameDispatcher(
+                new ImmediateExecutor(),
+                Executors.newCachedThreadPool(),
+                new BufferRecycler() {
+                    @Override
+                    public void recycle(byte[] buffer) {
+                        frameRecycled.countDown();
+                    }
+                }
+        );
+
+        AwaitingFrameProcessor first = new AwaitingFrameProcessor(firstStarted, secondStarted);
+        AwaitingFrameProcessor second = new AwaitingFrameProcessor(secondStarted, firstStarted);
+
+        testee.addProcessor(FrameProcessors.parallel(first, second));
+
+        // When
+        testee.dispatch(FRAME_A);
+
+        // Then
+        assertTrue(frameRecycled.await(5, TimeUnit.SECONDS));
+        assertTrue(first.metOtherProcessor);
+        assertTrue(second.metOtherProcessor);
+    }
+
+    @Test
+    public void parallel_SkipsEmptySequentialLane() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(executor, executor, bufferRecycler);
+        testee.addProcessor(FrameProcessors.parallel(otherFrameProcessor));
+
+        // When
+        testee.dispatch(FRAME_A);
+        executor.runAll();
+
+        // Then
+        verify(otherFrameProcessor).processFrame(FRAME_A);
+        verify(bufferRecycler).recycle(FRAME_A.image);
+
+        assertEquals(1, testee.getFramesProcessed());
+    }
+
+    @Test
+    public void parallel_RemoveReleasesPendingFrames() throws Exception {
+        // Given
+        FrameProcessor parallelProcessor = FrameProcessors.parallel(otherFrameProcessor);
+        testee.addProcessor(parallelProcessor);
+
+        testee.dispatch(FRAME_A);
+
+        // When
+        testee.removeProcessor(parallelProcessor);
+        executor.runAll();
+
+        // Then
+        verify(frameProcessor).processFrame(FRAME_A);
+        verify(otherFrameProcessor, never()).processFrame(FRAME_A);
+        verify(bufferRecycler).recycle(FRAME_A.image);
+    }
+
+    @Test
+    public void acquiredFrame_RecycledAfterRelease() throws Exception {
+        // Given
+        final List<Frame> leasedFrames = new ArrayList<>();
+
+        testee.addProcessor(new FrameProcessor() {
+            @Override
+            public void processFrame(Frame frame) {
+                leasedFrames.add(frame.acquire());
+            }
+        });
+
+        // When
+        testee.dispatch(FRAME_A);
+        executor.runAll();
+
+        // Then
+        verify(bufferRecycler, never()).recycle(FRAME_A.image);
+
+        leasedFrames.get(0).release();
+        verify(bufferRecycler).recycle(FRAME_A.image);
+    }
+
+    @Test
+    public void sampled_SkippedFramesAreNotQueued() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(executor, executor, bufferRecycler);
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(3));
+        testee.addProcessor(FrameProcessors.everyNthFrame(otherFrameProcessor, 2));
+
+        // When
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+        testee.dispatch(FRAME_C);
+
+        // Then
+        verify(bufferRecycler).recycle(FRAME_B.image);
+        assertEquals(2, testee.getFramesPending());
+
+        executor.runAll();
+
+        verify(otherFrameProcessor).processFrame(FRAME_A);
+        verify(otherFrameProcessor, never()).processFrame(FRAME_B);
+        verify(otherFrameProcessor).processFrame(FRAME_C);
+        assertEquals(0, testee.getFramesDropped());
+    }
+
+    @Test
+    public void motionGated_SkipsUnchangedFrames() throws Exception {
+        // Given
+        Size size = new Size(2, 2);
+        Frame first = new Frame(size, new byte[]{0, 0, 0, 0, 0, 0}, 0);
+        Frame unchanged = new Frame(size, new byte[]{0, 0, 0, 0, 1, 1}, 0);
+        Frame changed = new Frame(size, new byte[]{(byte) 255, 0, 0, 0, 2, 2}, 0);
+
+        FrameDispatcher testee = new FrameDispatcher(executor, executor, bufferRecycler);
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(3));
+        testee.addProcessor(FrameProcessors.motionGated(otherFrameProcessor, 0.5f));
+
+        // When
+        testee.dispatch(first);
+        testee.dispatch(unchanged);
+        testee.dispatch(changed);
+        executor.runAll();
+
+        // Then
+        verify(otherFrameProcessor).processFrame(first);
+        verify(otherFrameProcessor, never()).processFrame(unchanged);
+        verify(otherFrameProcessor).processFrame(changed);
+
+        assertEquals(1f, first.getMotionScore());
+        assertEquals(0f, unchanged.getMotionScore());
+        assertEquals(1f, changed.getMotionScore());
+    }
+
+    @Test
+    public void motionScore_NotComputedWithoutGatedProcessors() throws Exception {
+        // Given
+        Frame frame = new Frame(PREVIEW_SIZE, new byte[]{1}, 0);
+
+        // When
+        testee.dispatch(frame);
+        executor.runAll();
+
+        // Then
+        assertTrue(Float.isNaN(frame.getMotionScore()));
+    }
+
+    @Test
+    public void sampled_UsesFrameTimestamps() throws Exception {
+        // Given
+        Frame first = new Frame(PREVIEW_SIZE, new byte[]{1}, 0, 0, 0);
+        Frame tooEarly = new Frame(PREVIEW_SIZE, new byte[]{2}, 0, 1, 50000000);
+        Frame onTime = new Frame(PREVIEW_SIZE, new byte[]{3}, 0, 2, 100000000);
+
+        FrameDispatcher testee = new FrameDispatcher(executor, executor, bufferRecycler);
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(3));
+        testee.addProcessor(FrameProcessors.maxFrameRate(otherFrameProcessor, 10));
+
+        // When
+        testee.dispatch(first);
+        testee.dispatch(tooEarly);
+        testee.dispatch(onTime);
+        executor.runAll();
+
+        // Then
+        verify(otherFrameProcessor).processFrame(first);
+        verify(otherFrameProcessor, never()).processFrame(tooEarly);
+        verify(otherFrameProcessor).processFrame(onTime);
+    }
+
+    @Test
+    public void sampled_RegularProcessorsReceiveEveryFrame() throws Exception {
+        // Given
+        testee.setBackpressurePolicy(BackpressurePolicy.dropOldest(2));
+        testee.addProcessor(FrameProcessors.everyNthFrame(otherFrameProcessor, 2));
+
+        // When
+        testee.dispatch(FRAME_A);
+        testee.dispatch(FRAME_B);
+        executor.runAll();
+
+        // Then
+        verify(frameProcessor).processFrame(FRAME_A);
+        verify(frameProcessor).processFrame(FRAME_B);
+        verify(otherFrameProcessor).processFrame(FRAME_A);
+        verify(otherFrameProcessor, never()).processFrame(FRAME_B);
+
+        verify(bufferRecycler).recycle(FRAME_A.image);
+        verify(bufferRecycler).recycle(FRAME_B.image);
+    }
+
+    @Test
+    public void chromaRequired_ByRegularProcessor() throws Exception {
+        // When
+        // Then
+        assertTrue(testee.isChromaRequired());
+
+        testee.removeProcessor(frameProcessor);
+        assertFalse(testee.isChromaRequired());
+    }
+
+    @Test
+    public void chromaRequired_NotByLumaProcessors() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(executor, executor, bufferRecycler);
+
+        // When
+        testee.addProcessor(FrameProcessors.lumaOnly(frameProcessor));
+        testee.addProcessor(FrameProcessors.everyNthFrame(
+                FrameProcessors.lumaOnly(otherFrameProcessor), 2
+        ));
+
+        // Then
+        assertFalse(testee.isChromaRequired());
+    }
+
+    @Test
+    public void chromaRequired_DropsLumaOnlyFrame() throws Exception {
+        // Given
+        Frame lumaFrame = new Frame(new Size(2, 2), new byte[4], 0);
+
+        // When
+        testee.dispatch(lumaFrame);
+        executor.runAll();
+
+        // Then
+        verify(frameProcessor, never()).processFrame(lumaFrame);
+        verify(bufferRecycler).recycle(lumaFrame.image);
+        assertEquals(1, testee.getFramesDropped());
+    }
+
+    /**
+     * Signals that it started and waits until the other processor starts as well.
+     */
+    static class AwaitingFrameProcessor implements FrameProcessor {
+
+        final CountDownLatch started;
+        final CountDownLatch otherStarted;
+
+        volatile boolean metOtherProcessor = false;
+
+        AwaitingFrameProcessor(CountDownLatch started, CountDownLatch otherStarted) {
+            this.started = started;
+            this.otherStarted = otherStarted;
+        }
+
+        @Override
+        public void processFrame(Frame frame) {
+            started.countDown();
+
+            try {
+                metOtherProcessor = otherStarted.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+    }
+
+    /**
+     * {@link Executor} which holds operations until they are explicitly run.
+     */
+    @Test
+    public void getProcessorStatistics_TimesEveryProcessor() throws Exception {
+        // Given
+        testee.addProcessor(FrameProcessors.everyNthFrame(otherFrameProcessor, 2));
+
+        // When
+        testee.dispatch(FRAME_A);
+        executor.runAll();
+        testee.dispatch(FRAME_B);
+        executor.runAll();
+
+        List<ProcessorStatistics> statistics = testee.getProcessorStatistics();
+
+        // Then
+        assertEquals(2, statistics.size());
+        assertEquals(frameProcessor, statistics.get(0).processor);
+        assertEquals(2, statistics.get(0).framesProcessed);
+        assertEquals(otherFrameProcessor, statistics.get(1).processor);
+        assertEquals(1, statistics.get(1).framesProcessed);
+    }
+
+    @Test
+    public void getProcessorStatistics_RemovedProcessor() throws Exception {
+        // Given
+        FrameProcessor parallelProcessor = FrameProcessors.parallel(otherFrameProcessor);
+        testee.addProcessor(parallelProcessor);
+
+        // When
+        testee.removeProcessor(parallelProcessor);
+        testee.removeProcessor(frameProcessor);
+
+        // Then
+        assertTrue(testee.getProcessorStatistics().isEmpty());
+    }
+
+    @Test
+    public void removeProcessor_OtherWrapperOfSameProcessorKeepsRunning() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(executor, executor, bufferRecycler);
+        FrameProcessor parallelProcessor = FrameProcessors.parallel(otherFrameProcessor);
+        FrameProcessor sampledProcessor = FrameProcessors.everyNthFrame(otherFrameProcessor, 2);
+
+        testee.addProcessor(parallelProcessor);
+        testee.addProcessor(sampledProcessor);
+
+        // When
+        testee.removeProcessor(sampledProcessor);
+        testee.dispatch(FRAME_A);
+        executor.runAll();
+
+        // Then
+        verify(otherFrameProcessor).processFrame(FRAME_A);
+
+        List<ProcessorStatistics> statistics = testee.getProcessorStatistics();
+        assertEquals(1, statistics.size());
+        assertEquals(1, statistics.get(0).framesProcessed);
+    }
+
+    @Test
+    public void addProcessor_DoesNotWaitForProcessing() throws Exception {
+        // Given
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch finishProcessing = new CountDownLatch(1);
+        final CountDownLatch processed = new CountDownLatch(1);
+
+        FrameDispatcher testee = new FrameDispatcher(
+                Executors.newSingleThreadExecutor(),
+                new ImmediateExecutor(),
+                bufferRecycler
+        );
+        testee.addProcessor(new FrameProcessor() {
+            @Override
+            public void processFrame(Frame frame) {
+                processing.countDown();
+
+                try {
+                    finishProcessing.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+
+                processed.countDown();
+            }
+        });
+
+        testee.dispatch(FRAME_A);
+        assertTrue(processing.await(5, TimeUnit.SECONDS));
+
+        try {
+            // When
+            testee.addProcessor(frameProcessor);
+            testee.removeProcessor(frameProcessor);
+            testee.addProcessor(FrameProcessors.parallel(otherFrameProcessor));
+
+            // Then
+            assertEquals(1, processed.getCount());
+        } finally {
+            finishProcessing.countDown();
+        }
+    }
+
+    @Test
+    public void removeProcessor_PendingFramesNotProcessed() throws Exception {
+        // Given
+        FrameProcessor parallelProcessor = FrameProcessors.parallel(otherFrameProcessor);
+        testee.addProcessor(parallelProcessor);
+        testee.dispatch(FRAME_A);
+
+        // When
+        testee.removeProcessor(parallelProcessor);
+        testee.removeProcessor(frameProcessor);
+        executor.runAll();
+
+        // Then
+        verify(frameProcessor, never()).processFrame(FRAME_A);
+        verify(otherFrameProcessor, never()).processFrame(FRAME_A);
+        assertEquals(0, testee.getFramesProcessed());
+    }
+
+    @Test
+    public void throttledProcessor_SkippedFramesNotCountedAsProcessed() throws Exception {
+        // Given
+        FrameDispatcher testee = new FrameDispatcher(
+                new ImmediateExecutor(),
+                new ImmediateExecutor(),
+                bufferRecycler
+        );
+        testee.setLatencyBudget(LatencyBudget.throttle(1, 1, Loggers.none()));
+        testee.addProcessor(new ProcessorMonitorTest.SleepingProcessor(20));
+
+        // When
+        testee.dispatch(new Frame(PREVIEW_SIZE, new byte[]{1}, 0, 0, 0));
+        testee.dispatch(new Frame(PREVIEW_SIZE, new byte[]{2}, 0, 1, 0));
+
+        // Then
+        assertEquals(1, testee.getFramesProcessed());
+        assertEquals(1, testee.getProcessorStatistics().get(0).framesSkipped);
+    }
+
+    static class DeferredExecutor implements Executor {
+
+        final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            commands.add(command);
+        }
+
+        void runNext() {
+            commands.remove(0).run();
+        }
+
+        void runAll() {
+            while (!commands.isEmpty()) {
+                commands.remove(0).run();
+            }
+        }
+
+    }
+
+}
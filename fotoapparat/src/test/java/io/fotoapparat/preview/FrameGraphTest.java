@@ -0,0 +1,270 @@
+package io.fotoapparat.preview;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.test.ImmediateExecutor;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FrameGraphTest {
+
+    @Mock
+    BufferRecycler bufferRecycler;
+
+    Frame frameA;
+    Frame frameB;
+
+    @Before
+    public void setUp() throws Exception {
+        frameA = new Frame(new Size(1, 1), new byte[]{1}, 0);
+        frameB = new Frame(new Size(1, 1), new byte[]{2}, 0);
+    }
+
+    @Test
+    public void processFrame_PassesOutputToNextStage() throws Exception {
+        // Given
+        FrameGraph testee = new FrameGraph(new ImmediateExecutor(), BackpressurePolicy.latestOnly());
+        RecordingStage<Integer> track = new RecordingStage<>();
+
+        testee.input()
+                .then("detect", new FrameStage<Frame, Integer>() {
+                    @Override
+                    public Integer process(Frame frame, Frame input) {
+                        return (int) input.image[0] * 10;
+                    }
+                })
+                .then("track", track);
+
+        // When
+        testee.processFrame(frameA);
+        testee.processFrame(frameB);
+
+        // Then
+        assertEquals(asList(10, 20), track.inputs);
+    }
+
+    @Test
+    public void processFrame_NullOutputStopsFrame() throws Exception {
+        // Given
+        FrameGraph testee = new FrameGraph(new ImmediateExecutor(), BackpressurePolicy.latestOnly());
+        RecordingStage<Frame> track = new RecordingStage<>();
+
+        testee.input()
+                .then("filter", new FrameStage<Frame, Frame>() {
+                    @Override
+                    public Frame process(Frame frame, Frame input) {
+                        return input.image[0] == 1 ? null : input;
+                    }
+                })
+                .then("track", track);
+
+        // When
+        testee.processFrame(frameA);
+        testee.processFrame(frameB);
+
+        // Then
+        assertEquals(singletonList(frameB), track.inputs);
+    }
+
+    @Test
+    public void processFrame_FansOutToEveryConsumer() throws Exception {
+        // Given
+        FrameGraph testee = new FrameGraph(new ImmediateExecutor(), BackpressurePolicy.latestOnly());
+        RecordingStage<Frame> first = new RecordingStage<>();
+        RecordingStage<Frame> second = new RecordingStage<>();
+
+        FrameGraph.Node<Frame> input = testee.input();
+        input.then("first", first);
+        input.then("second", second);
+
+        // When
+        testee.processFrame(frameA);
+
+        // Then
+        assertEquals(singletonList(frameA), first.inputs);
+        assertEquals(singletonList(frameA), second.inputs);
+    }
+
+    @Test
+    public void processFrame_KeepsFrameUntilLastStage() throws Exception {
+        // Given
+        DeferredExecutor executor = new DeferredExecutor();
+        FrameGraph testee = new FrameGraph(executor, BackpressurePolicy.latestOnly());
+
+        testee.input()
+                .then("first", new RecordingStage<Frame>())
+                .then("second", new RecordingStage<Frame>());
+
+        frameA.share(1, bufferRecycler, new BufferPool(1));
+
+        // When
+        testee.processFrame(frameA);
+        frameA.release();
+        executor.runNext();
+
+        // Then
+        verify(bufferRecycler, never()).recycle(frameA.image);
+
+        executor.runAll();
+        verify(bufferRecycler).recycle(frameA.image);
+    }
+
+    @Test
+    public void processFrame_DropsOldestPendingFrame() throws Exception {
+        // Given
+        DeferredExecutor executor = new DeferredExecutor();
+        FrameGraph testee = new FrameGraph(executor, BackpressurePolicy.latestOnly());
+        RecordingStage<Frame> stage = new RecordingStage<>();
+
+        testee.input().then("stage", stage);
+
+        frameA.share(1, bufferRecycler, new BufferPool(1));
+
+        // When
+        testee.processFrame(frameA);
+        testee.processFrame(frameB);
+        frameA.release();
+
+        // Then
+        verify(bufferRecycler).recycle(frameA.image);
+
+        executor.runAll();
+
+        StageStatistics statistics = testee.getStageStatistics().get(0);
+        assertEquals(singletonList(frameB), stage.inputs);
+        assertEquals("stage", statistics.name);
+        assertEquals(1, statistics.framesProcessed);
+        assertEquals(1, statistics.framesDropped);
+        assertEquals(0, statistics.framesPending);
+    }
+
+    @Test
+    public void processFrame_StagesArePipelined() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newCachedThreadPool();
+        FrameGraph testee = new FrameGraph(executor, BackpressurePolicy.block(1));
+
+        final CountDownLatch secondStageBusy = new CountDownLatch(1);
+        final CountDownLatch secondStageReleased = new CountDownLatch(1);
+        final CountDownLatch firstStageReceivedB = new CountDownLatch(1);
+
+        testee.input()
+                .then("first", new FrameStage<Frame, Frame>() {
+                    @Override
+                    public Frame process(Frame frame, Frame input) {
+                        if (frame == frameB) {
+                            firstStageReceivedB.countDown();
+                        }
+
+                        return input;
+                    }
+                })
+                .then("second", new FrameStage<Frame, Frame>() {
+                    @Override
+                    public Frame process(Frame frame, Frame input) {
+                        secondStageBusy.countDown();
+                        await(secondStageReleased);
+                        return input;
+                    }
+                });
+
+        try {
+            // When
+            testee.processFrame(frameA);
+            assertTrue(secondStageBusy.await(5, TimeUnit.SECONDS));
+
+            testee.processFrame(frameB);
+
+            // Then
+            assertTrue(firstStageReceivedB.await(5, TimeUnit.SECONDS));
+        } finally {
+            secondStageReleased.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void getStageStatistics_InOrderOfStages() throws Exception {
+        // Given
+        FrameGraph testee = new FrameGraph(new ImmediateExecutor(), BackpressurePolicy.latestOnly());
+
+        testee.input()
+                .then("crop", new RecordingStage<Frame>())
+                .then("detect", new RecordingStage<Frame>());
+
+        // When
+        testee.processFrame(frameA);
+
+        List<StageStatistics> statistics = testee.getStageStatistics();
+
+        // Then
+        assertEquals(2, statistics.size());
+        assertEquals("crop", statistics.get(0).name);
+        assertEquals("detect", statistics.get(1).name);
+        assertEquals(1, statistics.get(1).framesProcessed);
+        assertTrue(statistics.get(1).maxNanos >= statistics.get(1).averageNanos);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static class RecordingStage<T> implements FrameStage<T, T> {
+
+        final List<T> inputs = new ArrayList<>();
+
+        @Override
+        public T process(Frame frame, T input) {
+            inputs.add(input);
+            return input;
+        }
+
+    }
+
+    static class DeferredExecutor implements Executor {
+
+        final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            commands.add(command);
+        }
+
+        void runNext() {
+            commands.remove(0).run();
+        }
+
+        void runAll() {
+            while (!commands.isEmpty()) {
+                commands.remove(0).run();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class FrameRateSamplerTest {
+
+    static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void limitsFrameRate() throws Exception {
+        // Given
+        FrameRateSampler testee = new FrameRateSampler(10);
+
+        // When
+        // Then
+        assertTrue(testee.accept(0));
+        assertFalse(testee.accept(50 * MILLISECOND));
+        assertFalse(testee.accept(99 * MILLISECOND));
+        assertTrue(testee.accept(100 * MILLISECOND));
+    }
+
+    @Test
+    public void keepsAverageRateWithCameraJitter() throws Exception {
+        // Given
+        FrameRateSampler testee = new FrameRateSampler(5);
+        int framesAccepted = 0;
+
+        // When
+        for (int frame = 0; frame < 300; frame++) {
+            long timestamp = frame * 33333333L + (frame % 2) * 3 * MILLISECOND;
+
+            if (testee.accept(timestamp)) {
+                framesAccepted++;
+            }
+        }
+
+        // Then
+        assertEquals(50, framesAccepted);
+    }
+
+    @Test
+    public void restartsAfterPause() throws Exception {
+        // Given
+        FrameRateSampler testee = new FrameRateSampler(10);
+        testee.accept(0);
+
+        // When
+        testee.accept(1000 * MILLISECOND);
+
+        // Then
+        assertFalse(testee.accept(1050 * MILLISECOND));
+        assertTrue(testee.accept(1100 * MILLISECOND));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void frameRateMustBePositive() throws Exception {
+        // When
+        new FrameRateSampler(0);
+
+        // Then
+        // Expect exception
+    }
+
+}
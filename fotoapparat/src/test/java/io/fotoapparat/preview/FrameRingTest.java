@@ -0,0 +1,171 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Random;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FrameRingTest {
+
+    @Mock
+    BufferRecycler bufferRecycler;
+
+    FrameRing testee = new FrameRing(2);
+
+    @Test
+    public void acquireClosest_Empty() throws Exception {
+        // When
+        Frame result = testee.acquireClosest(0);
+
+        // Then
+        assertNull(result);
+    }
+
+    @Test
+    public void acquireClosest() throws Exception {
+        // Given
+        testee.processFrame(frame(1, 100), 100);
+        testee.processFrame(frame(2, 200), 200);
+
+        // When
+        Frame result = testee.acquireClosest(160);
+
+        // Then
+        assertEquals(2, result.image[0]);
+        assertEquals(200, result.timestampNanos);
+
+        result.release();
+    }
+
+    @Test
+    public void acquireClosest_ComparesArrivalTime() throws Exception {
+        // Given
+        testee.processFrame(frame(1, 5000), 100);
+        testee.processFrame(frame(2, 0), 200);
+
+        // When
+        Frame result = testee.acquireClosest(180, 50);
+
+        // Then
+        assertEquals(2, result.image[0]);
+
+        result.release();
+    }
+
+    @Test
+    public void acquireClosest_NoFrameCloseEnough() throws Exception {
+        // Given
+        testee.processFrame(frame(1, 100), 100);
+
+        // When
+        Frame result = testee.acquireClosest(1000, 500);
+
+        // Then
+        assertNull(result);
+    }
+
+    @Test
+    public void acquireSharpest() throws Exception {
+        // Given
+        FrameRing testee = new FrameRing(3);
+
+        testee.processFrame(noisyFrame(100, 250), 100);
+        testee.processFrame(noisyFrame(200, 50), 200);
+        testee.processFrame(noisyFrame(300, 100), 300);
+
+        // When
+        Frame inWindow = testee.acquireSharpest(300, 150);
+        Frame outOfWindow = testee.acquireSharpest(1000, 150);
+
+        // Then
+        assertEquals(300, inWindow.timestampNanos);
+        assertNull(outOfWindow);
+
+        inWindow.release();
+    }
+
+    @Test
+    public void processFrame_EvictsOldestFrame() throws Exception {
+        // Given
+        testee.processFrame(frame(1, 100), 100);
+        testee.processFrame(frame(2, 200), 200);
+
+        // When
+        testee.processFrame(frame(3, 300), 300);
+
+        // Then
+        Frame result = testee.acquireClosest(0);
+        assertEquals(2, testee.size());
+        assertEquals(2, result.image[0]);
+
+        result.release();
+    }
+
+    @Test
+    public void processFrame_CopiesFrame() throws Exception {
+        // Given
+        Frame frame = frame(1, 100);
+        frame.share(1, bufferRecycler, new BufferPool(1));
+
+        // When
+        testee.processFrame(frame);
+        frame.release();
+
+        // Then
+        verify(bufferRecycler).recycle(frame.image);
+
+        Frame result = testee.acquireClosest(100);
+        assertNotSame(frame.image, result.image);
+        assertEquals(1, result.image[0]);
+
+        result.release();
+    }
+
+    @Test
+    public void clear() throws Exception {
+        // Given
+        testee.processFrame(frame(1, 100), 100);
+
+        // When
+        testee.clear();
+
+        // Then
+        assertEquals(0, testee.size());
+        assertNull(testee.acquireClosest(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacity() throws Exception {
+        // When
+        new FrameRing(0);
+
+        // Then
+        // Expect exception
+    }
+
+    private static Frame noisyFrame(long timestampNanos, int contrast) {
+        Random random = new Random(42);
+        byte[] image = new byte[8 * 8];
+
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) (random.nextInt(256) * contrast / 255);
+        }
+
+        return new Frame(new Size(8, 8), image, 0, 0, timestampNanos);
+    }
+
+    private static Frame frame(int value, long timestampNanos) {
+        return new Frame(new Size(1, 1), new byte[]{(byte) value}, 0, value, timestampNanos);
+    }
+
+}
@@ -0,0 +1,120 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+
+public class FrameRotationTest {
+
+    /**
+     * 4x2 luma followed by two V/U pairs.
+     */
+    static final byte[] IMAGE = {
+            1, 2, 3, 4,
+            5, 6, 7, 8,
+            10, 11, 20, 21
+    };
+
+    @Test
+    public void normalize() throws Exception {
+        // When
+        // Then
+        assertEquals(0, FrameRotation.normalize(360));
+        assertEquals(270, FrameRotation.normalize(-90));
+        assertEquals(90, FrameRotation.normalize(90));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void normalize_NotRightAngle() throws Exception {
+        // When
+        FrameRotation.normalize(45);
+
+        // Then
+        // Expect exception
+    }
+
+    @Test
+    public void rotate90() throws Exception {
+        // Given
+        byte[] target = new byte[IMAGE.length];
+
+        // When
+        FrameRotation.rotate(IMAGE, 4, 2, true, 90, target);
+
+        // Then
+        assertArrayEquals(
+                new byte[]{
+                        5, 1,
+                        6, 2,
+                        7, 3,
+                        8, 4,
+                        10, 11,
+                        20, 21
+                },
+                target
+        );
+    }
+
+    @Test
+    public void rotate180() throws Exception {
+        // Given
+        byte[] target = new byte[IMAGE.length];
+
+        // When
+        FrameRotation.rotate(IMAGE, 4, 2, true, 180, target);
+
+        // Then
+        assertArrayEquals(
+                new byte[]{
+                        8, 7, 6, 5,
+                        4, 3, 2, 1,
+                        20, 21, 10, 11
+                },
+                target
+        );
+    }
+
+    @Test
+    public void rotate270() throws Exception {
+        // Given
+        byte[] target = new byte[IMAGE.length];
+
+        // When
+        FrameRotation.rotate(IMAGE, 4, 2, true, 270, target);
+
+        // Then
+        assertArrayEquals(
+                new byte[]{
+                        4, 8,
+                        3, 7,
+                        2, 6,
+                        1, 5,
+                        20, 21,
+                        10, 11
+                },
+                target
+        );
+    }
+
+    @Test
+    public void rotate_LumaOnly() throws Exception {
+        // Given
+        byte[] image = {1, 2, 3, 4, 5, 6};
+        byte[] target = new byte[image.length];
+
+        // When
+        FrameRotation.rotate(image, 3, 2, false, 90, target);
+
+        // Then
+        assertArrayEquals(
+                new byte[]{
+                        4, 1,
+                        5, 2,
+                        6, 3
+                },
+                target
+        );
+    }
+
+}
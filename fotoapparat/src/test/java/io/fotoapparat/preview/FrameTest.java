@@ -0,0 +1,305 @@
+package io.fotoapparat.preview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FrameTest {
+
+    @Mock
+    BufferRecycler bufferRecycler;
+
+    BufferPool bufferPool;
+    Frame testee;
+
+    @Before
+    public void setUp() throws Exception {
+        bufferPool = new BufferPool(1);
+        testee = new Frame(new Size(10, 20), new byte[]{1}, 0);
+    }
+
+    @Test
+    public void hasChroma() throws Exception {
+        // Given
+        Frame nv21Frame = new Frame(new Size(2, 2), new byte[6], 0);
+        Frame lumaFrame = new Frame(new Size(2, 2), new byte[4], 0);
+
+        // When
+        // Then
+        assertTrue(nv21Frame.hasChroma());
+        assertFalse(lumaFrame.hasChroma());
+    }
+
+    @Test
+    public void getLuma() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(2, 1), new byte[]{1, 2, 3, 4}, 0);
+
+        // When
+        ByteBuffer luma = frame.getLuma();
+
+        // Then
+        assertEquals(2, luma.remaining());
+        assertEquals(1, luma.get(0));
+        assertEquals(2, luma.get(1));
+        assertTrue(luma.isReadOnly());
+    }
+
+    @Test
+    public void getLumaLevel() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(4, 2), new byte[]{
+                0, 2, 10, 20,
+                4, 6, 30, 40,
+                100, 100, 100, 100
+        }, 0);
+
+        // When
+        LumaImage fullResolution = frame.getLumaLevel(0);
+        LumaImage halfResolution = frame.getLumaLevel(1);
+
+        // Then
+        assertSame(frame.image, fullResolution.data);
+        assertEquals(2, halfResolution.width);
+        assertEquals(1, halfResolution.height);
+        assertEquals(3, halfResolution.get(0, 0));
+        assertEquals(25, halfResolution.get(1, 0));
+    }
+
+    @Test
+    public void getLumaLevel_ComputedOnce() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(4, 4), new byte[24], 0);
+        frame.share(1, bufferRecycler, bufferPool);
+
+        // When
+        LumaImage first = frame.getLumaLevel(2);
+        LumaImage second = frame.getLumaLevel(2);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(2, bufferPool.getAllocationCount());
+    }
+
+    @Test
+    public void release_ReturnsLumaLevelsToPool() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(4, 4), new byte[24], 0);
+        frame.share(1, bufferRecycler, bufferPool);
+
+        byte[] levelData = frame.getLumaLevel(1).data;
+
+        // When
+        frame.release();
+
+        // Then
+        assertSame(levelData, bufferPool.acquire(levelData.length));
+    }
+
+    @Test
+    public void getLumaStatistics_ComputedOnce() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(4, 1), new byte[]{10, 20, 30, 40, 0, 0}, 0);
+
+        // When
+        LumaStatistics first = frame.getLumaStatistics();
+        LumaStatistics second = frame.getLumaStatistics();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, first.getSampleCount());
+        assertEquals(10f, first.getMean());
+    }
+
+    @Test
+    public void getSharpness() throws Exception {
+        // Given
+        Frame flatFrame = new Frame(new Size(8, 8), new byte[96], 0);
+        byte[] noise = new byte[96];
+        new Random(42).nextBytes(noise);
+
+        Frame noisyFrame = new Frame(new Size(8, 8), noise, 0);
+
+        // When
+        float flatSharpness = flatFrame.getSharpness();
+        float noisySharpness = noisyFrame.getSharpness();
+
+        // Then
+        assertEquals(0f, flatSharpness);
+        assertTrue(noisySharpness > 0);
+        assertEquals(noisySharpness, noisyFrame.getSharpness());
+    }
+
+    @Test
+    public void getUpright() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(2, 1), new byte[]{1, 2}, 90);
+
+        // When
+        Frame upright = frame.getUpright();
+
+        // Then
+        assertEquals(new Size(1, 2), upright.size);
+        assertEquals(0, upright.rotation);
+        assertEquals(1, upright.image[0]);
+        assertEquals(2, upright.image[1]);
+    }
+
+    @Test
+    public void getUpright_NotRotated() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(2, 1), new byte[]{1, 2}, 360);
+
+        // When
+        Frame upright = frame.getUpright();
+
+        // Then
+        assertSame(frame, upright);
+    }
+
+    @Test
+    public void getUpright_ComputedOnce() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(2, 2), new byte[6], 180);
+        frame.share(1, bufferRecycler, bufferPool);
+
+        // When
+        Frame first = frame.getUpright();
+        Frame second = frame.getUpright();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, bufferPool.getAllocationCount());
+    }
+
+    @Test
+    public void release_ReturnsUprightImageToPool() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(2, 2), new byte[6], 270);
+        frame.share(1, bufferRecycler, bufferPool);
+
+        byte[] uprightImage = frame.getUpright().image;
+
+        // When
+        frame.release();
+
+        // Then
+        assertSame(uprightImage, bufferPool.acquire(uprightImage.length));
+    }
+
+    @Test
+    public void release_KeepsAcquiredUprightFrame() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(2, 2), new byte[6], 90);
+        frame.share(1, bufferRecycler, bufferPool);
+
+        Frame upright = frame.getUpright().acquire();
+
+        // When
+        frame.release();
+
+        // Then
+        assertNotSame(upright.image, bufferPool.acquire(6));
+
+        upright.release();
+        assertSame(upright.image, bufferPool.acquire(6));
+    }
+
+    @Test
+    public void release_RecyclesAfterLastOwner() throws Exception {
+        // Given
+        testee.share(2, bufferRecycler, bufferPool);
+
+        // When
+        testee.release();
+
+        // Then
+        verify(bufferRecycler, never()).recycle(testee.image);
+
+        testee.release();
+        verify(bufferRecycler).recycle(testee.image);
+    }
+
+    @Test
+    public void acquire_KeepsImageUntilReleased() throws Exception {
+        // Given
+        testee.share(1, bufferRecycler, bufferPool);
+
+        // When
+        Frame leased = testee.acquire();
+        testee.release();
+
+        // Then
+        assertSame(testee, leased);
+        verify(bufferRecycler, never()).recycle(testee.image);
+
+        leased.release();
+        verify(bufferRecycler).recycle(testee.image);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void acquire_AfterRelease() throws Exception {
+        // Given
+        testee.share(1, bufferRecycler, bufferPool);
+        testee.release();
+
+        // When
+        testee.acquire();
+
+        // Then
+        // Expect exception
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void release_MoreThanAcquired() throws Exception {
+        // Given
+        testee.release();
+
+        // When
+        testee.release();
+
+        // Then
+        // Expect exception
+    }
+
+    @Test
+    public void acquire_StandaloneFrame() throws Exception {
+        // When
+        testee.acquire();
+        testee.release();
+        testee.release();
+
+        // Then
+        // Nothing to recycle, no exception
+    }
+
+    @Test
+    public void equals_DistinguishesFramesOfStream() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(1, 1), new byte[]{1}, 0, 3, 100);
+
+        // When
+        // Then
+        assertEquals(frame, new Frame(new Size(1, 1), new byte[]{1}, 0, 3, 100));
+        assertEquals(frame.hashCode(), new Frame(new Size(1, 1), new byte[]{1}, 0, 3, 100).hashCode());
+        assertFalse(frame.equals(new Frame(new Size(1, 1), new byte[]{1}, 0, 4, 100)));
+        assertFalse(frame.equals(new Frame(new Size(1, 1), new byte[]{1}, 0, 3, 101)));
+    }
+
+}
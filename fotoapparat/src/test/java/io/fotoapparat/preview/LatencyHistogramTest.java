@@ -0,0 +1,87 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    LatencyHistogram testee = new LatencyHistogram();
+
+    @Test
+    public void empty() throws Exception {
+        // When
+        // Then
+        assertEquals(0, testee.getCount());
+        assertEquals(0, testee.getMaxNanos());
+        assertEquals(0, testee.getPercentileNanos(0.5f));
+    }
+
+    @Test
+    public void getPercentileNanos() throws Exception {
+        // Given
+        for (int i = 1; i <= 100; i++) {
+            testee.record(i * 1000000L);
+        }
+
+        // When
+        long median = testee.getPercentileNanos(0.5f);
+        long p99 = testee.getPercentileNanos(0.99f);
+
+        // Then
+        assertEquals(100, testee.getCount());
+        assertEquals(100000000L, testee.getMaxNanos());
+        assertWithin(50000000L, median);
+        assertWithin(99000000L, p99);
+        assertEquals(100000000L, testee.getPercentileNanos(1f));
+    }
+
+    @Test
+    public void getPercentileNanos_SmallValuesExact() throws Exception {
+        // Given
+        testee.record(3);
+        testee.record(5);
+        testee.record(-1);
+
+        // When
+        // Then
+        assertEquals(0, testee.getPercentileNanos(0f));
+        assertEquals(3, testee.getPercentileNanos(0.5f));
+        assertEquals(5, testee.getPercentileNanos(1f));
+    }
+
+    @Test
+    public void buckets_AreContiguous() throws Exception {
+        // Given
+        long previousUpperBound = -1;
+
+        // When
+        // Then
+        for (int i = 0; i < LatencyHistogram.bucketIndex(Long.MAX_VALUE); i++) {
+            long upperBound = LatencyHistogram.bucketUpperBound(i);
+
+            assertEquals(i, LatencyHistogram.bucketIndex(previousUpperBound + 1));
+            assertEquals(i, LatencyHistogram.bucketIndex(upperBound));
+
+            previousUpperBound = upperBound;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPercentileNanos_InvalidFraction() throws Exception {
+        // When
+        testee.getPercentileNanos(1.5f);
+
+        // Then
+        // Expect exception
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(
+                "Expected " + expected + " within 12.5%, got: " + actual,
+                Math.abs(actual - expected) <= expected / 8
+        );
+    }
+
+}
@@ -0,0 +1,94 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Measures the cost of the 2x2 downscale kernel of {@link LumaPyramid} and buffer allocations per
+ * frame once the pool is warm.
+ */
+public class LumaPyramidBenchmark {
+
+    static final int WIDTH = 1920;
+    static final int HEIGHT = 1080;
+
+    static final int WARM_UP_FRAMES = 20;
+    static final int MEASURED_FRAMES = 60;
+
+    @Test
+    public void halfResolution() throws Exception {
+        Result result = run(1);
+
+        assertEquals(0.0, result.allocationsPerFrame);
+    }
+
+    @Test
+    public void quarterResolution() throws Exception {
+        Result result = run(2);
+
+        assertEquals(0.0, result.allocationsPerFrame);
+    }
+
+    @Test
+    public void eighthResolution() throws Exception {
+        Result result = run(3);
+
+        assertEquals(0.0, result.allocationsPerFrame);
+    }
+
+    private static Result run(int level) {
+        Size size = new Size(WIDTH, HEIGHT);
+        byte[] image = new byte[WIDTH * HEIGHT * 3 / 2];
+        new Random(42).nextBytes(image);
+
+        BufferPool bufferPool = new BufferPool(1);
+
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            computeLevel(size, image, bufferPool, level);
+        }
+
+        long allocationsBefore = bufferPool.getAllocationCount();
+        long startNanos = System.nanoTime();
+
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            computeLevel(size, image, bufferPool, level);
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Result result = new Result(
+                (double) (bufferPool.getAllocationCount() - allocationsBefore) / MEASURED_FRAMES,
+                elapsedNanos / MEASURED_FRAMES
+        );
+
+        System.out.println(String.format(Locale.US,
+                "%dx%d, levels 1-%d: %.3f ms/frame, %.2f allocations/frame",
+                WIDTH, HEIGHT, level, result.nanosPerFrame / 1e6, result.allocationsPerFrame));
+
+        return result;
+    }
+
+    private static void computeLevel(Size size, byte[] image, BufferPool bufferPool, int level) {
+        LumaPyramid pyramid = new LumaPyramid(size, image, bufferPool);
+
+        pyramid.getLevel(level);
+        pyramid.release();
+    }
+
+    private static class Result {
+
+        final double allocationsPerFrame;
+        final long nanosPerFrame;
+
+        Result(double allocationsPerFrame, long nanosPerFrame) {
+            this.allocationsPerFrame = allocationsPerFrame;
+            this.nanosPerFrame = nanosPerFrame;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+
+public class LumaPyramidTest {
+
+    @Test
+    public void levelCount() throws Exception {
+        // When
+        // Then
+        assertEquals(1, LumaPyramid.levelCount(1, 1));
+        assertEquals(2, LumaPyramid.levelCount(2, 3));
+        assertEquals(9, LumaPyramid.levelCount(640, 480));
+    }
+
+    @Test
+    public void downscale_RoundsAverage() throws Exception {
+        // Given
+        byte[] source = {
+                0, 1, (byte) 255, (byte) 255,
+                1, 0, (byte) 255, (byte) 254
+        };
+        byte[] target = new byte[2];
+
+        // When
+        LumaPyramid.downscale(source, 4, target, 2, 1);
+
+        // Then
+        assertArrayEquals(new byte[]{1, (byte) 255}, target);
+    }
+
+    @Test
+    public void downscale_SkipsOddRowAndColumn() throws Exception {
+        // Given
+        LumaPyramid testee = new LumaPyramid(new Size(3, 3), new byte[]{
+                10, 20, 99,
+                30, 40, 99,
+                99, 99, 99
+        }, new BufferPool(0));
+
+        // When
+        LumaImage result = testee.getLevel(1);
+
+        // Then
+        assertEquals(1, result.width);
+        assertEquals(1, result.height);
+        assertEquals(25, result.get(0, 0));
+    }
+
+    @Test
+    public void getLevel_ComputesIntermediateLevels() throws Exception {
+        // Given
+        BufferPool bufferPool = new BufferPool(1);
+        LumaPyramid testee = new LumaPyramid(new Size(8, 8), new byte[96], bufferPool);
+
+        // When
+        LumaImage result = testee.getLevel(3);
+
+        // Then
+        assertEquals(1, result.width);
+        assertEquals(3, bufferPool.getAllocationCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getLevel_TooSmallImage() throws Exception {
+        // Given
+        LumaPyramid testee = new LumaPyramid(new Size(2, 2), new byte[6], new BufferPool(0));
+
+        // When
+        testee.getLevel(2);
+
+        // Then
+        // Expect exception
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.fotoapparat.preview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+
+public class LumaStatisticsTest {
+
+    /**
+     * 4x2 luma.
+     */
+    static final byte[] LUMA = {
+            0, 100, 10, 100,
+            (byte) 255, 100, (byte) 200, 100
+    };
+
+    LumaStatistics testee;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new LumaStatistics();
+    }
+
+    @Test
+    public void compute_EveryPixel() throws Exception {
+        // When
+        testee.compute(LUMA, 4, 2, 1);
+
+        // Then
+        assertEquals(8, testee.getSampleCount());
+        assertEquals(4, testee.getCount(100));
+        assertEquals(108.125f, testee.getMean());
+        assertEquals(100, testee.getPercentile(0.5f));
+        assertEquals(0, testee.getPercentile(0f));
+        assertEquals(255, testee.getPercentile(1f));
+        assertEquals(0.125f, testee.getShadowClippingRatio());
+        assertEquals(0.125f, testee.getHighlightClippingRatio());
+    }
+
+    @Test
+    public void compute_Sparse() throws Exception {
+        // When
+        testee.compute(LUMA, 4, 2, 2);
+
+        // Then
+        assertEquals(2, testee.getSampleCount());
+        assertEquals(1, testee.getCount(0));
+        assertEquals(1, testee.getCount(10));
+        assertEquals(0, testee.getCount(100));
+    }
+
+    @Test
+    public void compute_Recomputed() throws Exception {
+        // Given
+        testee.compute(LUMA, 4, 2, 1);
+
+        // When
+        testee.compute(new byte[]{50}, 1, 1, 1);
+
+        // Then
+        assertEquals(1, testee.getSampleCount());
+        assertEquals(0, testee.getCount(100));
+        assertEquals(50f, testee.getMean());
+    }
+
+    @Test
+    public void copyTo() throws Exception {
+        // Given
+        testee.compute(LUMA, 4, 2, 1);
+        LumaStatistics copy = new LumaStatistics();
+
+        // When
+        testee.copyTo(copy);
+
+        // Then
+        assertEquals(testee.getMean(), copy.getMean());
+        assertEquals(4, copy.getCount(100));
+    }
+
+    @Test
+    public void empty() throws Exception {
+        // When
+        // Then
+        assertEquals(0f, testee.getMean());
+        assertEquals(0, testee.getPercentile(0.5f));
+        assertEquals(0f, testee.getShadowClippingRatio());
+    }
+
+    @Test
+    public void obtain_ReusesRecycledInstance() throws Exception {
+        // Given
+        LumaStatistics.recycle(testee);
+
+        // When
+        LumaStatistics obtained = LumaStatistics.obtain();
+
+        // Then
+        assertSame(testee, obtained);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPercentile_InvalidFraction() throws Exception {
+        // When
+        testee.getPercentile(2f);
+
+        // Then
+        // Expect exception
+    }
+
+}
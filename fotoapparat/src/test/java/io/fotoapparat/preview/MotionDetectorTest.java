@@ -0,0 +1,92 @@
+package io.fotoapparat.preview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+
+public class MotionDetectorTest {
+
+    static final Size FRAME_SIZE = new Size(4, 4);
+
+    MotionDetector testee;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new MotionDetector(2);
+    }
+
+    @Test
+    public void firstFrame() throws Exception {
+        // When
+        float score = testee.score(lumaFrame(FRAME_SIZE, 0));
+
+        // Then
+        assertEquals(1f, score);
+    }
+
+    @Test
+    public void unchangedFrame() throws Exception {
+        // Given
+        testee.score(lumaFrame(FRAME_SIZE, 10));
+
+        // When
+        float score = testee.score(lumaFrame(FRAME_SIZE, 10));
+
+        // Then
+        assertEquals(0f, score);
+    }
+
+    @Test
+    public void changedFrame() throws Exception {
+        // Given
+        testee.score(lumaFrame(FRAME_SIZE, 0));
+
+        // When
+        float score = testee.score(lumaFrame(FRAME_SIZE, 51));
+
+        // Then
+        assertEquals(0.2f, score, 0.0001f);
+    }
+
+    @Test
+    public void onlySampledPixelsCount() throws Exception {
+        // Given
+        testee.score(lumaFrame(FRAME_SIZE, 0));
+
+        byte[] image = new byte[16];
+        image[1] = (byte) 255;
+        image[5] = (byte) 255;
+
+        // When
+        float score = testee.score(new Frame(FRAME_SIZE, image, 0));
+
+        // Then
+        assertEquals(0f, score);
+    }
+
+    @Test
+    public void sizeChanged() throws Exception {
+        // Given
+        testee.score(lumaFrame(FRAME_SIZE, 0));
+
+        // When
+        float score = testee.score(lumaFrame(new Size(8, 2), 0));
+
+        // Then
+        assertEquals(1f, score);
+    }
+
+    static Frame lumaFrame(Size size, int luma) {
+        byte[] image = new byte[size.width * size.height];
+
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) luma;
+        }
+
+        return new Frame(size, image, 0);
+    }
+
+}
@@ -0,0 +1,50 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class MotionFrameSamplerTest {
+
+    @Test
+    public void acceptsFramesAboveThreshold() throws Exception {
+        // Given
+        MotionFrameSampler testee = new MotionFrameSampler(0.1f);
+
+        // When
+        // Then
+        assertTrue(testee.accept(frameWithScore(0.1f)));
+        assertTrue(testee.accept(frameWithScore(0.5f)));
+        assertFalse(testee.accept(frameWithScore(0.05f)));
+    }
+
+    @Test
+    public void acceptsFramesWithoutScore() throws Exception {
+        // Given
+        MotionFrameSampler testee = new MotionFrameSampler(0.1f);
+
+        // When
+        // Then
+        assertTrue(testee.accept(frameWithScore(Float.NaN)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreshold() throws Exception {
+        // When
+        new MotionFrameSampler(1.5f);
+
+        // Then
+        // Expect exception
+    }
+
+    static Frame frameWithScore(float motionScore) {
+        Frame frame = new Frame(new Size(1, 1), new byte[1], 0);
+        frame.setMotionScore(motionScore);
+
+        return frame;
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import io.fotoapparat.log.Logger;
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProcessorMonitorTest {
+
+    static final Frame FRAME = new Frame(new Size(1, 1), new byte[]{1}, 0);
+
+    @Mock
+    Logger logger;
+
+    @Test
+    public void processFrame_RecordsTiming() throws Exception {
+        // Given
+        SleepingProcessor processor = new SleepingProcessor(0);
+        ProcessorMonitor testee = new ProcessorMonitor(processor, LatencyBudget.none());
+
+        // When
+        testee.processFrame(FRAME);
+        testee.processFrame(FRAME);
+
+        ProcessorStatistics statistics = testee.getStatistics();
+
+        // Then
+        assertEquals(2, processor.framesProcessed);
+        assertEquals(processor, statistics.processor);
+        assertEquals(2, statistics.framesProcessed);
+        assertEquals(0, statistics.budgetOverruns);
+        assertTrue(statistics.p50Nanos <= statistics.p99Nanos);
+        assertTrue(statistics.p99Nanos <= statistics.maxNanos);
+    }
+
+    @Test
+    public void processFrame_LogsRepeatedOverruns() throws Exception {
+        // Given
+        SleepingProcessor processor = new SleepingProcessor(5);
+        ProcessorMonitor testee = new ProcessorMonitor(processor, LatencyBudget.log(1, 2, logger));
+
+        // When
+        testee.processFrame(FRAME);
+
+        // Then
+        verifyZeroInteractions(logger);
+
+        testee.processFrame(FRAME);
+        testee.processFrame(FRAME);
+
+        ProcessorStatistics statistics = testee.getStatistics();
+        verify(logger, times(1)).log(anyString());
+        assertEquals(3, statistics.budgetOverruns);
+        assertEquals(3, processor.framesProcessed);
+        assertFalse(statistics.throttled);
+    }
+
+    @Test
+    public void processFrame_ThrottlesUntilBackWithinBudget() throws Exception {
+        // Given
+        SleepingProcessor processor = new SleepingProcessor(20);
+        ProcessorMonitor testee = new ProcessorMonitor(processor, LatencyBudget.throttle(1, 1, logger));
+
+        // When
+        testee.processFrame(FRAME);
+        testee.processFrame(FRAME);
+
+        // Then
+        ProcessorStatistics statistics = testee.getStatistics();
+        assertTrue(statistics.throttled);
+        assertEquals(1, statistics.framesSkipped);
+        assertEquals(1, processor.framesProcessed);
+
+        processor.sleepMillis = 0;
+        Thread.sleep(40);
+        testee.processFrame(FRAME);
+
+        assertFalse(testee.getStatistics().throttled);
+        assertEquals(2, processor.framesProcessed);
+        verify(logger, times(2)).log(anyString());
+    }
+
+    static class SleepingProcessor implements FrameProcessor {
+
+        long sleepMillis;
+        int framesProcessed = 0;
+
+        SleepingProcessor(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void processFrame(Frame frame) {
+            framesProcessed++;
+
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }
+
+    }
+
+}
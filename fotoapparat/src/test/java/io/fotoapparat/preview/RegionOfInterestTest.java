@@ -0,0 +1,102 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import io.fotoapparat.parameter.Size;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class RegionOfInterestTest {
+
+    static final Size FRAME_SIZE = new Size(200, 100);
+
+    @Test
+    public void centered() throws Exception {
+        // Given
+        RegionOfInterest testee = RegionOfInterest.centered(0.5f, 0.5f);
+
+        // When
+        RegionOfInterest.Crop crop = testee.toCrop(FRAME_SIZE, 0);
+
+        // Then
+        assertCrop(50, 24, 100, 52, crop);
+    }
+
+    @Test
+    public void relative_Rotated90() throws Exception {
+        // Given
+        RegionOfInterest testee = RegionOfInterest.relative(0f, 0f, 0.5f, 0.2f);
+
+        // When
+        RegionOfInterest.Crop crop = testee.toCrop(FRAME_SIZE, 90);
+
+        // Then
+        assertCrop(0, 50, 40, 50, crop);
+    }
+
+    @Test
+    public void relative_Rotated180() throws Exception {
+        // Given
+        RegionOfInterest testee = RegionOfInterest.relative(0f, 0f, 0.5f, 0.2f);
+
+        // When
+        RegionOfInterest.Crop crop = testee.toCrop(FRAME_SIZE, 180);
+
+        // Then
+        assertCrop(100, 80, 100, 20, crop);
+    }
+
+    @Test
+    public void relative_Rotated270() throws Exception {
+        // Given
+        RegionOfInterest testee = RegionOfInterest.relative(0f, 0f, 0.5f, 0.2f);
+
+        // When
+        RegionOfInterest.Crop crop = testee.toCrop(FRAME_SIZE, 270);
+
+        // Then
+        assertCrop(160, 0, 40, 50, crop);
+    }
+
+    @Test
+    public void inFrame_ExpandedToEvenAndClipped() throws Exception {
+        // Given
+        RegionOfInterest testee = RegionOfInterest.inFrame(11, 21, 250, 33);
+
+        // When
+        RegionOfInterest.Crop crop = testee.toCrop(FRAME_SIZE, 90);
+
+        // Then
+        assertCrop(10, 20, 190, 14, crop);
+    }
+
+    @Test
+    public void inFrame_OutsideOfFrame() throws Exception {
+        // Given
+        RegionOfInterest testee = RegionOfInterest.inFrame(300, 10, 400, 20);
+
+        // When
+        RegionOfInterest.Crop crop = testee.toCrop(FRAME_SIZE, 0);
+
+        // Then
+        assertTrue(crop.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mustNotBeEmpty() throws Exception {
+        // When
+        RegionOfInterest.relative(0.5f, 0f, 0.5f, 1f);
+
+        // Then
+        // Expect exception
+    }
+
+    static void assertCrop(int left, int top, int width, int height, RegionOfInterest.Crop crop) {
+        assertEquals(left, crop.left);
+        assertEquals(top, crop.top);
+        assertEquals(width, crop.width);
+        assertEquals(height, crop.height);
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.fotoapparat.preview;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class SharpnessMeterTest {
+
+    @Test
+    public void score_FlatImage() throws Exception {
+        // Given
+        byte[] luma = new byte[8 * 8];
+
+        // When
+        float score = SharpnessMeter.score(luma, 8, 8, 1);
+
+        // Then
+        assertEquals(0f, score);
+    }
+
+    @Test
+    public void score_SharpEdgeScoresHigherThanBlurredEdge() throws Exception {
+        // Given
+        byte[] sharp = new byte[8 * 8];
+        byte[] blurred = new byte[8 * 8];
+
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                sharp[y * 8 + x] = (byte) (x < 4 ? 0 : 200);
+                blurred[y * 8 + x] = (byte) Math.min(200, Math.max(0, (x - 1) * 40));
+            }
+        }
+
+        // When
+        float sharpScore = SharpnessMeter.score(sharp, 8, 8, 1);
+        float blurredScore = SharpnessMeter.score(blurred, 8, 8, 1);
+
+        // Then
+        assertTrue(sharpScore > blurredScore);
+    }
+
+    @Test
+    public void score_Checkerboard() throws Exception {
+        // Given
+        byte[] luma = new byte[3 * 3];
+
+        for (int i = 0; i < luma.length; i++) {
+            luma[i] = (byte) (i % 2 == 0 ? 0 : 10);
+        }
+
+        // When
+        float score = SharpnessMeter.score(luma, 3, 3, 1);
+
+        // Then
+        // Single sample, Laplacian of a single value has no variance
+        assertEquals(0f, score);
+    }
+
+    @Test
+    public void score_TooSmall() throws Exception {
+        // When
+        float score = SharpnessMeter.score(new byte[4], 2, 2, 1);
+
+        // Then
+        assertEquals(0f, score);
+    }
+
+}
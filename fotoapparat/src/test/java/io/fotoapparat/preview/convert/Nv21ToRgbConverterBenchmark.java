@@ -0,0 +1,133 @@
+package io.fotoapparat.preview.convert;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.Frame;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Measures throughput and allocations per frame of {@link Nv21ToRgbConverter} on common preview
+ * sizes, converting on a single thread and striped across all available cores.
+ */
+public class Nv21ToRgbConverterBenchmark {
+
+    static final Size[] SIZES = {
+            new Size(640, 480),
+            new Size(1280, 720),
+            new Size(1920, 1080),
+            new Size(3840, 2160)
+    };
+
+    static final int WARM_UP_FRAMES = 10;
+    static final int MEASURED_FRAMES = 20;
+
+    static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    @Test
+    public void argb_SingleThread() throws Exception {
+        runAllSizes(Output.ARGB, new Nv21ToRgbConverter());
+    }
+
+    @Test
+    public void argb_Striped() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CORES);
+
+        try {
+            runAllSizes(Output.ARGB, new Nv21ToRgbConverter(executor, CORES));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rgb565_SingleThread() throws Exception {
+        runAllSizes(Output.RGB_565, new Nv21ToRgbConverter());
+    }
+
+    @Test
+    public void rgb565_Striped() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CORES);
+
+        try {
+            runAllSizes(Output.RGB_565, new Nv21ToRgbConverter(executor, CORES));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void runAllSizes(Output output, Nv21ToRgbConverter converter) {
+        for (Size size : SIZES) {
+            Result result = run(output, converter, size);
+
+            assertEquals(0.0, result.allocationsPerFrame);
+        }
+    }
+
+    private static Result run(Output output, Nv21ToRgbConverter converter, Size size) {
+        byte[] image = new byte[size.width * size.height * 3 / 2];
+        new Random(42).nextBytes(image);
+        Frame frame = new Frame(size, image, 0);
+
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            output.convert(converter, frame);
+        }
+
+        long allocationsBefore = converter.getAllocationCount();
+        long startNanos = System.nanoTime();
+
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            output.convert(converter, frame);
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Result result = new Result(
+                (double) (converter.getAllocationCount() - allocationsBefore) / MEASURED_FRAMES,
+                elapsedNanos / MEASURED_FRAMES
+        );
+
+        System.out.println(String.format(Locale.US,
+                "%s %dx%d: %.3f ms/frame, %.2f allocations/frame",
+                output, size.width, size.height, result.nanosPerFrame / 1e6,
+                result.allocationsPerFrame));
+
+        return result;
+    }
+
+    private enum Output {
+
+        ARGB {
+            @Override
+            void convert(Nv21ToRgbConverter converter, Frame frame) {
+                converter.release(converter.toArgb(frame));
+            }
+        },
+
+        RGB_565 {
+            @Override
+            void convert(Nv21ToRgbConverter converter, Frame frame) {
+                converter.release(converter.toRgb565(frame));
+            }
+        };
+
+        abstract void convert(Nv21ToRgbConverter converter, Frame frame);
+    }
+
+    private static class Result {
+
+        final double allocationsPerFrame;
+        final long nanosPerFrame;
+
+        Result(double allocationsPerFrame, long nanosPerFrame) {
+            this.allocationsPerFrame = allocationsPerFrame;
+            this.nanosPerFrame = nanosPerFrame;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package io.fotoapparat.preview.convert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.Frame;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static org.junit.Assert.assertArrayEquals;
+
+public class Nv21ToRgbConverterTest {
+
+    Nv21ToRgbConverter testee;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new Nv21ToRgbConverter();
+    }
+
+    @Test
+    public void toArgb_BlackAndWhite() throws Exception {
+        // Given
+        Frame frame = uniformFrame(2, 2, 16, 128, 128);
+        Frame whiteFrame = uniformFrame(2, 2, 235, 128, 128);
+
+        // When
+        int[] black = testee.toArgb(frame);
+        int[] white = testee.toArgb(whiteFrame);
+
+        // Then
+        assertEquals(0xFF000000, black[0]);
+        assertEquals(0xFFFFFFFF, white[3]);
+    }
+
+    @Test
+    public void toArgb_PrimaryColors() throws Exception {
+        // When
+        int red = testee.toArgb(uniformFrame(2, 2, 81, 90, 240))[0];
+        int green = testee.toArgb(uniformFrame(2, 2, 145, 54, 34))[0];
+        int blue = testee.toArgb(uniformFrame(2, 2, 41, 240, 110))[0];
+
+        // Then
+        assertColor(255, 0, 0, red);
+        assertColor(0, 255, 0, green);
+        assertColor(0, 0, 255, blue);
+    }
+
+    @Test
+    public void toArgb_ChromaSharedBy2x2Block() throws Exception {
+        // Given
+        byte[] image = {
+                16, 16, (byte) 235, (byte) 235,
+                16, 16, (byte) 235, (byte) 235,
+                (byte) 128, (byte) 128, (byte) 128, (byte) 128
+        };
+
+        // When
+        int[] result = testee.toArgb(new Frame(new Size(4, 2), image, 0));
+
+        // Then
+        assertArrayEquals(
+                new int[]{
+                        0xFF000000, 0xFF000000, 0xFFFFFFFF, 0xFFFFFFFF,
+                        0xFF000000, 0xFF000000, 0xFFFFFFFF, 0xFFFFFFFF
+                },
+                result
+        );
+    }
+
+    @Test
+    public void toArgb_LumaOnlyFrameIsGray() throws Exception {
+        // Given
+        Frame frame = new Frame(new Size(2, 1), new byte[]{(byte) 126, (byte) 126}, 0);
+
+        // When
+        int[] result = testee.toArgb(frame);
+
+        // Then
+        assertColor(128, 128, 128, result[0]);
+    }
+
+    @Test
+    public void toArgb_OddSize() throws Exception {
+        // Given
+        Frame frame = uniformFrame(3, 3, 235, 128, 128);
+
+        // When
+        int[] result = testee.toArgb(frame);
+
+        // Then
+        assertEquals(9, result.length);
+        assertEquals(0xFFFFFFFF, result[8]);
+    }
+
+    @Test
+    public void toRgb565() throws Exception {
+        // When
+        short[] white = testee.toRgb565(uniformFrame(2, 2, 235, 128, 128));
+        short[] red = testee.toRgb565(uniformFrame(2, 2, 81, 90, 240));
+
+        // Then
+        assertEquals((short) 0xFFFF, white[0]);
+        assertEquals((short) 0xF800, red[0]);
+    }
+
+    @Test
+    public void striped_SameAsSequential() throws Exception {
+        // Given
+        Frame frame = randomFrame(64, 37);
+        Nv21ToRgbConverter stripedConverter = new Nv21ToRgbConverter(
+                Executors.newFixedThreadPool(3),
+                4
+        );
+
+        // When
+        int[] sequential = testee.toArgb(frame);
+        int[] striped = stripedConverter.toArgb(frame);
+
+        // Then
+        assertArrayEquals(sequential, striped);
+        assertArrayEquals(testee.toRgb565(frame), stripedConverter.toRgb565(frame));
+    }
+
+    @Test
+    public void reusesReleasedArrays() throws Exception {
+        // Given
+        Frame frame = uniformFrame(2, 2, 16, 128, 128);
+        int[] first = testee.toArgb(frame);
+        testee.release(first);
+
+        // When
+        int[] second = testee.toArgb(frame);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, testee.getAllocationCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outputTooSmall() throws Exception {
+        // When
+        testee.toArgb(uniformFrame(2, 2, 16, 128, 128), new int[3]);
+
+        // Then
+        // Expect exception
+    }
+
+    static Frame uniformFrame(int width, int height, int y, int u, int v) {
+        int lumaSize = width * height;
+        int chromaSize = 2 * ((width + 1) / 2) * ((height + 1) / 2);
+        byte[] image = new byte[lumaSize + chromaSize];
+
+        for (int i = 0; i < lumaSize; i++) {
+            image[i] = (byte) y;
+        }
+
+        for (int i = lumaSize; i < image.length; i += 2) {
+            image[i] = (byte) v;
+            image[i + 1] = (byte) u;
+        }
+
+        return new Frame(new Size(width, height), image, 0);
+    }
+
+    static Frame randomFrame(int width, int height) {
+        byte[] image = new byte[width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2)];
+        new Random(7).nextBytes(image);
+
+        return new Frame(new Size(width, height), image, 0);
+    }
+
+    static void assertColor(int red, int green, int blue, int argb) {
+        assertEquals(0xFF, argb >>> 24);
+        assertEquals(red, (argb >> 16) & 0xFF, 2);
+        assertEquals(green, (argb >> 8) & 0xFF, 2);
+        assertEquals(blue, argb & 0xFF, 2);
+    }
+
+}
@@ -0,0 +1,164 @@
+package io.fotoapparat.preview.record;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.preview.Frame;
+
+import static io.fotoapparat.preview.record.RecordingFormat.RECORD_HEADER_SIZE;
+import static java.util.Arrays.asList;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
+
+public class FrameRecorderTest {
+
+    static final Size FRAME_SIZE = new Size(2, 2);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = temporaryFolder.newFile();
+    }
+
+    @Test
+    public void recordsFrames() throws Exception {
+        // Given
+        FrameRecorder testee = FrameRecorder.create(file, 1024);
+
+        // When
+        testee.processFrame(frame(0, 100, 90));
+        testee.processFrame(frame(1, 200, 90));
+        testee.close();
+
+        // Then
+        List<Frame> frames = FrameRecording.read(file);
+
+        assertEquals(2, frames.size());
+        assertFrame(frame(0, 100, 90), frames.get(0));
+        assertFrame(frame(1, 200, 90), frames.get(1));
+        assertEquals(2, testee.getFramesRecorded());
+    }
+
+    @Test
+    public void overwritesOldestFrames() throws Exception {
+        // Given
+        int recordSize = RECORD_HEADER_SIZE + 6;
+        FrameRecorder testee = FrameRecorder.create(file, 3 * recordSize + 2);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            testee.processFrame(frame(i, i * 10, 0));
+        }
+        testee.close();
+
+        // Then
+        List<Frame> frames = FrameRecording.read(file);
+
+        assertEquals(3, frames.size());
+        assertEquals(
+                asList(2L, 3L, 4L),
+                asList(
+                        frames.get(0).sequenceNumber,
+                        frames.get(1).sequenceNumber,
+                        frames.get(2).sequenceNumber
+                )
+        );
+        assertEquals(5, testee.getFramesRecorded());
+    }
+
+    @Test
+    public void ignoresFramesLargerThanCapacity() throws Exception {
+        // Given
+        FrameRecorder testee = FrameRecorder.create(file, RECORD_HEADER_SIZE + 5);
+
+        // When
+        testee.processFrame(frame(0, 0, 0));
+        testee.close();
+
+        // Then
+        assertTrue(FrameRecording.read(file).isEmpty());
+        assertEquals(0, testee.getFramesRecorded());
+    }
+
+    @Test
+    public void ignoresFramesAfterClose() throws Exception {
+        // Given
+        FrameRecorder testee = FrameRecorder.create(file, 1024);
+        testee.processFrame(frame(0, 0, 0));
+
+        // When
+        testee.close();
+        testee.processFrame(frame(1, 0, 0));
+
+        // Then
+        assertEquals(1, FrameRecording.read(file).size());
+    }
+
+    @Test
+    public void ignoresFramesIfFileCanNotBeCreated() throws Exception {
+        // Given
+        FrameRecorder testee = FrameRecorder.create(temporaryFolder.getRoot(), 1024);
+
+        // When
+        testee.processFrame(frame(0, 0, 0));
+
+        // Then
+        assertEquals(0, testee.getFramesRecorded());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_InvalidCapacity() throws Exception {
+        // When
+        FrameRecorder.create(file, 0);
+
+        // Then
+        // Expect exception
+    }
+
+    @Test(expected = IOException.class)
+    public void read_NotRecording() throws Exception {
+        // Given
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[100]);
+        outputStream.close();
+
+        // When
+        FrameRecording.read(file);
+
+        // Then
+        // Expect exception
+    }
+
+    static Frame frame(long sequenceNumber, long timestampNanos, int rotation) {
+        byte value = (byte) sequenceNumber;
+
+        return new Frame(
+                FRAME_SIZE,
+                new byte[]{value, 1, 2, 3, 4, 5},
+                rotation,
+                sequenceNumber,
+                timestampNanos
+        );
+    }
+
+    static void assertFrame(Frame expected, Frame actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.sequenceNumber, actual.sequenceNumber);
+        assertEquals(expected.timestampNanos, actual.timestampNanos);
+        assertArrayEquals(expected.image, actual.image);
+    }
+
+}
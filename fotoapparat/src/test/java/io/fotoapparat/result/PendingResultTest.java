@@ -1,12 +1,19 @@
 package io.fotoapparat.result;
 
+import android.support.annotation.NonNull;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import io.fotoapparat.result.adapter.Adapter;
 import io.fotoapparat.result.transformer.Transformer;
@@ -14,6 +21,8 @@ import io.fotoapparat.test.ImmediateExecutor;
 
 import static io.fotoapparat.test.TestUtils.immediateFuture;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 
@@ -81,4 +90,75 @@ public class PendingResultTest {
                 result
         );
     }
-}
\ No newline at end of file
+
+    @Test(expected = TimeoutException.class)
+    public void await_Timeout() throws Exception {
+        // Given
+        PendingResult<String> pendingResult = new PendingResult<>(
+                new FutureTask<>(NEVER_CALLED),
+                new ImmediateExecutor()
+        );
+
+        // When
+        pendingResult.await(10, TimeUnit.MILLISECONDS);
+
+        // Then
+        // Expect exception
+    }
+
+    @Test
+    public void await_WithinTimeout() throws Exception {
+        // When
+        String result = testee.await(10, TimeUnit.MILLISECONDS);
+
+        // Then
+        assertEquals(RESULT, result);
+    }
+
+    @Test
+    public void cancel_PropagatesToSource() throws Exception {
+        // Given
+        FutureTask<String> sourceTask = new FutureTask<>(NEVER_CALLED);
+        PendingResult<String> source = new PendingResult<>(
+                sourceTask,
+                new DiscardingExecutor()
+        );
+        PendingResult<Integer> transformed = source.transform(transformer);
+
+        // When
+        boolean cancelled = transformed.cancel();
+
+        // Then
+        assertTrue(cancelled);
+        assertTrue(transformed.isCancelled());
+        assertTrue(source.isCancelled());
+        assertTrue(sourceTask.isCancelled());
+    }
+
+    @Test
+    public void cancel_AlreadyAvailable() throws Exception {
+        // When
+        boolean cancelled = testee.cancel();
+
+        // Then
+        assertFalse(cancelled);
+        assertFalse(testee.isCancelled());
+    }
+
+    static final Callable<String> NEVER_CALLED = new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    static class DiscardingExecutor implements Executor {
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            // Never runs the command
+        }
+
+    }
+
+}
@@ -4,12 +4,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.log.Loggers;
+import io.fotoapparat.preview.BackpressurePolicy;
 import io.fotoapparat.preview.FrameProcessor;
+import io.fotoapparat.preview.LatencyBudget;
 import io.fotoapparat.preview.PreviewStream;
 
 import static org.mockito.BDDMockito.given;
@@ -19,18 +21,29 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 @RunWith(MockitoJUnitRunner.class)
 public class ConfigurePreviewStreamRoutineTest {
 
+    static final LatencyBudget LATENCY_BUDGET = LatencyBudget.throttle(20, 3, Loggers.none());
+
     @Mock
     CameraDevice cameraDevice;
     @Mock
     PreviewStream previewStream;
     @Mock
     FrameProcessor frameProcessor;
+    @Mock
+    FrameProcessor captureFrameProcessor;
 
-    @InjectMocks
     ConfigurePreviewStreamRoutine testee;
 
     @Before
     public void setUp() throws Exception {
+        testee = new ConfigurePreviewStreamRoutine(
+                cameraDevice,
+                frameProcessor,
+                5,
+                BackpressurePolicy.dropOldest(2),
+                LATENCY_BUDGET
+        );
+
         given(cameraDevice.getPreviewStream())
                 .willReturn(previewStream);
     }
@@ -43,16 +56,45 @@ public class ConfigurePreviewStreamRoutineTest {
         // Then
         InOrder inOrder = inOrder(previewStream);
 
+        inOrder.verify(previewStream).setBufferCount(5);
+        inOrder.verify(previewStream).setBackpressurePolicy(BackpressurePolicy.dropOldest(2));
+        inOrder.verify(previewStream).setLatencyBudget(LATENCY_BUDGET);
         inOrder.verify(previewStream).addProcessor(frameProcessor);
         inOrder.verify(previewStream).start();
     }
 
+    @Test
+    public void configurePreview_CaptureFrameProcessor() throws Exception {
+        // Given
+        ConfigurePreviewStreamRoutine testee = new ConfigurePreviewStreamRoutine(
+                cameraDevice,
+                null,
+                captureFrameProcessor,
+                5,
+                BackpressurePolicy.dropOldest(2),
+                LATENCY_BUDGET
+        );
+
+        // When
+        testee.run();
+
+        // Then
+        InOrder inOrder = inOrder(previewStream);
+
+        inOrder.verify(previewStream).setBufferCount(5);
+        inOrder.verify(previewStream).addProcessor(captureFrameProcessor);
+        inOrder.verify(previewStream).start();
+    }
+
     @Test
     public void noFrameProcessor() throws Exception {
         // Given
         ConfigurePreviewStreamRoutine testee = new ConfigurePreviewStreamRoutine(
                 cameraDevice,
-                null
+                null,
+                5,
+                BackpressurePolicy.dropOldest(2),
+                LATENCY_BUDGET
         );
 
         // When
@@ -0,0 +1,69 @@
+package io.fotoapparat.routine;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.List;
+
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.preview.PreviewStream;
+import io.fotoapparat.preview.PreviewStreamStatistics;
+import io.fotoapparat.preview.ProcessorStatistics;
+
+import static java.util.Collections.singletonList;
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PreviewStatisticsRoutineTest {
+
+    static final PreviewStreamStatistics STATISTICS = new PreviewStreamStatistics(10, 7, 1, 2, 3);
+
+    @Mock
+    CameraDevice cameraDevice;
+    @Mock
+    PreviewStream previewStream;
+
+    @InjectMocks
+    PreviewStatisticsRoutine testee;
+
+    @Test
+    public void getStatistics() throws Exception {
+        // Given
+        given(cameraDevice.getPreviewStream())
+                .willReturn(previewStream);
+
+        given(previewStream.getStatistics())
+                .willReturn(STATISTICS);
+
+        // When
+        PreviewStreamStatistics result = testee.getStatistics();
+
+        // Then
+        assertEquals(STATISTICS, result);
+    }
+
+    @Test
+    public void getProcessorStatistics() throws Exception {
+        // Given
+        List<ProcessorStatistics> statistics = singletonList(
+                new ProcessorStatistics(null, 5, 0, 1, false, 10, 20, 30, 40)
+        );
+
+        given(cameraDevice.getPreviewStream())
+                .willReturn(previewStream);
+
+        given(previewStream.getProcessorStatistics())
+                .willReturn(statistics);
+
+        // When
+        List<ProcessorStatistics> result = testee.getProcessorStatistics();
+
+        // Then
+        assertEquals(statistics, result);
+    }
+
+}
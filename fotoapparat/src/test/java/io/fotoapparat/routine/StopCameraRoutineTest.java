@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.preview.FrameRing;
 
 import static org.mockito.Mockito.inOrder;
 
@@ -16,6 +17,8 @@ public class StopCameraRoutineTest {
 
     @Mock
     CameraDevice cameraDevice;
+    @Mock
+    FrameRing frameRing;
 
     @InjectMocks
     StopCameraRoutine testee;
@@ -26,9 +29,10 @@ public class StopCameraRoutineTest {
         testee.run();
 
         // Then
-        InOrder inOrder = inOrder(cameraDevice);
+        InOrder inOrder = inOrder(cameraDevice, frameRing);
 
         inOrder.verify(cameraDevice).stopPreview();
         inOrder.verify(cameraDevice).close();
+        inOrder.verify(frameRing).clear();
     }
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package io.fotoapparat.routine.focus;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -26,9 +26,13 @@ public class AutoFocusRoutineTest {
     @Spy
     Executor executor = new ImmediateExecutor();
 
-    @InjectMocks
     AutoFocusRoutine testee;
 
+    @Before
+    public void setUp() throws Exception {
+        testee = new AutoFocusRoutine(cameraDevice, executor, 1000);
+    }
+
     @Test
     public void autoFocus() throws Exception {
         // When
@@ -1,19 +1,33 @@
 package io.fotoapparat.routine.focus;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.lens.FocusResult;
 
 import static io.fotoapparat.result.FocusResult.FOCUSED;
 import static io.fotoapparat.result.FocusResult.UNABLE_TO_FOCUS;
+import static io.fotoapparat.test.TestUtils.callbackResult;
 import static io.fotoapparat.test.TestUtils.resultOf;
 import static org.junit.Assert.assertEquals;
-import static org.mockito.BDDMockito.given;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AutoFocusTaskTest {
@@ -21,14 +35,19 @@ public class AutoFocusTaskTest {
     @Mock
     CameraDevice cameraDevice;
 
-    @InjectMocks
     AutoFocusTask testee;
 
+    @Before
+    public void setUp() throws Exception {
+        testee = new AutoFocusTask(cameraDevice);
+    }
+
     @Test
     public void autoFocus_Focused() throws Exception {
         // Given
-        given(cameraDevice.autoFocus())
-                .willReturn(new FocusResult(true, false));
+        willAnswer(callbackResult(new FocusResult(true, false)))
+                .given(cameraDevice)
+                .autoFocus(any(CameraCallback.class));
 
         // When
         io.fotoapparat.result.FocusResult result = resultOf(testee);
@@ -40,14 +59,53 @@ public class AutoFocusTaskTest {
     @Test
     public void autoFocus_UnableToFocus() throws Exception {
         // Given
-        given(cameraDevice.autoFocus())
-                .willReturn(new FocusResult(false, false));
+        willAnswer(callbackResult(new FocusResult(false, false)))
+                .given(cameraDevice)
+                .autoFocus(any(CameraCallback.class));
 
         // When
         io.fotoapparat.result.FocusResult result = resultOf(testee);
 
         // Then
         assertEquals(result, UNABLE_TO_FOCUS);
+        verify(cameraDevice, never()).abortCapture();
+    }
+
+    @Test
+    public void timeout_FailsAndAbortsFocus() throws Exception {
+        // Given
+        testee = new AutoFocusTask(cameraDevice, null, 10);
+
+        // When
+        testee.run();
+
+        // Then
+        try {
+            testee.get(1, TimeUnit.SECONDS);
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CameraException);
+        }
+
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice, timeout(1000)).abortCapture();
+        inOrder.verify(cameraDevice, timeout(1000)).startPreview();
+    }
+
+    @Test
+    public void cancel_AbortsFocus() throws Exception {
+        // Given
+        testee.run();
+
+        // When
+        testee.cancelCapture();
+
+        // Then
+        assertTrue(testee.isCancelled());
+
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice).abortCapture();
+        inOrder.verify(cameraDevice).startPreview();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package io.fotoapparat.routine.picture;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.hardware.CameraException;
+import io.fotoapparat.hardware.operators.CaptureOperator;
+import io.fotoapparat.lens.FocusResult;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.test.ImmediateExecutor;
+
+import static io.fotoapparat.test.TestUtils.callbackResult;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BurstTaskTest {
+
+    static final Photo PHOTO_1 = new Photo(new byte[]{1}, 0);
+    static final Photo PHOTO_2 = new Photo(new byte[]{2}, 0);
+
+    @Mock
+    CameraDevice cameraDevice;
+
+    @Test
+    public void run_FocusesOnceThenCaptures() throws Exception {
+        // Given
+        givenFocusResult(FocusResult.successNoMeasurement());
+        givenBurstCaptures(PHOTO_1, PHOTO_2);
+
+        BurstTask testee = new BurstTask(cameraDevice, 2, 100);
+
+        // When
+        testee.run();
+
+        // Then
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice).autoFocus(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).takeBurst(eq(2), eq(100L), any(CaptureOperator.BurstListener.class));
+        inOrder.verify(cameraDevice).startPreview();
+
+        List<? extends Future<Photo>> photos = testee.getPhotos();
+        assertEquals(2, photos.size());
+        assertSame(PHOTO_1, photos.get(0).get());
+        assertSame(PHOTO_2, photos.get(1).get());
+    }
+
+    @Test
+    public void run_DeliversPhotosAsCaptured() throws Exception {
+        // Given
+        givenFocusResult(FocusResult.successNoMeasurement());
+
+        final BurstTask testee = new BurstTask(cameraDevice, 2, 0);
+        final boolean[] secondDoneDuringFirst = new boolean[1];
+
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                CaptureOperator.BurstListener listener = invocation.getArgument(2);
+
+                listener.onPhotoCaptured(PHOTO_1);
+                secondDoneDuringFirst[0] = testee.getPhotos().get(1).isDone();
+                assertTrue(testee.getPhotos().get(0).isDone());
+
+                listener.onPhotoCaptured(PHOTO_2);
+                listener.onBurstCompleted();
+                return null;
+            }
+        }).given(cameraDevice).takeBurst(anyInt(), anyLong(), any(CaptureOperator.BurstListener.class));
+
+        // When
+        testee.run();
+
+        // Then
+        assertFalse(secondDoneDuringFirst[0]);
+        assertSame(PHOTO_2, testee.getPhotos().get(1).get());
+    }
+
+    @Test
+    public void run_FocusFailed_RetriesFocusOnly() throws Exception {
+        // Given
+        givenFocusResult(new FocusResult(false, true));
+        givenExposureMeasured();
+        givenBurstCaptures(PHOTO_1, PHOTO_2);
+
+        BurstTask testee = new BurstTask(cameraDevice, 2, 0);
+
+        // When
+        testee.run();
+
+        // Then
+        verify(cameraDevice, times(3)).autoFocus(any(CameraCallback.class));
+        verify(cameraDevice).measureExposure(any(CameraCallback.class));
+        verify(cameraDevice).takeBurst(eq(2), eq(0L), any(CaptureOperator.BurstListener.class));
+    }
+
+    @Test
+    public void run_CaptureFailed_FailsRemainingPhotos() throws Exception {
+        // Given
+        givenFocusResult(FocusResult.successNoMeasurement());
+
+        final CameraException error = new CameraException("test");
+
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                CaptureOperator.BurstListener listener = invocation.getArgument(2);
+                listener.onPhotoCaptured(PHOTO_1);
+                listener.onBurstFailed(error);
+                return null;
+            }
+        }).given(cameraDevice).takeBurst(anyInt(), anyLong(), any(CaptureOperator.BurstListener.class));
+
+        BurstTask testee = new BurstTask(cameraDevice, 3, 0);
+
+        // When
+        testee.run();
+
+        // Then
+        verify(cameraDevice).startPreview();
+
+        List<? extends Future<Photo>> photos = testee.getPhotos();
+        assertSame(PHOTO_1, photos.get(0).get());
+        assertSame(error, failureOf(photos.get(1)));
+        assertSame(error, failureOf(photos.get(2)));
+    }
+
+    @Test
+    public void run_FewerPhotosCaptured_FailsRemainingPhotos() throws Exception {
+        // Given
+        givenFocusResult(FocusResult.successNoMeasurement());
+        givenBurstCaptures(PHOTO_1);
+
+        BurstTask testee = new BurstTask(cameraDevice, 2, 0);
+
+        // When
+        testee.run();
+
+        // Then
+        List<? extends Future<Photo>> photos = testee.getPhotos();
+        assertSame(PHOTO_1, photos.get(0).get());
+        assertTrue(failureOf(photos.get(1)) instanceof CameraException);
+    }
+
+    @Test
+    public void run_ReturnsBeforeBurstEnds() throws Exception {
+        // Given
+        givenFocusResult(FocusResult.successNoMeasurement());
+
+        BurstTask testee = new BurstTask(cameraDevice, 2, 0);
+
+        // When
+        testee.run();
+
+        // Then
+        ArgumentCaptor<CaptureOperator.BurstListener> listener =
+                ArgumentCaptor.forClass(CaptureOperator.BurstListener.class);
+        verify(cameraDevice).takeBurst(eq(2), eq(0L), listener.capture());
+        verify(cameraDevice, never()).startPreview();
+
+        listener.getValue().onPhotoCaptured(PHOTO_1);
+        listener.getValue().onPhotoCaptured(PHOTO_2);
+        listener.getValue().onBurstCompleted();
+
+        verify(cameraDevice).startPreview();
+        assertSame(PHOTO_2, testee.getPhotos().get(1).get());
+    }
+
+    @Test
+    public void timeout_AbortsStalledBurst() throws Exception {
+        // Given
+        givenFocusResult(FocusResult.successNoMeasurement());
+        givenBurstStalls();
+
+        BurstTask testee = new BurstTask(cameraDevice, 2, 0, new ImmediateExecutor(), 20);
+
+        // When
+        testee.run();
+
+        // Then
+        List<? extends Future<Photo>> photos = testee.getPhotos();
+        assertSame(PHOTO_1, photos.get(0).get());
+        assertTrue(failureOf(photos.get(1)).getMessage().contains("did not deliver"));
+
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice, timeout(1000)).abortCapture();
+        inOrder.verify(cameraDevice, timeout(1000)).startPreview();
+    }
+
+    @Test
+    public void cancel_AbortsRunningBurst() throws Exception {
+        // Given
+        givenFocusResult(FocusResult.successNoMeasurement());
+        givenBurstStalls();
+
+        BurstTask testee = new BurstTask(cameraDevice, 3, 0);
+        testee.run();
+
+        // When
+        boolean cancelled = testee.getPhotos().get(1).cancel(true);
+
+        // Then
+        assertTrue(cancelled);
+
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice).abortCapture();
+        inOrder.verify(cameraDevice).startPreview();
+
+        List<? extends Future<Photo>> photos = testee.getPhotos();
+        assertSame(PHOTO_1, photos.get(0).get());
+        assertTrue(photos.get(1).isCancelled());
+        assertTrue(photos.get(2).isCancelled());
+    }
+
+    @Test
+    public void cancel_BeforeRun_DoesNotUseCamera() throws Exception {
+        // Given
+        BurstTask testee = new BurstTask(cameraDevice, 2, 0);
+        testee.getPhotos().get(0).cancel(true);
+
+        // When
+        testee.run();
+
+        // Then
+        verifyZeroInteractions(cameraDevice);
+        assertTrue(testee.getPhotos().get(1).isCancelled());
+    }
+
+    private void givenFocusResult(FocusResult focusResult) {
+        willAnswer(callbackResult(focusResult))
+                .given(cameraDevice)
+                .autoFocus(any(CameraCallback.class));
+    }
+
+    private void givenExposureMeasured() {
+        willAnswer(callbackResult(null))
+                .given(cameraDevice)
+                .measureExposure(any(CameraCallback.class));
+    }
+
+    /**
+     * Burst delivers the first photo, then neither delivers more nor ends.
+     */
+    private void givenBurstStalls() {
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                CaptureOperator.BurstListener listener = invocation.getArgument(2);
+                listener.onPhotoCaptured(PHOTO_1);
+                return null;
+            }
+        }).given(cameraDevice).takeBurst(anyInt(), anyLong(), any(CaptureOperator.BurstListener.class));
+    }
+
+    private void givenBurstCaptures(final Photo... captured) {
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                CaptureOperator.BurstListener listener = invocation.getArgument(2);
+
+                for (Photo photo : captured) {
+                    listener.onPhotoCaptured(photo);
+                }
+
+                listener.onBurstCompleted();
+                return null;
+            }
+        }).given(cameraDevice).takeBurst(anyInt(), anyLong(), any(CaptureOperator.BurstListener.class));
+    }
+
+    private static Throwable failureOf(Future<Photo> photo) throws Exception {
+        try {
+            photo.get();
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+
+        fail("Photo did not fail");
+        return null;
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.fotoapparat.routine.picture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.result.PhotoResult;
+import io.fotoapparat.test.ImmediateExecutor;
+
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CaptureQueueTest {
+
+    static final Photo PHOTO = Photo.empty();
+
+    @Mock
+    CameraDevice cameraDevice;
+    @Mock
+    Runnable stopOperation;
+
+    CaptureQueue captureQueue;
+    TakePictureRoutine takePictureRoutine;
+
+    @Before
+    public void setUp() throws Exception {
+        captureQueue = new CaptureQueue(new ImmediateExecutor());
+        takePictureRoutine = new TakePictureRoutine(cameraDevice, captureQueue);
+    }
+
+    @Test
+    public void overlappingPictures_TakenOneAfterAnother() throws Exception {
+        // Given
+        takePictureRoutine.takePicture(false);
+
+        // When
+        takePictureRoutine.takePicture(false);
+
+        // Then
+        ArgumentCaptor<CameraCallback<Photo>> callback = pictureCallback();
+        verify(cameraDevice, times(1)).takePicture(callback.capture());
+
+        callback.getValue().onResult(PHOTO);
+
+        verify(cameraDevice, times(2)).takePicture(any(CameraCallback.class));
+    }
+
+    @Test
+    public void operationWaitsForPicture() throws Exception {
+        // Given
+        takePictureRoutine.takePicture(false);
+
+        // When
+        captureQueue.execute(stopOperation);
+
+        // Then
+        ArgumentCaptor<CameraCallback<Photo>> callback = pictureCallback();
+        verify(cameraDevice).takePicture(callback.capture());
+        verify(stopOperation, never()).run();
+
+        callback.getValue().onResult(PHOTO);
+
+        InOrder inOrder = inOrder(cameraDevice, stopOperation);
+        inOrder.verify(cameraDevice).startPreview();
+        inOrder.verify(stopOperation).run();
+    }
+
+    @Test
+    public void takePicture_ThenStop() throws Exception {
+        // Given
+        PhotoResult result = takePictureRoutine.takePicture(false);
+
+        // When
+        takePictureRoutine.cancelCaptures();
+        captureQueue.execute(stopOperation);
+
+        // Then
+        assertTrue(result.toPendingResult().isCancelled());
+
+        InOrder inOrder = inOrder(cameraDevice, stopOperation);
+        inOrder.verify(cameraDevice).takePicture(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).abortCapture();
+        inOrder.verify(cameraDevice).startPreview();
+        inOrder.verify(stopOperation).run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<CameraCallback<Photo>> pictureCallback() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(CameraCallback.class);
+    }
+}
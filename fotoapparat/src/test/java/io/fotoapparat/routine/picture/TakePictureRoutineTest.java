@@ -1,22 +1,31 @@
 package io.fotoapparat.routine.picture;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.hardware.operators.CaptureOperator;
+import io.fotoapparat.lens.FocusResult;
 import io.fotoapparat.result.PhotoResult;
 import io.fotoapparat.routine.picture.TakePictureRoutine;
 import io.fotoapparat.routine.picture.TakePictureTask;
 import io.fotoapparat.test.ImmediateExecutor;
 
+import static io.fotoapparat.test.TestUtils.callbackResult;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -27,9 +36,13 @@ public class TakePictureRoutineTest {
     @Spy
     Executor executor = new ImmediateExecutor();
 
-    @InjectMocks
     TakePictureRoutine testee;
 
+    @Before
+    public void setUp() throws Exception {
+        testee = new TakePictureRoutine(cameraDevice, executor, 1000);
+    }
+
     @Test
     public void takePicture_EmptyRequest() throws Exception {
         // When
@@ -41,4 +54,39 @@ public class TakePictureRoutineTest {
         assertNotNull(result);
     }
 
-}
\ No newline at end of file
+    @Test(expected = IllegalStateException.class)
+    public void takeSharpestPicture_WithoutZeroShutterLag() throws Exception {
+        // When
+        testee.takeSharpestPicture(500);
+
+        // Then
+        // Expect exception
+    }
+
+    @Test
+    public void takeBurst() throws Exception {
+        // Given
+        willAnswer(callbackResult(FocusResult.successNoMeasurement()))
+                .given(cameraDevice)
+                .autoFocus(any(CameraCallback.class));
+
+        // When
+        List<PhotoResult> results = testee.takeBurst(3, 50);
+
+        // Then
+        verify(executor).execute(isA(BurstTask.class));
+        verify(cameraDevice).takeBurst(eq(3), eq(50L), any(CaptureOperator.BurstListener.class));
+
+        assertEquals(3, results.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void takeBurst_NoPictures() throws Exception {
+        // When
+        testee.takeBurst(0);
+
+        // Then
+        // Expect exception
+    }
+
+}
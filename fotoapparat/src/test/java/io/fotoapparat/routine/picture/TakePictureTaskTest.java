@@ -1,25 +1,46 @@
 package io.fotoapparat.routine.picture;
 
+import android.support.annotation.NonNull;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import io.fotoapparat.hardware.CameraCallback;
 import io.fotoapparat.hardware.CameraDevice;
 import io.fotoapparat.hardware.CameraException;
 import io.fotoapparat.lens.FocusResult;
 import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.ExposureMeter;
+import io.fotoapparat.test.ImmediateExecutor;
 
+import static io.fotoapparat.test.TestUtils.callbackResult;
 import static io.fotoapparat.test.TestUtils.resultOf;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TakePictureTaskTest {
@@ -28,29 +49,30 @@ public class TakePictureTaskTest {
 
     @Mock
     CameraDevice cameraDevice;
+    @Mock
+    ExposureMeter exposureMeter;
 
-    @InjectMocks
     TakePictureTask testee;
 
     @Before
     public void setUp() throws Exception {
-        given(cameraDevice.takePicture())
-                .willReturn(PHOTO);
+        testee = new TakePictureTask(cameraDevice, true, new ImmediateExecutor());
     }
 
     @Test
     public void noFocusAfter3Attempts_takePicture() throws Exception {
         // Given
-        given(cameraDevice.autoFocus())
-                .willReturn(new FocusResult(false, true));
+        givenPhotoCaptured();
+        givenExposureMeasured();
+        givenFocusResult(new FocusResult(false, true));
 
         // When
         Photo result = resultOf(testee);
 
         // Then
         InOrder inOrder = inOrder(cameraDevice);
-        inOrder.verify(cameraDevice, times(3)).autoFocus();
-        inOrder.verify(cameraDevice).takePicture();
+        inOrder.verify(cameraDevice, times(3)).autoFocus(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).takePicture(any(CameraCallback.class));
         inOrder.verify(cameraDevice).startPreview();
 
         assertEquals(result, PHOTO);
@@ -59,45 +81,83 @@ public class TakePictureTaskTest {
     @Test
     public void exposureMeasurementRequired_takePhoto() throws Exception {
         // Given
-        given(cameraDevice.autoFocus())
-                .willReturn(new FocusResult(true, true));
+        givenPhotoCaptured();
+        givenExposureMeasured();
+        givenFocusResult(new FocusResult(true, true));
 
         // When
         Photo result = resultOf(testee);
 
         // Then
         InOrder inOrder = inOrder(cameraDevice);
-        inOrder.verify(cameraDevice).autoFocus();
-        inOrder.verify(cameraDevice).measureExposure();
-        inOrder.verify(cameraDevice).takePicture();
+        inOrder.verify(cameraDevice).autoFocus(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).measureExposure(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).takePicture(any(CameraCallback.class));
         inOrder.verify(cameraDevice).startPreview();
 
         assertEquals(result, PHOTO);
     }
 
+    @Test
+    public void poorlyExposedPreview_MeasuresExposure() throws Exception {
+        // Given
+        givenPhotoCaptured();
+        givenExposureMeasured();
+        givenFocusResult(new FocusResult(true, false));
+        given(exposureMeter.isPoorlyExposed())
+                .willReturn(true);
+
+        testee = new TakePictureTask(cameraDevice, true, new ImmediateExecutor(), 0, exposureMeter);
+
+        // When
+        Photo result = resultOf(testee);
+
+        // Then
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice).autoFocus(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).measureExposure(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).takePicture(any(CameraCallback.class));
+
+        assertEquals(result, PHOTO);
+    }
+
     @Test
     public void takePhoto() throws Exception {
         // Given
-        given(cameraDevice.autoFocus())
-                .willReturn(new FocusResult(true, false));
+        givenPhotoCaptured();
+        givenFocusResult(new FocusResult(true, false));
 
         // When
         Photo result = resultOf(testee);
 
         // Then
         InOrder inOrder = inOrder(cameraDevice);
-        inOrder.verify(cameraDevice).autoFocus();
-        inOrder.verify(cameraDevice).takePicture();
+        inOrder.verify(cameraDevice).autoFocus(any(CameraCallback.class));
+        inOrder.verify(cameraDevice).takePicture(any(CameraCallback.class));
         inOrder.verify(cameraDevice).startPreview();
 
         assertEquals(result, PHOTO);
     }
 
+    @Test
+    public void takePhoto_NoFocus() throws Exception {
+        // Given
+        givenPhotoCaptured();
+        testee = new TakePictureTask(cameraDevice, false, new ImmediateExecutor());
+
+        // When
+        Photo result = resultOf(testee);
+
+        // Then
+        verify(cameraDevice, never()).autoFocus(any(CameraCallback.class));
+        assertEquals(result, PHOTO);
+    }
+
     @Test
     public void startPreviewFailed() throws Exception {
         // Given
-        given(cameraDevice.autoFocus())
-                .willReturn(new FocusResult(true, false));
+        givenPhotoCaptured();
+        givenFocusResult(new FocusResult(true, false));
 
         doThrow(new CameraException("test"))
                 .when(cameraDevice)
@@ -112,4 +172,160 @@ public class TakePictureTaskTest {
         assertEquals(result, PHOTO);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void captureFailed() throws Exception {
+        // Given
+        testee = new TakePictureTask(cameraDevice, false, new ImmediateExecutor());
+
+        CameraException error = new CameraException("test");
+        ArgumentCaptor<CameraCallback> callback = ArgumentCaptor.forClass(CameraCallback.class);
+
+        // When
+        testee.run();
+
+        verify(cameraDevice).takePicture(callback.capture());
+        callback.getValue().onFailure(error);
+
+        // Then
+        verify(cameraDevice).startPreview();
+
+        try {
+            testee.get();
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            assertSame(error, e.getCause());
+        }
+    }
+
+    @Test
+    public void continuesOnCameraExecutor() throws Exception {
+        // Given
+        givenPhotoCaptured();
+        DeferredExecutor cameraExecutor = new DeferredExecutor();
+        testee = new TakePictureTask(cameraDevice, true, cameraExecutor);
+
+        givenFocusResult(new FocusResult(true, false));
+
+        // When
+        testee.run();
+
+        // Then
+        verify(cameraDevice).autoFocus(any(CameraCallback.class));
+        verify(cameraDevice, never()).takePicture(any(CameraCallback.class));
+        assertFalse(testee.isDone());
+
+        cameraExecutor.runNext();
+        verify(cameraDevice).takePicture(any(CameraCallback.class));
+        assertFalse(testee.isDone());
+
+        cameraExecutor.runNext();
+        assertEquals(PHOTO, testee.get());
+    }
+
+    @Test
+    public void cancelled_StopsBeforeNextStep() throws Exception {
+        // Given
+        DeferredExecutor cameraExecutor = new DeferredExecutor();
+        testee = new TakePictureTask(cameraDevice, true, cameraExecutor);
+
+        givenFocusResult(new FocusResult(true, false));
+
+        testee.run();
+
+        // When
+        testee.cancel(false);
+        cameraExecutor.runAll();
+
+        // Then
+        verify(cameraDevice, never()).takePicture(any(CameraCallback.class));
+        assertTrue(testee.isCancelled());
+    }
+
+    @Test
+    public void timeout_FailsAndAbortsCapture() throws Exception {
+        // Given
+        testee = new TakePictureTask(cameraDevice, true, new ImmediateExecutor(), 10);
+
+        // When
+        testee.run();
+
+        // Then
+        try {
+            testee.get(1, TimeUnit.SECONDS);
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CameraException);
+        }
+
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice, timeout(1000)).abortCapture();
+        inOrder.verify(cameraDevice, timeout(1000)).startPreview();
+        verify(cameraDevice, never()).takePicture(any(CameraCallback.class));
+    }
+
+    @Test
+    public void cancel_AbortsCapture() throws Exception {
+        // Given
+        testee.run();
+
+        // When
+        boolean cancelled = testee.cancel(true);
+
+        // Then
+        assertTrue(cancelled);
+
+        InOrder inOrder = inOrder(cameraDevice);
+        inOrder.verify(cameraDevice).abortCapture();
+        inOrder.verify(cameraDevice).startPreview();
+    }
+
+    @Test
+    public void cancel_NotStarted() throws Exception {
+        // When
+        testee.cancel(true);
+        testee.run();
+
+        // Then
+        verifyZeroInteractions(cameraDevice);
+    }
+
+    private void givenPhotoCaptured() {
+        willAnswer(callbackResult(PHOTO))
+                .given(cameraDevice)
+                .takePicture(any(CameraCallback.class));
+    }
+
+    private void givenExposureMeasured() {
+        willAnswer(callbackResult(null))
+                .given(cameraDevice)
+                .measureExposure(any(CameraCallback.class));
+    }
+
+    private void givenFocusResult(FocusResult focusResult) {
+        willAnswer(callbackResult(focusResult))
+                .given(cameraDevice)
+                .autoFocus(any(CameraCallback.class));
+    }
+
+    static class DeferredExecutor implements Executor {
+
+        final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            commands.add(command);
+        }
+
+        void runNext() {
+            commands.remove(0).run();
+        }
+
+        void runAll() {
+            while (!commands.isEmpty()) {
+                commands.remove(0).run();
+            }
+        }
+
+    }
+
+}
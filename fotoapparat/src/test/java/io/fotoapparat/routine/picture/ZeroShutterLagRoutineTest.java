@@ -0,0 +1,184 @@
+package io.fotoapparat.routine.picture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Random;
+
+import io.fotoapparat.hardware.CameraCallback;
+import io.fotoapparat.hardware.CameraDevice;
+import io.fotoapparat.lens.FocusResult;
+import io.fotoapparat.parameter.Size;
+import io.fotoapparat.photo.Photo;
+import io.fotoapparat.preview.Frame;
+import io.fotoapparat.preview.FrameRing;
+import io.fotoapparat.test.ImmediateExecutor;
+
+import static io.fotoapparat.test.TestUtils.callbackResult;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ZeroShutterLagRoutineTest {
+
+    static final Photo PHOTO = new Photo(new byte[]{1, 2, 3}, 90);
+
+    @Mock
+    CameraDevice cameraDevice;
+    @Mock
+    FrameEncoder frameEncoder;
+
+    FrameRing frameRing;
+    ZeroShutterLagRoutine testee;
+
+    @Before
+    public void setUp() throws Exception {
+        frameRing = new FrameRing(2);
+        testee = new ZeroShutterLagRoutine(
+                cameraDevice,
+                new ImmediateExecutor(),
+                frameRing,
+                frameEncoder,
+                new ImmediateExecutor()
+        );
+    }
+
+    @Test
+    public void takePicture_EncodesRecentFrame() throws Exception {
+        // Given
+        frameRing.processFrame(new Frame(new Size(1, 1), new byte[]{7}, 90, 0, System.nanoTime()));
+
+        given(frameEncoder.encode(any(Frame.class)))
+                .willReturn(PHOTO);
+
+        // When
+        Photo result = testee.takePicture().toPendingResult().await();
+
+        // Then
+        assertEquals(PHOTO, result);
+        verifyZeroInteractions(cameraDevice);
+    }
+
+    @Test
+    public void takePicture_CancelledBeforeEncoding_ReleasesFrame() throws Exception {
+        // Given
+        TakePictureTaskTest.DeferredExecutor encodingExecutor =
+                new TakePictureTaskTest.DeferredExecutor();
+        testee = new ZeroShutterLagRoutine(
+                cameraDevice,
+                new ImmediateExecutor(),
+                frameRing,
+                frameEncoder,
+                encodingExecutor
+        );
+
+        frameRing.processFrame(new Frame(new Size(1, 1), new byte[]{7}, 90, 0, System.nanoTime()));
+
+        Frame ringFrame = frameRing.acquireClosest(System.nanoTime());
+        ringFrame.release();
+
+        // When
+        testee.takePicture().toPendingResult().cancel();
+        encodingExecutor.runAll();
+        frameRing.clear();
+
+        // Then
+        verify(frameEncoder, never()).encode(any(Frame.class));
+
+        try {
+            ringFrame.acquire();
+            fail("Frame was not released");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void takeSharpestPicture_EncodesSharpestFrame() throws Exception {
+        // Given
+        long now = System.nanoTime();
+        byte[] noise = new byte[12 * 12];
+        new Random(42).nextBytes(noise);
+
+        frameRing.processFrame(new Frame(new Size(12, 12), new byte[12 * 12], 0, 0, now));
+        frameRing.processFrame(new Frame(new Size(12, 12), noise, 0, 1, now));
+
+        given(frameEncoder.encode(any(Frame.class)))
+                .willReturn(PHOTO);
+
+        // When
+        Photo result = testee.takeSharpestPicture(1000).toPendingResult().await();
+
+        // Then
+        assertEquals(PHOTO, result);
+        verify(frameEncoder).encode(argThat(new ArgumentMatcher<Frame>() {
+            @Override
+            public boolean matches(Frame frame) {
+                return frame.sequenceNumber == 1;
+            }
+        }));
+    }
+
+    @Test
+    public void takeSharpestPicture_NoRecentFrame() throws Exception {
+        // Given
+        willAnswer(callbackResult(PHOTO))
+                .given(cameraDevice)
+                .takePicture(any(CameraCallback.class));
+
+        willAnswer(callbackResult(FocusResult.successNoMeasurement()))
+                .given(cameraDevice)
+                .autoFocus(any(CameraCallback.class));
+
+        // When
+        Photo result = testee.takeSharpestPicture(1000).toPendingResult().await();
+
+        // Then
+        assertEquals(PHOTO, result);
+        verify(cameraDevice).autoFocus(any(CameraCallback.class));
+    }
+
+    @Test
+    public void takePicture_FrameStampedWithSensorClock() throws Exception {
+        // Given
+        frameRing.processFrame(new Frame(new Size(1, 1), new byte[]{7}, 90, 0,
+                System.nanoTime() - 10000000000L));
+
+        given(frameEncoder.encode(any(Frame.class)))
+                .willReturn(PHOTO);
+
+        // When
+        Photo result = testee.takePicture(false).toPendingResult().await();
+
+        // Then
+        assertEquals(PHOTO, result);
+        verifyZeroInteractions(cameraDevice);
+    }
+
+    @Test
+    public void takePicture_NoRecentFrame() throws Exception {
+        // Given
+        willAnswer(callbackResult(PHOTO))
+                .given(cameraDevice)
+                .takePicture(any(CameraCallback.class));
+
+        // When
+        Photo result = testee.takePicture(false).toPendingResult().await();
+
+        // Then
+        assertEquals(PHOTO, result);
+        verify(frameEncoder, never()).encode(any(Frame.class));
+    }
+
+}
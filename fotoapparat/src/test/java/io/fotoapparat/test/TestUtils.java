@@ -2,6 +2,9 @@ package io.fotoapparat.test;
 
 import android.support.annotation.NonNull;
 
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -10,6 +13,8 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import io.fotoapparat.hardware.CameraCallback;
+
 import static java.util.Arrays.asList;
 
 /**
@@ -64,4 +69,23 @@ public class TestUtils {
         return new HashSet<>(asList(items));
     }
 
+    /**
+     * @return {@link Answer} which passes given result to the {@link CameraCallback} argument of
+     * the invocation, like a camera completing an asynchronous operation.
+     */
+    public static <T> Answer<Void> callbackResult(final T result) {
+        return new Answer<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                for (Object argument : invocation.getArguments()) {
+                    if (argument instanceof CameraCallback) {
+                        ((CameraCallback<T>) argument).onResult(result);
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
 }
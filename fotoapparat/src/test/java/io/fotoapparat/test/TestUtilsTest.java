@@ -1,6 +1,7 @@
 package io.fotoapparat.test;
 
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -8,7 +9,11 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 
+import io.fotoapparat.hardware.BlockingCallback;
+
 import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 public class TestUtilsTest {
 
@@ -67,4 +72,26 @@ public class TestUtilsTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void callbackResult() throws Throwable {
+        // Given
+        BlockingCallback<String> callback = new BlockingCallback<>();
+
+        // When
+        TestUtils.callbackResult("Result").answer(invocationWith(callback));
+
+        // Then
+        assertEquals(
+                "Result",
+                callback.await()
+        );
+    }
+
+    private static InvocationOnMock invocationWith(Object argument) {
+        InvocationOnMock invocation = mock(InvocationOnMock.class);
+        given(invocation.getArguments()).willReturn(new Object[]{argument});
+
+        return invocation;
+    }
+
+}